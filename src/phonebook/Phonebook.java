@@ -1,6 +1,14 @@
 package phonebook;
 
 import phonebook.hashes.*;
+import phonebook.utils.KVPair;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * <p>{@link Phonebook} is an abstraction over phonebooks: databases of &lt; Full Name,
@@ -26,10 +34,16 @@ import phonebook.hashes.*;
  * @see LinearProbingHashTable
  * @see QuadraticProbingHashTable
  */
-public class Phonebook {
+public class Phonebook implements Closeable {
 
-    private HashTable namesToNumbers ;
-    private HashTable numbersToNames ;
+    /** The hash table searched by {@link #getNumberOf(String)}, with names as keys. */
+    protected HashTable namesToNumbers ;
+    /** The hash table searched by {@link #getOwnerOf(String)}, with numbers as keys. */
+    protected HashTable numbersToNames ;
+    private boolean readOnly; // Snapshots and frozen copies cannot be changed.
+    private LongKeyHashTable numbersAsLongs; // numbersToNames, if its keys are encoded phone numbers.
+    private BidirectionalIndex index; // Viewed by both namesToNumbers and numbersToNames, if they share their entries.
+    private boolean normalizedNumbers; // Whether the keys of a frozen numbersToNames are numbers decoded from LONG_KEYS.
 
 
     /**
@@ -43,19 +57,82 @@ public class Phonebook {
      * @see CollisionResolver
      */
     public Phonebook(CollisionResolver namesToNumbersHash, CollisionResolver numbersToNamesHash) {
+        this(namesToNumbersHash, numbersToNamesHash, 0);
+    }
+
+    /**
+     * Instantiates a new {@link Phonebook} which is expected to hold expectedSize entries. Both hash tables allocate room
+     * for that many entries up front, so that loading them, e.g through {@link #addAll(Iterable)}, never resizes a table.
+     * {@link CollisionResolver#PERSISTENT_TRIE} tables have no capacity and ignore expectedSize. Linear, Ordered Linear and
+     * Quadratic Probing tables, which never shrink on their own, are given {@link LoadFactorPolicy#DEFAULT}, so that every
+     * table shrinks back as entries are deleted.
+     *
+     * @param namesToNumbersHash A {@link CollisionResolver} that will govern which subtype of {@link HashTable} will be used to
+     *                           create our hash table with <b>peoples' names</b> as keys.
+     * @param numbersToNamesHash A {@link CollisionResolver} that will govern which subtype of {@link HashTable} will be used to
+     *                           create our hash table with <b>phone numbers</b> as keys.
+     * @param expectedSize The number of entries the {@link Phonebook} is expected to hold.
+     * @throws IllegalArgumentException if expectedSize is negative, namesToNumbersHash is
+     * {@link CollisionResolver#LONG_KEYS}, or only one of the arguments is {@link CollisionResolver#BIDIRECTIONAL}.
+     * @see CollisionResolver
+     */
+    public Phonebook(CollisionResolver namesToNumbersHash, CollisionResolver numbersToNamesHash, int expectedSize) {
+        if(expectedSize < 0)
+            throw new IllegalArgumentException("Provided: expectedSize=" + expectedSize);
 
         switch(namesToNumbersHash){
             case SEPARATE_CHAINING:
-                namesToNumbers = new SeparateChainingHashTable();
+                namesToNumbers = new SeparateChainingHashTable(CapacityPolicy.PRIME, expectedSize);
                 break;
             case LINEAR_PROBING:
-                namesToNumbers = new LinearProbingHashTable(false);
+                namesToNumbers = shrinking(new LinearProbingHashTable(false, CapacityPolicy.PRIME, expectedSize));
                 break;
             case ORDERED_LINEAR_PROBING:
-                namesToNumbers = new OrderedLinearProbingHashTable(false);
+                namesToNumbers = shrinking(new OrderedLinearProbingHashTable(false, CapacityPolicy.PRIME, expectedSize));
                 break;
             case QUADRATIC_PROBING:
-                namesToNumbers = new QuadraticProbingHashTable(false);
+                namesToNumbers = shrinking(new QuadraticProbingHashTable(false, expectedSize));
+                break;
+            case ROBIN_HOOD:
+                namesToNumbers = new RobinHoodHashTable(false, CapacityPolicy.PRIME, expectedSize);
+                break;
+            case CUCKOO:
+                namesToNumbers = new CuckooHashTable(expectedSize);
+                break;
+            case HOPSCOTCH:
+                namesToNumbers = new HopscotchHashTable(false, CapacityPolicy.PRIME, expectedSize);
+                break;
+            case CONTROL_BYTE_PROBING:
+                namesToNumbers = new ControlByteHashTable(false, expectedSize);
+                break;
+            case INCREMENTAL_LINEAR_PROBING:
+                namesToNumbers = new IncrementalLinearProbingHashTable(false, CapacityPolicy.PRIME, expectedSize);
+                break;
+            case CONCURRENT_SEPARATE_CHAINING:
+                namesToNumbers = new ConcurrentSeparateChainingHashTable(expectedSize);
+                break;
+            case LOCK_FREE_LINEAR_PROBING:
+                namesToNumbers = new LockFreeLinearProbingHashTable(expectedSize);
+                break;
+            case PERSISTENT_TRIE:
+                namesToNumbers = new PersistentHashTable();
+                break;
+            case STRUCT_OF_ARRAYS:
+                namesToNumbers = new StructOfArraysHashTable(false, CapacityPolicy.PRIME, expectedSize);
+                break;
+            case OFF_HEAP:
+                namesToNumbers = new OffHeapHashTable(false, CapacityPolicy.PRIME, expectedSize);
+                break;
+            case BYTE_ARENA:
+                namesToNumbers = new ByteArenaHashTable(false, CapacityPolicy.PRIME, expectedSize);
+                break;
+            case LONG_KEYS:
+                throw new IllegalArgumentException(namesToNumbersHash + " tables can only have phone numbers as keys.");
+            case BIDIRECTIONAL:
+                if(numbersToNamesHash != CollisionResolver.BIDIRECTIONAL)
+                    throw new IllegalArgumentException(namesToNumbersHash + " indices have to be used in both directions.");
+                index = new BidirectionalIndex(CapacityPolicy.PRIME, expectedSize);
+                namesToNumbers = index.byName();
                 break;
             default:
                 throw new RuntimeException("Encountered unsupported CollisionResolver argument: " + namesToNumbersHash  + "." );
@@ -63,22 +140,93 @@ public class Phonebook {
 
         switch(numbersToNamesHash){
             case SEPARATE_CHAINING:
-                numbersToNames = new SeparateChainingHashTable();
+                numbersToNames = new SeparateChainingHashTable(CapacityPolicy.PRIME, expectedSize);
                 break;
             case LINEAR_PROBING:
-                numbersToNames = new LinearProbingHashTable(false);
+                numbersToNames = shrinking(new LinearProbingHashTable(false, CapacityPolicy.PRIME, expectedSize));
                 break;
             case ORDERED_LINEAR_PROBING:
-                numbersToNames = new OrderedLinearProbingHashTable(false);
+                numbersToNames = shrinking(new OrderedLinearProbingHashTable(false, CapacityPolicy.PRIME, expectedSize));
                 break;
             case QUADRATIC_PROBING:
-                numbersToNames = new QuadraticProbingHashTable(false);
+                numbersToNames = shrinking(new QuadraticProbingHashTable(false, expectedSize));
+                break;
+            case ROBIN_HOOD:
+                numbersToNames = new RobinHoodHashTable(false, CapacityPolicy.PRIME, expectedSize);
+                break;
+            case CUCKOO:
+                numbersToNames = new CuckooHashTable(expectedSize);
+                break;
+            case HOPSCOTCH:
+                numbersToNames = new HopscotchHashTable(false, CapacityPolicy.PRIME, expectedSize);
+                break;
+            case CONTROL_BYTE_PROBING:
+                numbersToNames = new ControlByteHashTable(false, expectedSize);
+                break;
+            case INCREMENTAL_LINEAR_PROBING:
+                numbersToNames = new IncrementalLinearProbingHashTable(false, CapacityPolicy.PRIME, expectedSize);
+                break;
+            case CONCURRENT_SEPARATE_CHAINING:
+                numbersToNames = new ConcurrentSeparateChainingHashTable(expectedSize);
+                break;
+            case LOCK_FREE_LINEAR_PROBING:
+                numbersToNames = new LockFreeLinearProbingHashTable(expectedSize);
+                break;
+            case PERSISTENT_TRIE:
+                numbersToNames = new PersistentHashTable();
+                break;
+            case STRUCT_OF_ARRAYS:
+                numbersToNames = new StructOfArraysHashTable(false, CapacityPolicy.PRIME, expectedSize);
+                break;
+            case OFF_HEAP:
+                numbersToNames = new OffHeapHashTable(false, CapacityPolicy.PRIME, expectedSize);
+                break;
+            case BYTE_ARENA:
+                numbersToNames = new ByteArenaHashTable(false, CapacityPolicy.PRIME, expectedSize);
+                break;
+            case LONG_KEYS:
+                numbersAsLongs = new LongKeyHashTable(CapacityPolicy.PRIME, expectedSize);
+                numbersToNames = numbersAsLongs;
+                break;
+            case BIDIRECTIONAL:
+                if(index == null)
+                    throw new IllegalArgumentException(numbersToNamesHash + " indices have to be used in both directions.");
+                numbersToNames = index.byNumber();
                 break;
             default:
                 throw new RuntimeException("Encountered unsupported Collision Resolver " + numbersToNamesHash + ".");
         }
     }
 
+    // Used by snapshot(), freeze() and open().
+    private Phonebook(HashTable namesToNumbers, HashTable numbersToNames, boolean readOnly) {
+        this.namesToNumbers = namesToNumbers;
+        this.numbersToNames = numbersToNames;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Opens the {@link Phonebook} stored in directory, or creates an empty one if there is none. The two hash tables are
+     * {@link MappedHashTable}s, each one in a file of its own, which are searched and updated directly through a memory
+     * mapping. Opening an existing {@link Phonebook} therefore takes <em>constant time</em>, no matter how many entries
+     * it holds. Call {@link #close()} to make sure that all updates have reached the disk.
+     *
+     * @param directory The directory that holds the files of the {@link Phonebook}. It is created if it does not exist.
+     * @return A {@link Phonebook} backed by the files in directory.
+     * @throws IOException if the files cannot be opened or created.
+     * @see MappedHashTable
+     */
+    public static Phonebook open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        MappedHashTable names = new MappedHashTable(directory.resolve("namesToNumbers.phb"));
+        try {
+            return new Phonebook(names, new MappedHashTable(directory.resolve("numbersToNames.phb")), false);
+        } catch (IOException | RuntimeException e) {
+            names.close();
+            throw e;
+        }
+    }
+
     /** Retrieves the phone number associated with the provided full name. If the name is not in the database,
      * this method returns {@code null}.
      * @param name The full name of the owner of the phone number that is being searched for.
@@ -96,33 +244,196 @@ public class Phonebook {
      * is not in the {@link Phonebook}.
      */
     public String getOwnerOf(String number) {
+        if (numbersAsLongs != null)
+            return numbersAsLongs.get(LongKeyHashTable.encode(number));
+        if (normalizedNumbers)
+            number = normalize(number);
         return (number == null) ? null : numbersToNames.get(number).getValue();
     }
 
+    /** Retrieves the phone numbers associated with a batch of full names. The lookups are handed to the hash table all
+     * at once, so that it can overlap their memory accesses instead of making them one by one.
+     * @param names The full names whose phone numbers are being searched for.
+     * @return An array whose i-th cell is the phone number of names[i], or {@code null} if names[i] is {@code null}
+     * or not in the {@link Phonebook}.
+     * @throws IllegalArgumentException if names is {@code null}.
+     * @see HashTable#getAll(String[])
+     */
+    public String[] getNumbersOf(String[] names) {
+        if (names == null)
+            throw new IllegalArgumentException("Provided: names=null");
+        return namesToNumbers.getAll(names);
+    }
+
+    /** Retrieves the full names of the owners of a batch of phone numbers. The lookups are handed to the hash table all
+     * at once, so that it can overlap their memory accesses instead of making them one by one.
+     * @param numbers The phone numbers whose owners are being searched for.
+     * @return An array whose i-th cell is the owner of numbers[i], or {@code null} if numbers[i] is {@code null}
+     * or not in the {@link Phonebook}.
+     * @throws IllegalArgumentException if numbers is {@code null}.
+     * @see HashTable#getAll(String[])
+     */
+    public String[] getOwnersOf(String[] numbers) {
+        if (numbers == null)
+            throw new IllegalArgumentException("Provided: numbers=null");
+        if (normalizedNumbers) {
+            String[] normalized = new String[numbers.length];
+            for (int i = 0; i < numbers.length; i++)
+                normalized[i] = normalize(numbers[i]);
+            numbers = normalized;
+        }
+        return numbersToNames.getAll(numbers);
+    }
+
+    // Lets a table of the writeup, which never shrinks on its own, shrink like the other tables as entries are removed.
+    private static HashTable shrinking(OpenAddressingHashTable table) {
+        table.setLoadFactorPolicy(LoadFactorPolicy.DEFAULT);
+        return table;
+    }
+
+    // The number as a CollisionResolver.LONG_KEYS table iterates over it, or null if it is not a phone number.
+    private static String normalize(String number) {
+        long key = LongKeyHashTable.encode(number);
+        return key == LongKeyHashTable.NOT_A_NUMBER ? null : LongKeyHashTable.decode(key);
+    }
+
+    // The key of number in a CollisionResolver.LONG_KEYS table.
+    private static long checkNumber(String number) {
+        long key = LongKeyHashTable.encode(number);
+        if(key == LongKeyHashTable.NOT_A_NUMBER)
+            throw new IllegalArgumentException("Provided: number=" + number + ", which is not a phone number");
+        return key;
+    }
+
     /** Adds the tuple &lt; name, number &gt; in the {@link Phonebook}. If either name or
-     * number are already in the collection, then the entire entry is <b>updated</b>.
+     * number are already in the collection, then the entire entry is <b>updated</b>. A {@link Phonebook} whose entries
+     * are kept in a {@link CollisionResolver#BIDIRECTIONAL} index does so in a single operation.
      * @param name The full name of the number's owner.
      * @param number The phone number of the person.
-     * @throws IllegalArgumentException if either name or number is {@code null}.
+     * @throws IllegalArgumentException if either name or number is {@code null}, or number is not a phone number and
+     * the numbers are kept in a {@link CollisionResolver#LONG_KEYS} table.
+     * @throws UnsupportedOperationException if this {@link Phonebook} is read-only, i.e a snapshot or frozen.
      */
     public void addEntry(String name, String number) {
         if(name == null || number == null)
             throw new IllegalArgumentException("Provided: name=" + name + " and number= " + number);
+        if(readOnly)
+            throw new UnsupportedOperationException("Cannot add entries to a read-only Phonebook.");
+        if(index != null) {
+            index.put(name, number);
+            return;
+        }
+        if(numbersAsLongs != null) {
+            long key = checkNumber(number);
+            namesToNumbers.put(name, number);
+            numbersAsLongs.put(key, name);
+            return;
+        }
         namesToNumbers.put(name, number);
         numbersToNames.put(number, name);
     }
 
+    /** Adds every &lt; name, number &gt; tuple of entries, given as {@link KVPair}s with the name as the key, in the
+     * {@link Phonebook}, exactly as if by calling {@link #addEntry(String, String)} on each of them in order. The entries
+     * are handed to the hash tables in bulk. {@link CollisionResolver#SEPARATE_CHAINING},
+     * {@link CollisionResolver#LINEAR_PROBING}, {@link CollisionResolver#ORDERED_LINEAR_PROBING},
+     * {@link CollisionResolver#QUADRATIC_PROBING}, {@link CollisionResolver#ROBIN_HOOD} and
+     * {@link CollisionResolver#STRUCT_OF_ARRAYS} tables grow at most once to fit all of them and skip the bookkeeping of
+     * individual insertions; the other tables add them one by one. No entry is added if any of them is {@code null}.
+     * @param entries The entries to add.
+     * @throws IllegalArgumentException if entries, or the name or number of any entry, is {@code null}, or the number of any
+     * entry is not a phone number and the numbers are kept in a {@link CollisionResolver#LONG_KEYS} table.
+     * @throws UnsupportedOperationException if this {@link Phonebook} is read-only, i.e a snapshot or frozen.
+     * @see HashTable#putAll(Iterable)
+     */
+    public void addAll(Iterable<KVPair> entries) {
+        if(entries == null)
+            throw new IllegalArgumentException("Provided: entries=null");
+        if(readOnly)
+            throw new UnsupportedOperationException("Cannot add entries to a read-only Phonebook.");
+        List<KVPair> byName = new ArrayList<>(), byNumber = new ArrayList<>();
+        for(KVPair entry : entries) {
+            if(entry == null)
+                throw new IllegalArgumentException("Provided: entry=null");
+            if(entry.getKey() == null || entry.getValue() == null)
+                throw new IllegalArgumentException("Provided: name=" + entry.getKey() + " and number= " + entry.getValue());
+            byName.add(entry);
+            if(numbersAsLongs == null && index == null)
+                byNumber.add(new KVPair(entry.getValue(), entry.getKey()));
+        }
+        if(index != null) {
+            for(KVPair entry : byName)
+                index.put(entry.getKey(), entry.getValue());
+            return;
+        }
+        if(numbersAsLongs != null) {
+            long[] keys = new long[byName.size()];
+            for(int i = 0; i < keys.length; i++)
+                keys[i] = checkNumber(byName.get(i).getValue());
+            namesToNumbers.putAll(byName);
+            for(int i = 0; i < keys.length; i++)
+                numbersAsLongs.put(keys[i], byName.get(i).getKey());
+            return;
+        }
+        namesToNumbers.putAll(byName);
+        numbersToNames.putAll(byNumber);
+    }
+
     /** Deletes the entry characterized by the arguments provided. If either argument is {@code null}, or if the
-     * entry is <b>not</b> contained by this {@link Phonebook} instance, this method has <b>no effect</b>.
+     * entry is <b>not</b> contained by this {@link Phonebook} instance, this method has <b>no effect</b>. A
+     * {@link CollisionResolver#BIDIRECTIONAL} index only deletes name and number if they belong to the same entry.
      * @param name The &quot;owner&quot; part of the &lt; owner, phone number &gt; tuple.
      * @param number The &quot;number&quot; part of the &lt; owner, phone number &gt; tuple.
      * @throws IllegalArgumentException if either name or number is {@code null}.
+     * @throws UnsupportedOperationException if this {@link Phonebook} is read-only, i.e a snapshot or frozen.
      */
     public void deleteEntry(String name, String number) {
         if(number == null || name == null)
             throw new IllegalArgumentException("Provided: name=" + name + " and number= " + number);
+        if(readOnly)
+            throw new UnsupportedOperationException("Cannot delete entries from a read-only Phonebook.");
+        if(index != null) {
+            index.remove(name, number);
+            return;
+        }
         namesToNumbers.remove(name);
-        numbersToNames.remove(number);
+        if(numbersAsLongs != null)
+            numbersAsLongs.remove(LongKeyHashTable.encode(number));
+        else
+            numbersToNames.remove(number);
+    }
+
+    /** Returns a read-only <b>snapshot</b> of the phonebook in <em>constant time</em>. The snapshot shares all of its storage
+     * with this {@link Phonebook}, and later additions or deletions to this {@link Phonebook} are never seen by it, so it can be
+     * searched from other threads while updates continue. Only a {@link Phonebook} whose both hash tables are
+     * {@link CollisionResolver#PERSISTENT_TRIE} tables supports snapshots. Since an update changes both tables in turn, the
+     * snapshot should be taken by the thread which makes the updates.
+     * @return A {@link Phonebook} with the same entries as this one, whose {@link #addEntry(String, String)} and
+     * {@link #deleteEntry(String, String)} throw an {@link UnsupportedOperationException}.
+     * @throws UnsupportedOperationException if either hash table of this {@link Phonebook} is not persistent.
+     * @see PersistentHashTable
+     */
+    public Phonebook snapshot() {
+        if(!(namesToNumbers instanceof PersistentHashTable) || !(numbersToNames instanceof PersistentHashTable))
+            throw new UnsupportedOperationException("Only a Phonebook with " + CollisionResolver.PERSISTENT_TRIE +
+                    " hash tables in both directions supports snapshots.");
+        return new Phonebook(((PersistentHashTable) namesToNumbers).snapshot(), ((PersistentHashTable) numbersToNames).snapshot(), true);
+    }
+
+    /** Returns an immutable copy of the phonebook whose hash tables are {@link FrozenHashTable}s, built through a minimal
+     * perfect hash function over the names and over the numbers. Every search of the copy visits exactly one cell of a
+     * table which is almost entirely full, which suits phonebooks that are searched much more often than they change, and
+     * are rebuilt whenever they do. If the numbers are kept in a {@link CollisionResolver#LONG_KEYS} table, the copy
+     * keys them by their digits and strips the separators of searched numbers the same way, so it finds the same owners.
+     * @return A {@link Phonebook} with the same entries as this one, whose {@link #addEntry(String, String)} and
+     * {@link #deleteEntry(String, String)} throw an {@link UnsupportedOperationException}.
+     * @see FrozenHashTable
+     */
+    public Phonebook freeze() {
+        Phonebook frozen = new Phonebook(new FrozenHashTable(namesToNumbers), new FrozenHashTable(numbersToNames), true);
+        // numbersAsLongs iterates over the digits of its numbers, so searches of the copy have to strip separators too.
+        frozen.normalizedNumbers = numbersAsLongs != null || normalizedNumbers;
+        return frozen;
     }
 
     /** Returns the number of entries in the phonebook.
@@ -142,4 +453,20 @@ public class Phonebook {
     public boolean isEmpty() {
         return size() == 0;
     }
+
+    /** Releases the resources of hash tables which hold any, like the files of a {@link Phonebook} created by {@link #open(Path)}
+     * or the buffers of {@link CollisionResolver#OFF_HEAP} tables. The {@link Phonebook} cannot be used afterwards.
+     * For all other hash tables, this method has no effect.
+     * @throws IOException if a hash table fails to release its resources.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if(namesToNumbers instanceof Closeable)
+                ((Closeable) namesToNumbers).close();
+        } finally {
+            if(numbersToNames instanceof Closeable)
+                ((Closeable) numbersToNames).close();
+        }
+    }
 }
@@ -4,12 +4,23 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import phonebook.hashes.*;
+import phonebook.persistence.DurablePhonebook;
+import phonebook.utils.KVPair;
 import phonebook.utils.NoMorePrimesException;
 import phonebook.utils.Probes;
 
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.Assert.*;
 import static phonebook.hashes.CollisionResolver.*;
@@ -30,7 +41,9 @@ import static phonebook.hashes.CollisionResolver.*;
 public class StudentTests {
 
     private Phonebook pb;
-    private CollisionResolver[] resolvers = {SEPARATE_CHAINING, LINEAR_PROBING, ORDERED_LINEAR_PROBING, QUADRATIC_PROBING};
+    private CollisionResolver[] resolvers = {SEPARATE_CHAINING, LINEAR_PROBING, ORDERED_LINEAR_PROBING, QUADRATIC_PROBING, ROBIN_HOOD, CUCKOO, HOPSCOTCH, CONTROL_BYTE_PROBING,
+            INCREMENTAL_LINEAR_PROBING, CONCURRENT_SEPARATE_CHAINING, LOCK_FREE_LINEAR_PROBING, PERSISTENT_TRIE,
+            STRUCT_OF_ARRAYS, OFF_HEAP, BYTE_ARENA};
     private HashMap<String, String> testingPhoneBook;
     private static final long SEED = 47;
     private static final Random RNG = new Random(SEED);
@@ -354,9 +367,1049 @@ public class StudentTests {
         }
         lp.remove(saltStr);      
     }
-    
-    
-    
 
+    @Test
+    public void testRobinHoodHashTable() {
+        for (boolean soft : new boolean[]{false, true}) {
+            RobinHoodHashTable rh = new RobinHoodHashTable(soft);
+            HashMap<String, String> expected = new HashMap<>();
+            Random rnd = new Random(SEED);
+            for (int i = 0; i < NUMS; i++) {
+                String key = Integer.toString(rnd.nextInt(UPPER_BOUND));
+                if (rnd.nextInt(3) == 0) {
+                    assertEquals("Robin Hood hash returned the wrong value on removal of " + key + ".",
+                            expected.remove(key), rh.remove(key).getValue());
+                } else {
+                    String value = Integer.toString(rnd.nextInt(UPPER_BOUND));
+                    rh.put(key, value);
+                    expected.put(key, value);
+                }
+                assertEquals("Robin Hood hash should report the same size as java.util.HashMap.", expected.size(), rh.size());
+            }
+            for (int i = 0; i < UPPER_BOUND; i++) {
+                String key = Integer.toString(i);
+                assertEquals("Robin Hood hash returned the wrong value for " + key + ".", expected.get(key), rh.get(key).getValue());
+            }
+        }
+    }
+
+    @Test
+    public void testCuckooHashTable() {
+        CuckooHashTable cuckoo = new CuckooHashTable();
+        assertEquals("Cuckoo hash should have 7 buckets of " + CuckooHashTable.BUCKET_SIZE + " cells at startup.",
+                7 * CuckooHashTable.BUCKET_SIZE, cuckoo.capacity());
+        HashMap<String, String> expected = new HashMap<>();
+        for (int i = 0; i < NUMS; i++) {
+            String key = Integer.toString(RNG.nextInt(10 * NUMS));
+            String value = Integer.toString(i);
+            cuckoo.put(key, value);
+            expected.put(key, value);
+        }
+        assertEquals(expected.size(), cuckoo.size());
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            Probes probes = cuckoo.get(entry.getKey());
+            assertEquals("Cuckoo hash returned the wrong value for " + entry.getKey() + ".", entry.getValue(), probes.getValue());
+            assertTrue("Cuckoo hash searches should never need more than 3 probes.", probes.getProbes() <= 3);
+        }
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), cuckoo.remove(entry.getKey()).getValue());
+            assertFalse(cuckoo.containsKey(entry.getKey()));
+        }
+        assertEquals(0, cuckoo.size());
+    }
+
+    // All 2^blocks strings made of "Aa" and "BB" blocks, which share a single String.hashCode().
+    private static List<String> collidingKeys(int blocks) {
+        List<String> keys = new ArrayList<>();
+        keys.add("");
+        for (int b = 0; b < blocks; b++) {
+            List<String> longer = new ArrayList<>();
+            for (String key : keys) {
+                longer.add(key + "Aa");
+                longer.add(key + "BB");
+            }
+            keys = longer;
+        }
+        return keys;
+    }
+
+    @Test
+    public void testCuckooHashTableCollidingKeys() {
+        List<String> keys = collidingKeys(7);
+        CuckooHashTable cuckoo = new CuckooHashTable();
+        for (int i = 0; i < keys.size(); i++)
+            cuckoo.put(keys.get(i), Integer.toString(i));
+        assertEquals(keys.size(), cuckoo.size());
+        assertTrue("Keys with equal hash codes should not make the Cuckoo hash grow without bound.",
+                cuckoo.capacity() <= 16 * keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            Probes probes = cuckoo.get(keys.get(i));
+            assertEquals("Cuckoo hash returned the wrong value for " + keys.get(i) + ".", Integer.toString(i), probes.getValue());
+            assertTrue("Cuckoo hash searches should never need more than 3 probes.", probes.getProbes() <= 3);
+        }
+        for (int i = 0; i < keys.size(); i++)
+            assertEquals(Integer.toString(i), cuckoo.remove(keys.get(i)).getValue());
+        assertEquals(0, cuckoo.size());
+    }
+
+    @Test
+    public void testHopscotchHashTable() {
+        for (boolean soft : new boolean[]{false, true}) {
+            HopscotchHashTable hop = new HopscotchHashTable(soft);
+            HashMap<String, String> expected = new HashMap<>();
+            Random rnd = new Random(SEED);
+            for (int i = 0; i < NUMS; i++) {
+                String key = Integer.toString(rnd.nextInt(2 * NUMS));
+                if (rnd.nextInt(4) == 0) {
+                    assertEquals("Hopscotch hash returned the wrong value on removal of " + key + ".",
+                            expected.remove(key), hop.remove(key).getValue());
+                } else {
+                    hop.put(key, key);
+                    expected.put(key, key);
+                }
+            }
+            assertEquals(expected.size(), hop.size());
+            assertTrue("Hopscotch hash should not need to grow before its load reaches 90%.",
+                    hop.size() > 0.45 * hop.capacity());
+            for (int i = 0; i < 2 * NUMS; i++) {
+                String key = Integer.toString(i);
+                Probes probes = hop.get(key);
+                assertEquals("Hopscotch hash returned the wrong value for " + key + ".", expected.get(key), probes.getValue());
+                assertTrue("Hopscotch hash searches should stay within a neighborhood.",
+                        probes.getProbes() <= HopscotchHashTable.HOP_RANGE);
+            }
+        }
+    }
+
+    @Test
+    public void testHopscotchHashTableCollidingKeys() {
+        List<String> keys = collidingKeys(6);
+        assertTrue(keys.size() > HopscotchHashTable.HOP_RANGE);
+        for (boolean soft : new boolean[]{false, true}) {
+            HopscotchHashTable hop = new HopscotchHashTable(soft);
+            for (int i = 0; i < keys.size(); i++)
+                hop.put(keys.get(i), Integer.toString(i));
+            assertEquals(keys.size(), hop.size());
+            assertTrue("Keys with equal hash codes should not make the Hopscotch hash grow without bound.",
+                    hop.capacity() <= 64 * keys.size());
+            int pairs = 0;
+            for (KVPair pair : hop) {
+                assertEquals(Integer.toString(keys.indexOf(pair.getKey())), pair.getValue());
+                pairs++;
+            }
+            assertEquals("Stashed keys should be iterated over too.", keys.size(), pairs);
+            for (int i = 0; i < keys.size(); i++)
+                assertEquals("Hopscotch hash returned the wrong value for " + keys.get(i) + ".", Integer.toString(i),
+                        hop.get(keys.get(i)).getValue());
+            hop.put(keys.get(keys.size() - 1), "updated");
+            assertEquals("updated", hop.get(keys.get(keys.size() - 1)).getValue());
+            assertTrue(hop.containsValue("updated"));
+            for (int i = 0; i < keys.size(); i++)
+                assertNotNull(hop.remove(keys.get(i)).getValue());
+            assertEquals(0, hop.size());
+            assertFalse(hop.containsKey(keys.get(0)));
+        }
+    }
+
+    @Test
+    public void testControlByteHashTable() {
+        for (boolean soft : new boolean[]{false, true}) {
+            ControlByteHashTable cb = new ControlByteHashTable(soft);
+            assertEquals("Control byte hash should have 7 groups at startup.", 7 * ControlByteHashTable.GROUP_SIZE, cb.capacity());
+            HashMap<String, String> expected = new HashMap<>();
+            Random rnd = new Random(SEED);
+            for (int i = 0; i < 4 * NUMS; i++) {
+                String key = Integer.toString(rnd.nextInt(NUMS));
+                if (rnd.nextBoolean()) {
+                    assertEquals("Control byte hash returned the wrong value on removal of " + key + ".",
+                            expected.remove(key), cb.remove(key).getValue());
+                } else {
+                    String value = Integer.toString(i);
+                    cb.put(key, value);
+                    expected.put(key, value);
+                }
+            }
+            assertEquals(expected.size(), cb.size());
+            for (int i = 0; i < NUMS; i++) {
+                String key = Integer.toString(i);
+                assertEquals("Control byte hash returned the wrong value for " + key + ".", expected.get(key), cb.get(key).getValue());
+            }
+        }
+    }
+
+    @Test
+    public void testPowerOfTwoCapacities() {
+        LinearProbingHashTable lp = new LinearProbingHashTable(false, CapacityPolicy.POWER_OF_TWO);
+        SeparateChainingHashTable sc = new SeparateChainingHashTable(CapacityPolicy.POWER_OF_TWO);
+        RobinHoodHashTable rh = new RobinHoodHashTable(false, CapacityPolicy.POWER_OF_TWO);
+        assertEquals("Power of two Linear Probing hash should have a capacity of 8 at startup.", 8, lp.capacity());
+        assertEquals("Power of two Separate Chaining hash should have a capacity of 8 at startup.", 8, sc.capacity());
+        for (Map.Entry<String, String> entry : testingPhoneBook.entrySet()) {
+            lp.put(entry.getKey(), entry.getValue());
+            rh.put(entry.getKey(), entry.getValue());
+        }
+        lp.put("DeAndre", "888-1212-3340");
+        assertEquals("Power of two Linear Probing hash should still have a capacity of 8 after inserting 5 elements.", 8, lp.capacity());
+        lp.put("Thomas", "888-1212-3341");
+        assertEquals("Power of two Linear Probing hash should have a capacity of 16 after inserting 6 elements.", 16, lp.capacity());
+        sc.enlarge();
+        assertEquals("Power of two Separate Chaining hash should have a capacity of 16 after a call to enlarge().", 16, sc.capacity());
+        sc.shrink();
+        sc.shrink();
+        assertEquals("Power of two Separate Chaining hash should never shrink below a capacity of 8.", 8, sc.capacity());
+
+        for (int i = 0; i < NUMS; i++)
+            rh.put(Integer.toString(i), Integer.toString(-i));
+        assertEquals(Integer.bitCount(rh.capacity()), 1);
+        for (int i = 0; i < NUMS; i++)
+            assertEquals(Integer.toString(-i), rh.get(Integer.toString(i)).getValue());
+    }
+
+    @Test
+    public void testIncrementalResizing() {
+        for (boolean soft : new boolean[]{false, true}) {
+            IncrementalLinearProbingHashTable ilp = new IncrementalLinearProbingHashTable(soft);
+            LinearProbingHashTable lp = new LinearProbingHashTable(soft);
+            HashMap<String, String> expected = new HashMap<>();
+            int worstIncremental = 0, worstStopTheWorld = 0;
+            for (int i = 0; i < NUMS; i++) {
+                String key = "Person #" + i;
+                worstIncremental = Math.max(worstIncremental, ilp.put(key, key).getProbes());
+                worstStopTheWorld = Math.max(worstStopTheWorld, lp.put(key, key).getProbes());
+                expected.put(key, key);
+                if (i % 3 == 0) {
+                    String victim = "Person #" + (i / 2);
+                    assertEquals(expected.remove(victim), ilp.remove(victim).getValue());
+                }
+                assertEquals(expected.size(), ilp.size());
+            }
+            assertTrue("Incremental resizing should keep the worst-case put() cheaper than a full rehash.",
+                    worstIncremental < worstStopTheWorld);
+            for (int i = 0; i < NUMS; i++) {
+                String key = "Person #" + i;
+                assertEquals("Incremental Linear Probing hash returned the wrong value for " + key + ".",
+                        expected.get(key), ilp.get(key).getValue());
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentSeparateChaining() throws InterruptedException {
+        concurrentStressTest(new ConcurrentSeparateChainingHashTable(), NUMS);
+    }
+
+    @Test
+    public void testLockFreeLinearProbing() throws InterruptedException {
+        // Every thread claims a cell for each of its keys, so fewer keys keep us within the largest prime capacity.
+        concurrentStressTest(new LockFreeLinearProbingHashTable(), NUMS / 4);
+    }
+
+    // Has a few threads insert, search and delete disjoint sets of keys in a thread-safe HashTable at the same time.
+    private void concurrentStressTest(final HashTable csc, final int keys) throws InterruptedException {
+        final int threads = 4;
+        final Throwable[] failure = new Throwable[1]; // Failed assertions in other threads do not fail the test by themselves.
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < keys; i++) {
+                        String key = id + "-" + i;
+                        csc.put(key, key);
+                        assertEquals(key, csc.get(key).getValue());
+                        if (i % 2 == 1)
+                            assertEquals(key, csc.remove(key).getValue());
+                    }
+                } catch (Throwable t1) {
+                    failure[0] = t1;
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers)
+            worker.join();
+        if (failure[0] != null)
+            fail("A worker thread failed. " + errorData(failure[0]));
+        assertEquals(csc.getClass().getSimpleName() + " lost or duplicated some insertions.", threads * keys / 2, csc.size());
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < keys; i++) {
+                String key = t + "-" + i;
+                assertEquals(i % 2 == 0 ? key : null, csc.get(key).getValue());
+            }
+        }
+    }
+
+    @Test
+    public void testPersistentHashTable() {
+        PersistentHashTable trie = new PersistentHashTable();
+        HashMap<String, String> expected = new HashMap<>();
+        // "Aa" and "BB" share a hash code, as do all of their concatenations.
+        String[] colliding = {"AaAa", "AaBB", "BBAa", "BBBB"};
+        for (String key : colliding) {
+            trie.put(key, key + "'s number");
+            expected.put(key, key + "'s number");
+        }
+        for (int i = 0; i < NUMS; i++) {
+            String key = Integer.toString(RNG.nextInt(NUMS * 10));
+            if (RNG.nextInt(3) == 0) {
+                assertEquals("Persistent Trie hash should return the removed value of " + key + ".", expected.remove(key), trie.remove(key).getValue());
+            } else {
+                trie.put(key, key + "!");
+                expected.put(key, key + "!");
+            }
+        }
+        assertEquals("Persistent Trie hash has the wrong size.", expected.size(), trie.size());
+        for (Map.Entry<String, String> entry : expected.entrySet())
+            assertEquals("Persistent Trie hash lost " + entry.getKey() + ".", entry.getValue(), trie.get(entry.getKey()).getValue());
+        HashMap<String, String> iterated = new HashMap<>();
+        for (phonebook.utils.KVPair pair : trie)
+            assertNull("Persistent Trie hash iterated over " + pair.getKey() + " twice.", iterated.put(pair.getKey(), pair.getValue()));
+        assertEquals("Persistent Trie hash iteration should visit every pair exactly once.", expected, iterated);
+        for (String key : colliding)
+            assertEquals(key + "'s number", trie.remove(key).getValue());
+        assertFalse("Persistent Trie hash should not contain a removed colliding key.", trie.containsKey("AaBB"));
+    }
+
+    @Test
+    public void testPhonebookSnapshot() {
+        pb = new Phonebook(PERSISTENT_TRIE, PERSISTENT_TRIE);
+        for (Map.Entry<String, String> entry : testingPhoneBook.entrySet())
+            pb.addEntry(entry.getKey(), entry.getValue());
+        Phonebook snapshot = pb.snapshot();
+        pb.addEntry("DeAndre", "888-1212-3341");
+        pb.deleteEntry("Jessie", "705-12-7500");
+        assertNull("A snapshot should not see entries added after it was taken.", snapshot.getNumberOf("DeAndre"));
+        assertEquals("A snapshot should still see entries deleted after it was taken.", "705-12-7500", snapshot.getNumberOf("Jessie"));
+        assertEquals("A snapshot should still see entries deleted after it was taken.", "Jessie", snapshot.getOwnerOf("705-12-7500"));
+        assertEquals("888-1212-3341", pb.getNumberOf("DeAndre"));
+        assertNull(pb.getNumberOf("Jessie"));
+        try {
+            snapshot.addEntry("Thomas", "301-555-0123");
+            fail("A snapshot should not accept new entries.");
+        } catch (UnsupportedOperationException ignored) {
+            // Expected.
+        }
+        try {
+            new Phonebook(PERSISTENT_TRIE, LINEAR_PROBING).snapshot();
+            fail("Only Phonebooks backed by persistent hash tables should support snapshots.");
+        } catch (UnsupportedOperationException ignored) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testStructOfArraysHashTable() {
+        for (boolean soft : new boolean[]{true, false}) {
+            for (CapacityPolicy policy : CapacityPolicy.values()) {
+                StructOfArraysHashTable soa = new StructOfArraysHashTable(soft, policy);
+                HashMap<String, String> expected = new HashMap<>();
+                // "Aa" and "BB" share a hash code, so the cached hash codes alone cannot tell these keys apart.
+                for (String key : new String[]{"AaAa", "AaBB", "BBAa", "BBBB"}) {
+                    soa.put(key, key);
+                    expected.put(key, key);
+                }
+                for (int i = 0; i < NUMS; i++) {
+                    String key = Integer.toString(RNG.nextInt(UPPER_BOUND));
+                    if (RNG.nextBoolean()) {
+                        assertEquals("Struct of Arrays hash should return the removed value of " + key + ".",
+                                expected.remove(key), soa.remove(key).getValue());
+                    } else {
+                        soa.put(key, key + "!");
+                        expected.put(key, key + "!");
+                    }
+                }
+                assertEquals("Struct of Arrays hash has the wrong size.", expected.size(), soa.size());
+                for (Map.Entry<String, String> entry : expected.entrySet())
+                    assertEquals("Struct of Arrays hash lost " + entry.getKey() + ".", entry.getValue(), soa.get(entry.getKey()).getValue());
+                assertEquals("AaBB", soa.remove("AaBB").getValue());
+                assertFalse(soa.containsKey("AaBB"));
+                assertTrue("Removing a colliding key should not affect the others.", soa.containsKey("BBBB"));
+            }
+        }
+    }
+
+    @Test
+    public void testOffHeapHashTable() {
+        for (boolean soft : new boolean[]{true, false}) {
+            OffHeapHashTable offHeap = new OffHeapHashTable(soft, CapacityPolicy.POWER_OF_TWO);
+            HashMap<String, String> expected = new HashMap<>();
+            // Multi-byte characters, values that shrink and values that grow all have to survive the UTF-8 encoding.
+            String[] values = {"", "555-0100", "\u00c9lo\u00efse", "\u5f20\u4f1f", "+30 210 000 0000 ext. 12345"};
+            for (int i = 0; i < NUMS; i++) {
+                String key = "K\u00f8y" + RNG.nextInt(UPPER_BOUND);
+                if (RNG.nextInt(4) == 0) {
+                    assertEquals("Off-heap hash should return the removed value of " + key + ".", expected.remove(key), offHeap.remove(key).getValue());
+                } else {
+                    String value = values[RNG.nextInt(values.length)];
+                    offHeap.put(key, value);
+                    expected.put(key, value);
+                }
+            }
+            assertEquals("Off-heap hash has the wrong size.", expected.size(), offHeap.size());
+            for (Map.Entry<String, String> entry : expected.entrySet())
+                assertEquals("Off-heap hash lost " + entry.getKey() + ".", entry.getValue(), offHeap.get(entry.getKey()).getValue());
+            assertEquals(expected.containsValue("\u5f20\u4f1f"), offHeap.containsValue("\u5f20\u4f1f"));
+            assertTrue("Off-heap hash should report its direct buffers.", offHeap.offHeapBytes() > 0);
+            offHeap.close();
+            assertEquals(0, offHeap.offHeapBytes());
+            try {
+                offHeap.get("K\u00f8y0");
+                fail("A closed off-heap hash should not answer searches.");
+            } catch (IllegalStateException ignored) {
+                // Expected.
+            }
+        }
+        // Rewriting or re-adding the same entries over and over should compact the arena instead of growing it.
+        OffHeapHashTable churned = new OffHeapHashTable(false);
+        for (int i = 0; i < 100; i++)
+            churned.put("Person #" + i, "301-555-" + i);
+        long bytes = churned.offHeapBytes();
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 100; i++) {
+                if (i % 10 == 0)
+                    churned.remove("Person #" + i);
+                churned.put("Person #" + i, (round % 2 == 0 ? "+30 210 000 0000 ext. " : "") + i);
+            }
+        }
+        assertTrue("Updates should reuse the space of the records they replace.", churned.offHeapBytes() <= 4 * bytes);
+        assertEquals("7", churned.get("Person #7").getValue());
+        try {
+            new OffHeapHashTable(false, CapacityPolicy.PRIME, 200_000_000);
+            fail("Buffers larger than 2GB should have thrown an IllegalStateException, instead of overflowing.");
+        } catch (IllegalStateException ignored) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testMappedPhonebook() throws IOException {
+        Path directory = Files.createTempDirectory("phonebook");
+        try {
+            pb = Phonebook.open(directory);
+            for (int i = 0; i < NUMS; i++)
+                pb.addEntry("Person #" + i, "301-555-" + i);
+            pb.deleteEntry("Person #7", "301-555-7");
+            pb.deleteEntry("Person #8", "301-555-8");
+            pb.addEntry("Person #8", "301-555-8000");
+            pb.close();
+
+            pb = Phonebook.open(directory);
+            assertEquals("A reopened Phonebook should have all of its entries.", NUMS - 1, pb.size());
+            for (int i = 0; i < NUMS; i++) {
+                if (i != 7 && i != 8) {
+                    assertEquals("301-555-" + i, pb.getNumberOf("Person #" + i));
+                    assertEquals("Person #" + i, pb.getOwnerOf("301-555-" + i));
+                }
+            }
+            assertNull("A reopened Phonebook should not have deleted entries.", pb.getNumberOf("Person #7"));
+            assertEquals("A reopened Phonebook should have updated entries.", "301-555-8000", pb.getNumberOf("Person #8"));
+            pb.addEntry("Person #7", "301-555-7");
+            assertEquals("Person #7", pb.getOwnerOf("301-555-7"));
+            pb.close();
+
+            // Rewriting or re-adding the same entries over and over should compact the file instead of growing it.
+            Path churned = directory.resolve("churned.phb");
+            try (MappedHashTable mapped = new MappedHashTable(churned)) {
+                for (int i = 0; i < 100; i++)
+                    mapped.put("Person #" + i, "301-555-" + i);
+                long bytes = Files.size(churned);
+                for (int round = 0; round < 50; round++) {
+                    for (int i = 0; i < 100; i++) {
+                        if (i % 10 == 0)
+                            mapped.remove("Person #" + i);
+                        mapped.put("Person #" + i, (round % 2 == 0 ? "+30 210 000 0000 ext. " : "") + i);
+                    }
+                }
+                assertTrue("Updates should reuse the space of the records they replace.", Files.size(churned) <= 4 * bytes);
+                for (int i = 0; i < 100; i++)
+                    assertEquals(String.valueOf(i), mapped.get("Person #" + i).getValue());
+            }
+        } finally {
+            for (String name : new String[]{"namesToNumbers.phb", "numbersToNames.phb", "churned.phb"})
+                Files.deleteIfExists(directory.resolve(name));
+            Files.delete(directory);
+        }
+    }
+
+    private static void assertDurableEntries(Phonebook durable, int threads, int entries) {
+        assertEquals("A recovered Phonebook should have every entry that was added and not deleted.", threads * entries / 2, durable.size());
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < entries; i++) {
+                String name = "Person #" + t + "-" + i;
+                assertEquals(i % 2 == 0 ? "301-" + t + "-" + i : null, durable.getNumberOf(name));
+            }
+        }
+    }
+
+    @Test
+    public void testDurablePhonebook() throws IOException, InterruptedException {
+        final int threads = 4, entries = NUMS / 4;
+        Path directory = Files.createTempDirectory("phonebook");
+        DurablePhonebook crashed = null, recovered = null;
+        try {
+            final DurablePhonebook durable = DurablePhonebook.open(directory, ROBIN_HOOD, ROBIN_HOOD, 150);
+            crashed = durable;
+            final Throwable[] failure = new Throwable[1];
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                final int id = t;
+                workers[t] = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < entries; i++) {
+                            durable.addEntry("Person #" + id + "-" + i, "301-" + id + "-" + i);
+                            if (i % 2 == 1)
+                                durable.deleteEntry("Person #" + id + "-" + i, "301-" + id + "-" + i);
+                        }
+                    } catch (Throwable t1) {
+                        failure[0] = t1;
+                    }
+                });
+                workers[t].start();
+            }
+            for (Thread worker : workers)
+                worker.join();
+            if (failure[0] != null)
+                fail("A worker thread failed. " + errorData(failure[0]));
+            // Every odd entry is added and deleted, and the threads which write at the same time share their syncs. How many
+            // of them do depends on the scheduler, so we only ask for a clear saving, which even a single core gives.
+            int records = threads * entries * 3 / 2;
+            assertTrue("The log should batch the records of concurrent writers, but synced " + durable.syncCount() +
+                    " times for " + records + " records.", durable.syncCount() < 9 * records / 10);
 
+            // Never closed: everything must be recovered from the snapshot and the log alone.
+            recovered = DurablePhonebook.open(directory, STRUCT_OF_ARRAYS, CONCURRENT_SEPARATE_CHAINING, 150);
+            assertDurableEntries(recovered, threads, entries);
+            recovered.close();
+
+            // A crash in the middle of a write leaves a torn record at the end of the log.
+            try (DirectoryStream<Path> logs = Files.newDirectoryStream(directory, "wal-*")) {
+                for (Path log : logs)
+                    Files.write(log, new byte[]{0, 0, 0, 42, 1, 2, 3}, StandardOpenOption.APPEND);
+            }
+            recovered = DurablePhonebook.open(directory, ROBIN_HOOD, ROBIN_HOOD, 150);
+            assertDurableEntries(recovered, threads, entries);
+            recovered.addEntry("Person #new", "301-555-0000");
+            recovered.close();
+            recovered = DurablePhonebook.open(directory, ROBIN_HOOD, ROBIN_HOOD, 150);
+            assertEquals("A torn record should not hide the records written after it was discarded.",
+                    "Person #new", recovered.getOwnerOf("301-555-0000"));
+        } finally {
+            if (crashed != null)
+                crashed.close();
+            if (recovered != null)
+                recovered.close();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files)
+                    Files.delete(file);
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testExpectedSizeConstructors() {
+        HashTable[] tables = {new SeparateChainingHashTable(CapacityPolicy.PRIME, NUMS),
+                new LinearProbingHashTable(false, CapacityPolicy.POWER_OF_TWO, NUMS),
+                new QuadraticProbingHashTable(false, NUMS), new RobinHoodHashTable(true, CapacityPolicy.PRIME, NUMS),
+                new CuckooHashTable(NUMS), new HopscotchHashTable(false, CapacityPolicy.PRIME, NUMS),
+                new ControlByteHashTable(false, NUMS), new IncrementalLinearProbingHashTable(false, CapacityPolicy.PRIME, NUMS),
+                new ConcurrentSeparateChainingHashTable(NUMS), new LockFreeLinearProbingHashTable(NUMS),
+                new StructOfArraysHashTable(false, CapacityPolicy.POWER_OF_TWO, NUMS),
+                new OffHeapHashTable(false, CapacityPolicy.PRIME, NUMS)};
+        String[] keys = new String[NUMS];
+        List<KVPair> pairs = new ArrayList<>();
+        Random rnd = new Random(SEED);
+        for (int i = 0; i < NUMS; i++) {
+            // Random keys, since the neighborhoods of Hopscotch hashing can overflow on the clustered hash codes of sequential ones.
+            keys[i] = Long.toHexString(rnd.nextLong());
+            pairs.add(new KVPair(keys[i], "301-" + i));
+        }
+        for (HashTable table : tables) {
+            String name = table.getClass().getSimpleName();
+            int capacity = table.capacity();
+            table.putAll(pairs);
+            assertEquals(name + " should not have resized while loading as many pairs as it expected.", capacity, table.capacity());
+            assertEquals(name + " lost some pairs during a bulk load.", NUMS, table.size());
+            for (int i = 0; i < NUMS; i++)
+                assertEquals(name + " returned the wrong value for " + keys[i] + ".", "301-" + i, table.get(keys[i]).getValue());
+        }
+        // Tables which start out small should grow once, straight to the capacity they would have been given for the pairs.
+        HashTable[][] grown = {{new LinearProbingHashTable(false), new LinearProbingHashTable(false, CapacityPolicy.PRIME, NUMS)},
+                {new QuadraticProbingHashTable(false), new QuadraticProbingHashTable(false, NUMS)}};
+        for (HashTable[] table : grown) {
+            table[0].putAll(pairs);
+            assertEquals(table[0].getClass().getSimpleName() + " should have grown once to fit a bulk load.", table[1].capacity(), table[0].capacity());
+            assertEquals(NUMS, table[0].size());
+        }
+        try {
+            new RobinHoodHashTable(false, CapacityPolicy.PRIME, -1);
+            fail("A negative expected size should have thrown an IllegalArgumentException.");
+        } catch (IllegalArgumentException ignored) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testPhonebookAddAll() {
+        List<KVPair> entries = new ArrayList<>();
+        String[] names = new String[NUMS], numbers = new String[NUMS];
+        for (int i = 0; i < NUMS; i++) {
+            names[i] = "Person #" + i;
+            numbers[i] = "301-555-" + i;
+            entries.add(new KVPair(names[i], numbers[i]));
+        }
+        for (CollisionResolver namesToPhones : resolvers) {
+            for (CollisionResolver phonesToNames : resolvers) {
+                // Linear and Ordered Linear Probing do not wrap around the end of their tables, so they can drop keys at this size.
+                if (namesToPhones == LINEAR_PROBING || namesToPhones == ORDERED_LINEAR_PROBING ||
+                        phonesToNames == LINEAR_PROBING || phonesToNames == ORDERED_LINEAR_PROBING)
+                    continue;
+                pb = new Phonebook(namesToPhones, phonesToNames, NUMS);
+                try {
+                    pb.addAll(entries);
+                } catch (Throwable t) {
+                    fail(format("Bulk load failed. " + errorData(t), namesToPhones, phonesToNames));
+                }
+                assertEquals(format("Bulk load lost some entries. ", namesToPhones, phonesToNames), NUMS, pb.size());
+                for (int i = 0; i < NUMS; i++) {
+                    assertEquals(format("Wrong number after a bulk load. ", namesToPhones, phonesToNames), numbers[i], pb.getNumberOf(names[i]));
+                    assertEquals(format("Wrong owner after a bulk load. ", namesToPhones, phonesToNames), names[i], pb.getOwnerOf(numbers[i]));
+                }
+            }
+        }
+        pb = new Phonebook(ROBIN_HOOD, ROBIN_HOOD);
+        try {
+            pb.addAll(Arrays.asList(new KVPair("Mary", "888-1212-3340"), new KVPair("Jessie", null)));
+            fail("A bulk load with a null number should have thrown an IllegalArgumentException.");
+        } catch (IllegalArgumentException ignored) {
+            assertTrue("A failed bulk load should not add any entry.", pb.isEmpty());
+        }
+    }
+
+    @Test
+    public void testParallelTableBuilder() {
+        List<KVPair> pairs = new ArrayList<>();
+        String[] keys = new String[NUMS];
+        Random rnd = new Random(SEED);
+        for (int i = 0; i < NUMS; i++) {
+            keys[i] = Long.toHexString(rnd.nextLong());
+            pairs.add(new KVPair(keys[i], "301-" + i));
+        }
+        pairs.add(new KVPair(keys[0], "301-duplicate")); // Still the first value that searches find, as with put().
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // A threshold of 0, so that even this many pairs are split across the regions of the tables.
+            ParallelTableBuilder builder = new ParallelTableBuilder(pool, 0);
+            HashTable[] built = {builder.buildLinearProbing(pairs, false, CapacityPolicy.POWER_OF_TWO),
+                    builder.buildQuadraticProbing(pairs, true), builder.buildSeparateChaining(pairs, CapacityPolicy.PRIME)};
+            HashTable[] sequential = {new LinearProbingHashTable(false, CapacityPolicy.POWER_OF_TWO, pairs.size()),
+                    new QuadraticProbingHashTable(true, pairs.size()), new SeparateChainingHashTable(CapacityPolicy.PRIME, pairs.size())};
+            for (int t = 0; t < built.length; t++) {
+                String name = built[t].getClass().getSimpleName();
+                for (KVPair pair : pairs)
+                    sequential[t].put(pair.getKey(), pair.getValue());
+                assertEquals(name + " was built with the wrong size.", sequential[t].size(), built[t].size());
+                assertEquals(name + " was built with the wrong capacity.", sequential[t].capacity(), built[t].capacity());
+                for (String key : keys) {
+                    assertEquals(name + " returned the wrong value for " + key + ".", sequential[t].get(key).getValue(), built[t].get(key).getValue());
+                    assertEquals(name + " disagreed about " + key + ".", sequential[t].containsKey(key), built[t].containsKey(key));
+                }
+            }
+            try {
+                builder.buildSeparateChaining(Arrays.asList(new KVPair("Mary", "888-1212-3340"), new KVPair("Jessie", null)), CapacityPolicy.PRIME);
+                fail("A parallel build with a null value should have thrown an IllegalArgumentException.");
+            } catch (IllegalArgumentException ignored) {
+                // Expected.
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testBatchedLookups() {
+        String[] names = new String[NUMS + 2], numbers = new String[NUMS + 2];
+        for (int i = 0; i < NUMS; i++) {
+            names[i] = "Person #" + i;
+            numbers[i] = "301-555-" + i;
+        }
+        names[NUMS] = "Nobody"; // Missing.
+        numbers[NUMS] = "000-000-0000";
+        for (CollisionResolver resolver : new CollisionResolver[]{SEPARATE_CHAINING, LINEAR_PROBING, QUADRATIC_PROBING,
+                ROBIN_HOOD, CONTROL_BYTE_PROBING, STRUCT_OF_ARRAYS, CONCURRENT_SEPARATE_CHAINING}) {
+            pb = new Phonebook(resolver, resolver);
+            for (int i = 0; i < NUMS; i++)
+                pb.addEntry(names[i], numbers[i]);
+            for (int i = 0; i < NUMS; i += 3) // So that the batch also walks over tombstones and shifted clusters.
+                pb.deleteEntry(names[i], numbers[i]);
+            String[] foundNumbers = pb.getNumbersOf(names), foundOwners = pb.getOwnersOf(numbers);
+            assertEquals(resolver + ": batches should return one value per key.", names.length, foundNumbers.length);
+            for (int i = 0; i < names.length; i++) {
+                assertEquals(resolver + ": wrong number in a batch for " + names[i] + ".", pb.getNumberOf(names[i]), foundNumbers[i]);
+                assertEquals(resolver + ": wrong owner in a batch for " + numbers[i] + ".", pb.getOwnerOf(numbers[i]), foundOwners[i]);
+            }
+            assertNull(resolver + ": a deleted name should not be found in a batch.", foundNumbers[0]);
+            assertEquals(resolver + ": a name should be found in a batch.", numbers[1], foundNumbers[1]);
+        }
+        try {
+            pb.getNumbersOf(null);
+            fail("A null batch should have thrown an IllegalArgumentException.");
+        } catch (IllegalArgumentException ignored) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testTombstonePurge() {
+        LinearProbingHashTable lp = new LinearProbingHashTable(true);
+        QuadraticProbingHashTable qp = new QuadraticProbingHashTable(true);
+        RobinHoodHashTable rh = new RobinHoodHashTable(true);
+        StructOfArraysHashTable soa = new StructOfArraysHashTable(true, CapacityPolicy.PRIME);
+        assertEquals("Linear Probing should not purge tombstones unless asked to.", 1, lp.getPurgeThreshold(), 0);
+        assertEquals(OpenAddressingHashTable.DEFAULT_PURGE_THRESHOLD, rh.getPurgeThreshold(), 0);
+        lp.setPurgeThreshold(OpenAddressingHashTable.DEFAULT_PURGE_THRESHOLD);
+        qp.setPurgeThreshold(OpenAddressingHashTable.DEFAULT_PURGE_THRESHOLD);
+        String[] keys = new String[NUMS];
+        for (int i = 0; i < NUMS; i++)
+            keys[i] = "Churn #" + i;
+        for (HashTable table : new HashTable[]{lp, qp, rh, soa}) {
+            String name = table.getClass().getSimpleName();
+            // Linear Probing does not wrap around the end of its table, so it can drop keys; only its capacity is checked.
+            boolean checkValues = table != lp;
+            // A churning workload: never more than 3 live keys, but NUMS tombstones over time.
+            for (int i = 0; i < NUMS; i++) {
+                table.put(keys[i], keys[i]);
+                if (i >= 3) {
+                    String removed = table.remove(keys[i - 3]).getValue();
+                    if (checkValues)
+                        assertEquals(name + " returned the wrong value on removal of " + keys[i - 3] + ".", keys[i - 3], removed);
+                }
+            }
+            assertTrue(name + " should have purged its tombstones instead of growing to " + table.capacity() + " cells.", table.capacity() < 50);
+            for (int i = 0; checkValues && i < NUMS; i++)
+                assertEquals(name + " returned the wrong value for " + keys[i] + " after purging its tombstones.",
+                        i >= NUMS - 3 ? keys[i] : null, table.get(keys[i]).getValue());
+        }
+        try {
+            rh.setPurgeThreshold(0);
+            fail("A purge threshold of 0 should have thrown an IllegalArgumentException.");
+        } catch (IllegalArgumentException ignored) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testAutomaticShrinking() {
+        LinearProbingHashTable lp = new LinearProbingHashTable(true);
+        QuadraticProbingHashTable qp = new QuadraticProbingHashTable(true);
+        // The tables of the writeup only shrink when asked to, and their soft deletions only lower the load once purged.
+        LinearProbingHashTable shrinkingLp = new LinearProbingHashTable(true);
+        QuadraticProbingHashTable shrinkingQp = new QuadraticProbingHashTable(true);
+        for (OpenAddressingHashTable table : new OpenAddressingHashTable[]{shrinkingLp, shrinkingQp}) {
+            table.setLoadFactorPolicy(LoadFactorPolicy.DEFAULT);
+            table.setPurgeThreshold(0.05);
+        }
+        OffHeapHashTable offHeap = new OffHeapHashTable(false);
+        String[] keys = new String[NUMS];
+        for (int i = 0; i < NUMS; i++)
+            keys[i] = "Purged #" + i;
+        HashTable[] tables = {lp, qp, shrinkingLp, shrinkingQp, new RobinHoodHashTable(true),
+                new StructOfArraysHashTable(false), offHeap, new CuckooHashTable(), new HopscotchHashTable(false),
+                new ControlByteHashTable(true), new IncrementalLinearProbingHashTable(false), new SeparateChainingHashTable()};
+        for (HashTable table : tables) {
+            String name = table.getClass().getSimpleName();
+            // Linear Probing does not wrap around the end of its table, so it can drop keys; only its capacity is checked.
+            boolean checkValues = !(table instanceof LinearProbingHashTable);
+            for (int i = 0; i < NUMS; i++)
+                table.put(keys[i], keys[i]);
+            int peak = table.capacity();
+            // A quarterly purge: all but the last 10 keys go away.
+            for (int i = 0; i < NUMS - 10; i++) {
+                String removed = table.remove(keys[i]).getValue();
+                if (checkValues)
+                    assertEquals(name + " returned the wrong value on removal of " + keys[i] + ".", keys[i], removed);
+            }
+            if (table == lp || table == qp)
+                assertEquals(name + " should not shrink unless asked to.", peak, table.capacity());
+            else
+                // Incremental Linear Probing is still migrating to its smaller array, so it may have shrunk only once.
+                assertTrue(name + " should have shrunk from " + peak + " cells, but has " + table.capacity() + ".",
+                        table.capacity() < peak);
+            for (int i = 0; checkValues && i < NUMS; i++)
+                assertEquals(name + " returned the wrong value for " + keys[i] + " after shrinking.",
+                        i >= NUMS - 10 ? keys[i] : null, table.get(keys[i]).getValue());
+        }
+        offHeap.close();
+        assertEquals(0, qp.getLoadFactorPolicy().shrinkAt(), 0);
+        // A Phonebook asks the tables of the writeup to shrink. They compare keys by reference, so we keep our numbers.
+        String[] numbers = new String[NUMS];
+        for (int i = 0; i < NUMS; i++)
+            numbers[i] = Integer.toString(i);
+        for (CollisionResolver resolver : new CollisionResolver[]{CollisionResolver.LINEAR_PROBING,
+                CollisionResolver.ORDERED_LINEAR_PROBING, CollisionResolver.QUADRATIC_PROBING}) {
+            Phonebook pb = new Phonebook(resolver, resolver);
+            for (int i = 0; i < NUMS; i++)
+                pb.addEntry(keys[i], numbers[i]);
+            int namesPeak = pb.namesToNumbers.capacity(), numbersPeak = pb.numbersToNames.capacity();
+            for (int i = 0; i < NUMS - 10; i++)
+                pb.deleteEntry(keys[i], numbers[i]);
+            assertTrue(resolver + " Phonebook should have shrunk from " + namesPeak + " cells, but has " +
+                    pb.namesToNumbers.capacity() + ".", pb.namesToNumbers.capacity() < namesPeak);
+            assertTrue(pb.numbersToNames.capacity() < numbersPeak);
+        }
+        try {
+            new LoadFactorPolicy(0.5, 0.3);
+            fail("A shrinking threshold over half of the growing one should have thrown an IllegalArgumentException.");
+        } catch (IllegalArgumentException ignored) {
+            // Expected.
+        }
+        try {
+            new RobinHoodHashTable(false).setLoadFactorPolicy(new LoadFactorPolicy(2, 0.5));
+            fail("An openly addressed table should not accept a policy that lets it fill up.");
+        } catch (IllegalArgumentException ignored) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testSeparateChainingAutoEnlarge() {
+        SeparateChainingHashTable sc = new SeparateChainingHashTable();
+        SeparateChainingHashTable longChains = new SeparateChainingHashTable();
+        longChains.setLoadFactorPolicy(new LoadFactorPolicy(4, 0));
+        for (int i = 0; i < NUMS; i++) {
+            sc.put("Chained #" + i, Integer.toString(i));
+            longChains.put("Chained #" + i, Integer.toString(i));
+            assertTrue("Separate Chaining hash should keep its chains at one record each on average, but holds " + sc.size() +
+                    " records in " + sc.capacity() + " chains.", sc.size() <= sc.capacity());
+        }
+        assertTrue("Chains of up to 4 records should need fewer chains than chains of up to 1.", longChains.capacity() < sc.capacity());
+        assertTrue(longChains.size() <= 4 * longChains.capacity());
+        for (int i = 0; i < NUMS; i++) {
+            assertEquals("Separate Chaining hash returned the wrong value after enlarging.", Integer.toString(i), sc.get("Chained #" + i).getValue());
+            assertTrue(longChains.containsKey("Chained #" + i));
+        }
+        assertFalse(sc.containsKey("Chained #" + NUMS));
+        assertEquals(NUMS, sc.size());
+        try {
+            sc.setLoadFactorPolicy(null);
+            fail("A null LoadFactorPolicy should have thrown an IllegalArgumentException.");
+        } catch (IllegalArgumentException ignored) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testLongKeyHashTable() {
+        LongKeyHashTable table = new LongKeyHashTable();
+        assertEquals("Separators should not change the key of a number.", LongKeyHashTable.encode("13014051000"),
+                LongKeyHashTable.encode("+1 (301) 405-1000"));
+        assertTrue("Leading zeroes should be part of the key of a number.",
+                LongKeyHashTable.encode("123") != LongKeyHashTable.encode("0123"));
+        for (String notANumber : new String[]{null, "", "+", "301-CALL-NOW", "1+1", "1234567890123456789"})
+            assertEquals("\"" + notANumber + "\" is not a phone number.", LongKeyHashTable.NOT_A_NUMBER, LongKeyHashTable.encode(notANumber));
+        assertEquals("0123", LongKeyHashTable.decode(LongKeyHashTable.encode("0-1-2-3")));
+
+        for (int i = 0; i < NUMS; i++)
+            assertEquals("Person #" + i, table.put("+1 301-555-" + i, "Person #" + i).getValue());
+        assertEquals(NUMS, table.size());
+        assertTrue(table.size() <= table.capacity() / 2);
+        for (int i = 0; i < NUMS; i++) {
+            assertEquals("Person #" + i, table.get("1301555" + i).getValue());
+            assertEquals("Person #" + i, table.get(LongKeyHashTable.encode("(1) 301.555." + i)));
+        }
+        assertEquals("Person #0", table.put(LongKeyHashTable.encode("13015550"), "Nobody"));
+        assertEquals("Nobody", table.remove("13015550").getValue());
+        assertNull(table.get("13015550").getValue());
+        assertNull(table.get("not a number").getValue());
+        int pairs = 0;
+        for (KVPair pair : table) {
+            assertEquals("Iteration should return numbers as their digits.", "Person #" + pair.getKey().substring(7), pair.getValue());
+            pairs++;
+        }
+        assertEquals(NUMS - 1, pairs);
+        for (int i = 1; i < NUMS; i++)
+            assertEquals("Person #" + i, table.remove(LongKeyHashTable.encode("1301555" + i)));
+        assertTrue("A LongKeyHashTable should shrink once emptied.", table.size() == 0 && table.capacity() < 20);
+        try {
+            table.put("301-CALL-NOW", "Nobody");
+            fail("Inserting something which is not a phone number should have thrown an IllegalArgumentException.");
+        } catch (IllegalArgumentException ignored) {
+            // Expected.
+        }
+
+        for (CollisionResolver namesToPhones : resolvers) {
+            // Linear and Ordered Linear Probing count the keys that a hard deletion moves back again, so their sizes drift.
+            if (namesToPhones == LINEAR_PROBING || namesToPhones == ORDERED_LINEAR_PROBING)
+                continue;
+            pb = new Phonebook(namesToPhones, LONG_KEYS);
+            pb.addEntry("Mary", "888-1212-3340");
+            pb.addAll(Arrays.asList(new KVPair("Jessie", "705-12-7500"), new KVPair("Arnold", "+1 894 59 0011")));
+            assertEquals(format("Wrong owner. ", namesToPhones, LONG_KEYS), "Mary", pb.getOwnerOf("888-1212-3340"));
+            assertEquals(format("Numbers should be found regardless of separators. ", namesToPhones, LONG_KEYS), "Arnold",
+                    pb.getOwnerOf("1-894-590-011"));
+            assertEquals(format("Wrong number. ", namesToPhones, LONG_KEYS), "705-12-7500", pb.getNumberOf("Jessie"));
+            assertArrayEquals(new String[]{"Jessie", null, null}, pb.getOwnersOf(new String[]{"705127500", "0", "Jessie"}));
+            pb.deleteEntry("Jessie", "705-12-7500");
+            assertNull(pb.getOwnerOf("705-12-7500"));
+            assertEquals(2, pb.size());
+            try {
+                pb.addAll(Arrays.asList(new KVPair("Tiffany", "894-59-0012"), new KVPair("Jerry", "ask Tiffany")));
+                fail(format("A bulk load with an invalid number should have thrown an IllegalArgumentException. ", namesToPhones, LONG_KEYS));
+            } catch (IllegalArgumentException ignored) {
+                assertNull(format("A failed bulk load should not add any entry. ", namesToPhones, LONG_KEYS), pb.getNumberOf("Tiffany"));
+            }
+        }
+        try {
+            new Phonebook(LONG_KEYS, ROBIN_HOOD);
+            fail("A LONG_KEYS table cannot hold names.");
+        } catch (IllegalArgumentException ignored) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testByteArenaHashTable() {
+        // Keys and values longer than 63 bytes need a second byte of length prefix.
+        String longKey = "Wolfeschlegelsteinhausenbergerdorff, Hubert Blaine, of the Wolfeschlegelsteinhausenbergerdorff family";
+        for (boolean soft : new boolean[]{true, false}) {
+            ByteArenaHashTable arena = new ByteArenaHashTable(soft);
+            HashMap<String, String> expected = new HashMap<>();
+            // Latin-1 and UTF-8 records, and values that shrink and grow in place, all have to read back the same.
+            String[] keys = {"K\u00f8y", "\u5f20", longKey, "Key"};
+            String[] values = {"", "555-0100", "\u00c9lo\u00efse", "\u5f20\u4f1f", longKey};
+            for (int i = 0; i < NUMS; i++) {
+                String key = keys[RNG.nextInt(keys.length)] + RNG.nextInt(UPPER_BOUND);
+                if (RNG.nextInt(4) == 0) {
+                    assertEquals("Byte arena hash should return the removed value of " + key + ".", expected.remove(key), arena.remove(key).getValue());
+                } else {
+                    String value = values[RNG.nextInt(values.length)];
+                    arena.put(key, value);
+                    expected.put(key, value);
+                }
+            }
+            assertEquals("Byte arena hash has the wrong size.", expected.size(), arena.size());
+            for (Map.Entry<String, String> entry : expected.entrySet())
+                assertEquals("Byte arena hash lost " + entry.getKey() + ".", entry.getValue(), arena.get(entry.getKey()).getValue());
+            assertEquals(expected.containsValue("\u5f20\u4f1f"), arena.containsValue("\u5f20\u4f1f"));
+            int pairs = 0;
+            for (KVPair pair : arena) {
+                assertEquals(expected.get(pair.getKey()), pair.getValue());
+                pairs++;
+            }
+            assertEquals(expected.size(), pairs);
+        }
+
+        // Rewriting the same entries over and over should compact the arena instead of growing it.
+        ByteArenaHashTable arena = new ByteArenaHashTable(false);
+        for (int i = 0; i < 100; i++)
+            arena.put("Person #" + i, "301-555-" + i);
+        long bytes = arena.storageBytes();
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 100; i++)
+                arena.put("Person #" + i, (round % 2 == 0 ? longKey : "") + i);
+        }
+        assertTrue("Updates should reuse the space of the records they replace.", arena.storageBytes() <= 4 * bytes);
+        int peak = arena.capacity();
+        for (int i = 0; i < 95; i++)
+            assertNotNull(arena.remove("Person #" + i).getValue());
+        assertTrue("Byte arena hash should shrink once it empties.", arena.capacity() < peak);
+        for (int i = 95; i < 100; i++)
+            assertEquals((49 % 2 == 0 ? longKey : "") + i, arena.get("Person #" + i).getValue());
+    }
+
+    @Test
+    public void testBidirectionalIndex() {
+        pb = new Phonebook(BIDIRECTIONAL, BIDIRECTIONAL);
+        HashMap<String, String> expected = new HashMap<>();
+        for (int i = 0; i < NUMS; i++) {
+            String name = "Person #" + RNG.nextInt(UPPER_BOUND), number = "301-555-" + RNG.nextInt(UPPER_BOUND);
+            if (RNG.nextInt(4) == 0) {
+                pb.deleteEntry(name, expected.getOrDefault(name, number));
+                expected.remove(name);
+            } else {
+                // A number has a single owner, so its previous owner loses it.
+                expected.values().remove(number);
+                pb.addEntry(name, number);
+                expected.put(name, number);
+            }
+            assertEquals("Both directions should always hold the same entries.", expected.size(), pb.size());
+        }
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            assertEquals("Wrong number of " + entry.getKey() + ".", entry.getValue(), pb.getNumberOf(entry.getKey()));
+            assertEquals("Wrong owner of " + entry.getValue() + ".", entry.getKey(), pb.getOwnerOf(entry.getValue()));
+        }
+
+        BidirectionalIndex index = new BidirectionalIndex();
+        index.put("Arnold", "894-59-0011");
+        index.put("Tiffany", "894-59-0011");
+        assertEquals("A number should move to its new owner.", 1, index.size());
+        assertEquals("Tiffany", index.getOwnerOf("894-59-0011").getValue());
+        assertNull(index.getNumberOf("Arnold").getValue());
+        index.put("Tiffany", "894-59-0012");
+        assertNull("An old number should be forgotten.", index.byNumber().get("894-59-0011").getValue());
+        assertTrue(index.byName().containsValue("894-59-0012"));
+        assertNull("An entry should only be deleted by its own name and number.", index.remove("Tiffany", "894-59-0011").getValue());
+        assertEquals("Views should return the value they put.", "Tiffany", index.byNumber().put("894-59-0012", "Tiffany").getValue());
+        assertEquals("894-59-0012", index.byName().put("Tiffany", "894-59-0012").getValue());
+        assertEquals("Tiffany", index.byNumber().remove("894-59-0012").getValue());
+        assertEquals(0, index.byName().size());
+        try {
+            new Phonebook(BIDIRECTIONAL, LINEAR_PROBING);
+            fail("A BIDIRECTIONAL index has to be used in both directions.");
+        } catch (IllegalArgumentException ignored) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testFrozenPhonebook() {
+        for (CollisionResolver namesToPhones : new CollisionResolver[]{SEPARATE_CHAINING, ROBIN_HOOD, BYTE_ARENA, BIDIRECTIONAL}) {
+            CollisionResolver phonesToNames = namesToPhones == BIDIRECTIONAL ? BIDIRECTIONAL : LONG_KEYS;
+            pb = new Phonebook(namesToPhones, phonesToNames);
+            for (int i = 0; i < NUMS; i++)
+                pb.addEntry("Person #" + i, "301-555-" + i);
+            Phonebook frozen = pb.freeze();
+            assertEquals(format("Wrong size. ", namesToPhones, phonesToNames), NUMS, frozen.size());
+            for (int i = 0; i < NUMS; i++) {
+                assertEquals(format("Wrong number. ", namesToPhones, phonesToNames), "301-555-" + i, frozen.getNumberOf("Person #" + i));
+                assertEquals(format("Wrong owner. ", namesToPhones, phonesToNames), "Person #" + i, frozen.getOwnerOf("301-555-" + i));
+            }
+            for (String number : new String[]{"(301) 555 7", "+301.555.7", "3015557"})
+                assertEquals(format("Freezing should not change which numbers are found. ", namesToPhones, phonesToNames),
+                        pb.getOwnerOf(number), frozen.getOwnerOf(number));
+            assertArrayEquals(pb.getOwnersOf(new String[]{"(301) 555 8", null, "301-555-" + NUMS}),
+                    frozen.getOwnersOf(new String[]{"(301) 555 8", null, "301-555-" + NUMS}));
+            assertNull(frozen.getNumberOf("Person #" + NUMS));
+            assertNull(frozen.getOwnerOf("301-555-" + NUMS));
+            try {
+                frozen.addEntry("Person #" + NUMS, "301-555-" + NUMS);
+                fail(format("A frozen Phonebook cannot be changed. ", namesToPhones, phonesToNames));
+            } catch (UnsupportedOperationException ignored) {
+                // Expected.
+            }
+        }
+
+        // "Aa" and "BB" have the same hashCode(), which the frozen table does not rely on.
+        List<KVPair> pairs = new ArrayList<>(Arrays.asList(new KVPair("Aa", "1"), new KVPair("BB", "2"), new KVPair("Aa", "3")));
+        for (int i = 0; i < UPPER_BOUND; i++)
+            pairs.add(new KVPair("Key #" + i, "Value #" + i));
+        FrozenHashTable table = new FrozenHashTable(pairs);
+        assertEquals("Only the first pair of a key should be kept.", "1", table.get("Aa").getValue());
+        assertEquals("2", table.get("BB").getValue());
+        assertEquals(UPPER_BOUND + 2, table.size());
+        assertTrue("A frozen table should be nearly full.", table.capacity() <= table.size() + table.size() / 100 + 1);
+        for (int i = 0; i < UPPER_BOUND; i++) {
+            Probes probes = table.get("Key #" + i);
+            assertEquals("Value #" + i, probes.getValue());
+            assertEquals("Every search should visit exactly one cell.", 1, probes.getProbes());
+        }
+        assertFalse(table.containsKey("Key #" + UPPER_BOUND));
+        assertNull(new FrozenHashTable(new ArrayList<>()).get("Aa").getValue());
+        try {
+            table.put("Aa", "4");
+            fail("A frozen table cannot be changed.");
+        } catch (UnsupportedOperationException ignored) {
+            // Expected.
+        }
+    }
 }
@@ -0,0 +1,434 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+import phonebook.utils.PrimeGenerator;
+import phonebook.utils.Probes;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * <p>{@link BidirectionalIndex} stores &lt; name, number &gt; entries <b>once</b>, and finds them both by name and by number.
+ * The entries live in parallel arrays of names, numbers and their cached hash codes, packed at the front so that entry
+ * {@code i} is simply the {@code i}-th cell of every array. Two {@code int} arrays index them, one by the hash codes of the
+ * names and one by the hash codes of the numbers, and resolve their collisions through <b>Linear Probing</b>. Their cells
+ * hold the entry plus one, so 0 marks an empty cell, and deletions are always hard.</p>
+ *
+ * <p>Compared to two {@link HashTable}s, one in each direction, no entry is ever held twice, an insertion or deletion
+ * updates both indices in a single operation, and both indices always resize together. Since a name and a number belong to
+ * exactly one entry, the two directions can never disagree about the number of entries. {@link #byName()} and
+ * {@link #byNumber()} view the index as a {@link HashTable} in either direction.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see HashTable
+ * @see CollisionResolver#BIDIRECTIONAL
+ * @see phonebook.Phonebook
+ */
+public class BidirectionalIndex {
+
+	/* ********************************************************************/
+	/* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+	/* ********************************************************************/
+
+	private static final int EMPTY = 0;
+
+	private int[] byName;       // Entry plus one, or EMPTY, hashed by name.
+	private int[] byNumber;     // Entry plus one, or EMPTY, hashed by number.
+	private String[] names;
+	private String[] numbers;
+	private int[] nameHashes;   // names[i].hashCode()
+	private int[] numberHashes; // numbers[i].hashCode()
+	private int count;          // Entries 0 (inclusive) through count (exclusive) are in use.
+	private int probes;         // The cells visited by the current operation.
+	private LoadFactorPolicy loadFactorPolicy = LoadFactorPolicy.DEFAULT;
+	private final CapacityPolicy capacityPolicy;
+	private final PrimeGenerator primeGenerator;
+	private final View nameView = new View(true);
+	private final View numberView = new View(false);
+
+	// Returns the cell of index which refers to the entry whose key is key, or -1.
+	private int find(int[] index, String[] keys, int[] hashes, String key, int hash) {
+		int i = capacityPolicy.index(hash, index.length);
+		probes++;
+		for (int visited = 1; index[i] != EMPTY && visited <= index.length; visited++) {
+			int entry = index[i] - 1;
+			if (hashes[entry] == hash && keys[entry].equals(key))
+				return i;
+			i = (i + 1) % index.length;
+			probes++;
+		}
+		return -1;
+	}
+
+	// Returns the cell of index which refers to entry. The entry has to be in the index.
+	private int cellOf(int[] index, int[] hashes, int entry) {
+		int i = capacityPolicy.index(hashes[entry], index.length);
+		probes++;
+		while (index[i] != entry + 1) {
+			i = (i + 1) % index.length;
+			probes++;
+		}
+		return i;
+	}
+
+	private void insert(int[] index, int[] hashes, int entry) {
+		int i = capacityPolicy.index(hashes[entry], index.length);
+		probes++;
+		while (index[i] != EMPTY) {
+			i = (i + 1) % index.length;
+			probes++;
+		}
+		index[i] = entry + 1;
+	}
+
+	// Knuth's Algorithm R: after emptying cell i, pull back every cell of the cluster whose hashed address is not in (i, j].
+	private void shiftBack(int[] index, int[] hashes, int i) {
+		index[i] = EMPTY;
+		int j = i;
+		while (true) {
+			j = (j + 1) % index.length;
+			probes++;
+			if (index[j] == EMPTY)
+				return;
+			int k = capacityPolicy.index(hashes[index[j] - 1], index.length);
+			boolean staysPut = (i <= j) ? (i < k && k <= j) : (i < k || k <= j);
+			if (!staysPut) {
+				index[i] = index[j];
+				index[j] = EMPTY;
+				i = j;
+			}
+		}
+	}
+
+	// Removes entry from both indices, and moves the last entry into its place so that the entries stay packed.
+	private void removeEntry(int entry) {
+		shiftBack(byName, nameHashes, cellOf(byName, nameHashes, entry));
+		shiftBack(byNumber, numberHashes, cellOf(byNumber, numberHashes, entry));
+		int last = --count;
+		if (entry != last) {
+			byName[cellOf(byName, nameHashes, last)] = entry + 1;
+			byNumber[cellOf(byNumber, numberHashes, last)] = entry + 1;
+			names[entry] = names[last];
+			numbers[entry] = numbers[last];
+			nameHashes[entry] = nameHashes[last];
+			numberHashes[entry] = numberHashes[last];
+		}
+		names[last] = numbers[last] = null;
+	}
+
+	// Resizes both indices and the entries to the given capacity, and indexes every entry again. No key is hashed.
+	private void resize(int capacity) {
+		byName = new int[capacity];
+		byNumber = new int[capacity];
+		names = Arrays.copyOf(names, capacity);
+		numbers = Arrays.copyOf(numbers, capacity);
+		nameHashes = Arrays.copyOf(nameHashes, capacity);
+		numberHashes = Arrays.copyOf(numberHashes, capacity);
+		for (int entry = 0; entry < count; entry++) {
+			probes++;
+			insert(byName, nameHashes, entry);
+			insert(byNumber, numberHashes, entry);
+		}
+	}
+
+	private void shrinkIfNeeded() {
+		if (loadFactorPolicy.shouldShrink(count, byName.length) && byName.length > capacityPolicy.minimumCapacity())
+			resize(capacityPolicy.previousCapacity(primeGenerator, byName.length));
+	}
+
+	// The entry whose name is name, or -1.
+	private int entryOfName(String name) {
+		int cell = find(byName, names, nameHashes, name, name.hashCode());
+		return cell == -1 ? -1 : byName[cell] - 1;
+	}
+
+	// The entry whose number is number, or -1.
+	private int entryOfNumber(String number) {
+		int cell = find(byNumber, numbers, numberHashes, number, number.hashCode());
+		return cell == -1 ? -1 : byNumber[cell] - 1;
+	}
+
+	/*
+	 * A HashTable over the entries, keyed by name if byName is true and by number otherwise. Every change goes through
+	 * the index, so that it changes both directions at once.
+	 */
+	private class View implements HashTable {
+
+		private final boolean byName;
+
+		View(boolean byName) {
+			this.byName = byName;
+		}
+
+		// Returns value, like every HashTable, rather than the number that BidirectionalIndex.put() returns.
+		@Override
+		public Probes put(String key, String value) {
+			Probes probes = byName ? BidirectionalIndex.this.put(key, value) : BidirectionalIndex.this.put(value, key);
+			return new Probes(value, probes.getProbes());
+		}
+
+		@Override
+		public Probes get(String key) {
+			return byName ? getNumberOf(key) : getOwnerOf(key);
+		}
+
+		@Override
+		public Probes remove(String key) {
+			return byName ? removeByName(key) : removeByNumber(key);
+		}
+
+		@Override
+		public boolean containsKey(String key) {
+			return get(key).getValue() != null;
+		}
+
+		@Override
+		public boolean containsValue(String value) {
+			return (byName ? getOwnerOf(value) : getNumberOf(value)).getValue() != null;
+		}
+
+		@Override
+		public int size() {
+			return count;
+		}
+
+		@Override
+		public int capacity() {
+			return BidirectionalIndex.this.capacity();
+		}
+
+		@Override
+		public Iterator<KVPair> iterator() {
+			final String[] keys = byName ? names : numbers, values = byName ? numbers : names;
+			return new CellIterator(count) {
+				@Override
+				KVPair cell(int cell) {
+					return keys[cell] == null ? null : new KVPair(keys[cell], values[cell]);
+				}
+			};
+		}
+	}
+
+	/* ******************************************/
+	/*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+	/* **************************************** */
+
+	/**
+	 * Default constructor. Initializes the internal storage with a size equal to the starting value of {@link PrimeGenerator}.
+	 */
+	public BidirectionalIndex() {
+		this(CapacityPolicy.PRIME, 0);
+	}
+
+	/**
+	 * Constructor with a choice of {@link CapacityPolicy} and the number of entries the index is expected to hold.
+	 * Initializes the internal storage once, with a capacity large enough for expectedSize entries, so that inserting
+	 * them never resizes the index.
+	 *
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the index and how keys are hashed into it.
+	 * @param expectedSize The number of entries the index is expected to hold.
+	 * @throws IllegalArgumentException if expectedSize is negative.
+	 */
+	public BidirectionalIndex(CapacityPolicy policy, int expectedSize) {
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("Expected size cannot be negative, but was " + expectedSize + ".");
+		primeGenerator = new PrimeGenerator();
+		capacityPolicy = policy;
+		int capacity = policy.capacityFor(primeGenerator, 2 * expectedSize + 1);
+		byName = new int[capacity];
+		byNumber = new int[capacity];
+		names = new String[capacity];
+		numbers = new String[capacity];
+		nameHashes = new int[capacity];
+		numberHashes = new int[capacity];
+	}
+
+	/**
+	 * Inserts the entry &lt; name, number &gt;. If name or number already belong to an entry, that entry is
+	 * <b>updated</b>: a name keeps a single number, and a number a single owner, so an entry which held number under
+	 * another name is deleted first. The index grows once the share of its cells which are in use passes the
+	 * {@link LoadFactorPolicy#growAt()} of its {@link LoadFactorPolicy}.
+	 *
+	 * @param name The full name of the number's owner.
+	 * @param number The phone number of the person.
+	 * @return The {@link Probes} with number and the number of probes that the insertion made.
+	 * @throws IllegalArgumentException if either argument is {@code null}.
+	 */
+	public Probes put(String name, String number) {
+		if (name == null || number == null)
+			throw new IllegalArgumentException("key or value input cannot be null!");
+		probes = 0;
+		int entry = entryOfName(name), owner = entryOfNumber(number);
+		if (entry != -1 && entry == owner)
+			return new Probes(number, probes);
+		if (owner != -1 && entry == -1) {
+			// Only the name changes.
+			shiftBack(byName, nameHashes, cellOf(byName, nameHashes, owner));
+			names[owner] = name;
+			nameHashes[owner] = name.hashCode();
+			insert(byName, nameHashes, owner);
+			return new Probes(number, probes);
+		}
+		if (owner != -1) {
+			removeEntry(owner);
+			if (entry == count) // The last entry took the place of owner.
+				entry = owner;
+		}
+		if (entry != -1) {
+			// Only the number changes.
+			shiftBack(byNumber, numberHashes, cellOf(byNumber, numberHashes, entry));
+			numbers[entry] = number;
+			numberHashes[entry] = number.hashCode();
+			insert(byNumber, numberHashes, entry);
+			return new Probes(number, probes);
+		}
+		/* * * CHECK FOR RESIZING * * */
+		if (loadFactorPolicy.shouldGrow(count, byName.length))
+			resize(capacityPolicy.nextCapacity(primeGenerator, byName.length));
+		entry = count++;
+		names[entry] = name;
+		numbers[entry] = number;
+		nameHashes[entry] = name.hashCode();
+		numberHashes[entry] = number.hashCode();
+		insert(byName, nameHashes, entry);
+		insert(byNumber, numberHashes, entry);
+		return new Probes(number, probes);
+	}
+
+	/**
+	 * Retrieves the number of name.
+	 * @param name The full name to search for.
+	 * @return The {@link Probes} with the number of name, or {@code null} if name is {@code null} or not in the index.
+	 */
+	public Probes getNumberOf(String name) {
+		if (name == null)
+			return new Probes(null, 0);
+		probes = 0;
+		int entry = entryOfName(name);
+		return new Probes(entry == -1 ? null : numbers[entry], probes);
+	}
+
+	/**
+	 * Retrieves the owner of number.
+	 * @param number The phone number to search for.
+	 * @return The {@link Probes} with the owner of number, or {@code null} if number is {@code null} or not in the index.
+	 */
+	public Probes getOwnerOf(String number) {
+		if (number == null)
+			return new Probes(null, 0);
+		probes = 0;
+		int entry = entryOfNumber(number);
+		return new Probes(entry == -1 ? null : names[entry], probes);
+	}
+
+	/**
+	 * Deletes the entry of name, if there is one.
+	 * @param name The full name whose entry is deleted.
+	 * @return The {@link Probes} with the number of the deleted entry, or {@code null} if there was none.
+	 */
+	public Probes removeByName(String name) {
+		if (name == null)
+			return new Probes(null, 0);
+		probes = 0;
+		int entry = entryOfName(name);
+		if (entry == -1)
+			return new Probes(null, probes);
+		String number = numbers[entry];
+		removeEntry(entry);
+		shrinkIfNeeded();
+		return new Probes(number, probes);
+	}
+
+	/**
+	 * Deletes the entry of number, if there is one.
+	 * @param number The phone number whose entry is deleted.
+	 * @return The {@link Probes} with the owner of the deleted entry, or {@code null} if there was none.
+	 */
+	public Probes removeByNumber(String number) {
+		if (number == null)
+			return new Probes(null, 0);
+		probes = 0;
+		int entry = entryOfNumber(number);
+		if (entry == -1)
+			return new Probes(null, probes);
+		String name = names[entry];
+		removeEntry(entry);
+		shrinkIfNeeded();
+		return new Probes(name, probes);
+	}
+
+	/**
+	 * Deletes the entry &lt; name, number &gt;, if the index holds it. An entry with name but another number, or number
+	 * but another name, is left alone.
+	 * @param name The full name of the entry.
+	 * @param number The phone number of the entry.
+	 * @return The {@link Probes} with number if the entry was deleted, or {@code null} otherwise.
+	 */
+	public Probes remove(String name, String number) {
+		if (name == null || number == null)
+			return new Probes(null, 0);
+		probes = 0;
+		int entry = entryOfName(name);
+		if (entry == -1 || !numbers[entry].equals(number))
+			return new Probes(null, probes);
+		removeEntry(entry);
+		shrinkIfNeeded();
+		return new Probes(number, probes);
+	}
+
+	/**
+	 * Changes when the index grows and shrinks. {@link LoadFactorPolicy#DEFAULT} by default.
+	 *
+	 * @param policy The new {@link LoadFactorPolicy}.
+	 * @throws IllegalArgumentException if policy is {@code null}, or its {@link LoadFactorPolicy#growAt()} is not less than 1.
+	 */
+	public void setLoadFactorPolicy(LoadFactorPolicy policy) {
+		if (policy == null || policy.growAt() >= 1)
+			throw new IllegalArgumentException("Openly addressed tables cannot use " + policy + ".");
+		loadFactorPolicy = policy;
+	}
+
+	/**
+	 * Returns when the index grows and shrinks.
+	 *
+	 * @return The {@link LoadFactorPolicy} of this index.
+	 */
+	public LoadFactorPolicy getLoadFactorPolicy() {
+		return loadFactorPolicy;
+	}
+
+	/**
+	 * Returns the number of entries in the index.
+	 * @return The number of entries.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns the number of cells of each of the two indices, which is also the number of entries the index has room for.
+	 * @return The capacity of the index.
+	 */
+	public int capacity() {
+		return byName.length;
+	}
+
+	/**
+	 * Returns a {@link HashTable} view of the index with names as keys and numbers as values. Changes to the view
+	 * change the index, and therefore {@link #byNumber()} as well.
+	 * @return The index, keyed by name.
+	 */
+	public HashTable byName() {
+		return nameView;
+	}
+
+	/**
+	 * Returns a {@link HashTable} view of the index with numbers as keys and names as values. Changes to the view
+	 * change the index, and therefore {@link #byName()} as well.
+	 * @return The index, keyed by number.
+	 */
+	public HashTable byNumber() {
+		return numberView;
+	}
+}
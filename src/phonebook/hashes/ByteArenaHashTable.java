@@ -0,0 +1,456 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+import phonebook.utils.PrimeGenerator;
+import phonebook.utils.Probes;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * <p>{@link ByteArenaHashTable} is an Openly Addressed {@link HashTable} implemented with <b>Linear Probing</b>, whose keys
+ * and values all live in <b>one growable {@code byte[]} arena</b> instead of {@link String} and {@link KVPair} objects.
+ * Every cell of the table is two {@code int}s, the hash code of its key and the offset of its record in the arena, so a
+ * stored pair costs the garbage collector nothing to mark: the table is three arrays, however many pairs it holds.</p>
+ *
+ * <p>A record is the key followed by the value, each one prefixed by its length in bytes. Strings whose characters all fit
+ * in a byte, like almost every name and number of a directory, are stored in Latin-1, one byte per character, and the
+ * others in UTF-8, which a bit of the length prefix tells apart. Searches compare the characters of the searched key
+ * against the bytes of a Latin-1 record in place, so looking up such a key allocates nothing but the value it returns.</p>
+ *
+ * <p>Deletions and updates leave dead records behind. When the arena fills up and at least half of it is dead, it is
+ * compacted instead of grown, and resizing the table always compacts it, without hashing or decoding any key. Like
+ * {@link OffHeapHashTable}, this table supports both soft and hard deletion.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see HashTable
+ * @see OffHeapHashTable
+ * @see StructOfArraysHashTable
+ * @see CollisionResolver#BYTE_ARENA
+ */
+public class ByteArenaHashTable implements HashTable {
+
+	/* ********************************************************************/
+	/* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+	/* ********************************************************************/
+
+	private static final int EMPTY = 0;
+	private static final int TOMBSTONE = -1;
+	private static final int ARENA_BYTES_PER_CELL = 16; // Initial guess at the bytes a cell's record needs.
+	private static final int MAX_ARENA_BYTES = Integer.MAX_VALUE - 8; // The largest array that JVMs reliably allocate.
+
+	private int[] hashes;   // key.hashCode() of every occupied cell.
+	private int[] records;  // Offset of the record in the arena plus one, EMPTY or TOMBSTONE.
+	private byte[] arena;
+	private int arenaEnd;   // The first unused byte of the arena.
+	private int garbage;    // The bytes of the arena taken up by records that no cell refers to.
+	private int count;
+	private int tombstones;
+	private LoadFactorPolicy loadFactorPolicy = LoadFactorPolicy.DEFAULT;
+	private final boolean softFlag;
+	private final CapacityPolicy capacityPolicy;
+	private final PrimeGenerator primeGenerator;
+
+	private boolean isOccupied(int cell) {
+		return records[cell] != EMPTY && records[cell] != TOMBSTONE;
+	}
+
+	private static boolean isLatin1(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			if (s.charAt(i) > 0xFF)
+				return false;
+		}
+		return true;
+	}
+
+	// The UTF-8 encoding of s, or null if s is stored in Latin-1.
+	private static byte[] utf8(String s) {
+		return isLatin1(s) ? null : s.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/*
+	 * Every string in a record is prefixed by a header, (length << 1) | 1 for UTF-8 and length << 1 for Latin-1, written as
+	 * a varint: seven bits per byte, least significant first, with the top bit set on every byte but the last one.
+	 */
+	private static int headerOf(String s, byte[] utf8) {
+		return utf8 == null ? s.length() << 1 : utf8.length << 1 | 1;
+	}
+
+	private static int headerSize(int header) {
+		int size = 1;
+		while ((header >>>= 7) != 0)
+			size++;
+		return size;
+	}
+
+	private static int header(byte[] arena, int offset) {
+		int header = 0;
+		for (int shift = 0; ; shift += 7) {
+			byte b = arena[offset++];
+			header |= (b & 0x7F) << shift;
+			if (b >= 0)
+				return header;
+		}
+	}
+
+	// The offset of the first byte after the string which starts at offset.
+	private static int skip(byte[] arena, int offset) {
+		int header = header(arena, offset);
+		return offset + headerSize(header) + (header >>> 1);
+	}
+
+	private int write(int offset, String s, byte[] utf8) {
+		int header = headerOf(s, utf8);
+		for (; (header & ~0x7F) != 0; header >>>= 7)
+			arena[offset++] = (byte) (header & 0x7F | 0x80);
+		arena[offset++] = (byte) header;
+		if (utf8 == null) {
+			for (int i = 0; i < s.length(); i++)
+				arena[offset++] = (byte) s.charAt(i);
+		} else {
+			System.arraycopy(utf8, 0, arena, offset, utf8.length);
+			offset += utf8.length;
+		}
+		return offset;
+	}
+
+	private String read(int offset) {
+		int header = header(arena, offset);
+		return new String(arena, offset + headerSize(header), header >>> 1,
+				(header & 1) == 0 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+	}
+
+	// Whether the string which starts at offset equals s. Latin-1 strings are compared in place, character by character.
+	private boolean equalsAt(int offset, String s) {
+		int header = header(arena, offset);
+		int length = header >>> 1, start = offset + headerSize(header);
+		if ((header & 1) == 0) {
+			if (length != s.length())
+				return false;
+			for (int i = 0; i < length; i++) {
+				if ((arena[start + i] & 0xFF) != s.charAt(i))
+					return false;
+			}
+			return true;
+		}
+		if (isLatin1(s)) // s would have been stored in Latin-1.
+			return false;
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length != length)
+			return false;
+		for (int i = 0; i < length; i++) {
+			if (arena[start + i] != bytes[i])
+				return false;
+		}
+		return true;
+	}
+
+	private static int recordSize(byte[] arena, int offset) {
+		return skip(arena, skip(arena, offset)) - offset;
+	}
+
+	// Returns the cell of key, or -1. probes[0] receives the number of cells visited.
+	private int find(String key, int hash, int[] probes) {
+		int i = capacityPolicy.index(hash, records.length);
+		probes[0] = 1;
+		for (int visited = 1; records[i] != EMPTY && visited <= records.length; visited++) {
+			if (records[i] != TOMBSTONE && hashes[i] == hash && equalsAt(records[i] - 1, key))
+				return i;
+			i = (i + 1) % records.length;
+			probes[0]++;
+		}
+		return -1;
+	}
+
+	// The arena of a table with the given capacity: our initial guess, or twice the live records, within the limit of an array.
+	private static int arenaBytes(int capacity, long liveBytes) {
+		if (liveBytes > MAX_ARENA_BYTES)
+			throw new IllegalStateException("ByteArenaHashTable arena cannot grow beyond 2GB.");
+		return (int) Math.max(liveBytes, Math.min(MAX_ARENA_BYTES, Math.max((long) capacity * ARENA_BYTES_PER_CELL, 2 * liveBytes)));
+	}
+
+	// Copies every live record into a fresh arena of the given capacity, dropping the dead ones.
+	private void compact(int capacity) {
+		byte[] old = arena;
+		arena = new byte[capacity];
+		arenaEnd = 0;
+		garbage = 0;
+		for (int i = 0; i < records.length; i++) {
+			if (isOccupied(i)) {
+				int size = recordSize(old, records[i] - 1);
+				System.arraycopy(old, records[i] - 1, arena, arenaEnd, size);
+				records[i] = arenaEnd + 1;
+				arenaEnd += size;
+			}
+		}
+	}
+
+	// Appends a record to the arena, compacting or growing it if needed, and returns its offset.
+	private int append(String key, byte[] keyUtf8, String value, byte[] valueUtf8) {
+		int keyHeader = headerOf(key, keyUtf8), valueHeader = headerOf(value, valueUtf8);
+		long size = (long) headerSize(keyHeader) + (keyHeader >>> 1) + headerSize(valueHeader) + (valueHeader >>> 1);
+		if (arenaEnd + size > arena.length) {
+			long live = arenaEnd - garbage;
+			if (live + size > MAX_ARENA_BYTES)
+				throw new IllegalStateException("ByteArenaHashTable arena cannot grow beyond 2GB.");
+			// Compacting is enough when at least half of the arena is dead; otherwise the live records get twice their room.
+			long capacity = garbage >= arenaEnd / 2 ? Math.max(arena.length, live + size) : Math.max(2 * (live + size), arena.length);
+			compact((int) Math.min(MAX_ARENA_BYTES, capacity));
+		}
+		int offset = arenaEnd;
+		arenaEnd = write(write(offset, key, keyUtf8), value, valueUtf8);
+		return offset;
+	}
+
+	// Fills the first empty cell of the cluster of hash. Returns the cells visited.
+	private int insert(int hash, int record) {
+		int i = capacityPolicy.index(hash, records.length);
+		int probeCount = 1;
+		while (records[i] != EMPTY) {
+			i = (i + 1) % records.length;
+			probeCount++;
+		}
+		hashes[i] = hash;
+		records[i] = record;
+		return probeCount;
+	}
+
+	// Moves every live cell into a table of the given capacity and compacts the arena. No key is hashed or decoded.
+	private int resize(int capacity) {
+		int arenaBytes = arenaBytes(capacity, arenaEnd - garbage); // Checked before anything changes.
+		int[] oldHashes = hashes, oldRecords = records;
+		hashes = new int[capacity];
+		records = new int[capacity];
+		tombstones = 0;
+		int probeCount = 0;
+		for (int x = 0; x < oldRecords.length; x++) {
+			probeCount++;
+			if (oldRecords[x] != EMPTY && oldRecords[x] != TOMBSTONE)
+				probeCount += insert(oldHashes[x], oldRecords[x]);
+		}
+		compact(arenaBytes);
+		return probeCount;
+	}
+
+	// Knuth's Algorithm R: after emptying cell i, pull back every cell of the cluster whose hashed address is not in (i, j].
+	private int shiftBack(int i) {
+		int probeCount = 0;
+		records[i] = EMPTY;
+		int j = i;
+		while (true) {
+			j = (j + 1) % records.length;
+			probeCount++;
+			if (records[j] == EMPTY)
+				return probeCount;
+			int k = capacityPolicy.index(hashes[j], records.length);
+			boolean staysPut = (i <= j) ? (i < k && k <= j) : (i < k || k <= j);
+			if (!staysPut) {
+				hashes[i] = hashes[j];
+				records[i] = records[j];
+				records[j] = EMPTY;
+				i = j;
+			}
+		}
+	}
+
+	/* ******************************************/
+	/*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+	/* **************************************** */
+
+	/**
+	 * Constructor with soft deletion option. Initializes the internal storage with a size equal to the starting value of  {@link PrimeGenerator}.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 */
+	public ByteArenaHashTable(boolean soft) {
+		this(soft, CapacityPolicy.PRIME);
+	}
+
+	/**
+	 * Constructor with soft deletion option and a choice of {@link CapacityPolicy}. Initializes the internal storage with a size equal
+	 * to the initial capacity of the policy.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+	 */
+	public ByteArenaHashTable(boolean soft, CapacityPolicy policy) {
+		this(soft, policy, 0);
+	}
+
+	/**
+	 * Constructor with soft deletion option, a choice of {@link CapacityPolicy} and the number of records the table is expected
+	 * to hold. Initializes the internal storage once, with a capacity large enough for expectedSize records, so that
+	 * inserting them never resizes the table.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+	 * @param expectedSize The number of records the table is expected to hold.
+	 * @throws IllegalArgumentException if expectedSize is negative.
+	 */
+	public ByteArenaHashTable(boolean soft, CapacityPolicy policy, int expectedSize) {
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("Expected size cannot be negative, but was " + expectedSize + ".");
+		primeGenerator = new PrimeGenerator();
+		capacityPolicy = policy;
+		int capacity = policy.capacityFor(primeGenerator, 2 * expectedSize + 1);
+		hashes = new int[capacity];
+		records = new int[capacity];
+		arena = new byte[arenaBytes(capacity, 0)];
+		count = 0;
+		softFlag = soft;
+	}
+
+	/**
+	 * Inserts the pair &lt;key, value&gt; into this. The container should <b>not</b> allow for {@code null}
+	 * keys and values. If key is already in the table, its value is updated. This method is expected to run in
+	 * <em>amortized constant time</em>.
+	 * <p>
+	 * Instances of {@link ByteArenaHashTable} grow once the share of their cells which are occupied or tombstoned passes
+	 * the {@link LoadFactorPolicy#growAt()} of their {@link LoadFactorPolicy}. A new value which takes up no more bytes
+	 * than the old one, with a length prefix of the same size, overwrites it in place.
+	 *
+	 * @param key   The record's key.
+	 * @param value The record's value.
+	 * @return The {@link phonebook.utils.Probes} with the value added and the number of probes it makes.
+	 * @throws IllegalArgumentException if either argument is {@code null}.
+	 */
+	@Override
+	public Probes put(String key, String value) {
+		if (key == null || value == null)
+			throw new IllegalArgumentException("key or value input cannot be null!");
+		int hash = key.hashCode();
+		byte[] valueUtf8 = utf8(value);
+		int[] probes = new int[1];
+		int index = find(key, hash, probes);
+		if (index != -1) {
+			int valueOffset = skip(arena, records[index] - 1);
+			int oldHeader = header(arena, valueOffset), newHeader = headerOf(value, valueUtf8);
+			if (headerSize(oldHeader) == headerSize(newHeader) && (newHeader >>> 1) <= (oldHeader >>> 1)) {
+				write(valueOffset, value, valueUtf8);
+				garbage += (oldHeader >>> 1) - (newHeader >>> 1);
+			} else {
+				// The old record is only counted as garbage once append() is done with it, since compacting the arena
+				// there still copies it and starts counting from zero.
+				int oldSize = recordSize(arena, records[index] - 1);
+				records[index] = append(key, utf8(key), value, valueUtf8) + 1;
+				garbage += oldSize;
+			}
+			return new Probes(value, probes[0]);
+		}
+		int probeCount = 0;
+		/* * * CHECK FOR RESIZING * * */
+		if (loadFactorPolicy.shouldGrow(count + tombstones, records.length))
+			probeCount += resize(capacityPolicy.nextCapacity(primeGenerator, records.length));
+		int record = append(key, utf8(key), value, valueUtf8) + 1;
+		probeCount += insert(hash, record);
+		count++;
+		return new Probes(value, probeCount);
+	}
+
+	@Override
+	public Probes get(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		int[] probes = new int[1];
+		int index = find(key, key.hashCode(), probes);
+		return new Probes(index == -1 ? null : read(skip(arena, records[index] - 1)), probes[0]);
+	}
+
+	@Override
+	public Probes remove(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		int[] probes = new int[1];
+		int index = find(key, key.hashCode(), probes);
+		if (index == -1)
+			return new Probes(null, probes[0]);
+		String oldVal = read(skip(arena, records[index] - 1));
+		garbage += recordSize(arena, records[index] - 1);
+		if (softFlag) {
+			records[index] = TOMBSTONE;
+			tombstones++;
+		} else {
+			probes[0] += shiftBack(index);
+		}
+		count--;
+		if (loadFactorPolicy.shouldShrink(count, records.length) && records.length > capacityPolicy.minimumCapacity())
+			probes[0] += resize(capacityPolicy.previousCapacity(primeGenerator, records.length));
+		return new Probes(oldVal, probes[0]);
+	}
+
+	/**
+	 * Changes when the table grows and shrinks. {@link LoadFactorPolicy#DEFAULT} by default.
+	 *
+	 * @param policy The new {@link LoadFactorPolicy}.
+	 * @throws IllegalArgumentException if policy is {@code null}, or its {@link LoadFactorPolicy#growAt()} is not less than 1.
+	 */
+	public void setLoadFactorPolicy(LoadFactorPolicy policy) {
+		if (policy == null || policy.growAt() >= 1)
+			throw new IllegalArgumentException("Openly addressed tables cannot use " + policy + ".");
+		loadFactorPolicy = policy;
+	}
+
+	/**
+	 * Returns when the table grows and shrinks.
+	 *
+	 * @return The {@link LoadFactorPolicy} of this table.
+	 */
+	public LoadFactorPolicy getLoadFactorPolicy() {
+		return loadFactorPolicy;
+	}
+
+	@Override
+	public boolean containsKey(String key) {
+		return key != null && find(key, key.hashCode(), new int[1]) != -1;
+	}
+
+	@Override
+	public boolean containsValue(String value) {
+		if (value == null)
+			return false;
+		for (int i = 0; i < records.length; i++) {
+			if (isOccupied(i) && equalsAt(skip(arena, records[i] - 1), value))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	@Override
+	public int capacity() {
+		return records.length;
+	}
+
+	/**
+	 * Returns the number of bytes that the table has allocated for its cells and its arena.
+	 * @return The total length of the table's arrays, in bytes.
+	 */
+	public long storageBytes() {
+		return 8L * records.length + arena.length;
+	}
+
+	/**
+	 * Returns an {@link Iterator} over the pairs of the table, decoding every one of them as it is reached.
+	 * @return An {@link Iterator} over the pairs of this table.
+	 */
+	@Override
+	public Iterator<KVPair> iterator() {
+		return new CellIterator(records.length) {
+			@Override
+			KVPair cell(int cell) {
+				if (!isOccupied(cell))
+					return null;
+				int offset = records[cell] - 1;
+				return new KVPair(read(offset), read(skip(arena, offset)));
+			}
+		};
+	}
+}
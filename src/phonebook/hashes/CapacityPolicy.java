@@ -0,0 +1,153 @@
+package phonebook.hashes;
+
+import phonebook.utils.PrimeGenerator;
+
+/**
+ * <p>{@link CapacityPolicy} is an enum which provides named constants for the two ways in which our {@link HashTable}
+ * instances can size their internal storage and map hash codes to cells: </p>
+ * <ol>
+ *     <li><i>Prime</i> capacities, drawn from {@link PrimeGenerator}, with a key's cell picked by taking its hash code
+ *     <b>modulo</b> the capacity. This is the scheme we have talked about in class, and the default for every table.</li>
+ *     <li><i>Power of two</i> capacities, with a key's cell picked by <b>Fibonacci hashing</b>: the hash code is multiplied
+ *     by 2<sup>32</sup> divided by the golden ratio and the top bits of the product are kept. This replaces an integer
+ *     division on every probe with a multiplication and a shift. Since {@link String#hashCode()} differs mostly in its low
+ *     bits for similar keys, the hash code is mixed with its own top half before the multiplication.</li>
+ * </ol>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see HashTable
+ * @see OpenAddressingHashTable
+ * @see SeparateChainingHashTable
+ * @see PrimeGenerator
+ */
+public enum CapacityPolicy {
+
+    PRIME {
+        @Override
+        public int index(int hashCode, int capacity) {
+            return (hashCode & 0x7fffffff) % capacity;
+        }
+
+        @Override
+        public int initialCapacity(PrimeGenerator primeGenerator) {
+            return primeGenerator.getCurrPrime();
+        }
+
+        @Override
+        public int minimumCapacity() {
+            return MIN_PRIME;
+        }
+
+        @Override
+        public int nextCapacity(PrimeGenerator primeGenerator, int capacity) {
+            return primeGenerator.getNextPrime();
+        }
+
+        @Override
+        public int previousCapacity(PrimeGenerator primeGenerator, int capacity) {
+            return primeGenerator.getPreviousPrime();
+        }
+
+        @Override
+        int capacityAtLeast(PrimeGenerator primeGenerator, int minimumCapacity) {
+            return primeGenerator.jumpToPrimeAtLeast(minimumCapacity);
+        }
+    },
+
+    POWER_OF_TWO {
+        @Override
+        public int index(int hashCode, int capacity) {
+            int mixed = hashCode ^ (hashCode >>> 16);
+            // For capacity = 2^k, numberOfLeadingZeros(capacity) + 1 = 32 - k, so we keep the top k bits.
+            return (mixed * GOLDEN_RATIO) >>> (Integer.numberOfLeadingZeros(capacity) + 1);
+        }
+
+        @Override
+        public int initialCapacity(PrimeGenerator primeGenerator) {
+            return MIN_POWER_OF_TWO;
+        }
+
+        @Override
+        public int minimumCapacity() {
+            return MIN_POWER_OF_TWO;
+        }
+
+        @Override
+        public int nextCapacity(PrimeGenerator primeGenerator, int capacity) {
+            return capacity << 1;
+        }
+
+        @Override
+        public int previousCapacity(PrimeGenerator primeGenerator, int capacity) {
+            return Math.max(MIN_POWER_OF_TWO, capacity >>> 1);
+        }
+
+        @Override
+        int capacityAtLeast(PrimeGenerator primeGenerator, int minimumCapacity) {
+            if (minimumCapacity > 1 << 30)
+                throw new IllegalArgumentException("No power of two capacity can hold " + minimumCapacity + " cells.");
+            return minimumCapacity <= 1 ? 1 : Integer.highestOneBit(minimumCapacity - 1) << 1;
+        }
+    };
+
+    // 2^32 / phi, rounded to the nearest odd integer.
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+    private static final int MIN_POWER_OF_TWO = 8;
+    private static final int MIN_PRIME = new PrimeGenerator().getCurrPrime();
+
+    /**
+     * Maps a hash code to a cell of a table.
+     * @param hashCode The hash code of the key, as produced by {@link String#hashCode()}.
+     * @param capacity The number of cells in the table, which must have been produced by this policy.
+     * @return An index between 0 (inclusive) and capacity (exclusive).
+     */
+    public abstract int index(int hashCode, int capacity);
+
+    /**
+     * Returns the capacity that a freshly constructed table should start with.
+     * @param primeGenerator The table's {@link PrimeGenerator}, which only prime capacities consult.
+     * @return The initial capacity: 7 for prime capacities, 8 for powers of two.
+     */
+    public abstract int initialCapacity(PrimeGenerator primeGenerator);
+
+    /**
+     * Returns the capacity of a freshly constructed, empty table, below which tables never shrink.
+     * @return 7 for prime capacities, 8 for powers of two.
+     */
+    public abstract int minimumCapacity();
+
+    /**
+     * Returns the capacity that a table should grow to.
+     * @param primeGenerator The table's {@link PrimeGenerator}, which only prime capacities consult.
+     * @param capacity The current capacity of the table.
+     * @return Roughly twice the current capacity.
+     */
+    public abstract int nextCapacity(PrimeGenerator primeGenerator, int capacity);
+
+    /**
+     * Returns the capacity that a table should shrink to.
+     * @param primeGenerator The table's {@link PrimeGenerator}, which only prime capacities consult.
+     * @param capacity The current capacity of the table.
+     * @return Roughly half the current capacity.
+     */
+    public abstract int previousCapacity(PrimeGenerator primeGenerator, int capacity);
+
+    // The least capacity of this policy which is at least minimumCapacity, ignoring the initial capacity.
+    abstract int capacityAtLeast(PrimeGenerator primeGenerator, int minimumCapacity);
+
+    /**
+     * Returns the capacity that a table should start with, or grow to, so that it can hold a number of records without
+     * any resizing. Prime capacities jump straight to the right prime through {@link PrimeGenerator#jumpToPrimeAtLeast(int)}.
+     * @param primeGenerator The table's {@link PrimeGenerator}, which only prime capacities consult.
+     * @param minimumCapacity The least number of cells the table needs, e.g twice the number of records for tables which
+     *                        resize at a load of 50&#37;.
+     * @return The least capacity of this policy which is no smaller than minimumCapacity or the initial capacity.
+     * @throws IllegalArgumentException if minimumCapacity is negative.
+     */
+    public int capacityFor(PrimeGenerator primeGenerator, int minimumCapacity) {
+        if (minimumCapacity < 0)
+            throw new IllegalArgumentException("A table cannot have " + minimumCapacity + " cells.");
+        return capacityAtLeast(primeGenerator, Math.max(minimumCapacity, initialCapacity(primeGenerator)));
+    }
+}
@@ -0,0 +1,53 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>{@link CellIterator} is the {@link Iterator} of the {@link HashTable}s that keep their pairs in the numbered cells of
+ * an array, or of several arrays laid end to end. Subclasses only say what every cell holds, and {@link CellIterator}
+ * skips over the ones which hold nothing.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see HashTable#iterator()
+ */
+abstract class CellIterator implements Iterator<KVPair> {
+
+	private final int cells;
+	private int nextCell;
+	private KVPair next;
+
+	/**
+	 * Creates an iterator over the cells 0 (inclusive) through cells (exclusive).
+	 * @param cells The number of cells to visit.
+	 */
+	CellIterator(int cells) {
+		this.cells = cells;
+	}
+
+	/**
+	 * Returns the pair in the given cell.
+	 * @param cell A cell between 0 (inclusive) and the number of cells (exclusive).
+	 * @return The pair stored in cell, or {@code null} if cell is empty or deleted.
+	 */
+	abstract KVPair cell(int cell);
+
+	@Override
+	public boolean hasNext() {
+		while (next == null && nextCell < cells)
+			next = cell(nextCell++);
+		return next != null;
+	}
+
+	@Override
+	public KVPair next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		KVPair pair = next;
+		next = null;
+		return pair;
+	}
+}
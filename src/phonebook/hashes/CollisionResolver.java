@@ -2,7 +2,7 @@ package phonebook.hashes;
 
 /**
  * <p>{@link CollisionResolver} is an enum which provides named constants for
- * four of the most widely used collision resolution techniques in hash tables: </p>
+ * the collision resolution techniques implemented by our {@link HashTable}s: </p>
  * <ol>
  *     <li><i>Separate Chaining</i>, a simple collision resolver which allocates a linked list for every cell of the hash table.
  *          All keys hashed to the same cell are put in the back of a linked list which containsKVPair all same-hash keys. Enlarging this hash table
@@ -14,6 +14,34 @@ package phonebook.hashes;
  *     making searches destined to fail, fail <b>faster!</b></li>
  *     <li><i>Quadratic Probing</i>, a  modification of Linear Probing where collisions are resolved by having the key make quadratically - increased &quot; jumps &quot;
  *     until it finds an empty cell. See writeup for more details.</li>
+ *     <li><i>Robin Hood Hashing</i>, a modification of Linear Probing which keeps the collision chains sorted by how far every key
+ *     lives from its hashed address, so that searches destined to fail can stop early and probe lengths vary less.</li>
+ *     <li><i>Cuckoo Hashing</i>, where every key may live in one of <b>two</b> small buckets picked by two different hash functions,
+ *     and collisions are resolved by evicting residents to their alternative bucket. Searches look at no more than two buckets
+ *     and a tiny stash, <b>regardless of the load</b>.</li>
+ *     <li><i>Hopscotch Hashing</i>, a modification of Linear Probing which keeps every key within a small, fixed neighborhood
+ *     of its hashed address, tracked by a per-cell bitmap. Searches scan one contiguous window, even at loads close to 90&#37;.</li>
+ *     <li><i>Control Byte Probing</i>, a group-wise probing scheme in the style of SwissTable, which keeps 7 bits of every key's hash
+ *     in a separate byte array and matches 16 of them at once, so that almost no {@code KVPair} that doesn't hold the searched key is
+ *     ever dereferenced.</li>
+ *     <li><i>Incremental Linear Probing</i>, Linear Probing which spreads the cost of every resize over the operations that
+ *     follow it, keeping the old and the new array side by side until all keys have been migrated.</li>
+ *     <li><i>Concurrent Separate Chaining</i>, a thread-safe Separate Chaining table whose writers lock one of several ranges of
+ *     chains and whose readers take no locks at all.</li>
+ *     <li><i>Lock-free Linear Probing</i>, a thread-safe Linear Probing table whose cells are only ever changed through
+ *     compare-and-set operations, and whose readers never wait for writers.</li>
+ *     <li><i>Persistent Trie</i>, a Hash Array Mapped Trie whose nodes are never changed once built, so that a snapshot of the
+ *     whole table can be taken in constant time and read while the table keeps changing.</li>
+ *     <li><i>Struct of Arrays</i>, Linear Probing over parallel arrays of keys, values and cached hash codes, so that probes
+ *     compare hash codes before they touch any key, and resizes never hash a key again.</li>
+ *     <li><i>Off-heap</i>, Linear Probing whose cells and UTF-8 encoded pairs are stored in direct buffers outside of the Java
+ *     heap, so that the garbage collector never has to trace the entries of very large phonebooks.</li>
+ *     <li><i>Long keys</i>, Linear Probing over a primitive {@code long[]} of phone numbers and a parallel array of values, so
+ *     that probes never follow a pointer to a key. Only phone numbers can be its keys.</li>
+ *     <li><i>Byte arena</i>, Linear Probing over arrays of hash codes and offsets into a single {@code byte[]} holding every
+ *     key and value in Latin-1 or UTF-8, so that a stored pair costs no objects at all.</li>
+ *     <li><i>Bidirectional</i>, a single store of entries indexed both by name and by number, so that every entry is
+ *     kept once and both directions change together. It has to be used for both directions of a phonebook.</li>
  * </ol>
  *
  * <p><b>**** DO NOT EDIT THIS ENUM! ****** </b></p>
@@ -24,10 +52,36 @@ package phonebook.hashes;
  * @see SeparateChainingHashTable
  * @see LinearProbingHashTable
  * @see QuadraticProbingHashTable
+ * @see RobinHoodHashTable
+ * @see CuckooHashTable
+ * @see HopscotchHashTable
+ * @see ControlByteHashTable
+ * @see IncrementalLinearProbingHashTable
+ * @see ConcurrentSeparateChainingHashTable
+ * @see LockFreeLinearProbingHashTable
+ * @see PersistentHashTable
+ * @see StructOfArraysHashTable
+ * @see OffHeapHashTable
+ * @see LongKeyHashTable
+ * @see ByteArenaHashTable
+ * @see BidirectionalIndex
  */
 public enum CollisionResolver {
     SEPARATE_CHAINING,
     LINEAR_PROBING,
     ORDERED_LINEAR_PROBING,
-    QUADRATIC_PROBING
+    QUADRATIC_PROBING,
+    ROBIN_HOOD,
+    CUCKOO,
+    HOPSCOTCH,
+    CONTROL_BYTE_PROBING,
+    INCREMENTAL_LINEAR_PROBING,
+    CONCURRENT_SEPARATE_CHAINING,
+    LOCK_FREE_LINEAR_PROBING,
+    PERSISTENT_TRIE,
+    STRUCT_OF_ARRAYS,
+    OFF_HEAP,
+    LONG_KEYS,
+    BYTE_ARENA,
+    BIDIRECTIONAL
 }
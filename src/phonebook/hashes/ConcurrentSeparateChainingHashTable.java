@@ -0,0 +1,393 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+import phonebook.utils.PrimeGenerator;
+import phonebook.utils.Probes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**<p>{@link ConcurrentSeparateChainingHashTable} is a <b>thread-safe</b> {@link HashTable} that implements <b>Separate Chaining</b>
+ * as its collision resolution strategy. It can be shared between threads without any external locking.</p>
+ *
+ * <p>Writers use <em>lock striping</em>: the chains are split into {@link #STRIPES} contiguous ranges, each one guarded by its
+ * own lock, so that writers to different ranges never wait for each other. Readers take <b>no locks at all</b>: the chain heads
+ * are published through an {@link AtomicReferenceArray}, and the links and values of the chain nodes are {@code volatile},
+ * so a reader always sees a consistent chain, and read throughput scales with the number of cores.</p>
+ *
+ * <p>The table grows once the average chain is longer than {@link #MAX_AVERAGE_CHAIN} nodes. The resizing thread moves the
+ * chains into the new array one stripe at a time, so writers only ever wait for the stripe that holds their chain to be
+ * moved. It relinks the nodes instead of copying them, last node first, and then leaves a forwarding marker in place of the
+ * chain, which readers and writers follow into the new array. A reader that runs into a moved node knows that the rest of
+ * its chain has moved as well, and carries on in the new array.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ * @see HashTable
+ * @see SeparateChainingHashTable
+ * @see CollisionResolver
+ */
+public class ConcurrentSeparateChainingHashTable implements HashTable {
+
+    /* ****************************************************************** */
+    /* ***** PRIVATE FIELDS / METHODS ************************************ */
+    /* ****************************************************************** */
+
+    /**
+     * The number of locks that the chains are split among.
+     */
+    public static final int STRIPES = 16;
+
+    /**
+     * The average chain length beyond which the table grows.
+     */
+    public static final int MAX_AVERAGE_CHAIN = 2;
+
+    private static class Node {
+        final String key;
+        volatile String value;
+        volatile Node next;
+        volatile AtomicReferenceArray<Node> home; // The array whose chains the node belongs to.
+
+        Node(String key, String value, Node next, AtomicReferenceArray<Node> home) {
+            this.key = key;
+            this.value = value;
+            this.next = next;
+            this.home = home;
+        }
+    }
+
+    // Left in place of a chain that was moved from one array to the other.
+    private static final class Forward extends Node {
+        final AtomicReferenceArray<Node> from;
+        final AtomicReferenceArray<Node> to;
+
+        Forward(AtomicReferenceArray<Node> from, AtomicReferenceArray<Node> to) {
+            super(null, null, null, null);
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    private volatile AtomicReferenceArray<Node> table;
+    private volatile Forward moving; // The resize in progress, if any.
+    private final ReentrantLock[] locks;
+    private final ReentrantLock resizeLock = new ReentrantLock();
+    private final AtomicInteger count;
+    private final PrimeGenerator primeGenerator; // Only used under resizeLock.
+
+    private static int hash(String key, int length){
+        return (key.hashCode() & 0x7fffffff) % length;
+    }
+
+    // Maps a chain to the lock of the range it belongs to.
+    private ReentrantLock lockFor(int bucket, int length){
+        return locks[(int) ((long) bucket * STRIPES / length)];
+    }
+
+    // Locks the stripe that guards key's chain, following the chain into newer arrays until it has not been moved, and
+    // returns the array that the chain is in. The chain cannot be moved while we hold its stripe.
+    private AtomicReferenceArray<Node> lockChainOf(String key){
+        AtomicReferenceArray<Node> t = table;
+        while (true) {
+            int bucket = hash(key, t.length());
+            ReentrantLock lock = lockFor(bucket, t.length());
+            lock.lock();
+            Node head = t.get(bucket);
+            if (!(head instanceof Forward))
+                return t;
+            lock.unlock();
+            t = ((Forward) head).to;
+        }
+    }
+
+    // Returns the array that t's chains are moving or have moved to, given that a node of t's chain i was moved.
+    private AtomicReferenceArray<Node> successor(AtomicReferenceArray<Node> t, int i){
+        while (true) {
+            Node head = t.get(i);
+            if (head instanceof Forward)
+                return ((Forward) head).to;
+            Forward resize = moving;
+            if (resize != null && resize.from == t)
+                return resize.to;
+            // The resize of t ended between the two reads, so chain i is forwarded by now.
+        }
+    }
+
+    private void enlarge(AtomicReferenceArray<Node> expected){
+        if (!resizeLock.tryLock())
+            return; // Somebody else is resizing.
+        try {
+            if (table != expected || count.get() <= MAX_AVERAGE_CHAIN * expected.length())
+                return; // Somebody else got here first.
+            Forward forward = new Forward(expected, new AtomicReferenceArray<>(primeGenerator.getNextPrime()));
+            moving = forward;
+            Node[] chain = new Node[2 * MAX_AVERAGE_CHAIN];
+            int bucket = 0;
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                int end = (int) (((long) (stripe + 1) * expected.length() + STRIPES - 1) / STRIPES); // First chain of the next stripe.
+                locks[stripe].lock();
+                try {
+                    for (; bucket < end; bucket++)
+                        chain = moveChain(forward, bucket, chain);
+                } finally {
+                    locks[stripe].unlock();
+                }
+            }
+            table = forward.to;
+            moving = null;
+        } finally {
+            resizeLock.unlock();
+        }
+    }
+
+    // Relinks the nodes of chain i into the new array, last node first, and forwards the chain. Expects the chain's stripe
+    // to be held, and returns the buffer it collected the chain into, which it may have grown.
+    private Node[] moveChain(Forward forward, int i, Node[] chain){
+        int length = 0;
+        for (Node n = forward.from.get(i); n != null; n = n.next) {
+            if (length == chain.length)
+                chain = Arrays.copyOf(chain, 2 * length);
+            chain[length++] = n;
+        }
+        AtomicReferenceArray<Node> to = forward.to;
+        while (length > 0) {
+            Node n = chain[--length];
+            chain[length] = null;
+            int b = hash(n.key, to.length());
+            ReentrantLock lock = lockFor(b, to.length());
+            lock.lock();
+            try {
+                // A reader that follows the new link will see the new home too.
+                n.home = to;
+                n.next = to.get(b);
+                to.set(b, n);
+            } finally {
+                lock.unlock();
+            }
+        }
+        forward.from.set(i, forward);
+        return chain;
+    }
+
+    /* **************************************** */
+    /*  IMPLEMENT THE FOLLOWING PUBLIC METHODS:  */
+    /* **************************************** */
+    /**
+     *  Default constructor. Initializes the internal storage with a size equal to the default of {@link PrimeGenerator}.
+     */
+    public ConcurrentSeparateChainingHashTable(){
+        this(0);
+    }
+
+    /**
+     * Constructor with the number of records the table is expected to hold. Initializes the internal storage once, with
+     * enough chains to hold expectedSize records without growing.
+     * @param expectedSize The number of records the table is expected to hold.
+     * @throws IllegalArgumentException if expectedSize is negative.
+     */
+    public ConcurrentSeparateChainingHashTable(int expectedSize){
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Expected size cannot be negative, but was " + expectedSize + ".");
+        primeGenerator = new PrimeGenerator();
+        int chains = (expectedSize + MAX_AVERAGE_CHAIN - 1) / MAX_AVERAGE_CHAIN;
+        table = new AtomicReferenceArray<>(CapacityPolicy.PRIME.capacityFor(primeGenerator, chains));
+        count = new AtomicInteger(0);
+        locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++)
+            locks[i] = new ReentrantLock();
+    }
+
+    @Override
+    public Probes put(String key, String value) {
+        if (key == null || value == null)
+            throw new IllegalArgumentException("key or value input cannot be null!");
+        AtomicReferenceArray<Node> t = lockChainOf(key);
+        int bucket = hash(key, t.length());
+        int probeCount = 1;
+        boolean added = false;
+        try {
+            Node n = t.get(bucket);
+            while (n != null && !n.key.equals(key)) {
+                n = n.next;
+                probeCount++;
+            }
+            if (n != null) {
+                n.value = value;
+            } else {
+                // Publishing a fully constructed node at the head is what makes lock-free reads safe.
+                t.set(bucket, new Node(key, value, t.get(bucket), t));
+                added = true;
+            }
+        } finally {
+            lockFor(bucket, t.length()).unlock();
+        }
+        if (added && count.incrementAndGet() > MAX_AVERAGE_CHAIN * t.length())
+            enlarge(t);
+        return new Probes(value, probeCount);
+    }
+
+    /**
+     * Get the value associated with key in the {@link HashTable}. This method takes no locks.
+     *
+     * @param key The key to search for.
+     * @return The {@link phonebook.utils.Probes} with associated value and the number of probe used. If the key is {@code null}, return value {@code null}
+     * and 0 as number of probes; if the key dones't exists in the database, return {@code null} and the number of probes used.
+     */
+    @Override
+    public Probes get(String key) {
+        if (key == null)
+            return new Probes(null, 0);
+        AtomicReferenceArray<Node> t = table;
+        int probeCount = 1;
+        while (true) {
+            int bucket = hash(key, t.length());
+            Node n = t.get(bucket);
+            if (n instanceof Forward) {
+                t = ((Forward) n).to;
+                continue;
+            }
+            while (n != null) {
+                if (n.key.equals(key))
+                    return new Probes(n.value, probeCount);
+                Node next = n.next;
+                if (n.home != t)
+                    break; // n was moved, and so was the rest of its chain.
+                n = next;
+                probeCount++;
+            }
+            if (n == null)
+                return new Probes(null, probeCount);
+            t = successor(t, bucket);
+        }
+    }
+
+    @Override
+    public Probes remove(String key) {
+        if (key == null)
+            return new Probes(null, 0);
+        AtomicReferenceArray<Node> t = lockChainOf(key);
+        int bucket = hash(key, t.length());
+        int probeCount = 1;
+        try {
+            Node prev = null;
+            for (Node n = t.get(bucket); n != null; prev = n, n = n.next) {
+                if (n.key.equals(key)) {
+                    // Readers standing on n can still follow n.next, so unlinking is all we need to do.
+                    if (prev == null)
+                        t.set(bucket, n.next);
+                    else
+                        prev.next = n.next;
+                    count.decrementAndGet();
+                    return new Probes(n.value, probeCount);
+                }
+                probeCount++;
+            }
+            return new Probes(null, probeCount);
+        } finally {
+            lockFor(bucket, t.length()).unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        return get(key).getValue() != null;
+    }
+
+    @Override
+    public boolean containsValue(String value) {
+        for (KVPair pair : this) {
+            if (pair.getValue().equals(value))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return count.get();
+    }
+
+    @Override
+    public int capacity() {
+        return table.length();
+    }
+
+    /**
+     * Returns an {@link Iterator} over the pairs of the table which takes no locks. Like the iterators of
+     * {@link java.util.concurrent.ConcurrentHashMap}, it is <em>weakly consistent</em>: it never throws a
+     * {@link java.util.ConcurrentModificationException}, and it may or may not reflect the writes made while it runs. If it
+     * runs into chains that a resize has moved, it goes over the new array for their pairs once it is done with the old one.
+     * @return An {@link Iterator} over copies of the pairs of this table.
+     */
+    @Override
+    public Iterator<KVPair> iterator() {
+        return new Iterator<KVPair>() {
+
+            private AtomicReferenceArray<Node> t = table;
+            private Predicate<String> wanted = key -> true;
+            private Map<Integer, List<String>> moved = new HashMap<>(); // Chains of t that had moved, with the keys we returned from each.
+            private final List<String> returned = new ArrayList<>(); // Keys returned from the current chain.
+            private int nextChain = 0;
+            private Node node;
+            private KVPair next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null) {
+                    if (node != null) {
+                        Node n = node;
+                        if (wanted.test(n.key)) {
+                            next = new KVPair(n.key, n.value);
+                            returned.add(n.key);
+                        }
+                        node = n.next;
+                        if (n.home != t) { // The rest of the chain is in the new array.
+                            moved.put(nextChain - 1, new ArrayList<>(returned));
+                            node = null;
+                        }
+                    } else if (nextChain < t.length()) {
+                        returned.clear();
+                        node = t.get(nextChain++);
+                        if (node instanceof Forward) {
+                            moved.put(nextChain - 1, List.of());
+                            node = null;
+                        }
+                    } else if (!moved.isEmpty()) {
+                        // Go over the new array for the pairs of the moved chains that we have not returned yet.
+                        final AtomicReferenceArray<Node> from = t;
+                        final Map<Integer, List<String>> chains = moved;
+                        final Predicate<String> before = wanted;
+                        t = successor(from, chains.keySet().iterator().next());
+                        wanted = key -> {
+                            List<String> skip = chains.get(hash(key, from.length()));
+                            return skip != null && !skip.contains(key) && before.test(key);
+                        };
+                        moved = new HashMap<>();
+                        nextChain = 0;
+                    } else {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public KVPair next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                KVPair pair = next;
+                next = null;
+                return pair;
+            }
+        };
+    }
+}
@@ -0,0 +1,310 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+import phonebook.utils.PrimeGenerator;
+import phonebook.utils.Probes;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * <p>{@link ControlByteHashTable} is an Openly Addressed {@link HashTable} in the style of Google's <em>SwissTable</em>.
+ * Alongside the array of {@link KVPair}s, it keeps a separate array of <b>control bytes</b>, one per cell: a control byte
+ * is either {@link #EMPTY}, {@link #DELETED}, or holds 7 bits of the key's hash code. The cells are organized in
+ * <em>groups</em> of {@link #GROUP_SIZE}, and collisions are resolved by moving on to the next group.</p>
+ *
+ * <p>Searches compare all 16 control bytes of a group against the key's 7 hash bits at once, by loading them as two
+ * {@code long} words and using SIMD-within-a-register (SWAR) bit tricks. Only cells whose control byte matches
+ * (on average, one in 128 of the occupied ones) are dereferenced to compare the actual {@link String} keys. The other
+ * Openly Addressed tables dereference a {@link KVPair} on <b>every</b> probe, which is a likely cache miss each time.
+ * A search stops at the first group which contains an {@link #EMPTY} cell.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see HashTable
+ * @see LinearProbingHashTable
+ * @see CollisionResolver
+ */
+public class ControlByteHashTable extends OpenAddressingHashTable {
+
+	/* ********************************************************************/
+	/* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+	/* ********************************************************************/
+
+	/**
+	 * The number of cells whose control bytes are matched together.
+	 */
+	public static final int GROUP_SIZE = 16;
+
+	/**
+	 * The control byte of a cell that has never been occupied since the last resize.
+	 */
+	public static final byte EMPTY = (byte) 0x80;
+
+	/**
+	 * The control byte of a cell whose key was deleted. Searches have to keep going past it.
+	 */
+	public static final byte DELETED = (byte) 0xFE;
+
+	private static final long LSBS = 0x0101010101010101L;
+	private static final long MSBS = 0x8080808080808080L;
+	private static final double MAX_LOAD = 0.875;
+
+	// Reads 8 control bytes at a time as a little-endian long, so that byte i of the word is ctrl[offset + i].
+	private static final VarHandle WORD = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private byte[] ctrl;
+	private int groups;
+	private int deleted;
+
+	// The high bit of every byte of the result is set where the corresponding byte of word equals b. May report false
+	// positives in the byte above a real match, which we weed out by comparing keys anyway.
+	private static long matchByte(long word, int b) {
+		long x = word ^ (LSBS * b);
+		return (x - LSBS) & ~x & MSBS;
+	}
+
+	// EMPTY is the only control byte with its top bit set and its second-lowest bit clear.
+	private static long matchEmpty(long word) {
+		return word & ~(word << 6) & MSBS;
+	}
+
+	// EMPTY and DELETED are the only control bytes with their top bit set and their lowest bit clear.
+	private static long matchEmptyOrDeleted(long word) {
+		return word & ~(word << 7) & MSBS;
+	}
+
+	private long word(int offset) {
+		return (long) WORD.get(ctrl, offset);
+	}
+
+	// The 7 bits that are stored in the control byte come from the top of a multiplicatively spread hash code,
+	// so they are independent of the low bits that pick the group.
+	private static int h2(String key) {
+		return (key.hashCode() * 0x9E3779B9) >>> 25;
+	}
+
+	private int homeGroup(String key) {
+		return (key.hashCode() & 0x7fffffff) % groups;
+	}
+
+	// Returns the index of key, or -1 if key is not in the table. probes[0] receives the number of cells visited,
+	// counting every group's control bytes as a single probe.
+	private int find(String key, int[] probes) {
+		int tag = h2(key);
+		int g = homeGroup(key);
+		probes[0] = 0;
+		for (int visited = 0; visited < groups; visited++) {
+			probes[0]++;
+			int base = g * GROUP_SIZE;
+			for (int half = 0; half < GROUP_SIZE; half += 8) {
+				long m = matchByte(word(base + half), tag);
+				while (m != 0) {
+					int index = base + half + (Long.numberOfTrailingZeros(m) >>> 3);
+					if (ctrl[index] == tag) {
+						probes[0]++;
+						if (table[index].getKey().equals(key))
+							return index;
+					}
+					m &= m - 1;
+				}
+			}
+			if ((matchEmpty(word(base)) | matchEmpty(word(base + 8))) != 0)
+				return -1;
+			g = (g + 1) % groups;
+		}
+		return -1;
+	}
+
+	// Places a pair whose key is known not to be in the table. Returns the number of groups visited.
+	private int insert(KVPair pair) {
+		int g = homeGroup(pair.getKey());
+		int probeCount = 1;
+		while (true) {
+			int base = g * GROUP_SIZE;
+			for (int half = 0; half < GROUP_SIZE; half += 8) {
+				long m = matchEmptyOrDeleted(word(base + half));
+				if (m != 0) {
+					int index = base + half + (Long.numberOfTrailingZeros(m) >>> 3);
+					if (ctrl[index] == DELETED)
+						deleted--;
+					ctrl[index] = (byte) h2(pair.getKey());
+					table[index] = pair;
+					return probeCount;
+				}
+			}
+			g = (g + 1) % groups;
+			probeCount++;
+		}
+	}
+
+	// Re-inserts all live pairs into a table with the given number of groups. Returns the number of groups visited.
+	private int rehash(int numGroups) {
+		KVPair[] prevTable = table;
+		byte[] prevCtrl = ctrl;
+		allocate(numGroups);
+		int probeCount = 0;
+		for (int i = 0; i < prevTable.length; i++) {
+			if (prevCtrl[i] >= 0)
+				probeCount += insert(prevTable[i]);
+		}
+		return probeCount;
+	}
+
+	// Our capacity is counted in groups, so we have to check the minimum ourselves.
+	@Override
+	protected boolean shouldShrink() {
+		return loadFactorPolicy.shouldShrink(count, table.length) && groups > CapacityPolicy.PRIME.minimumCapacity();
+	}
+
+	@Override
+	protected int shrink() {
+		return rehash(primeGenerator.getPreviousPrime());
+	}
+
+	private void allocate(int numGroups) {
+		groups = numGroups;
+		table = new KVPair[groups * GROUP_SIZE];
+		ctrl = new byte[table.length];
+		Arrays.fill(ctrl, EMPTY);
+		deleted = 0;
+	}
+
+	/* ******************************************/
+	/*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+	/* **************************************** */
+
+	/**
+	 * Constructor with soft deletion option. Initializes the internal storage with a number of <b>groups</b> equal to
+	 * the starting value of {@link PrimeGenerator}.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 */
+	public ControlByteHashTable(boolean soft) {
+		this(soft, 0);
+	}
+
+	/**
+	 * Constructor with soft deletion option and the number of records the table is expected to hold. Initializes the
+	 * internal storage once, with the least prime number of groups that keeps expectedSize records under the maximum
+	 * load, so that inserting them never resizes the table.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 * @param expectedSize The number of records the table is expected to hold.
+	 * @throws IllegalArgumentException if expectedSize is negative.
+	 */
+	public ControlByteHashTable(boolean soft, int expectedSize) {
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("Expected size cannot be negative, but was " + expectedSize + ".");
+		primeGenerator = new PrimeGenerator();
+		allocate(CapacityPolicy.PRIME.capacityFor(primeGenerator, (int) Math.ceil(expectedSize / (MAX_LOAD * GROUP_SIZE))));
+		count = 0;
+		softFlag = soft;
+		loadFactorPolicy = LoadFactorPolicy.growingAt(MAX_LOAD);
+	}
+
+	/**
+	 * Inserts the pair &lt;key, value&gt; into this. The container should <b>not</b> allow for {@code null}
+	 * keys and values. If key is already in the table, its value is updated in place. This method is expected
+	 * to run in <em>amortized constant time</em>.
+	 * <p>
+	 * Instances of {@link ControlByteHashTable} resize when the number of occupied cells, {@link #DELETED} ones
+	 * included, exceeds the {@link LoadFactorPolicy#growAt()} of their {@link LoadFactorPolicy}, 87.5&#37; of the capacity
+	 * by default.
+	 *
+	 * @param key   The record's key.
+	 * @param value The record's value.
+	 * @return The {@link phonebook.utils.Probes} with the value added and the number of probes it makes.
+	 * @throws IllegalArgumentException if either argument is {@code null}.
+	 */
+	@Override
+	public Probes put(String key, String value) {
+		if (key == null || value == null)
+			throw new IllegalArgumentException("key or value input cannot be null!");
+		int[] searchProbes = new int[1];
+		int existing = find(key, searchProbes);
+		if (existing != -1) {
+			table[existing].setValue(value);
+			return new Probes(value, searchProbes[0]);
+		}
+		int probeCount = 0;
+		/* * * CHECK FOR RESIZING * * */
+		if (loadFactorPolicy.shouldGrow(count + deleted + 1, table.length))
+			probeCount += rehash(primeGenerator.getNextPrime());
+		probeCount += insert(new KVPair(key, value));
+		count++;
+		return new Probes(value, probeCount);
+	}
+
+	@Override
+	public Probes get(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		int[] probes = new int[1];
+		int index = find(key, probes);
+		return new Probes(index == -1 ? null : table[index].getValue(), probes[0]);
+	}
+
+	/**
+	 * <b>Return</b> and <b>remove</b> the value associated with key in the {@link HashTable}. If key does not exist in the database
+	 * or if key = {@code null}, this method returns {@code null}. This method is expected to run in <em>amortized constant time</em>.
+	 * <p>
+	 * Soft deletion always marks the cell as {@link #DELETED}. Hard deletion marks it {@link #EMPTY} instead whenever its group
+	 * already contains an {@link #EMPTY} cell: no search could have walked past such a group, so none can be cut short.
+	 *
+	 * @param key The key to search for.
+	 * @return The {@link phonebook.utils.Probes} with associated value and the number of probe used. If the key is {@code null}, return value {@code null}
+	 * and 0 as number of probes; if the key dones't exists in the database, return {@code null} and the number of probes used.
+	 */
+	@Override
+	public Probes remove(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		int[] probes = new int[1];
+		int index = find(key, probes);
+		if (index == -1)
+			return new Probes(null, probes[0]);
+		String oldVal = table[index].getValue();
+		int base = index - index % GROUP_SIZE;
+		if (!softFlag && (matchEmpty(word(base)) | matchEmpty(word(base + 8))) != 0) {
+			ctrl[index] = EMPTY;
+			table[index] = null;
+		} else {
+			ctrl[index] = DELETED;
+			table[index] = TOMBSTONE;
+			deleted++;
+		}
+		count--;
+		if (shouldShrink())
+			probes[0] += shrink();
+		return new Probes(oldVal, probes[0]);
+	}
+
+	@Override
+	public boolean containsKey(String key) {
+		return get(key).getValue() != null;
+	}
+
+	@Override
+	public boolean containsValue(String value) {
+		for (int i = 0; i < table.length; i++) {
+			if (ctrl[i] >= 0 && table[i].getValue().equals(value))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	@Override
+	public int capacity() {
+		return table.length;
+	}
+}
@@ -0,0 +1,410 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+import phonebook.utils.PrimeGenerator;
+import phonebook.utils.Probes;
+
+import java.util.Iterator;
+
+/**
+ * <p>{@link CuckooHashTable} is a {@link HashTable} that implements <b>Bucketized Cuckoo Hashing</b> as its collision
+ * resolution strategy. Every key has exactly <b>two</b> candidate buckets, chosen by two independent hash functions, and
+ * every bucket holds up to {@link #BUCKET_SIZE} pairs in adjacent cells of the table. When both candidate buckets are
+ * full, the new key &quot; kicks out &quot; a resident of one of them, which then moves to <em>its</em> other bucket,
+ * possibly kicking out somebody else, and so on. The few keys which cannot be placed this way go to a tiny
+ * <em>stash</em>.</p>
+ *
+ * <p>The payoff is that {@link #get(String)} and {@link #containsKey(String)} look at two buckets (two short,
+ * contiguous runs of cells) and the stash at most, <b>no matter how loaded the table is</b>. Compare this with
+ * {@link LinearProbingHashTable}, {@link QuadraticProbingHashTable} and {@link SeparateChainingHashTable}, whose
+ * search costs grow with the load. Insertions pay for this guarantee: they might have to move several keys around,
+ * and they trigger a resize whenever the load exceeds 90&#37; or the stash overflows.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see HashTable
+ * @see SeparateChainingHashTable
+ * @see LinearProbingHashTable
+ * @see QuadraticProbingHashTable
+ * @see CollisionResolver
+ */
+public class CuckooHashTable implements HashTable {
+
+	/* ********************************************************************/
+	/* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+	/* ********************************************************************/
+
+	/**
+	 * The number of cells in every bucket. Four {@link KVPair} references fit comfortably in a single cache line.
+	 */
+	public static final int BUCKET_SIZE = 4;
+
+	/**
+	 * The number of cells in the stash, which holds the keys whose eviction chains became too long. Only keys which
+	 * collide on both hash functions under several seeds in a row make the stash grow past it.
+	 */
+	public static final int STASH_SIZE = 4;
+
+	private static final int MAX_KICKS = 128;
+	private static final double MAX_LOAD = 0.9;
+	private static final int MAX_REBUILDS = 8; // Failed rebuilds before the stash, instead of the buckets, makes room.
+
+	private KVPair[] table;
+	private KVPair[] stash;
+	private int buckets;
+	private int count;
+	private int stashCount;
+	private int kicks; // Rotates the victim cell so that we don't keep evicting the same resident.
+	private int shrinkRetryAt = Integer.MAX_VALUE; // After a failed shrink, the count at which we try again.
+	private long seed = 0x9E3779B97F4A7C15L; // Seeds the second hash function; changed whenever a rebuild fails.
+	private PrimeGenerator primeGenerator;
+	private LoadFactorPolicy loadFactorPolicy = LoadFactorPolicy.growingAt(MAX_LOAD);
+
+	// Same as the hash function of OpenAddressingHashTable, only we count buckets instead of cells.
+	private int hash1(String key) {
+		return (key.hashCode() & 0x7fffffff) % buckets;
+	}
+
+	// The second hash function hashes the characters of key under our seed instead of String.hashCode(), so that keys
+	// with equal hash codes, which always share their first bucket, still get different second buckets.
+	private int hash2(String key) {
+		int b = (int) ((SeededHash.hash(key, seed) >>> 1) % buckets);
+		return (b == hash1(key) && buckets > 1) ? (b + 1) % buckets : b;
+	}
+
+	// Index of key in table within the given bucket, or -1.
+	private int findInBucket(int bucket, String key) {
+		int start = bucket * BUCKET_SIZE;
+		for (int i = start; i < start + BUCKET_SIZE; i++) {
+			if (table[i] != null && table[i].getKey().equals(key))
+				return i;
+		}
+		return -1;
+	}
+
+	// Index of key in stash, or -1.
+	private int findInStash(String key) {
+		for (int i = 0; i < stash.length; i++) {
+			if (stash[i] != null && stash[i].getKey().equals(key))
+				return i;
+		}
+		return -1;
+	}
+
+	// Probes it took findInStash to return index, counting the stash cells it scanned in buckets' worth.
+	private int stashProbes(int index) {
+		int scanned = index == -1 ? stash.length : index + 1;
+		return (scanned + BUCKET_SIZE - 1) / BUCKET_SIZE;
+	}
+
+	// Stores pair in an empty cell of bucket, if there is one.
+	private boolean placeInBucket(int bucket, KVPair pair) {
+		int start = bucket * BUCKET_SIZE;
+		for (int i = start; i < start + BUCKET_SIZE; i++) {
+			if (table[i] == null) {
+				table[i] = pair;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * Places a key that is known not to be in the table. Returns the number of buckets visited, or -1 if the
+	 * eviction chain failed and the stash is full. In the latter case the pair that is left homeless is stored in
+	 * homeless[0], which is not necessarily the pair we started with.
+	 */
+	private int insert(KVPair pair, KVPair[] homeless) {
+		int b1 = hash1(pair.getKey()), b2 = hash2(pair.getKey());
+		if (placeInBucket(b1, pair))
+			return 1;
+		if (placeInBucket(b2, pair))
+			return 2;
+		int probeCount = 2;
+		KVPair carried = pair;
+		int bucket = b2;
+		for (int i = 0; i < MAX_KICKS; i++) {
+			int victim = bucket * BUCKET_SIZE + (kicks++ % BUCKET_SIZE);
+			KVPair evicted = table[victim];
+			table[victim] = carried;
+			carried = evicted;
+			int e1 = hash1(carried.getKey());
+			bucket = (e1 == bucket) ? hash2(carried.getKey()) : e1;
+			probeCount++;
+			if (placeInBucket(bucket, carried))
+				return probeCount;
+		}
+		if (stashCount < stash.length) {
+			for (int i = 0; i < stash.length; i++) {
+				if (stash[i] == null) {
+					stash[i] = carried;
+					stashCount++;
+					return probeCount + 1;
+				}
+			}
+		}
+		homeless[0] = carried;
+		return -1;
+	}
+
+	/*
+	 * Moves the pairs of prevTable and prevStash, and pending unless it is null, to a new table with the given number of
+	 * buckets. Returns false, leaving the new table half-built, if some pair could not be placed.
+	 */
+	private boolean rebuild(int newBuckets, int stashSize, KVPair[] prevTable, KVPair[] prevStash, KVPair pending) {
+		buckets = newBuckets;
+		table = new KVPair[buckets * BUCKET_SIZE];
+		stash = new KVPair[stashSize];
+		stashCount = 0;
+		KVPair[] homeless = new KVPair[1];
+		boolean placedAll = pending == null || insert(pending, homeless) != -1;
+		for (int i = 0; placedAll && i < prevTable.length; i++) {
+			if (prevTable[i] != null)
+				placedAll = insert(prevTable[i], homeless) != -1;
+		}
+		for (int i = 0; placedAll && i < prevStash.length; i++) {
+			if (prevStash[i] != null)
+				placedAll = insert(prevStash[i], homeless) != -1;
+		}
+		return placedAll;
+	}
+
+	/*
+	 * Moves everything to a table with the next prime number of buckets. If some pair still finds no place, the second hash
+	 * function is seeded anew, since more buckets never separate keys which share both of theirs, and the table grows
+	 * every other time. After MAX_REBUILDS failures the stash doubles instead, until it holds every pair left over.
+	 */
+	private void enlarge(KVPair pending) {
+		shrinkRetryAt = Integer.MAX_VALUE;
+		KVPair[] prevTable = table, prevStash = stash;
+		int newBuckets = primeGenerator.getNextPrime(), stashSize = STASH_SIZE;
+		for (int rebuilds = 1; !rebuild(newBuckets, stashSize, prevTable, prevStash, pending); rebuilds++) {
+			if (rebuilds < MAX_REBUILDS) {
+				seed = SeededHash.mix(seed + rebuilds);
+				if (rebuilds % 2 == 0)
+					newBuckets = primeGenerator.getNextPrime();
+			} else {
+				stashSize *= 2;
+			}
+		}
+	}
+
+	/*
+	 * Moves everything to a table with the previous prime number of buckets, unless it does not fit there. In that case we
+	 * do not try again until half of the pairs are gone, or the table grows, so that deletions from a table which does not
+	 * fit in fewer buckets do not each pay for a rebuild.
+	 */
+	private void shrink() {
+		KVPair[] prevTable = table, prevStash = stash;
+		int prevBuckets = buckets, prevStashCount = stashCount;
+		shrinkRetryAt = Integer.MAX_VALUE;
+		if (!rebuild(primeGenerator.getPreviousPrime(), STASH_SIZE, prevTable, prevStash, null)) {
+			table = prevTable;
+			stash = prevStash;
+			buckets = prevBuckets;
+			stashCount = prevStashCount;
+			primeGenerator.jumpToPrimeAtLeast(buckets); // Puts the PrimeGenerator back where it was.
+			shrinkRetryAt = count / 2;
+		}
+	}
+
+	/* ******************************************/
+	/*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+	/* **************************************** */
+
+	/**
+	 * Default constructor. Initializes the internal storage with a number of buckets equal to the starting value of
+	 * {@link PrimeGenerator}.
+	 */
+	public CuckooHashTable() {
+		this(0);
+	}
+
+	/**
+	 * Constructor with the number of records the table is expected to hold. Initializes the internal storage once, with
+	 * the least prime number of buckets that keeps expectedSize records under the maximum load, so that inserting them
+	 * does not resize the table unless some key cannot find a place.
+	 *
+	 * @param expectedSize The number of records the table is expected to hold.
+	 * @throws IllegalArgumentException if expectedSize is negative.
+	 */
+	public CuckooHashTable(int expectedSize) {
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("Expected size cannot be negative, but was " + expectedSize + ".");
+		primeGenerator = new PrimeGenerator();
+		buckets = CapacityPolicy.PRIME.capacityFor(primeGenerator, (int) Math.ceil(expectedSize / (MAX_LOAD * BUCKET_SIZE)));
+		table = new KVPair[buckets * BUCKET_SIZE];
+		stash = new KVPair[STASH_SIZE];
+		count = 0;
+		stashCount = 0;
+	}
+
+	/**
+	 * Inserts the pair &lt;key, value&gt; into this. The container does <b>not</b> allow for {@code null}
+	 * keys and values. If key is already in the table, its value is updated. This method runs in <em>amortized
+	 * constant time</em>.
+	 *
+	 * @param key   The record's key.
+	 * @param value The record's value.
+	 * @return The {@link phonebook.utils.Probes} with the value added and the number of buckets it visited.
+	 * @throws IllegalArgumentException if either argument is {@code null}.
+	 */
+	@Override
+	public Probes put(String key, String value) {
+		if (key == null || value == null)
+			throw new IllegalArgumentException("key or value input cannot be null!");
+		int index = findInBucket(hash1(key), key);
+		if (index == -1)
+			index = findInBucket(hash2(key), key);
+		if (index != -1) {
+			table[index].setValue(value);
+			return new Probes(value, 2);
+		}
+		index = findInStash(key);
+		if (index != -1) {
+			stash[index].setValue(value);
+			return new Probes(value, 2 + stashProbes(index));
+		}
+		KVPair pair = new KVPair(key, value);
+		int probeCount;
+		if (loadFactorPolicy.shouldGrow(count + 1, table.length)) {
+			enlarge(pair);
+			probeCount = table.length / BUCKET_SIZE;
+		} else {
+			KVPair[] homeless = new KVPair[1];
+			probeCount = insert(pair, homeless);
+			if (probeCount == -1) {
+				enlarge(homeless[0]);
+				probeCount = table.length / BUCKET_SIZE;
+			}
+		}
+		count++;
+		return new Probes(value, probeCount);
+	}
+
+	/**
+	 * Get the value associated with key in the {@link HashTable}. This method visits at most two buckets and the stash,
+	 * i.e it runs in <em>worst-case constant time</em> as long as the stash keeps its {@value #STASH_SIZE} cells. Scanning
+	 * the stash counts as one probe for every {@value #BUCKET_SIZE} of its cells, so a stash which had to grow shows up in
+	 * the probes.
+	 *
+	 * @param key The key to search for.
+	 * @return The {@link phonebook.utils.Probes} with associated value and the number of probe used. If the key is {@code null}, return value {@code null}
+	 * and 0 as number of probes; if the key dones't exists in the database, return {@code null} and the number of probes used.
+	 */
+	@Override
+	public Probes get(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		int index = findInBucket(hash1(key), key);
+		if (index != -1)
+			return new Probes(table[index].getValue(), 1);
+		index = findInBucket(hash2(key), key);
+		if (index != -1)
+			return new Probes(table[index].getValue(), 2);
+		if (stashCount == 0)
+			return new Probes(null, 2);
+		index = findInStash(key);
+		return new Probes(index == -1 ? null : stash[index].getValue(), 2 + stashProbes(index));
+	}
+
+	@Override
+	public Probes remove(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		String oldVal = null;
+		int probeCount = 1;
+		int index = findInBucket(hash1(key), key);
+		if (index == -1) {
+			probeCount++;
+			index = findInBucket(hash2(key), key);
+		}
+		if (index != -1) {
+			oldVal = table[index].getValue();
+			table[index] = null;
+			count--;
+		} else if (stashCount > 0) {
+			index = findInStash(key);
+			probeCount += stashProbes(index);
+			if (index != -1) {
+				oldVal = stash[index].getValue();
+				stash[index] = null;
+				stashCount--;
+				count--;
+			}
+		}
+		if (oldVal != null && loadFactorPolicy.shouldShrink(count, table.length) && count <= shrinkRetryAt &&
+				buckets > CapacityPolicy.PRIME.minimumCapacity()) {
+			shrink();
+			probeCount += table.length / BUCKET_SIZE;
+		}
+		return new Probes(oldVal, probeCount);
+	}
+
+	/**
+	 * Changes when this table grows and shrinks. By default, it grows past a load of 90&#37; and shrinks under 22.5&#37;.
+	 * The new policy is applied by the next insertion or deletion.
+	 *
+	 * @param policy The new {@link LoadFactorPolicy}.
+	 * @throws IllegalArgumentException if policy is {@code null}, or would let the table fill up, i.e its
+	 * {@link LoadFactorPolicy#growAt()} is not less than 1.
+	 */
+	public void setLoadFactorPolicy(LoadFactorPolicy policy) {
+		if (policy == null || policy.growAt() >= 1)
+			throw new IllegalArgumentException("Cuckoo hash tables cannot use " + policy + ".");
+		loadFactorPolicy = policy;
+	}
+
+	/**
+	 * Returns when this table grows and shrinks.
+	 *
+	 * @return The {@link LoadFactorPolicy} of this table.
+	 */
+	public LoadFactorPolicy getLoadFactorPolicy() {
+		return loadFactorPolicy;
+	}
+
+	@Override
+	public boolean containsKey(String key) {
+		return get(key).getValue() != null;
+	}
+
+	@Override
+	public boolean containsValue(String value) {
+		for (int i = 0; i < table.length; i++) {
+			if (table[i] != null && table[i].getValue().equals(value))
+				return true;
+		}
+		for (int i = 0; i < stash.length; i++) {
+			if (stash[i] != null && stash[i].getValue().equals(value))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns the <b>capacity</b> of this {@link CuckooHashTable}, i.e the number of cells over all of its buckets. The
+	 * stash is not included.
+	 * @return the number of cells in the table.
+	 */
+	@Override
+	public int capacity() {
+		return table.length;
+	}
+
+	@Override
+	public Iterator<KVPair> iterator() {
+		final KVPair[] cells = table, stashed = stash;
+		return new CellIterator(cells.length + stashed.length) {
+			@Override
+			KVPair cell(int cell) {
+				return cell < cells.length ? cells[cell] : stashed[cell - cells.length];
+			}
+		};
+	}
+}
@@ -0,0 +1,258 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+import phonebook.utils.Probes;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * <p>{@link FrozenHashTable} is an <b>immutable</b> {@link HashTable}, built once out of a fixed set of pairs through a
+ * <b>minimal perfect hash function</b> in the style of CHD (Compress, Hash and Displace). The keys are hashed into small
+ * buckets of about {@value #AVERAGE_BUCKET_SIZE} keys each, and every bucket, from the largest to the smallest, is given
+ * the first <em>displacement</em> under which all of its keys land on cells that no other key took. A search hashes its
+ * key, reads the displacement of its bucket and visits <b>exactly one</b> cell, where it only has to check that the key
+ * is the one it is looking for. No cell ever holds a key that hashes anywhere else, so there are no collisions to resolve.</p>
+ *
+ * <p>The table keeps one cell for every pair plus one percent, which keeps the last buckets from searching for the very
+ * last free cells, and one {@code int} displacement per bucket, instead of the half empty cells of the openly
+ * addressed tables. Keys are hashed by a seeded 64-bit hash of their own rather than by {@link String#hashCode()}, so that
+ * keys with equal hash codes can still be told apart; in the unlikely case that two keys collide on all 64 bits, the table
+ * is built again under another seed.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see HashTable
+ * @see phonebook.Phonebook#freeze()
+ */
+public class FrozenHashTable implements HashTable {
+
+	/**
+	 * The average number of keys per bucket, i.e. the number of keys that share one displacement.
+	 */
+	public static final int AVERAGE_BUCKET_SIZE = 4;
+
+	/* ********************************************************************/
+	/* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+	/* ********************************************************************/
+
+	private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+	private static final int MAX_DISPLACEMENT = 1 << 20; // Buckets which need more are placed under another seed instead.
+
+	private String[] keys;
+	private String[] values;
+	private int[] displacements; // The displacement of every bucket.
+	private long seed;
+	private int count;
+
+	// Maps the top 32 bits of h to [0, range) without a division.
+	private static int reduce(long h, int range) {
+		return (int) (((h >>> 32) * range) >>> 32);
+	}
+
+	private static int cellOf(long h, int displacement, int cells) {
+		return reduce(SeededHash.mix(h + displacement * GOLDEN_RATIO), cells);
+	}
+
+	private int cellOf(String key) {
+		long h = SeededHash.hash(key, seed);
+		return cellOf(h, displacements[reduce(h, displacements.length)], keys.length);
+	}
+
+	/*
+	 * Builds the table under the given seed, keeping only the first pair of every key. Returns false if two different keys
+	 * have the same hash under seed, or some bucket cannot be placed, in which case another seed has to be tried.
+	 */
+	private boolean build(List<KVPair> pairs, long seed) {
+		int n = pairs.size();
+		long[] hashes = new long[n];
+		for (int i = 0; i < n; i++)
+			hashes[i] = SeededHash.hash(pairs.get(i).getKey(), seed);
+
+		// Drop the later pairs of repeated keys, through a throwaway Linear Probing table of the pairs' indices.
+		boolean[] dropped = new boolean[n];
+		int[] seen = new int[Integer.highestOneBit(Math.max(1, n)) << 2];
+		int mask = seen.length - 1, kept = 0;
+		for (int i = 0; i < n; i++) {
+			int c = (int) hashes[i] & mask;
+			while (seen[c] != 0 && hashes[seen[c] - 1] != hashes[i])
+				c = (c + 1) & mask;
+			if (seen[c] == 0) {
+				seen[c] = i + 1;
+				kept++;
+			} else if (pairs.get(seen[c] - 1).getKey().equals(pairs.get(i).getKey())) {
+				dropped[i] = true;
+			} else {
+				return false;
+			}
+		}
+
+		// Sort the pairs by bucket, and the buckets by decreasing size, both through counting sorts.
+		int buckets = Math.max(1, (kept + AVERAGE_BUCKET_SIZE - 1) / AVERAGE_BUCKET_SIZE);
+		int cells = kept + kept / 100 + 1;
+		int[] start = new int[buckets + 1];
+		for (int i = 0; i < n; i++) {
+			if (!dropped[i])
+				start[reduce(hashes[i], buckets) + 1]++;
+		}
+		int maxSize = 0;
+		for (int b = 0; b < buckets; b++) {
+			maxSize = Math.max(maxSize, start[b + 1]);
+			start[b + 1] += start[b];
+		}
+		int[] members = new int[kept], next = start.clone();
+		for (int i = 0; i < n; i++) {
+			if (!dropped[i])
+				members[next[reduce(hashes[i], buckets)]++] = i;
+		}
+		int[] bySize = new int[maxSize + 2], order = new int[buckets];
+		for (int b = 0; b < buckets; b++)
+			bySize[maxSize - (start[b + 1] - start[b]) + 1]++;
+		for (int s = 0; s <= maxSize; s++)
+			bySize[s + 1] += bySize[s];
+		for (int b = 0; b < buckets; b++)
+			order[bySize[maxSize - (start[b + 1] - start[b])]++] = b;
+
+		// Give every bucket the first displacement which sends all of its keys to distinct free cells.
+		int[] displacements = new int[buckets], placed = new int[maxSize];
+		boolean[] taken = new boolean[cells];
+		for (int b : order) {
+			int size = start[b + 1] - start[b];
+			if (size == 0)
+				break;
+			for (int d = 0; ; d++) {
+				if (d == MAX_DISPLACEMENT)
+					return false;
+				boolean fits = true;
+				for (int k = 0; k < size && fits; k++) {
+					placed[k] = cellOf(hashes[members[start[b] + k]], d, cells);
+					fits = !taken[placed[k]];
+					for (int l = 0; l < k && fits; l++)
+						fits = placed[l] != placed[k];
+				}
+				if (fits) {
+					for (int k = 0; k < size; k++)
+						taken[placed[k]] = true;
+					displacements[b] = d;
+					break;
+				}
+			}
+		}
+
+		keys = new String[cells];
+		values = new String[cells];
+		for (int b = 0; b < buckets; b++) {
+			for (int k = start[b]; k < start[b + 1]; k++) {
+				KVPair pair = pairs.get(members[k]);
+				int cell = cellOf(hashes[members[k]], displacements[b], cells);
+				keys[cell] = pair.getKey();
+				values[cell] = pair.getValue();
+			}
+		}
+		this.displacements = displacements;
+		this.seed = seed;
+		count = kept;
+		return true;
+	}
+
+	/* ******************************************/
+	/*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+	/* **************************************** */
+
+	/**
+	 * Builds a table which maps the key of every pair of pairs to its value. If a key appears in more than one pair, only
+	 * its first pair is kept, which is also the one that a search of a {@link SeparateChainingHashTable} holding
+	 * all of them would find. Building takes <em>expected linear time</em> in the number of pairs.
+	 *
+	 * @param pairs The pairs of the table.
+	 * @throws IllegalArgumentException if pairs, any of its pairs, or any key or value is {@code null}.
+	 */
+	public FrozenHashTable(Iterable<KVPair> pairs) {
+		if (pairs == null)
+			throw new IllegalArgumentException("pairs cannot be null!");
+		List<KVPair> list = new ArrayList<>();
+		for (KVPair pair : pairs) {
+			if (pair == null || pair.getKey() == null || pair.getValue() == null)
+				throw new IllegalArgumentException("key or value input cannot be null!");
+			list.add(pair);
+		}
+		long attempt = 1;
+		while (!build(list, attempt * GOLDEN_RATIO))
+			attempt++;
+	}
+
+	/**
+	 * Always throws, since a {@link FrozenHashTable} cannot be changed.
+	 *
+	 * @param key   The record's key.
+	 * @param value The record's value.
+	 * @return Nothing.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public Probes put(String key, String value) {
+		throw new UnsupportedOperationException("Cannot put pairs into a FrozenHashTable.");
+	}
+
+	/**
+	 * Searches for key, by visiting the single cell that it could be stored in.
+	 *
+	 * @param key The key to search for.
+	 * @return The {@link Probes} with the value of key, or {@code null} if key is {@code null} or not in the table, and
+	 * 1 probe, or 0 if key is {@code null}.
+	 */
+	@Override
+	public Probes get(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		int cell = cellOf(key);
+		return new Probes(key.equals(keys[cell]) ? values[cell] : null, 1);
+	}
+
+	/**
+	 * Always throws, since a {@link FrozenHashTable} cannot be changed.
+	 *
+	 * @param key The key to remove.
+	 * @return Nothing.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public Probes remove(String key) {
+		throw new UnsupportedOperationException("Cannot remove pairs from a FrozenHashTable.");
+	}
+
+	@Override
+	public boolean containsKey(String key) {
+		return key != null && key.equals(keys[cellOf(key)]);
+	}
+
+	@Override
+	public boolean containsValue(String value) {
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null && values[i].equals(value))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	@Override
+	public int capacity() {
+		return keys.length;
+	}
+
+	@Override
+	public Iterator<KVPair> iterator() {
+		return new CellIterator(keys.length) {
+			@Override
+			KVPair cell(int cell) {
+				return keys[cell] == null ? null : new KVPair(keys[cell], values[cell]);
+			}
+		};
+	}
+}
@@ -1,5 +1,6 @@
 package phonebook.hashes;
 
+import phonebook.utils.KVPair;
 import phonebook.utils.Probes;
 
 /**
@@ -18,7 +19,7 @@ import phonebook.utils.Probes;
  * @see OrderedLinearProbingHashTable
  * @see QuadraticProbingHashTable
  */
-public interface HashTable {
+public interface HashTable extends Iterable<KVPair> {
 
     /**
      * Inserts the pair &lt;key, value&gt; into this. The container should <b>not</b> allow for {@code null}
@@ -50,6 +51,36 @@ public interface HashTable {
      */
     Probes remove(String key);
 
+    /**
+     * Searches for every key of keys at once. The value of keys[i] is stored in the i-th cell of the returned array, which
+     * is {@code null} if keys[i] is {@code null} or not in the {@link HashTable}. Tables which can overlap the cache misses
+     * of many searches, by hashing every key first and then advancing all of their probe sequences together, override this
+     * method; the others call {@link #get(String)} on every key.
+     * @param keys The keys to search for.
+     * @return The values of keys, in the same order.
+     * @throws IllegalArgumentException if keys is {@code null}.
+     */
+    default String[] getAll(String[] keys) {
+        if (keys == null)
+            throw new IllegalArgumentException("keys cannot be null!");
+        String[] values = new String[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            values[i] = (keys[i] == null) ? null : get(keys[i]).getValue();
+        return values;
+    }
+
+    /**
+     * Inserts every pair of pairs into this {@link HashTable}, as if by calling {@link #put(String, String)} on each of them
+     * in order. Tables which can do better, e.g by growing once to fit all of the pairs instead of growing repeatedly and
+     * reporting {@link Probes} nobody reads, override this method.
+     * @param pairs The pairs to insert.
+     * @throws IllegalArgumentException if any key or value is {@code null}.
+     */
+    default void putAll(Iterable<KVPair> pairs) {
+        for (KVPair pair : pairs)
+            put(pair.getKey(), pair.getValue());
+    }
+
     /**
      * Queries the {@link HashTable} about the existence of the key key in its internal storage. This method is expected to run in <em>amortized constant time</em>.
      * @param key The key to search for.
@@ -81,4 +112,13 @@ public interface HashTable {
      * @return the number of cells in the table.
      */
     int capacity();
+
+    /**
+     * Returns an {@link java.util.Iterator} over the records of this {@link HashTable}, in no particular order. Unless the
+     * {@link HashTable} says otherwise, it should not be modified while the iteration is in progress, and neither should the
+     * {@link KVPair}s the iteration returns.
+     * @return An {@link java.util.Iterator} over every record of this {@link HashTable}.
+     */
+    @Override
+    java.util.Iterator<KVPair> iterator();
 }
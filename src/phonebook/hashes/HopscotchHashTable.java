@@ -0,0 +1,407 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+import phonebook.utils.PrimeGenerator;
+import phonebook.utils.Probes;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * <p>{@link HopscotchHashTable} is an Openly Addressed {@link HashTable} implemented with <b>Hopscotch Hashing</b> as
+ * its collision resolution strategy. Every key is guaranteed to live within a fixed <em>neighborhood</em> of
+ * {@link #HOP_RANGE} cells starting at its hashed address. Every cell keeps a <em>hop bitmap</em> whose j-th bit
+ * is set if, and only if, the cell j positions over holds a key hashed to this cell. A search therefore only looks at
+ * one small, contiguous window of the table, and only at the cells that its bitmap points to.</p>
+ *
+ * <p>When the first empty cell an insertion finds is outside the neighborhood, keys between the two are &quot; hopped
+ * &quot; forward (always staying within their own neighborhoods) to bring the empty cell closer. This preserves the
+ * cache locality of {@link LinearProbingHashTable} without its long cluster walks, and it lets the table run at
+ * loads of up to 90&#37; instead of 50&#37;.</p>
+ *
+ * <p>Since searches never walk over cells outside of a key's neighborhood, deletions do not need to leave tombstones
+ * behind for searches to keep working. Soft deletion still writes {@link #TOMBSTONE} in the freed cell, but insertions
+ * are free to reuse it right away.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see HashTable
+ * @see LinearProbingHashTable
+ * @see RobinHoodHashTable
+ * @see CollisionResolver
+ */
+public class HopscotchHashTable extends OpenAddressingHashTable {
+
+	/* ********************************************************************/
+	/* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+	/* ********************************************************************/
+
+	/**
+	 * The size of every neighborhood, equal to the number of bits in the hop bitmap of a cell.
+	 */
+	public static final int HOP_RANGE = 32;
+
+	private static final double MAX_LOAD = 0.9;
+	private static final int MAX_GROWTHS = 4; // Times an insertion may grow the table before its key is stashed.
+
+	private int[] hopInfo;
+	private KVPair[] stash = new KVPair[0]; // Keys that no neighborhood had room for, packed at the front.
+	private int shrinkRetryAt = Integer.MAX_VALUE; // After a failed shrink, the count at which we try again.
+	private int stashCount;
+
+	// Index of key in stash, or -1.
+	private int findInStash(String key) {
+		for (int i = 0; i < stashCount; i++) {
+			if (stash[i].getKey().equals(key))
+				return i;
+		}
+		return -1;
+	}
+
+	private void addToStash(String key, String value) {
+		if (stashCount == stash.length)
+			stash = Arrays.copyOf(stash, Math.max(4, 2 * stash.length));
+		stash[stashCount++] = new KVPair(key, value);
+	}
+
+	private void removeFromStash(int index) {
+		stash[index] = stash[--stashCount];
+		stash[stashCount] = null;
+	}
+
+	// Inserts a key that is known not to be in the table, stashing it if its neighborhood is full. Returns the cells visited.
+	private int place(String key, String value) {
+		int probes = insert(key, value);
+		if (probes != -1)
+			return probes;
+		addToStash(key, value);
+		return 1;
+	}
+
+	// Tables smaller than HOP_RANGE would otherwise see their neighborhoods wrap around onto themselves.
+	private int hopRange() {
+		return Math.min(HOP_RANGE, table.length);
+	}
+
+	private int distance(int from, int to) {
+		return (to - from + table.length) % table.length;
+	}
+
+	private boolean isFree(int index) {
+		return table[index] == null || table[index] == TOMBSTONE;
+	}
+
+	// Returns the index of key, or -1 if key is not in the table. probes[0] receives the number of cells visited.
+	private int find(String key, int[] probes) {
+		int home = hash(key);
+		int bits = hopInfo[home];
+		probes[0] = 1;
+		while (bits != 0) {
+			int j = Integer.numberOfTrailingZeros(bits);
+			int index = (home + j) % table.length;
+			if (table[index].getKey().equals(key))
+				return index;
+			probes[0]++;
+			bits &= bits - 1;
+		}
+		return -1;
+	}
+
+	/*
+	 * Moves a key from the cells preceding free into free itself, without taking the key out of its neighborhood.
+	 * Returns the index of the cell that was freed, which is closer to the beginning of the window, or -1 if
+	 * no key could be moved.
+	 */
+	private int hopCloser(int free) {
+		int range = hopRange();
+		for (int back = range - 1; back > 0; back--) {
+			int candidate = (free - back + table.length) % table.length;
+			int bits = hopInfo[candidate];
+			// Only keys stored between candidate and free (exclusive) can be moved into free.
+			bits &= (1 << back) - 1;
+			if (bits != 0) {
+				int j = Integer.numberOfTrailingZeros(bits);
+				int from = (candidate + j) % table.length;
+				table[free] = table[from];
+				table[from] = null;
+				hopInfo[candidate] = (hopInfo[candidate] & ~(1 << j)) | (1 << back);
+				return from;
+			}
+		}
+		return -1;
+	}
+
+	// Places a key that is known not to be in the table. Returns the number of cells visited, or -1 if the table has to grow.
+	private int insert(String key, String value) {
+		int home = hash(key);
+		int probeCount = 1;
+		int free = home;
+		while (!isFree(free)) {
+			free = (free + 1) % table.length;
+			probeCount++;
+			if (free == home)
+				return -1;
+		}
+		while (distance(home, free) >= hopRange()) {
+			free = hopCloser(free);
+			if (free == -1)
+				return -1;
+			probeCount++;
+		}
+		table[free] = new KVPair(key, value);
+		hopInfo[home] |= 1 << distance(home, free);
+		return probeCount;
+	}
+
+	/*
+	 * Re-inserts everything, stashed keys included, into a table with the next capacity of our policy. Keys that still find
+	 * no room in their neighborhood go to the stash, since growing again cannot separate more than HOP_RANGE keys with the
+	 * same hashed address. Returns the number of cells visited.
+	 */
+	private int enlarge() {
+		shrinkRetryAt = Integer.MAX_VALUE;
+		KVPair[] prev = table, prevStash = stash;
+		int prevStashCount = stashCount;
+		table = new KVPair[nextCapacity()];
+		hopInfo = new int[table.length];
+		stash = new KVPair[0];
+		stashCount = 0;
+		int probeCount = 0;
+		for (int x = 0; x < prev.length; x++) {
+			probeCount++;
+			if (prev[x] != null && prev[x] != TOMBSTONE)
+				probeCount += place(prev[x].getKey(), prev[x].getValue());
+		}
+		for (int x = 0; x < prevStashCount; x++)
+			probeCount += place(prevStash[x].getKey(), prevStash[x].getValue());
+		return probeCount;
+	}
+
+	/*
+	 * Moves everything into a table of the previous capacity, unless a neighborhood overflows there, in which case we stay
+	 * put and do not try again until half of the keys are gone or the table grows, so that the deletions which follow do
+	 * not each pay for a rebuild.
+	 */
+	@Override
+	protected int shrink() {
+		shrinkRetryAt = Integer.MAX_VALUE;
+		KVPair[] prevTable = table, prevStash = stash;
+		int[] prevHopInfo = hopInfo;
+		int prevStashCount = stashCount;
+		table = new KVPair[previousCapacity()];
+		hopInfo = new int[table.length];
+		stash = new KVPair[0];
+		stashCount = 0;
+		int probeCount = 0;
+		for (int x = 0; x < prevTable.length; x++) {
+			probeCount++;
+			if (prevTable[x] != null && prevTable[x] != TOMBSTONE) {
+				int probes = insert(prevTable[x].getKey(), prevTable[x].getValue());
+				if (probes == -1) {
+					table = prevTable;
+					hopInfo = prevHopInfo;
+					stash = prevStash;
+					stashCount = prevStashCount;
+					capacityPolicy.capacityFor(primeGenerator, table.length); // Puts the PrimeGenerator back where it was.
+					shrinkRetryAt = count / 2;
+					return probeCount;
+				}
+				probeCount += probes;
+			}
+		}
+		for (int x = 0; x < prevStashCount; x++)
+			probeCount += place(prevStash[x].getKey(), prevStash[x].getValue());
+		return probeCount;
+	}
+
+	/* ******************************************/
+	/*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+	/* **************************************** */
+
+	/**
+	 * Constructor with soft deletion option. Initializes the internal storage with a size equal to the starting value of  {@link PrimeGenerator}.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 */
+	public HopscotchHashTable(boolean soft) {
+		this(soft, CapacityPolicy.PRIME);
+	}
+
+	/**
+	 * Constructor with soft deletion option and a choice of {@link CapacityPolicy}. Initializes the internal storage with a size equal
+	 * to the initial capacity of the policy.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+	 */
+	public HopscotchHashTable(boolean soft, CapacityPolicy policy) {
+		this(soft, policy, 0);
+	}
+
+	/**
+	 * Constructor with soft deletion option, a choice of {@link CapacityPolicy} and the number of records the table is expected
+	 * to hold. Initializes the internal storage once, with a capacity large enough for expectedSize records, so that
+	 * inserting them never resizes the table.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+	 * @param expectedSize The number of records the table is expected to hold.
+	 * @throws IllegalArgumentException if expectedSize is negative.
+	 */
+	public HopscotchHashTable(boolean soft, CapacityPolicy policy, int expectedSize) {
+		primeGenerator = new PrimeGenerator();
+		capacityPolicy = policy;
+		table = new KVPair[initialCapacity(expectedSize)];
+		hopInfo = new int[table.length];
+		count = 0;
+		softFlag = soft;
+		loadFactorPolicy = LoadFactorPolicy.growingAt(MAX_LOAD);
+	}
+
+	/**
+	 * Inserts the pair &lt;key, value&gt; into this. The container should <b>not</b> allow for {@code null}
+	 * keys and values. If key is already in the table, its value is updated in place. This method is expected
+	 * to run in <em>amortized constant time</em>.
+	 * <p>
+	 * Instances of {@link HopscotchHashTable} resize when the load exceeds the {@link LoadFactorPolicy#growAt()} of their
+	 * {@link LoadFactorPolicy}, 90&#37; by default, or when no key can be hopped to bring an empty cell within the new
+	 * key's neighborhood. Growing cannot help more than {@link #HOP_RANGE} keys with the same hashed address, so after a
+	 * few attempts the new key goes to a small <em>stash</em> which searches scan once the neighborhood fails them.
+	 *
+	 * @param key   The record's key.
+	 * @param value The record's value.
+	 * @return The {@link phonebook.utils.Probes} with the value added and the number of probes it makes.
+	 * @throws IllegalArgumentException if either argument is {@code null}.
+	 */
+	@Override
+	public Probes put(String key, String value) {
+		if (key == null || value == null)
+			throw new IllegalArgumentException("key or value input cannot be null!");
+		int[] searchProbes = new int[1];
+		int existing = find(key, searchProbes);
+		if (existing != -1) {
+			table[existing].setValue(value);
+			return new Probes(value, searchProbes[0]);
+		}
+		existing = findInStash(key);
+		if (existing != -1) {
+			stash[existing].setValue(value);
+			return new Probes(value, searchProbes[0] + existing + 1);
+		}
+		int probeCount = 0;
+		/* * * CHECK FOR RESIZING * * */
+		if (loadFactorPolicy.shouldGrow(count + 1, table.length))
+			probeCount += enlarge();
+		int probes = insert(key, value);
+		// Keys with the same hashed address in every table, e.g equal hash codes, are not separated by growing, so we stop
+		// once a larger table would be empty enough to shrink.
+		for (int growths = 0; probes == -1 && growths < MAX_GROWTHS; growths++) {
+			if (loadFactorPolicy.shouldShrink(count, 2 * table.length))
+				break;
+			probeCount += enlarge();
+			probes = insert(key, value);
+		}
+		if (probes == -1) {
+			addToStash(key, value);
+			probes = 1;
+		}
+		count++;
+		return new Probes(value, probeCount + probes);
+	}
+
+	/**
+	 * Get the value associated with key in the {@link HashTable}. Only the cells of key's neighborhood that are marked
+	 * in the hop bitmap of its hashed address are visited.
+	 *
+	 * @param key The key to search for.
+	 * @return The {@link phonebook.utils.Probes} with associated value and the number of probe used. If the key is {@code null}, return value {@code null}
+	 * and 0 as number of probes; if the key dones't exists in the database, return {@code null} and the number of probes used.
+	 */
+	@Override
+	public Probes get(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		int[] probes = new int[1];
+		int index = find(key, probes);
+		if (index != -1)
+			return new Probes(table[index].getValue(), probes[0]);
+		if (stashCount == 0)
+			return new Probes(null, probes[0]);
+		index = findInStash(key);
+		return new Probes(index == -1 ? null : stash[index].getValue(), probes[0] + (index == -1 ? stashCount : index + 1));
+	}
+
+	@Override
+	public Probes remove(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		int[] probes = new int[1];
+		int index = find(key, probes);
+		String oldVal;
+		if (index != -1) {
+			oldVal = table[index].getValue();
+			int home = hash(key);
+			hopInfo[home] &= ~(1 << distance(home, index));
+			table[index] = softFlag ? TOMBSTONE : null;
+		} else {
+			index = findInStash(key);
+			probes[0] += index == -1 ? stashCount : index + 1;
+			if (index == -1)
+				return new Probes(null, probes[0]);
+			oldVal = stash[index].getValue();
+			removeFromStash(index);
+		}
+		count--;
+		if (shouldShrink() && count <= shrinkRetryAt)
+			probes[0] += shrink();
+		return new Probes(oldVal, probes[0]);
+	}
+
+	@Override
+	public boolean containsKey(String key) {
+		return get(key).getValue() != null;
+	}
+
+	@Override
+	public boolean containsValue(String value) {
+		for (int i = 0; i < table.length; i++) {
+			if (!isFree(i) && table[i].getValue().equals(value))
+				return true;
+		}
+		for (int i = 0; i < stashCount; i++) {
+			if (stash[i].getValue().equals(value))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	@Override
+	public int capacity() {
+		return table.length;
+	}
+
+	/**
+	 * Returns an {@link Iterator} over the pairs of the table, followed by those of the stash.
+	 * @return An {@link Iterator} over the pairs of this table.
+	 */
+	@Override
+	public Iterator<KVPair> iterator() {
+		final KVPair[] cells = table, stashed = stash;
+		return new CellIterator(cells.length + stashCount) {
+			@Override
+			KVPair cell(int cell) {
+				if (cell >= cells.length)
+					return stashed[cell - cells.length];
+				return cells[cell] == TOMBSTONE ? null : cells[cell];
+			}
+		};
+	}
+}
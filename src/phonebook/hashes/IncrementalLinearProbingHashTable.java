@@ -0,0 +1,308 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+import phonebook.utils.PrimeGenerator;
+import phonebook.utils.Probes;
+
+import java.util.Iterator;
+
+/**
+ * <p>{@link IncrementalLinearProbingHashTable} is an Openly Addressed {@link HashTable} implemented with <b>Linear Probing</b>
+ * which resizes <b>incrementally</b>. When {@link LinearProbingHashTable} exceeds 50&#37; occupancy, the unlucky
+ * {@link #put(String, String)} which notices re-inserts <b>every</b> key into a new array before returning, so its cost is
+ * linear in the size of the table. This table instead keeps the old array around next to the new one, and every subsequent
+ * {@link #put(String, String)} or {@link #remove(String)} migrates at most {@link #MIGRATION_STEP} cells of the old array
+ * into the new one. Searches consult the new array first and the old one second, until the migration is over.</p>
+ *
+ * <p>The growth threshold is reached again only after roughly as many insertions as there are cells in the old array, so
+ * migrating {@link #MIGRATION_STEP} cells per operation is always done long before the next resize. The worst-case
+ * cost of {@link #put(String, String)} therefore stays flat as the table grows, while the total resizing work remains the
+ * same as in {@link LinearProbingHashTable}.</p>
+ *
+ * <p>Hard deletion uses <em>backward shifting</em>, moving the following keys of the cluster into the freed cell when
+ * their hashed address allows it, instead of re-inserting them through {@link #put(String, String)}.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see HashTable
+ * @see LinearProbingHashTable
+ * @see CollisionResolver
+ */
+public class IncrementalLinearProbingHashTable extends OpenAddressingHashTable {
+
+	/* ********************************************************************/
+	/* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+	/* ********************************************************************/
+
+	/**
+	 * The maximum number of cells of the old array migrated by a single {@link #put(String, String)} or {@link #remove(String)}.
+	 */
+	public static final int MIGRATION_STEP = 8;
+
+	private KVPair[] oldTable; // null when no migration is in progress.
+	private int migrated;      // Cells of oldTable before this index have been migrated.
+
+	private int home(KVPair[] t, String key) {
+		return capacityPolicy.index(key.hashCode(), t.length);
+	}
+
+	// Returns the index of key in t, or -1. probes[0] is incremented by the number of cells visited.
+	private int find(KVPair[] t, String key, int[] probes) {
+		int i = home(t, key);
+		for (int visited = 0; visited < t.length; visited++) {
+			probes[0]++;
+			if (t[i] == null)
+				return -1;
+			if (t[i] != TOMBSTONE && t[i].getKey().equals(key))
+				return i;
+			i = (i + 1) % t.length;
+		}
+		return -1;
+	}
+
+	// Places a pair whose key is known not to be in table, reusing the first tombstone on the way. Returns the cells visited.
+	private int insert(KVPair pair) {
+		int i = home(table, pair.getKey());
+		int probeCount = 1;
+		while (table[i] != null && table[i] != TOMBSTONE) {
+			i = (i + 1) % table.length;
+			probeCount++;
+		}
+		if (table[i] == TOMBSTONE)
+			tombstones--;
+		table[i] = pair;
+		return probeCount;
+	}
+
+	// Migrates up to MIGRATION_STEP cells of oldTable. Returns the cells visited.
+	private int migrate(int cells) {
+		int probeCount = 0;
+		for (int n = 0; oldTable != null && n < cells; n++) {
+			KVPair pair = oldTable[migrated];
+			probeCount++;
+			if (pair != null && pair != TOMBSTONE) {
+				probeCount += insert(pair);
+				// A tombstone rather than null, so that the clusters of the keys not yet migrated stay intact.
+				oldTable[migrated] = TOMBSTONE;
+			}
+			if (++migrated == oldTable.length)
+				oldTable = null;
+		}
+		return probeCount;
+	}
+
+	// The tombstones of oldTable go away with it, so tombstones only ever counts those of table.
+	private void startResize(int capacity) {
+		// Should never happen with MIGRATION_STEP > 1, but we don't want two old arrays at once.
+		if (oldTable != null)
+			migrate(oldTable.length - migrated);
+		oldTable = table;
+		migrated = 0;
+		table = new KVPair[capacity];
+		tombstones = 0;
+	}
+
+	// Shrinking is as incremental as growing: the pairs move over during the following operations.
+	@Override
+	protected int shrink() {
+		startResize(previousCapacity());
+		return 0;
+	}
+
+	// Knuth's Algorithm R: after emptying cell i, pull back every key of the cluster whose hashed address is not in (i, j].
+	private int shiftBack(int i) {
+		int probeCount = 0;
+		table[i] = null;
+		int j = i;
+		while (true) {
+			j = (j + 1) % table.length;
+			probeCount++;
+			if (table[j] == null)
+				return probeCount;
+			int k = home(table, table[j].getKey());
+			boolean staysPut = (i <= j) ? (i < k && k <= j) : (i < k || k <= j);
+			if (!staysPut) {
+				table[i] = table[j];
+				table[j] = null;
+				i = j;
+			}
+		}
+	}
+
+	/* ******************************************/
+	/*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+	/* **************************************** */
+
+	/**
+	 * Constructor with soft deletion option. Initializes the internal storage with a size equal to the starting value of  {@link PrimeGenerator}.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 */
+	public IncrementalLinearProbingHashTable(boolean soft) {
+		this(soft, CapacityPolicy.PRIME);
+	}
+
+	/**
+	 * Constructor with soft deletion option and a choice of {@link CapacityPolicy}. Initializes the internal storage with a size equal
+	 * to the initial capacity of the policy.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+	 */
+	public IncrementalLinearProbingHashTable(boolean soft, CapacityPolicy policy) {
+		this(soft, policy, 0);
+	}
+
+	/**
+	 * Constructor with soft deletion option, a choice of {@link CapacityPolicy} and the number of records the table is expected
+	 * to hold. Initializes the internal storage once, with a capacity large enough for expectedSize records, so that
+	 * inserting them never resizes the table.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+	 * @param expectedSize The number of records the table is expected to hold.
+	 * @throws IllegalArgumentException if expectedSize is negative.
+	 */
+	public IncrementalLinearProbingHashTable(boolean soft, CapacityPolicy policy, int expectedSize) {
+		primeGenerator = new PrimeGenerator();
+		capacityPolicy = policy;
+		table = new KVPair[initialCapacity(expectedSize)];
+		count = 0;
+		softFlag = soft;
+	}
+
+	/**
+	 * Inserts the pair &lt;key, value&gt; into this. The container should <b>not</b> allow for {@code null}
+	 * keys and values. If key is already in the table, its value is updated. This method runs in <em>worst-case</em>
+	 * constant time, apart from the search itself.
+	 * <p>
+	 * When the number of occupied cells of the current array, tombstones included, exceeds the
+	 * {@link LoadFactorPolicy#growAt()} of the table, 50&#37; by default, a new array is allocated, but its contents are
+	 * migrated over the following operations. Deletions which bring the load under {@link LoadFactorPolicy#shrinkAt()}
+	 * start a migration to a smaller array the same way.
+	 *
+	 * @param key   The record's key.
+	 * @param value The record's value.
+	 * @return The {@link phonebook.utils.Probes} with the value added and the number of probes it makes.
+	 * @throws IllegalArgumentException if either argument is {@code null}.
+	 */
+	@Override
+	public Probes put(String key, String value) {
+		if (key == null || value == null)
+			throw new IllegalArgumentException("key or value input cannot be null!");
+		int[] probes = {migrate(MIGRATION_STEP)};
+		int index = find(table, key, probes);
+		if (index != -1) {
+			table[index].setValue(value);
+			return new Probes(value, probes[0]);
+		}
+		if (oldTable != null) {
+			index = find(oldTable, key, probes);
+			// Move the key over right away, so that the new value can only ever be found in the new array.
+			if (index != -1) {
+				oldTable[index] = TOMBSTONE;
+				count--;
+			}
+		}
+		/* * * CHECK FOR RESIZING * * */
+		if (loadFactorPolicy.shouldGrow(count + tombstones, table.length))
+			startResize(nextCapacity());
+		int probeCount = probes[0] + insert(new KVPair(key, value));
+		count++;
+		return new Probes(value, probeCount);
+	}
+
+	@Override
+	public Probes get(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		int[] probes = new int[1];
+		int index = find(table, key, probes);
+		if (index != -1)
+			return new Probes(table[index].getValue(), probes[0]);
+		if (oldTable != null) {
+			index = find(oldTable, key, probes);
+			if (index != -1)
+				return new Probes(oldTable[index].getValue(), probes[0]);
+		}
+		return new Probes(null, probes[0]);
+	}
+
+	@Override
+	public Probes remove(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		int[] probes = {migrate(MIGRATION_STEP)};
+		String oldVal = null;
+		int index = find(table, key, probes);
+		if (index != -1) {
+			oldVal = table[index].getValue();
+			if (softFlag) {
+				table[index] = TOMBSTONE;
+				tombstones++;
+			} else {
+				probes[0] += shiftBack(index);
+			}
+			count--;
+		} else if (oldTable != null) {
+			index = find(oldTable, key, probes);
+			if (index != -1) {
+				oldVal = oldTable[index].getValue();
+				oldTable[index] = TOMBSTONE;
+				count--;
+			}
+		}
+		if (oldVal != null && oldTable == null && shouldShrink())
+			probes[0] += shrink();
+		return new Probes(oldVal, probes[0]);
+	}
+
+	@Override
+	public boolean containsKey(String key) {
+		return get(key).getValue() != null;
+	}
+
+	@Override
+	public boolean containsValue(String value) {
+		for (KVPair[] t : new KVPair[][]{table, oldTable}) {
+			for (int i = 0; t != null && i < t.length; i++) {
+				if (t[i] != null && t[i] != TOMBSTONE && t[i].getValue().equals(value))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns the <b>capacity</b> of the current array. While a migration is in progress, the old array is not counted.
+	 * @return the number of cells in the current array.
+	 */
+	@Override
+	public int capacity() {
+		return table.length;
+	}
+
+	/**
+	 * Returns an {@link Iterator} over the pairs of the table, including those which have not been migrated to the new array yet.
+	 * @return An {@link Iterator} over the pairs of this table.
+	 */
+	@Override
+	public Iterator<KVPair> iterator() {
+		final KVPair[] current = table, old = oldTable == null ? new KVPair[0] : oldTable;
+		return new CellIterator(current.length + old.length) {
+			@Override
+			KVPair cell(int cell) {
+				KVPair pair = cell < current.length ? current[cell] : old[cell - current.length];
+				return pair == TOMBSTONE ? null : pair;
+			}
+		};
+	}
+}
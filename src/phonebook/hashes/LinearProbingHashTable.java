@@ -6,6 +6,8 @@ import phonebook.utils.KVPairList;
 import phonebook.utils.PrimeGenerator;
 import phonebook.utils.Probes;
 
+import java.util.Collection;
+
 /**
  * <p>{@link LinearProbingHashTable} is an Openly Addressed {@link HashTable} implemented with <b>Linear Probing</b> as its
  * collision resolution strategy: every key collision is resolved by moving one address over. It is
@@ -29,6 +31,80 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
 	/* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
 	/* ********************************************************************/
 
+	/*
+	 * Empties every tombstone, then moves each pair back to the first empty cell at or after its hashed address, without
+	 * allocating a new table. The cells are visited in order and pairs only ever move backwards, so no hole can open up
+	 * between the hashed address and the cell of a pair that was already visited. Returns the number of cells visited.
+	 */
+	private int purgeTombstones() {
+		for (int i = 0; i < table.length; i++) {
+			if (table[i] == TOMBSTONE)
+				table[i] = null;
+		}
+		int probeCount = 0;
+		int live = 0;
+		for (int i = 0; i < table.length; i++) {
+			probeCount++;
+			if (table[i] != null) {
+				KVPair pair = table[i];
+				table[i] = null;
+				int j = hash(pair.getKey());
+				while (table[j] != null) {
+					j++;
+					probeCount++;
+				}
+				table[j] = pair;
+				live++;
+			}
+		}
+		// Soft deletion leaves count alone, so the tombstones we just emptied were still part of it.
+		count = live;
+		tombstones = 0;
+		return probeCount;
+	}
+
+	// Moves every pair into a table of the given capacity, the way the writeup's tables grow. Returns the number of probes.
+	private int rehash(int capacity) {
+		KVPair[] prev = table;
+		count = 0;
+		tombstones = 0;
+		table = new KVPair[capacity];
+		int probeCount = 0;
+		for (int x = 0; x < prev.length; x++) {
+			probeCount++;
+			if (prev[x] != null && prev[x].equals(TOMBSTONE) == false) 
+				probeCount += insert(prev[x].getKey(), prev[x].getValue());
+		}
+		return probeCount;
+	}
+
+	// Inserts the pair into the first free cell at or after its hashed address, without checking for resizing. Returns the number of probes.
+	private int insert(String key, String value) {
+		int probeCount = 1;
+		int bucketDex = hash(key);
+		// Case 1: Array is empty
+		if (table[bucketDex] == null || table[bucketDex].equals(TOMBSTONE)) {
+			if (table[bucketDex] == TOMBSTONE)
+				tombstones--;
+			table[bucketDex] = new KVPair(key, value);
+			// Case 2: bucketDex is occupied
+		} else {
+			int i = bucketDex + 1;
+			while (i < table.length) {
+				probeCount++;
+				if (table[i] == null || table[i].equals(TOMBSTONE)) {
+					if (table[i] == TOMBSTONE)
+						tombstones--;
+					table[i] = new KVPair(key, value);
+					break;
+				}
+				i++;
+			}
+		}
+		count++;
+		return probeCount;
+	}
+
 	/* ******************************************/
 	/*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
 	/* **************************************** */
@@ -40,10 +116,40 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
 	 *             we want soft deletion, {@code false} otherwise.
 	 */
 	public LinearProbingHashTable(boolean soft) {
+		this(soft, CapacityPolicy.PRIME);
+	}
+
+	/**
+	 * Constructor with soft deletion option and a choice of {@link CapacityPolicy}. Initializes the internal storage with a size equal
+	 * to the initial capacity of the policy.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+	 */
+	public LinearProbingHashTable(boolean soft, CapacityPolicy policy) {
+		this(soft, policy, 0);
+	}
+
+	/**
+	 * Constructor with soft deletion option, a choice of {@link CapacityPolicy} and the number of records the table is expected
+	 * to hold. Initializes the internal storage once, with a capacity large enough for expectedSize records, so that
+	 * inserting them never resizes the table.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+	 * @param expectedSize The number of records the table is expected to hold.
+	 * @throws IllegalArgumentException if expectedSize is negative.
+	 */
+	public LinearProbingHashTable(boolean soft, CapacityPolicy policy, int expectedSize) {
 		primeGenerator = new PrimeGenerator();
-		table = new KVPair[this.primeGenerator.getCurrPrime()];
+		capacityPolicy = policy;
+		table = new KVPair[initialCapacity(expectedSize)];
 		count = 0;
 		softFlag = soft;
+		purgeThreshold = 1; // Off unless asked for, since the writeup's resizing rules count tombstones as records.
+		loadFactorPolicy = LoadFactorPolicy.growOnly(0.5); // Likewise, the writeup's tables never shrink.
 	}
 
 	/**
@@ -66,36 +172,37 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
 	public Probes put(String key, String value) {
 		if (key == null || value == null)
 			throw new IllegalArgumentException("key or value input cannot be null!");  	
-		int probeCount = 1;
+		int probeCount = 0;
 		/* * * CHECK FOR RESIZING * * */
-		if (count > table.length/2) {
-			KVPair[] prev = table;
-			count = 0;
-			table = new KVPair[primeGenerator.getNextPrime()];
-			for (int x = 0; x < prev.length; x++) {
-				probeCount++;
-				if (prev[x] != null && prev[x].equals(TOMBSTONE) == false) 
-					probeCount += put(prev[x].getKey(), prev[x].getValue()).getProbes();
-			}
+		if (loadFactorPolicy.shouldGrow(count, table.length))
+			probeCount += rehash(nextCapacity());
+		probeCount += insert(key, value);
+		return new Probes(value, probeCount);
+	}
+
+	/**
+	 * Inserts every pair of pairs into this, as if by calling {@link #put(String, String)} on each of them in order. When
+	 * pairs is a {@link Collection}, the table grows at most once, to a capacity that fits all of them, and they are then
+	 * inserted without allocating any {@link Probes} or checking for resizing on every insertion. Any other {@link Iterable}
+	 * goes through {@link #put(String, String)}.
+	 *
+	 * @param pairs The pairs to insert.
+	 * @throws IllegalArgumentException if any key or value is {@code null}.
+	 */
+	@Override
+	public void putAll(Iterable<KVPair> pairs) {
+		if (!(pairs instanceof Collection)) {
+			super.putAll(pairs);
+			return;
 		}
-		int bucketDex = hash(key);
-		// Case 1: Array is empty
-		if (table[bucketDex] == null || table[bucketDex].equals(TOMBSTONE)) {
-			table[bucketDex] = new KVPair(key, value);
-			// Case 2: bucketDex is occupied
-		} else {
-			int i = bucketDex + 1;
-			while (i < table.length) {
-				probeCount++;
-				if (table[i] == null || table[i].equals(TOMBSTONE)) {
-					table[i] = new KVPair(key, value);
-					break;
-				}
-				i++;
-			}
+		int capacity = capacityToFit(count + ((Collection<?>) pairs).size());
+		if (capacity > table.length)
+			rehash(capacity);
+		for (KVPair pair : pairs) {
+			if (pair.getKey() == null || pair.getValue() == null)
+				throw new IllegalArgumentException("key or value input cannot be null!");
+			insert(pair.getKey(), pair.getValue());
 		}
-		count++;
-		return new Probes(value, probeCount);
 	}
 
 	@Override
@@ -132,10 +239,57 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
 		return new Probes(null,0);
 	}
 
+	/**
+	 * Searches for every key of keys at once. All of the keys are hashed first, and their probe sequences are then advanced
+	 * together, one cell per round, so that the cache misses of the different searches overlap instead of being paid for one
+	 * after the other. Every search stops where {@link #get(String)} would, and compares keys the same way.
+	 *
+	 * @param keys The keys to search for.
+	 * @return The values of keys, in the same order, with {@code null} for the keys that are {@code null} or missing.
+	 * @throws IllegalArgumentException if keys is {@code null}.
+	 */
+	@Override
+	public String[] getAll(String[] keys) {
+		if (keys == null)
+			throw new IllegalArgumentException("keys cannot be null!");
+		String[] found = new String[keys.length];
+		int[] cells = new int[keys.length], pending = new int[keys.length];
+		int live = 0;
+		for (int k = 0; k < keys.length; k++) {
+			if (keys[k] != null) {
+				cells[k] = hash(keys[k]);
+				pending[live++] = k;
+			}
+		}
+		while (live > 0) {
+			int stillLive = 0;
+			for (int p = 0; p < live; p++) {
+				int k = pending[p], i = cells[k];
+				if (table[i] == null)
+					continue;
+				if (table[i].getKey() == keys[k]) {
+					found[k] = table[i].getValue();
+					continue;
+				}
+				if (i + 1 < table.length) { // Like put(), we do not wrap around the end of the table.
+					cells[k] = i + 1;
+					pending[stillLive++] = k;
+				}
+			}
+			live = stillLive;
+		}
+		return found;
+	}
+
 
 	/**
 	 * <b>Return</b> and <b>remove</b> the value associated with key in the {@link HashTable}. If key does not exist in the database
 	 * or if key = {@code null}, this method returns {@code null}. This method is expected to run in <em>amortized constant time</em>.
+	 * <p>
+	 * With soft deletion, the table is rehashed in place once its tombstones take up more than {@link #getPurgeThreshold()}
+	 * of its cells. This never happens unless {@link #setPurgeThreshold(double)} is called first. Likewise, the table only
+	 * shrinks once a {@link LoadFactorPolicy} with a positive {@link LoadFactorPolicy#shrinkAt()} is set through
+	 * {@link #setLoadFactorPolicy(LoadFactorPolicy)}.
 	 *
 	 * @param key The key to search for.
 	 * @return The {@link phonebook.utils.Probes} with associated value and the number of probe used. If the key is {@code null}, return value {@code null}
@@ -160,6 +314,9 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
 					// Soft deletion
 					if (softFlag) {
 						table[index] = TOMBSTONE;
+						tombstones++;
+						if (shouldPurge())
+							probeCount += purgeTombstones();
 						break;
 					} else {
 						// Hard deletion
@@ -193,6 +350,9 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
 				probeCount++;
 				x++;			
 			}
+			// Soft deletion leaves count alone, so only hard deletions and purges can bring the load down.
+			if (oldVal != null && shouldShrink())
+				probeCount += shrink();
 			return new Probes(oldVal, probeCount);
 		}
 		return null;
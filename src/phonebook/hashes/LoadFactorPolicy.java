@@ -0,0 +1,117 @@
+package phonebook.hashes;
+
+/**
+ * <p>{@link LoadFactorPolicy} decides when a {@link HashTable} resizes, based on its <em>load</em>: the number of
+ * records it holds divided by its {@link HashTable#capacity()}. A table grows once its load exceeds {@link #growAt()},
+ * and shrinks to its previous capacity once deletions bring its load below {@link #shrinkAt()}.</p>
+ *
+ * <p>The two thresholds are kept well apart, which gives the policy <em>hysteresis</em>: shrinking roughly halves the
+ * capacity, so it roughly doubles the load, and since {@link #shrinkAt()} must be less than half of {@link #growAt()},
+ * a table that just shrank is never right back at the point of growing, and vice versa. Without this, a table sitting at
+ * a threshold would resize on every other insertion or deletion.</p>
+ *
+ * <p>Instances are immutable, and one of them can be shared by any number of tables.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see HashTable
+ * @see CapacityPolicy
+ * @see OpenAddressingHashTable#setLoadFactorPolicy(LoadFactorPolicy)
+ */
+public final class LoadFactorPolicy {
+
+    /**
+     * The fraction of {@link #growAt()} under which the tables shrink by default.
+     *
+     * @see #growingAt(double)
+     */
+    public static final double DEFAULT_SHRINK_FRACTION = 0.25;
+
+    /**
+     * Grows tables past a load of 1/2, as the writeup asks for, and shrinks them under a load of 1/8.
+     */
+    public static final LoadFactorPolicy DEFAULT = growingAt(0.5);
+
+    private final double growAt;
+    private final double shrinkAt;
+
+    /**
+     * Creates a {@link LoadFactorPolicy} with the given thresholds.
+     * @param growAt The load past which tables grow. Openly addressed tables need it to be less than 1, while the chains of
+     *               {@link SeparateChainingHashTable} can hold more records than it has cells.
+     * @param shrinkAt The load under which tables shrink, or 0 if they should never shrink.
+     * @throws IllegalArgumentException if growAt is not positive, or shrinkAt is negative or not less than half of growAt.
+     */
+    public LoadFactorPolicy(double growAt, double shrinkAt) {
+        if (!(growAt > 0) || Double.isInfinite(growAt))
+            throw new IllegalArgumentException("Tables must grow at a positive load, but growAt was " + growAt + ".");
+        if (!(shrinkAt >= 0 && 2 * shrinkAt < growAt))
+            throw new IllegalArgumentException("shrinkAt must be in [0, growAt / 2) for tables not to resize back and forth, " +
+                    "but was " + shrinkAt + " with growAt " + growAt + ".");
+        this.growAt = growAt;
+        this.shrinkAt = shrinkAt;
+    }
+
+    /**
+     * Creates a {@link LoadFactorPolicy} which shrinks tables under {@link #DEFAULT_SHRINK_FRACTION} of the given growAt.
+     * Every table which shrinks does so under this rule unless it is given another policy; only the maximum load differs.
+     * @param growAt The load past which tables grow.
+     * @return A {@link LoadFactorPolicy} with the given growAt and a shrinkAt of growAt * {@link #DEFAULT_SHRINK_FRACTION}.
+     * @throws IllegalArgumentException if growAt is not positive.
+     */
+    public static LoadFactorPolicy growingAt(double growAt) {
+        return new LoadFactorPolicy(growAt, growAt * DEFAULT_SHRINK_FRACTION);
+    }
+
+    /**
+     * Creates a {@link LoadFactorPolicy} which never shrinks tables.
+     * @param growAt The load past which tables grow.
+     * @return A {@link LoadFactorPolicy} with the given growAt and a shrinkAt of 0.
+     * @throws IllegalArgumentException if growAt is not positive.
+     */
+    public static LoadFactorPolicy growOnly(double growAt) {
+        return new LoadFactorPolicy(growAt, 0);
+    }
+
+    /**
+     * Returns the load past which tables grow.
+     * @return The growing threshold.
+     */
+    public double growAt() {
+        return growAt;
+    }
+
+    /**
+     * Returns the load under which tables shrink.
+     * @return The shrinking threshold, 0 if tables never shrink.
+     */
+    public double shrinkAt() {
+        return shrinkAt;
+    }
+
+    /**
+     * Tells a table whether it has to grow.
+     * @param records The number of records in the table, plus any other cells a table wants counted, e.g tombstones.
+     * @param capacity The capacity of the table.
+     * @return {@code true} if the load of the table exceeds {@link #growAt()}.
+     */
+    public boolean shouldGrow(int records, int capacity) {
+        return records > growAt * capacity;
+    }
+
+    /**
+     * Tells a table whether it should shrink. Tables should not shrink below {@link CapacityPolicy#minimumCapacity()},
+     * whatever this method says.
+     * @param records The number of records in the table.
+     * @param capacity The capacity of the table.
+     * @return {@code true} if the load of the table is under {@link #shrinkAt()}.
+     */
+    public boolean shouldShrink(int records, int capacity) {
+        return records < shrinkAt * capacity;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadFactorPolicy[growAt=" + growAt + ", shrinkAt=" + shrinkAt + "]";
+    }
+}
@@ -0,0 +1,380 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+import phonebook.utils.PrimeGenerator;
+import phonebook.utils.Probes;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>{@link LockFreeLinearProbingHashTable} is a <b>thread-safe</b>, Openly Addressed {@link HashTable} implemented with
+ * <b>Linear Probing</b>, whose cells are only ever changed through <em>compare-and-set</em> (CAS) operations on an
+ * {@link AtomicReferenceArray}. Readers take no locks and never wait for writers, which makes this table a good fit for
+ * lookup-dominated workloads shared between many threads.</p>
+ *
+ * <p>Every cell is <b>claimed</b> by a single key, the first time a CAS replaces its {@code null} with a pair of that key,
+ * and belongs to that key until the next resize. Updates of the value CAS a new pair of the same key into the cell, and
+ * deletions CAS in a <em>tombstone</em>, exactly like soft deletion does in the other Openly Addressed tables. Unlike
+ * {@link OpenAddressingHashTable#TOMBSTONE}, our tombstones remember their key: a cell is never handed over to a
+ * different key, which is what prevents two concurrent insertions of the same key from claiming two different cells.
+ * A later insertion of the same key simply revives its tombstone.</p>
+ *
+ * <p>Once more than 50&#37; of the cells have been claimed, the table is rebuilt <b>cooperatively</b>, in the spirit of
+ * the <em>transfer</em> of {@link java.util.concurrent.ConcurrentHashMap}. Every writer which arrives while a rebuild
+ * is in progress claims the next {@link #TRANSFER_STRIDE} cells of the old array and migrates them, so the rebuild
+ * runs on as many cores as there are writers, instead of one thread doing all the work while everybody else waits.
+ * A migrated cell is replaced by a <em>forwarding marker</em> which keeps the key of the cell. Readers and writers alike
+ * skip the markers of other keys, and follow the marker of their own key (or of an empty cell) into the new array. A
+ * writer which gets there first helps out while there are cells left to claim, but it never waits for the other helpers
+ * to finish theirs: it carries on in the new array straight away, forwarding any empty cell it meets in the old array
+ * instead of claiming it. Writers only wait if they fill half of the new array before the rebuild ends. The new array leaves every tombstone behind, and it is only larger than the old one if more
+ * than a quarter of the cells still hold live keys.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see HashTable
+ * @see LinearProbingHashTable
+ * @see ConcurrentSeparateChainingHashTable
+ * @see CollisionResolver
+ */
+public class LockFreeLinearProbingHashTable implements HashTable {
+
+	/* ********************************************************************/
+	/* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+	/* ********************************************************************/
+
+	/**
+	 * The number of cells of the old array that a thread claims at a time while it helps a rebuild.
+	 */
+	public static final int TRANSFER_STRIDE = 16;
+
+	// A rebuild in progress: from is being migrated into to, TRANSFER_STRIDE cells at a time.
+	private static final class Transfer {
+		final AtomicReferenceArray<KVPair> from;
+		final AtomicReferenceArray<KVPair> to;
+		final AtomicInteger nextCell = new AtomicInteger(0);    // The first cell of from not claimed by a helper yet.
+		final AtomicInteger transferred = new AtomicInteger(0); // Cells of from already replaced by markers.
+
+		Transfer(AtomicReferenceArray<KVPair> from, int length) {
+			this.from = from;
+			this.to = new AtomicReferenceArray<>(length);
+		}
+	}
+
+	// Takes the place of a migrated cell. The key is that of the cell's last pair, or null if the cell was empty.
+	private static final class Forwarded extends KVPair {
+		final Transfer transfer;
+
+		Forwarded(String key, Transfer transfer) {
+			super(key, null);
+			this.transfer = transfer;
+		}
+	}
+
+	private volatile AtomicReferenceArray<KVPair> table;
+	private volatile Transfer transfer; // null when no rebuild is in progress.
+	private final AtomicInteger count;   // Live keys.
+	private final AtomicInteger claimed; // Cells of the newest array claimed by some key, live or tombstoned.
+	private final ReentrantLock resizeLock; // Only held to start a rebuild, never during the migration.
+	private final PrimeGenerator primeGenerator; // Only used under resizeLock.
+
+	private static int hash(String key, int length) {
+		return (key.hashCode() & 0x7fffffff) % length;
+	}
+
+	// Tombstones are pairs with a null value.
+	private static boolean isTombstone(KVPair pair) {
+		return !(pair instanceof Forwarded) && pair.getValue() == null;
+	}
+
+	private static boolean isLive(KVPair pair) {
+		return pair != null && !(pair instanceof Forwarded) && pair.getValue() != null;
+	}
+
+	/*
+	 * Installs value for key (or a tombstone, if value is null) in t, claiming a cell for key if it has none. The markers
+	 * of other keys are skipped. Returns the pair that was replaced (null if key had no cell), or the forwarding marker of
+	 * key's cell or of an empty cell, in which case nothing was written. probes[0] is incremented by the cells visited.
+	 */
+	private KVPair install(AtomicReferenceArray<KVPair> t, String key, String value, int[] probes) {
+		int i = hash(key, t.length());
+		probes[0]++;
+		for (int visited = 0; visited < t.length(); ) {
+			KVPair current = t.get(i);
+			if (current instanceof Forwarded) {
+				// Cells never become empty again, so if key had a cell in t, it is at or before an empty cell's marker.
+				if (current.getKey() == null || current.getKey().equals(key))
+					return current;
+			} else if (current == null) {
+				if (value == null)
+					return null; // Nothing to delete.
+				Transfer tr = transfer;
+				if (tr != null && tr.from == t) {
+					// t is being migrated, so rather than claim a cell that would only be moved, we forward it ourselves.
+					Forwarded marker = new Forwarded(null, tr);
+					if (t.compareAndSet(i, null, marker))
+						return marker;
+					continue;
+				}
+				if (t.compareAndSet(i, null, new KVPair(key, value))) {
+					claimed.incrementAndGet();
+					count.incrementAndGet();
+					return null;
+				}
+				continue; // Somebody claimed this cell under our nose; look at it again.
+			} else if (current.getKey().equals(key)) {
+				if (value == null && isTombstone(current))
+					return current; // Already deleted.
+				if (t.compareAndSet(i, current, new KVPair(key, value))) {
+					if (isTombstone(current) && value != null)
+						count.incrementAndGet();
+					else if (!isTombstone(current) && value == null)
+						count.decrementAndGet();
+					return current;
+				}
+				continue; // Lost a race against another writer of the same key; retry against its pair.
+			}
+			i = (i + 1) % t.length();
+			probes[0]++;
+			visited++;
+		}
+		throw new IllegalStateException("Lock-free Linear Probing hash table has no free cells left.");
+	}
+
+	// The lock-free search, which follows forwarding markers into newer arrays. probes[0] is incremented by the cells visited.
+	private static String find(AtomicReferenceArray<KVPair> t, String key, int[] probes) {
+		int i = hash(key, t.length());
+		for (int visited = 0; visited < t.length(); visited++) {
+			probes[0]++;
+			KVPair current = t.get(i);
+			if (current == null)
+				return null;
+			if (current instanceof Forwarded) {
+				// As in install(), if key was in t it was at or before an empty cell's marker.
+				if (current.getKey() == null || current.getKey().equals(key))
+					return find(((Forwarded) current).transfer.to, key, probes);
+			} else if (current.getKey().equals(key)) {
+				return current.getValue();
+			}
+			i = (i + 1) % t.length();
+		}
+		return null;
+	}
+
+	// Returns the rebuild of t, starting one if t is still the current array and nobody else has.
+	private Transfer transferOf(AtomicReferenceArray<KVPair> t) {
+		resizeLock.lock();
+		try {
+			Transfer tr = transfer;
+			if (tr == null && table == t && claimed.get() > t.length() / 2) {
+				// If tombstones hold most of the claimed cells, dropping them suffices.
+				int length = count.get() > t.length() / 4 ? primeGenerator.getNextPrime() : t.length();
+				tr = new Transfer(t, length);
+				claimed.set(0); // From now on, we count the cells of the new array.
+				transfer = tr;
+			}
+			return tr != null && tr.from == t ? tr : null;
+		} finally {
+			resizeLock.unlock();
+		}
+	}
+
+	// Moves cell i of tr.from into tr.to, and replaces it with a forwarding marker. Only one thread ever moves a given cell.
+	private void transferCell(Transfer tr, int i) {
+		int placed = -1;
+		while (true) {
+			KVPair current = tr.from.get(i);
+			if (isLive(current)) {
+				if (placed == -1) {
+					// Other helpers may be claiming cells of tr.to as well, but no other thread writes to ours afterwards.
+					placed = hash(current.getKey(), tr.to.length());
+					while (!tr.to.compareAndSet(placed, null, current))
+						placed = (placed + 1) % tr.to.length();
+					claimed.incrementAndGet();
+				} else {
+					tr.to.set(placed, current);
+				}
+			} else if (placed != -1) {
+				tr.to.set(placed, new KVPair(tr.to.get(placed).getKey(), null)); // Deleted while we were copying it.
+			}
+			// If a writer changed the cell after we read it, the CAS fails and we copy its pair over ours.
+			if (tr.from.compareAndSet(i, current, new Forwarded(current == null ? null : current.getKey(), tr)))
+				return;
+		}
+	}
+
+	// Migrates ranges of tr.from until none are left to claim. Whoever migrates the last range publishes tr.to.
+	private void help(Transfer tr) {
+		int length = tr.from.length();
+		int start;
+		while ((start = tr.nextCell.getAndAdd(TRANSFER_STRIDE)) < length) {
+			int end = Math.min(length, start + TRANSFER_STRIDE);
+			for (int i = start; i < end; i++)
+				transferCell(tr, i);
+			if (tr.transferred.addAndGet(end - start) == length) {
+				table = tr.to;
+				transfer = null;
+			}
+		}
+	}
+
+	// Waits for the rebuild into t to end, if there is one. Writers only get here if they filled half of t while the last
+	// ranges of the old array were still being migrated, which is the one case where going on could fill t up.
+	private void awaitRebuildInto(AtomicReferenceArray<KVPair> t) {
+		Transfer tr;
+		while ((tr = transfer) != null && tr.to == t)
+			Thread.onSpinWait();
+	}
+
+	// Applies install() to the current array, following key into newer arrays and helping with any rebuild that gets in the
+	// way. Returns the replaced pair.
+	private KVPair write(String key, String value, int[] probes) {
+		AtomicReferenceArray<KVPair> t = table;
+		while (true) {
+			KVPair previous = install(t, key, value, probes);
+			if (previous instanceof Forwarded) {
+				Transfer tr = ((Forwarded) previous).transfer;
+				help(tr);
+				t = tr.to;
+				continue;
+			}
+			if (value != null && claimed.get() > t.length() / 2) {
+				Transfer tr = transferOf(t);
+				if (tr != null)
+					help(tr);
+				else
+					awaitRebuildInto(t);
+			}
+			return previous;
+		}
+	}
+
+	/* ******************************************/
+	/*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+	/* **************************************** */
+
+	/**
+	 * Default constructor. Initializes the internal storage with a size equal to the starting value of  {@link PrimeGenerator}.
+	 * Deletions are always soft.
+	 */
+	public LockFreeLinearProbingHashTable() {
+		this(0);
+	}
+
+	/**
+	 * Constructor with the number of records the table is expected to hold. Initializes the internal storage once, with
+	 * a prime capacity large enough for expectedSize records, so that inserting them never rebuilds the table.
+	 * Deletions are always soft.
+	 *
+	 * @param expectedSize The number of records the table is expected to hold.
+	 * @throws IllegalArgumentException if expectedSize is negative.
+	 */
+	public LockFreeLinearProbingHashTable(int expectedSize) {
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("Expected size cannot be negative, but was " + expectedSize + ".");
+		primeGenerator = new PrimeGenerator();
+		table = new AtomicReferenceArray<>(CapacityPolicy.PRIME.capacityFor(primeGenerator, 2 * expectedSize + 1));
+		count = new AtomicInteger(0);
+		claimed = new AtomicInteger(0);
+		resizeLock = new ReentrantLock();
+	}
+
+	/**
+	 * Inserts the pair &lt;key, value&gt; into this. The container should <b>not</b> allow for {@code null}
+	 * keys and values. If key is already in the table, its value is updated.
+	 * <p>
+	 * If a rebuild of the table is in progress, or this insertion pushes the claimed cells over 50&#37;, the calling
+	 * thread helps migrate the old array before it returns.
+	 *
+	 * @param key   The record's key.
+	 * @param value The record's value.
+	 * @return The {@link phonebook.utils.Probes} with the value added and the number of probes it makes.
+	 * @throws IllegalArgumentException if either argument is {@code null}.
+	 */
+	@Override
+	public Probes put(String key, String value) {
+		if (key == null || value == null)
+			throw new IllegalArgumentException("key or value input cannot be null!");
+		int[] probes = new int[1];
+		write(key, value, probes);
+		return new Probes(value, probes[0]);
+	}
+
+	/**
+	 * Get the value associated with key in the {@link HashTable}. This method takes no locks and never waits for writers,
+	 * not even during a rebuild.
+	 *
+	 * @param key The key to search for.
+	 * @return The {@link phonebook.utils.Probes} with associated value and the number of probe used. If the key is {@code null}, return value {@code null}
+	 * and 0 as number of probes; if the key dones't exists in the database, return {@code null} and the number of probes used.
+	 */
+	@Override
+	public Probes get(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		int[] probes = new int[1];
+		String value = find(table, key, probes);
+		return new Probes(value, probes[0]);
+	}
+
+	@Override
+	public Probes remove(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		int[] probes = new int[1];
+		KVPair previous = write(key, null, probes);
+		return new Probes(previous == null ? null : previous.getValue(), probes[0]);
+	}
+
+	@Override
+	public boolean containsKey(String key) {
+		return get(key).getValue() != null;
+	}
+
+	@Override
+	public boolean containsValue(String value) {
+		AtomicReferenceArray<KVPair> t = table;
+		for (int i = 0; i < t.length(); i++) {
+			KVPair pair = t.get(i);
+			if (pair instanceof Forwarded && pair.getKey() != null) // The pair now lives in a newer array.
+				pair = new KVPair(pair.getKey(), find(((Forwarded) pair).transfer.to, pair.getKey(), new int[1]));
+			if (pair != null && value.equals(pair.getValue()))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return count.get();
+	}
+
+	@Override
+	public int capacity() {
+		return table.length();
+	}
+
+	/**
+	 * Returns an {@link Iterator} over the pairs of the table which takes no locks. It is <em>weakly consistent</em>: it
+	 * follows the pairs that a rebuild moves, but may or may not reflect the writes made while it runs.
+	 * @return An {@link Iterator} over the pairs of this table.
+	 */
+	@Override
+	public Iterator<KVPair> iterator() {
+		final AtomicReferenceArray<KVPair> t = table;
+		return new CellIterator(t.length()) {
+			@Override
+			KVPair cell(int cell) {
+				KVPair pair = t.get(cell);
+				if (pair instanceof Forwarded && pair.getKey() != null) { // The pair now lives in a newer array.
+					String value = find(((Forwarded) pair).transfer.to, pair.getKey(), new int[1]);
+					return value == null ? null : new KVPair(pair.getKey(), value);
+				}
+				return isLive(pair) ? pair : null;
+			}
+		};
+	}
+}
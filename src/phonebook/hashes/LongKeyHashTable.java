@@ -0,0 +1,401 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+import phonebook.utils.PrimeGenerator;
+import phonebook.utils.Probes;
+
+import java.util.Iterator;
+
+/**
+ * <p>{@link LongKeyHashTable} is an Openly Addressed {@link HashTable} implemented with <b>Linear Probing</b>, whose keys
+ * are <b>phone numbers</b> stored as primitive {@code long}s. The keys live in a {@code long[]} and the values in a
+ * parallel {@code String[]}, so that a probe compares two {@code long}s that sit next to each other in memory instead of
+ * following a pointer to a {@link String}, and no {@link String#hashCode()} is ever computed.</p>
+ *
+ * <p>A number is converted to a {@code long} once, by {@link #encode(String)}, which keeps its digits and drops a leading
+ * &quot;+&quot; and the usual separators: spaces, dashes, dots and parentheses. Numbers which only differ in those, like
+ * &quot;+1 (301) 405-1000&quot; and &quot;13014051000&quot;, are therefore the same key, and {@link #iterator()} returns every
+ * number as its digits alone. Up to {@link #MAX_DIGITS} digits are kept, leading zeroes included, which is enough for any
+ * E.164 number. Callers which already hold the encoded number use {@link #get(long)}, {@link #put(long, String)} and
+ * {@link #remove(long)}, which allocate nothing, while the methods of {@link HashTable} encode their key first.</p>
+ *
+ * <p>Deletions are always <em>hard</em>: they shift the rest of the cluster back, like those of
+ * {@link StructOfArraysHashTable}, so the table never holds any tombstones.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see HashTable
+ * @see StructOfArraysHashTable
+ * @see CollisionResolver#LONG_KEYS
+ */
+public class LongKeyHashTable implements HashTable {
+
+	/**
+	 * The largest number of digits that a phone number may have. E.164 numbers have at most 15.
+	 */
+	public static final int MAX_DIGITS = 18;
+
+	/**
+	 * What {@link #encode(String)} returns for anything that is not a phone number. No key is ever equal to it.
+	 */
+	public static final long NOT_A_NUMBER = 0;
+
+	/* ********************************************************************/
+	/* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+	/* ********************************************************************/
+
+	private long[] keys;     // NOT_A_NUMBER for an empty cell.
+	private String[] values;
+	private int count;
+	private int probes;      // The cells visited by the last call to find().
+	private LoadFactorPolicy loadFactorPolicy = LoadFactorPolicy.DEFAULT;
+	private final CapacityPolicy capacityPolicy;
+	private final PrimeGenerator primeGenerator;
+
+	private int hash(long key) {
+		long mixed = key * 0x9E3779B97F4A7C15L;
+		return capacityPolicy.index((int) (mixed ^ (mixed >>> 32)), keys.length);
+	}
+
+	// Returns the cell of key, or -1.
+	private int find(long key) {
+		int i = hash(key);
+		probes = 1;
+		for (int visited = 1; keys[i] != NOT_A_NUMBER && visited <= keys.length; visited++) {
+			if (keys[i] == key)
+				return i;
+			i = (i + 1) % keys.length;
+			probes++;
+		}
+		return -1;
+	}
+
+	// Places a key that is known not to be in the table into the first empty cell of its cluster. Returns the cells visited.
+	private int insert(long key, String value) {
+		int i = hash(key);
+		int probeCount = 1;
+		while (keys[i] != NOT_A_NUMBER) {
+			i = (i + 1) % keys.length;
+			probeCount++;
+		}
+		keys[i] = key;
+		values[i] = value;
+		return probeCount;
+	}
+
+	// Moves every pair into arrays of the given capacity. Returns the cells visited.
+	private int resize(int capacity) {
+		long[] oldKeys = keys;
+		String[] oldValues = values;
+		keys = new long[capacity];
+		values = new String[capacity];
+		int probeCount = 0;
+		for (int x = 0; x < oldKeys.length; x++) {
+			probeCount++;
+			if (oldKeys[x] != NOT_A_NUMBER)
+				probeCount += insert(oldKeys[x], oldValues[x]);
+		}
+		return probeCount;
+	}
+
+	// Knuth's Algorithm R: after emptying cell i, pull back every key of the cluster whose hashed address is not in (i, j].
+	private int shiftBack(int i) {
+		int probeCount = 0;
+		keys[i] = NOT_A_NUMBER;
+		values[i] = null;
+		int j = i;
+		while (true) {
+			j = (j + 1) % keys.length;
+			probeCount++;
+			if (keys[j] == NOT_A_NUMBER)
+				return probeCount;
+			int k = hash(keys[j]);
+			boolean staysPut = (i <= j) ? (i < k && k <= j) : (i < k || k <= j);
+			if (!staysPut) {
+				keys[i] = keys[j];
+				values[i] = values[j];
+				keys[j] = NOT_A_NUMBER;
+				values[j] = null;
+				i = j;
+			}
+		}
+	}
+
+	private static long encodeOrThrow(String number) {
+		long key = encode(number);
+		if (key == NOT_A_NUMBER)
+			throw new IllegalArgumentException("\"" + number + "\" is not a phone number!");
+		return key;
+	}
+
+	/* ******************************************/
+	/*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+	/* **************************************** */
+
+	/**
+	 * Default constructor. Initializes the internal storage with a size equal to the starting value of {@link PrimeGenerator}.
+	 */
+	public LongKeyHashTable() {
+		this(CapacityPolicy.PRIME);
+	}
+
+	/**
+	 * Constructor with a choice of {@link CapacityPolicy}. Initializes the internal storage with a size equal to the initial
+	 * capacity of the policy.
+	 *
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+	 */
+	public LongKeyHashTable(CapacityPolicy policy) {
+		this(policy, 0);
+	}
+
+	/**
+	 * Constructor with a choice of {@link CapacityPolicy} and the number of records the table is expected to hold.
+	 * Initializes the internal storage once, with a capacity large enough for expectedSize records, so that inserting them
+	 * never resizes the table.
+	 *
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+	 * @param expectedSize The number of records the table is expected to hold.
+	 * @throws IllegalArgumentException if expectedSize is negative.
+	 */
+	public LongKeyHashTable(CapacityPolicy policy, int expectedSize) {
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("Expected size cannot be negative, but was " + expectedSize + ".");
+		primeGenerator = new PrimeGenerator();
+		capacityPolicy = policy;
+		int capacity = policy.capacityFor(primeGenerator, 2 * expectedSize + 1);
+		keys = new long[capacity];
+		values = new String[capacity];
+		count = 0;
+	}
+
+	/**
+	 * Converts a phone number into the {@code long} that this table stores as its key. Its digits are kept, leading zeroes
+	 * included, while a leading &quot;+&quot;, spaces, dashes, dots and parentheses are dropped. Nothing is allocated.
+	 *
+	 * @param number The phone number.
+	 * @return The key of number, or {@link #NOT_A_NUMBER} if number is {@code null}, contains any other character, or
+	 * has no digits or more than {@link #MAX_DIGITS} of them.
+	 */
+	public static long encode(String number) {
+		if (number == null)
+			return NOT_A_NUMBER;
+		long key = 1; // A leading 1 keeps the leading zeroes of the number, and the number of its digits.
+		int digits = 0;
+		for (int i = 0; i < number.length(); i++) {
+			char c = number.charAt(i);
+			if (c >= '0' && c <= '9') {
+				if (++digits > MAX_DIGITS)
+					return NOT_A_NUMBER;
+				key = key * 10 + (c - '0');
+			} else if (!(c == ' ' || c == '-' || c == '.' || c == '(' || c == ')' || (c == '+' && digits == 0))) {
+				return NOT_A_NUMBER;
+			}
+		}
+		return digits == 0 ? NOT_A_NUMBER : key;
+	}
+
+	/**
+	 * Converts a key produced by {@link #encode(String)} back into the digits of its phone number.
+	 *
+	 * @param key A key produced by {@link #encode(String)}.
+	 * @return The digits of the phone number.
+	 * @throws IllegalArgumentException if key is {@link #NOT_A_NUMBER} or negative.
+	 */
+	public static String decode(long key) {
+		if (key <= NOT_A_NUMBER)
+			throw new IllegalArgumentException("Cannot decode " + key + " into a phone number!");
+		return Long.toString(key).substring(1);
+	}
+
+	/**
+	 * Inserts the pair &lt;key, value&gt; into this, exactly like {@link #put(String, String)}, without encoding the key or
+	 * allocating a {@link Probes}.
+	 *
+	 * @param key   The key of a phone number, as produced by {@link #encode(String)}.
+	 * @param value The record's value.
+	 * @return The value which key was associated with, or {@code null} if key was not in the table.
+	 * @throws IllegalArgumentException if key is {@link #NOT_A_NUMBER} or negative, or value is {@code null}.
+	 */
+	public String put(long key, String value) {
+		if (key <= NOT_A_NUMBER || value == null)
+			throw new IllegalArgumentException("key or value input cannot be null!");
+		int index = find(key);
+		if (index != -1) {
+			String oldVal = values[index];
+			values[index] = value;
+			return oldVal;
+		}
+		/* * * CHECK FOR RESIZING * * */
+		if (loadFactorPolicy.shouldGrow(count, keys.length))
+			probes += resize(capacityPolicy.nextCapacity(primeGenerator, keys.length));
+		probes += insert(key, value);
+		count++;
+		return null;
+	}
+
+	/**
+	 * Inserts the pair &lt;key, value&gt; into this. The container should <b>not</b> allow for {@code null}
+	 * keys and values. If key is already in the table, its value is updated. This method is expected to run in
+	 * <em>amortized constant time</em>.
+	 * <p>
+	 * Instances of {@link LongKeyHashTable} grow once the share of their cells which are occupied passes the
+	 * {@link LoadFactorPolicy#growAt()} of their {@link LoadFactorPolicy}, and the resize never decodes a key.
+	 *
+	 * @param key   The phone number.
+	 * @param value The record's value.
+	 * @return The {@link phonebook.utils.Probes} with the value added and the number of probes it makes.
+	 * @throws IllegalArgumentException if either argument is {@code null}, or key is not a phone number.
+	 * @see #encode(String)
+	 */
+	@Override
+	public Probes put(String key, String value) {
+		if (key == null || value == null)
+			throw new IllegalArgumentException("key or value input cannot be null!");
+		put(encodeOrThrow(key), value);
+		return new Probes(value, probes);
+	}
+
+	/**
+	 * Searches for key, exactly like {@link #get(String)}, without encoding it or allocating a {@link Probes}.
+	 *
+	 * @param key The key of a phone number, as produced by {@link #encode(String)}.
+	 * @return The value associated with key, or {@code null} if key is not in the table.
+	 */
+	public String get(long key) {
+		if (key <= NOT_A_NUMBER)
+			return null;
+		int index = find(key);
+		return index == -1 ? null : values[index];
+	}
+
+	@Override
+	public Probes get(String key) {
+		long encoded = encode(key);
+		if (encoded == NOT_A_NUMBER)
+			return new Probes(null, 0);
+		String value = get(encoded);
+		return new Probes(value, probes);
+	}
+
+	/**
+	 * Searches for every phone number of batch, encoding each of them once and allocating nothing but the returned array.
+	 *
+	 * @param batch The phone numbers to search for.
+	 * @return The values of the numbers, in the same order, with {@code null} for the ones that are {@code null}, not phone
+	 * numbers, or missing.
+	 * @throws IllegalArgumentException if batch is {@code null}.
+	 */
+	@Override
+	public String[] getAll(String[] batch) {
+		if (batch == null)
+			throw new IllegalArgumentException("keys cannot be null!");
+		String[] found = new String[batch.length];
+		for (int k = 0; k < batch.length; k++)
+			found[k] = get(encode(batch[k]));
+		return found;
+	}
+
+	/**
+	 * Removes key from this, exactly like {@link #remove(String)}, without encoding it or allocating a {@link Probes}.
+	 *
+	 * @param key The key of a phone number, as produced by {@link #encode(String)}.
+	 * @return The value that key was associated with, or {@code null} if key was not in the table.
+	 */
+	public String remove(long key) {
+		if (key <= NOT_A_NUMBER)
+			return null;
+		int index = find(key);
+		if (index == -1)
+			return null;
+		String oldVal = values[index];
+		probes += shiftBack(index);
+		count--;
+		if (loadFactorPolicy.shouldShrink(count, keys.length) && keys.length > capacityPolicy.minimumCapacity())
+			probes += resize(capacityPolicy.previousCapacity(primeGenerator, keys.length));
+		return oldVal;
+	}
+
+	@Override
+	public Probes remove(String key) {
+		long encoded = encode(key);
+		if (encoded == NOT_A_NUMBER)
+			return new Probes(null, 0);
+		String oldVal = remove(encoded);
+		return new Probes(oldVal, probes);
+	}
+
+	/**
+	 * Changes when the arrays grow and shrink. {@link LoadFactorPolicy#DEFAULT} by default.
+	 *
+	 * @param policy The new {@link LoadFactorPolicy}.
+	 * @throws IllegalArgumentException if policy is {@code null}, or its {@link LoadFactorPolicy#growAt()} is not less than 1.
+	 */
+	public void setLoadFactorPolicy(LoadFactorPolicy policy) {
+		if (policy == null || policy.growAt() >= 1)
+			throw new IllegalArgumentException("Openly addressed tables cannot use " + policy + ".");
+		loadFactorPolicy = policy;
+	}
+
+	/**
+	 * Returns when the arrays grow and shrink.
+	 *
+	 * @return The {@link LoadFactorPolicy} of this table.
+	 */
+	public LoadFactorPolicy getLoadFactorPolicy() {
+		return loadFactorPolicy;
+	}
+
+	/**
+	 * Searches for key, without encoding it.
+	 *
+	 * @param key The key of a phone number, as produced by {@link #encode(String)}.
+	 * @return {@code true} if key is in the table.
+	 */
+	public boolean containsKey(long key) {
+		return key > NOT_A_NUMBER && find(key) != -1;
+	}
+
+	@Override
+	public boolean containsKey(String key) {
+		return containsKey(encode(key));
+	}
+
+	@Override
+	public boolean containsValue(String value) {
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != NOT_A_NUMBER && values[i].equals(value))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	@Override
+	public int capacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Returns an {@link Iterator} over the pairs of this table, in the order of their cells. Every phone number is
+	 * returned as its digits alone.
+	 *
+	 * @return An {@link Iterator} over the pairs of this table.
+	 * @see #decode(long)
+	 */
+	@Override
+	public Iterator<KVPair> iterator() {
+		final long[] k = keys;
+		final String[] v = values;
+		return new CellIterator(k.length) {
+			@Override
+			KVPair cell(int cell) {
+				return k[cell] == NOT_A_NUMBER ? null : new KVPair(decode(k[cell]), v[cell]);
+			}
+		};
+	}
+}
@@ -0,0 +1,586 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+import phonebook.utils.PrimeGenerator;
+import phonebook.utils.Probes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * <p>{@link MappedHashTable} is an Openly Addressed {@link HashTable} implemented with <b>Linear Probing</b>, whose
+ * storage is a <b>file</b>, accessed through a memory mapping ({@link FileChannel#map(FileChannel.MapMode, long, long)}).
+ * The file is an image of the table: a header of {@link #HEADER_BYTES} bytes with the table's counters, then the cells,
+ * {@link #SLOT_BYTES} bytes each, laid out exactly like those of {@link OffHeapHashTable}, then an arena of UTF-8 encoded
+ * records. Searches read straight from the mapping, and updates write straight into it, so there is nothing to load
+ * when an existing file is opened: opening it takes <em>constant time</em>, no matter how many entries it holds, and the
+ * operating system pages in only the parts of the file that are actually visited.</p>
+ *
+ * <p>Like those of {@link OffHeapHashTable}, records that are no longer referenced are counted. When the arena fills up,
+ * it is compacted in place if at least half of it is dead, and otherwise the file is extended and mapped again. When the
+ * cells are more than 50&#37; occupied, the table is rebuilt into a temporary file next to the original, which then
+ * replaces it; a rebuild that fails leaves the table as it was. Writes reach the disk whenever the operating system
+ * flushes the mapping, and at the latest when the table is closed; the table does not protect against a crash in the
+ * middle of an update.</p>
+ *
+ * <p>A single mapping cannot be larger than 2GB, and neither can the file of a {@link MappedHashTable}.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see HashTable
+ * @see OffHeapHashTable
+ * @see phonebook.Phonebook#open(Path)
+ */
+public class MappedHashTable implements HashTable, Closeable {
+
+	/* ********************************************************************/
+	/* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+	/* ********************************************************************/
+
+	/**
+	 * The number of bytes at the beginning of the file which hold the table's counters.
+	 */
+	public static final int HEADER_BYTES = 32;
+
+	/**
+	 * The number of bytes every cell of the table takes up.
+	 */
+	public static final int SLOT_BYTES = 16;
+
+	// Offsets of the fields of the header.
+	private static final int MAGIC = 0;
+	private static final int POLICY = 4;
+	private static final int SOFT = 8;
+	private static final int CELLS = 12;
+	private static final int COUNT = 16;
+	private static final int TOMBSTONES = 20;
+	private static final int ARENA_END = 24;
+	private static final int GARBAGE = 28;
+
+	// Offsets of the fields of a cell.
+	private static final int HASH = 0;
+	private static final int RECORD = 4;       // Offset of the record in the arena plus one, so that zeroed bytes read as an empty cell.
+	private static final int KEY_LENGTH = 8;
+	private static final int VALUE_LENGTH = 12;
+
+	private static final int EMPTY = 0;
+	private static final int TOMBSTONE = -1;
+	private static final int ARENA_BYTES_PER_CELL = 32; // Initial guess at the bytes a cell's record needs.
+	private static final int FILE_MAGIC = 0x50484231; // "PHB1"
+	private static final long MAX_FILE_BYTES = Integer.MAX_VALUE; // The most a single mapping can hold.
+
+	private final Path file;
+	private FileChannel channel;
+	private MappedByteBuffer image;
+	private int cells;
+	private int arenaStart; // Offset of the arena in the file.
+	private int arenaEnd;   // The first unused byte of the arena, relative to arenaStart.
+	private int garbage;    // The bytes of the arena taken up by records, or parts of them, that no cell refers to.
+	private int count;
+	private int tombstones;
+	private LoadFactorPolicy loadFactorPolicy = LoadFactorPolicy.DEFAULT;
+	private final boolean softFlag;
+	private final CapacityPolicy capacityPolicy;
+	private final PrimeGenerator primeGenerator;
+
+	private static byte[] encode(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private void checkOpen() {
+		if (image == null)
+			throw new IllegalStateException("This MappedHashTable has been closed.");
+	}
+
+	// Sizes in bytes are computed in long, so that they are checked against the limit of a mapping instead of overflowing.
+	private static long fileBytes(long bytes) {
+		if (bytes > MAX_FILE_BYTES)
+			throw new IllegalStateException("MappedHashTable file cannot grow beyond 2GB, but " + bytes + " bytes were needed.");
+		return bytes;
+	}
+
+	private static long slotsEnd(int capacity) {
+		return HEADER_BYTES + (long) capacity * SLOT_BYTES;
+	}
+
+	// The arena of a file with the given capacity: our initial guess, or twice the live records, within the limit of a mapping.
+	private static long arenaBytes(int capacity, long liveBytes) {
+		long room = MAX_FILE_BYTES - slotsEnd(capacity);
+		return Math.max(liveBytes, Math.min(room, Math.max((long) capacity * ARENA_BYTES_PER_CELL, 2 * liveBytes)));
+	}
+
+	// Always fits in an int, since the whole file was checked to.
+	private int slot(int cell) {
+		return (int) slotsEnd(cell);
+	}
+
+	private int recordBytes(int cell) {
+		return image.getInt(slot(cell) + KEY_LENGTH) + image.getInt(slot(cell) + VALUE_LENGTH);
+	}
+
+	private int record(int cell) {
+		return image.getInt(slot(cell) + RECORD);
+	}
+
+	private boolean isOccupied(int cell) {
+		int record = record(cell);
+		return record != EMPTY && record != TOMBSTONE;
+	}
+
+	// Maps the first size bytes of the file, creating or extending it if need be.
+	private void map(long size) throws IOException {
+		image = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes(size));
+	}
+
+	private void writeCounters() {
+		image.putInt(COUNT, count);
+		image.putInt(TOMBSTONES, tombstones);
+		image.putInt(ARENA_END, arenaEnd);
+		image.putInt(GARBAGE, garbage);
+	}
+
+	// Whether the bytes at offset of the arena equal bytes.
+	private boolean arenaEquals(int offset, byte[] bytes) {
+		for (int i = 0; i < bytes.length; i++) {
+			if (image.get(arenaStart + offset + i) != bytes[i])
+				return false;
+		}
+		return true;
+	}
+
+	private String valueOf(int cell) {
+		int base = slot(cell);
+		byte[] bytes = new byte[image.getInt(base + VALUE_LENGTH)];
+		image.get(arenaStart + image.getInt(base + RECORD) - 1 + image.getInt(base + KEY_LENGTH), bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	// Returns the cell of the key with the given encoding and hash code, or -1. probes[0] receives the number of cells visited.
+	private int find(byte[] key, int hash, int[] probes) {
+		int i = capacityPolicy.index(hash, cells);
+		probes[0] = 1;
+		for (int visited = 1; visited <= cells; visited++) {
+			int base = slot(i);
+			int record = image.getInt(base + RECORD);
+			if (record == EMPTY)
+				return -1;
+			if (record != TOMBSTONE && image.getInt(base + HASH) == hash && image.getInt(base + KEY_LENGTH) == key.length
+					&& arenaEquals(record - 1, key))
+				return i;
+			i = (i + 1) % cells;
+			probes[0]++;
+		}
+		return -1;
+	}
+
+	// Slides every live record towards the start of the arena, in the order of their offsets, dropping the dead ones. No cell moves.
+	private void compact() {
+		long[] live = new long[count]; // The offset of every live record, followed by its cell.
+		int n = 0;
+		for (int i = 0; i < cells; i++) {
+			if (isOccupied(i))
+				live[n++] = (long) record(i) << 32 | i;
+		}
+		Arrays.sort(live, 0, n);
+		arenaEnd = 0;
+		garbage = 0;
+		for (int k = 0; k < n; k++) {
+			int cell = (int) live[k], size = recordBytes(cell);
+			image.put(arenaStart + arenaEnd, image, arenaStart + record(cell) - 1, size);
+			image.putInt(slot(cell) + RECORD, arenaEnd + 1);
+			arenaEnd += size;
+		}
+	}
+
+	// Appends a record to the arena, compacting it or extending the file if needed, and returns its offset in the arena.
+	private int append(byte[] key, byte[] value) throws IOException {
+		long size = (long) key.length + value.length;
+		long arenaCapacity = image.capacity() - arenaStart;
+		// Compacting is enough when at least half of the arena is dead; otherwise the arena doubles, within the limit of a mapping.
+		if (arenaEnd + size > arenaCapacity && garbage >= arenaEnd / 2)
+			compact();
+		long needed = arenaEnd + size;
+		if (needed > arenaCapacity)
+			map(Math.max(arenaStart + needed, Math.min(MAX_FILE_BYTES, arenaStart + 2 * arenaCapacity)));
+		int offset = arenaEnd;
+		image.put(arenaStart + offset, key);
+		image.put(arenaStart + offset + key.length, value);
+		arenaEnd = (int) needed;
+		return offset;
+	}
+
+	// Fills the first empty cell of the cluster of hash. Returns the cells visited.
+	private int insert(int hash, int record, int keyLength, int valueLength) {
+		int i = capacityPolicy.index(hash, cells);
+		int probeCount = 1;
+		while (record(i) != EMPTY) {
+			i = (i + 1) % cells;
+			probeCount++;
+		}
+		int base = slot(i);
+		image.putInt(base + HASH, hash);
+		image.putInt(base + RECORD, record);
+		image.putInt(base + KEY_LENGTH, keyLength);
+		image.putInt(base + VALUE_LENGTH, valueLength);
+		return probeCount;
+	}
+
+	// Creates a fresh image with the given number of cells and arena bytes in the file that channel is open on.
+	private void format(int capacity, long arenaBytes) throws IOException {
+		long size = fileBytes(slotsEnd(capacity) + arenaBytes); // Checked before anything changes.
+		cells = capacity;
+		arenaStart = (int) slotsEnd(capacity);
+		arenaEnd = 0;
+		garbage = 0;
+		count = 0;
+		tombstones = 0;
+		channel.truncate(0);
+		map(size);
+		image.putInt(MAGIC, FILE_MAGIC);
+		image.putInt(POLICY, capacityPolicy.ordinal());
+		image.putInt(SOFT, softFlag ? 1 : 0);
+		image.putInt(CELLS, cells);
+		writeCounters();
+	}
+
+	/*
+	 * Rebuilds the table with the given number of cells in a temporary file, which then replaces ours. Only the live
+	 * records are copied, and no key is hashed or decoded. If the rebuild fails, the temporary file is deleted and the
+	 * table is left as it was. Returns the number of cells visited.
+	 */
+	private int resize(int capacity) throws IOException {
+		MappedByteBuffer old = image;
+		int oldCells = cells, oldArenaStart = arenaStart, oldArenaEnd = arenaEnd, oldGarbage = garbage;
+		int live = count, oldTombstones = tombstones;
+		long liveBytes = 0;
+		for (int x = 0; x < oldCells; x++) {
+			int record = old.getInt(slot(x) + RECORD);
+			if (record != EMPTY && record != TOMBSTONE)
+				liveBytes += recordBytes(x);
+		}
+		long arenaBytes = arenaBytes(capacity, liveBytes);
+		fileBytes(slotsEnd(capacity) + arenaBytes); // Checked before anything changes.
+		Path rebuilt = file.resolveSibling(file.getFileName() + ".tmp");
+		FileChannel oldChannel = channel;
+		channel = FileChannel.open(rebuilt, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		int probeCount = 0;
+		try {
+			format(capacity, arenaBytes);
+			for (int x = 0; x < oldCells; x++) {
+				probeCount++;
+				int base = slot(x);
+				int record = old.getInt(base + RECORD);
+				if (record == EMPTY || record == TOMBSTONE)
+					continue;
+				int keyLength = old.getInt(base + KEY_LENGTH), valueLength = old.getInt(base + VALUE_LENGTH);
+				image.put(arenaStart + arenaEnd, old, oldArenaStart + record - 1, keyLength + valueLength);
+				probeCount += insert(old.getInt(base + HASH), arenaEnd + 1, keyLength, valueLength);
+				arenaEnd += keyLength + valueLength;
+			}
+			count = live;
+			writeCounters();
+			image.force();
+			Files.move(rebuilt, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			Files.deleteIfExists(rebuilt);
+			channel = oldChannel;
+			image = old;
+			cells = oldCells;
+			arenaStart = oldArenaStart;
+			arenaEnd = oldArenaEnd;
+			garbage = oldGarbage;
+			count = live;
+			tombstones = oldTombstones;
+			throw e;
+		}
+		oldChannel.close();
+		return probeCount;
+	}
+
+	// Knuth's Algorithm R: after emptying cell i, pull back every cell of the cluster whose hashed address is not in (i, j].
+	private int shiftBack(int i) {
+		int probeCount = 0;
+		image.putInt(slot(i) + RECORD, EMPTY);
+		int j = i;
+		while (true) {
+			j = (j + 1) % cells;
+			probeCount++;
+			if (record(j) == EMPTY)
+				return probeCount;
+			int k = capacityPolicy.index(image.getInt(slot(j) + HASH), cells);
+			boolean staysPut = (i <= j) ? (i < k && k <= j) : (i < k || k <= j);
+			if (!staysPut) {
+				image.put(slot(i), image, slot(j), SLOT_BYTES);
+				image.putInt(slot(j) + RECORD, EMPTY);
+				i = j;
+			}
+		}
+	}
+
+	/* ******************************************/
+	/*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+	/* **************************************** */
+
+	/**
+	 * Opens the table stored in file, or creates an empty one with hard deletion and prime capacities if file does not exist.
+	 *
+	 * @param file The file that holds the table.
+	 * @throws IOException if the file cannot be opened or created.
+	 * @throws IllegalArgumentException if the file exists, but does not hold a {@link MappedHashTable}.
+	 */
+	public MappedHashTable(Path file) throws IOException {
+		this(file, false, CapacityPolicy.PRIME);
+	}
+
+	/**
+	 * Opens the table stored in file, or creates an empty one if file does not exist. The header of an existing file
+	 * takes precedence over the deletion option and the {@link CapacityPolicy} given here. Apart from mapping the file,
+	 * opening an existing table does no work at all.
+	 *
+	 * @param file The file that holds the table.
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+	 * @throws IOException if the file cannot be opened or created.
+	 * @throws IllegalArgumentException if the file exists, but does not hold a {@link MappedHashTable}.
+	 */
+	public MappedHashTable(Path file, boolean soft, CapacityPolicy policy) throws IOException {
+		this(file, soft, policy, 0);
+	}
+
+	/**
+	 * Opens the table stored in file, or creates an empty one with room for expectedSize records if file does not exist,
+	 * so that inserting them never resizes the file. The header of an existing file takes precedence over the deletion
+	 * option, the {@link CapacityPolicy} and the expected size given here.
+	 *
+	 * @param file The file that holds the table.
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+	 * @param expectedSize The number of records the table is expected to hold.
+	 * @throws IOException if the file cannot be opened or created.
+	 * @throws IllegalArgumentException if expectedSize is negative, or if the file exists, but does not hold a {@link MappedHashTable}.
+	 */
+	public MappedHashTable(Path file, boolean soft, CapacityPolicy policy, int expectedSize) throws IOException {
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("Expected size cannot be negative, but was " + expectedSize + ".");
+		this.file = file;
+		primeGenerator = new PrimeGenerator();
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		if (channel.size() == 0) {
+			softFlag = soft;
+			capacityPolicy = policy;
+			int capacity = policy.capacityFor(primeGenerator, 2 * expectedSize + 1);
+			format(capacity, arenaBytes(capacity, 0));
+			return;
+		}
+		map(channel.size());
+		if (channel.size() < HEADER_BYTES || image.getInt(MAGIC) != FILE_MAGIC) {
+			channel.close();
+			throw new IllegalArgumentException(file + " does not hold a MappedHashTable.");
+		}
+		capacityPolicy = CapacityPolicy.values()[image.getInt(POLICY)];
+		softFlag = image.getInt(SOFT) != 0;
+		cells = image.getInt(CELLS);
+		count = image.getInt(COUNT);
+		tombstones = image.getInt(TOMBSTONES);
+		arenaEnd = image.getInt(ARENA_END);
+		garbage = image.getInt(GARBAGE);
+		arenaStart = (int) fileBytes(slotsEnd(cells));
+		// Bring the PrimeGenerator up to the prime the table was last resized to.
+		if (capacityPolicy == CapacityPolicy.PRIME)
+			primeGenerator.jumpToPrimeAtLeast(cells);
+	}
+
+	/**
+	 * Inserts the pair &lt;key, value&gt; into this. The container should <b>not</b> allow for {@code null}
+	 * keys and values. If key is already in the table, its value is updated. This method is expected to run in
+	 * <em>amortized constant time</em>.
+	 * <p>
+	 * Instances of {@link MappedHashTable} grow once the share of their cells which are occupied or tombstoned passes
+	 * the {@link LoadFactorPolicy#growAt()} of their {@link LoadFactorPolicy}.
+	 *
+	 * @param key   The record's key.
+	 * @param value The record's value.
+	 * @return The {@link phonebook.utils.Probes} with the value added and the number of probes it makes.
+	 * @throws IllegalArgumentException if either argument is {@code null}.
+	 * @throws IllegalStateException if the table has been closed.
+	 * @throws UncheckedIOException if the file could not be extended or rebuilt.
+	 */
+	@Override
+	public Probes put(String key, String value) {
+		if (key == null || value == null)
+			throw new IllegalArgumentException("key or value input cannot be null!");
+		checkOpen();
+		int hash = key.hashCode();
+		byte[] keyBytes = encode(key), valueBytes = encode(value);
+		int[] probes = new int[1];
+		try {
+			int index = find(keyBytes, hash, probes);
+			if (index != -1) {
+				int base = slot(index);
+				int oldLength = image.getInt(base + VALUE_LENGTH);
+				if (valueBytes.length <= oldLength) {
+					image.put(arenaStart + image.getInt(base + RECORD) - 1 + keyBytes.length, valueBytes);
+					garbage += oldLength - valueBytes.length;
+				} else {
+					// The old record is only counted as garbage once append() is done with it, since compacting the arena
+					// still moves it.
+					int oldSize = recordBytes(index);
+					int record = append(keyBytes, valueBytes) + 1;
+					image.putInt(base + RECORD, record);
+					garbage += oldSize;
+				}
+				image.putInt(base + VALUE_LENGTH, valueBytes.length);
+				writeCounters();
+				return new Probes(value, probes[0]);
+			}
+			int probeCount = 0;
+			/* * * CHECK FOR RESIZING * * */
+			if (loadFactorPolicy.shouldGrow(count + tombstones, cells))
+				probeCount += resize(capacityPolicy.nextCapacity(primeGenerator, cells));
+			int record = append(keyBytes, valueBytes) + 1;
+			probeCount += insert(hash, record, keyBytes.length, valueBytes.length);
+			count++;
+			writeCounters();
+			return new Probes(value, probeCount);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Changes when the table grows and shrinks. {@link LoadFactorPolicy#DEFAULT} by default. The policy is not stored in
+	 * the file, so a reopened table starts over with the default.
+	 *
+	 * @param policy The new {@link LoadFactorPolicy}.
+	 * @throws IllegalArgumentException if policy is {@code null}, or its {@link LoadFactorPolicy#growAt()} is not less than 1.
+	 */
+	public void setLoadFactorPolicy(LoadFactorPolicy policy) {
+		if (policy == null || policy.growAt() >= 1)
+			throw new IllegalArgumentException("Openly addressed tables cannot use " + policy + ".");
+		loadFactorPolicy = policy;
+	}
+
+	/**
+	 * Returns when the table grows and shrinks.
+	 *
+	 * @return The {@link LoadFactorPolicy} of this table.
+	 */
+	public LoadFactorPolicy getLoadFactorPolicy() {
+		return loadFactorPolicy;
+	}
+
+	@Override
+	public Probes get(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		checkOpen();
+		int[] probes = new int[1];
+		int index = find(encode(key), key.hashCode(), probes);
+		return new Probes(index == -1 ? null : valueOf(index), probes[0]);
+	}
+
+	@Override
+	public Probes remove(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		checkOpen();
+		int[] probes = new int[1];
+		int index = find(encode(key), key.hashCode(), probes);
+		if (index == -1)
+			return new Probes(null, probes[0]);
+		String oldVal = valueOf(index);
+		garbage += recordBytes(index);
+		if (softFlag) {
+			image.putInt(slot(index) + RECORD, TOMBSTONE);
+			tombstones++;
+		} else {
+			probes[0] += shiftBack(index);
+		}
+		count--;
+		if (loadFactorPolicy.shouldShrink(count, cells) && cells > capacityPolicy.minimumCapacity()) {
+			try {
+				probes[0] += resize(capacityPolicy.previousCapacity(primeGenerator, cells));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		writeCounters();
+		return new Probes(oldVal, probes[0]);
+	}
+
+	@Override
+	public boolean containsKey(String key) {
+		return get(key).getValue() != null;
+	}
+
+	@Override
+	public boolean containsValue(String value) {
+		checkOpen();
+		byte[] valueBytes = encode(value);
+		for (int i = 0; i < cells; i++) {
+			int base = slot(i);
+			if (isOccupied(i) && image.getInt(base + VALUE_LENGTH) == valueBytes.length
+					&& arenaEquals(record(i) - 1 + image.getInt(base + KEY_LENGTH), valueBytes))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	@Override
+	public int capacity() {
+		return cells;
+	}
+
+	/**
+	 * Writes any changes of the mapping back to the file, and closes it. Any later operation, apart from {@link #size()}
+	 * and {@link #capacity()}, throws an {@link IllegalStateException}. Closing a closed table has no effect.
+	 *
+	 * @throws IOException if the file cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (image == null)
+			return;
+		image.force();
+		image = null;
+		channel.close();
+	}
+
+	/**
+	 * Returns an {@link Iterator} over the pairs of the table, decoding every one of them as it is reached.
+	 * @return An {@link Iterator} over the pairs of this table.
+	 * @throws IllegalStateException if the table has been closed.
+	 */
+	@Override
+	public Iterator<KVPair> iterator() {
+		checkOpen();
+		return new CellIterator(cells) {
+			@Override
+			KVPair cell(int cell) {
+				if (!isOccupied(cell))
+					return null;
+				byte[] key = new byte[image.getInt(slot(cell) + KEY_LENGTH)];
+				image.get(arenaStart + record(cell) - 1, key);
+				return new KVPair(new String(key, StandardCharsets.UTF_8), valueOf(cell));
+			}
+		};
+	}
+}
@@ -0,0 +1,464 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+import phonebook.utils.PrimeGenerator;
+import phonebook.utils.Probes;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * <p>{@link OffHeapHashTable} is an Openly Addressed {@link HashTable} implemented with <b>Linear Probing</b>, whose
+ * contents live <b>outside of the Java heap</b>, in two direct {@link ByteBuffer}s. The first one holds the cells of the
+ * table, {@link #SLOT_BYTES} bytes each: the hash code of the key, the offset of its record and the lengths of its key
+ * and value. The second one is an <em>arena</em> of records, each of which is the UTF-8 encoding of a key followed by
+ * that of its value. No {@link phonebook.utils.KVPair} or {@link String} is kept around for a stored pair, so however many
+ * entries the table holds, the garbage collector only ever sees the two buffers.</p>
+ *
+ * <p>Searches encode the key once, and then compare it byte by byte against the records of the cells whose cached hash
+ * code and key length match. Only the value that is returned is decoded back into a {@link String}. Updates overwrite
+ * the value in place when the new one is no longer than the old one, and append a new record otherwise. The table keeps
+ * count of the bytes of records that are no longer referenced; once the arena is full and at least half of it is dead,
+ * it is compacted instead of grown. Resizing the table always compacts it, copying the live records into a fresh arena
+ * and placing the cells by their cached hash codes.</p>
+ *
+ * <p>Call {@link #close()} once the table is no longer needed. It releases the table's references to its buffers,
+ * after which any further operation throws an {@link IllegalStateException}.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see HashTable
+ * @see StructOfArraysHashTable
+ * @see CollisionResolver
+ */
+public class OffHeapHashTable implements HashTable, Closeable {
+
+	/* ********************************************************************/
+	/* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+	/* ********************************************************************/
+
+	/**
+	 * The number of bytes every cell of the table takes up.
+	 */
+	public static final int SLOT_BYTES = 16;
+
+	// Offsets of the fields of a cell.
+	private static final int HASH = 0;
+	private static final int RECORD = 4;       // Offset of the record in the arena plus one, so that zeroed memory reads as an empty cell.
+	private static final int KEY_LENGTH = 8;
+	private static final int VALUE_LENGTH = 12;
+
+	private static final int EMPTY = 0;
+	private static final int TOMBSTONE = -1;
+	private static final int ARENA_BYTES_PER_CELL = 32; // Initial guess at the bytes a cell's record needs.
+	private static final long MAX_BUFFER_BYTES = Integer.MAX_VALUE; // The most a ByteBuffer can hold.
+
+	private ByteBuffer slots;
+	private ByteBuffer arena;
+	private int cells;
+	private int arenaEnd;  // The first unused byte of the arena.
+	private int garbage;   // The bytes of the arena taken up by records, or parts of them, that no cell refers to.
+	private int count;
+	private int tombstones;
+	private LoadFactorPolicy loadFactorPolicy = LoadFactorPolicy.DEFAULT;
+	private final boolean softFlag;
+	private final CapacityPolicy capacityPolicy;
+	private final PrimeGenerator primeGenerator;
+
+	private static byte[] encode(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+
+	// Sizes in bytes are computed in long, so that they are checked against the limit of a ByteBuffer instead of overflowing.
+	private static int bufferBytes(long bytes) {
+		if (bytes > MAX_BUFFER_BYTES)
+			throw new IllegalStateException("OffHeapHashTable buffers cannot grow beyond 2GB, but " + bytes + " bytes were needed.");
+		return (int) bytes;
+	}
+
+	// The arena of a table with the given capacity: our initial guess, or twice the live records, within the limit.
+	private static int arenaBytes(int capacity, long liveBytes) {
+		return bufferBytes(Math.max(liveBytes, Math.min(MAX_BUFFER_BYTES, Math.max((long) capacity * ARENA_BYTES_PER_CELL, 2 * liveBytes))));
+	}
+
+	private void checkOpen() {
+		if (slots == null)
+			throw new IllegalStateException("This OffHeapHashTable has been closed.");
+	}
+
+	private int record(int cell) {
+		return slots.getInt(cell * SLOT_BYTES + RECORD);
+	}
+
+	private boolean isOccupied(int cell) {
+		int record = record(cell);
+		return record != EMPTY && record != TOMBSTONE;
+	}
+
+	// Whether the length bytes at offset of the arena equal bytes.
+	private boolean arenaEquals(int offset, byte[] bytes) {
+		for (int i = 0; i < bytes.length; i++) {
+			if (arena.get(offset + i) != bytes[i])
+				return false;
+		}
+		return true;
+	}
+
+	private String decode(int offset, int length) {
+		byte[] bytes = new byte[length];
+		arena.get(offset, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private String valueOf(int cell) {
+		int base = cell * SLOT_BYTES;
+		return decode(slots.getInt(base + RECORD) - 1 + slots.getInt(base + KEY_LENGTH), slots.getInt(base + VALUE_LENGTH));
+	}
+
+	// Returns the cell of the key with the given encoding and hash code, or -1. probes[0] receives the number of cells visited.
+	private int find(byte[] key, int hash, int[] probes) {
+		int i = capacityPolicy.index(hash, cells);
+		probes[0] = 1;
+		for (int visited = 1; visited <= cells; visited++) {
+			int base = i * SLOT_BYTES;
+			int record = slots.getInt(base + RECORD);
+			if (record == EMPTY)
+				return -1;
+			if (record != TOMBSTONE && slots.getInt(base + HASH) == hash && slots.getInt(base + KEY_LENGTH) == key.length
+					&& arenaEquals(record - 1, key))
+				return i;
+			i = (i + 1) % cells;
+			probes[0]++;
+		}
+		return -1;
+	}
+
+	private int recordBytes(int cell) {
+		return slots.getInt(cell * SLOT_BYTES + KEY_LENGTH) + slots.getInt(cell * SLOT_BYTES + VALUE_LENGTH);
+	}
+
+	// Copies every live record into a fresh arena of the given capacity, dropping the dead ones.
+	private void compact(int capacity) {
+		ByteBuffer old = arena;
+		arena = ByteBuffer.allocateDirect(capacity);
+		arenaEnd = 0;
+		garbage = 0;
+		for (int i = 0; i < cells; i++) {
+			if (isOccupied(i)) {
+				int size = recordBytes(i);
+				arena.put(arenaEnd, old, record(i) - 1, size);
+				slots.putInt(i * SLOT_BYTES + RECORD, arenaEnd + 1);
+				arenaEnd += size;
+			}
+		}
+	}
+
+	// Appends a record to the arena, compacting or growing it if needed, and returns its offset.
+	private int append(byte[] key, byte[] value) {
+		long size = (long) key.length + value.length;
+		if (arenaEnd + size > arena.capacity()) {
+			long live = arenaEnd - garbage;
+			bufferBytes(live + size); // Throws if not even the live records fit.
+			// Compacting is enough when at least half of the arena is dead; otherwise the live records get twice their room.
+			long capacity = garbage >= arenaEnd / 2 ? Math.max(arena.capacity(), live + size) : Math.max(2 * (live + size), arena.capacity());
+			compact((int) Math.min(MAX_BUFFER_BYTES, capacity));
+		}
+		int offset = arenaEnd;
+		arena.put(offset, key);
+		arena.put(offset + key.length, value);
+		arenaEnd += (int) size;
+		return offset;
+	}
+
+	// Fills the first empty cell of the cluster of hash. Returns the cells visited.
+	private int insert(int hash, int record, int keyLength, int valueLength) {
+		int i = capacityPolicy.index(hash, cells);
+		int probeCount = 1;
+		while (record(i) != EMPTY) {
+			i = (i + 1) % cells;
+			probeCount++;
+		}
+		int base = i * SLOT_BYTES;
+		slots.putInt(base + HASH, hash);
+		slots.putInt(base + RECORD, record);
+		slots.putInt(base + KEY_LENGTH, keyLength);
+		slots.putInt(base + VALUE_LENGTH, valueLength);
+		return probeCount;
+	}
+
+	/*
+	 * Moves every live cell into a table of the given capacity, and its record into a fresh arena, leaving behind tombstones
+	 * and records that are no longer referenced. No key is hashed or decoded. Returns the number of cells visited.
+	 */
+	private int resize(int capacity) {
+		ByteBuffer oldSlots = slots, oldArena = arena;
+		int oldCells = cells;
+		long liveBytes = 0;
+		for (int x = 0; x < oldCells; x++) {
+			int record = oldSlots.getInt(x * SLOT_BYTES + RECORD);
+			if (record != EMPTY && record != TOMBSTONE)
+				liveBytes += oldSlots.getInt(x * SLOT_BYTES + KEY_LENGTH) + oldSlots.getInt(x * SLOT_BYTES + VALUE_LENGTH);
+		}
+		// Both sizes are checked before anything changes, so that a table which cannot grow stays usable.
+		int slotBytes = bufferBytes((long) capacity * SLOT_BYTES), arenaBytes = arenaBytes(capacity, liveBytes);
+		slots = ByteBuffer.allocateDirect(slotBytes);
+		cells = capacity;
+		tombstones = 0;
+		arena = ByteBuffer.allocateDirect(arenaBytes);
+		arenaEnd = 0;
+		garbage = 0;
+		int probeCount = 0;
+		for (int x = 0; x < oldCells; x++) {
+			probeCount++;
+			int base = x * SLOT_BYTES;
+			int record = oldSlots.getInt(base + RECORD);
+			if (record == EMPTY || record == TOMBSTONE)
+				continue;
+			int keyLength = oldSlots.getInt(base + KEY_LENGTH), valueLength = oldSlots.getInt(base + VALUE_LENGTH);
+			arena.put(arenaEnd, oldArena, record - 1, keyLength + valueLength);
+			probeCount += insert(oldSlots.getInt(base + HASH), arenaEnd + 1, keyLength, valueLength);
+			arenaEnd += keyLength + valueLength;
+		}
+		return probeCount;
+	}
+
+	// Knuth's Algorithm R: after emptying cell i, pull back every cell of the cluster whose hashed address is not in (i, j].
+	private int shiftBack(int i) {
+		int probeCount = 0;
+		slots.putInt(i * SLOT_BYTES + RECORD, EMPTY);
+		int j = i;
+		while (true) {
+			j = (j + 1) % cells;
+			probeCount++;
+			if (record(j) == EMPTY)
+				return probeCount;
+			int k = capacityPolicy.index(slots.getInt(j * SLOT_BYTES + HASH), cells);
+			boolean staysPut = (i <= j) ? (i < k && k <= j) : (i < k || k <= j);
+			if (!staysPut) {
+				slots.put(i * SLOT_BYTES, slots, j * SLOT_BYTES, SLOT_BYTES);
+				slots.putInt(j * SLOT_BYTES + RECORD, EMPTY);
+				i = j;
+			}
+		}
+	}
+
+	/* ******************************************/
+	/*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+	/* **************************************** */
+
+	/**
+	 * Constructor with soft deletion option. Initializes the internal storage with a size equal to the starting value of  {@link PrimeGenerator}.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 */
+	public OffHeapHashTable(boolean soft) {
+		this(soft, CapacityPolicy.PRIME);
+	}
+
+	/**
+	 * Constructor with soft deletion option and a choice of {@link CapacityPolicy}. Initializes the internal storage with a size equal
+	 * to the initial capacity of the policy.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+	 */
+	public OffHeapHashTable(boolean soft, CapacityPolicy policy) {
+		this(soft, policy, 0);
+	}
+
+	/**
+	 * Constructor with soft deletion option, a choice of {@link CapacityPolicy} and the number of records the table is expected
+	 * to hold. Initializes the internal storage once, with a capacity large enough for expectedSize records, so that
+	 * inserting them never resizes the table.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+	 * @param expectedSize The number of records the table is expected to hold.
+	 * @throws IllegalArgumentException if expectedSize is negative.
+	 * @throws IllegalStateException if expectedSize records need buffers larger than 2GB.
+	 */
+	public OffHeapHashTable(boolean soft, CapacityPolicy policy, int expectedSize) {
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("Expected size cannot be negative, but was " + expectedSize + ".");
+		primeGenerator = new PrimeGenerator();
+		capacityPolicy = policy;
+		cells = policy.capacityFor(primeGenerator, 2 * expectedSize + 1);
+		slots = ByteBuffer.allocateDirect(bufferBytes((long) cells * SLOT_BYTES));
+		arena = ByteBuffer.allocateDirect(arenaBytes(cells, 0));
+		count = 0;
+		softFlag = soft;
+	}
+
+	/**
+	 * Inserts the pair &lt;key, value&gt; into this. The container should <b>not</b> allow for {@code null}
+	 * keys and values. If key is already in the table, its value is updated. This method is expected to run in
+	 * <em>amortized constant time</em>.
+	 * <p>
+	 * Instances of {@link OffHeapHashTable} grow once the share of their cells which are occupied or tombstoned passes
+	 * the {@link LoadFactorPolicy#growAt()} of their {@link LoadFactorPolicy}.
+	 *
+	 * @param key   The record's key.
+	 * @param value The record's value.
+	 * @return The {@link phonebook.utils.Probes} with the value added and the number of probes it makes.
+	 * @throws IllegalArgumentException if either argument is {@code null}.
+	 * @throws IllegalStateException if the table has been closed, or would need buffers larger than 2GB.
+	 */
+	@Override
+	public Probes put(String key, String value) {
+		if (key == null || value == null)
+			throw new IllegalArgumentException("key or value input cannot be null!");
+		checkOpen();
+		int hash = key.hashCode();
+		byte[] keyBytes = encode(key), valueBytes = encode(value);
+		int[] probes = new int[1];
+		int index = find(keyBytes, hash, probes);
+		if (index != -1) {
+			int base = index * SLOT_BYTES;
+			int oldLength = slots.getInt(base + VALUE_LENGTH);
+			if (valueBytes.length <= oldLength) {
+				arena.put(slots.getInt(base + RECORD) - 1 + keyBytes.length, valueBytes);
+				garbage += oldLength - valueBytes.length;
+			} else {
+				// The old record is only counted as garbage once append() is done with it, since compacting the arena
+				// still copies it.
+				int oldSize = recordBytes(index);
+				slots.putInt(base + RECORD, append(keyBytes, valueBytes) + 1);
+				garbage += oldSize;
+			}
+			slots.putInt(base + VALUE_LENGTH, valueBytes.length);
+			return new Probes(value, probes[0]);
+		}
+		int probeCount = 0;
+		/* * * CHECK FOR RESIZING * * */
+		if (loadFactorPolicy.shouldGrow(count + tombstones, cells))
+			probeCount += resize(capacityPolicy.nextCapacity(primeGenerator, cells));
+		int record = append(keyBytes, valueBytes) + 1;
+		probeCount += insert(hash, record, keyBytes.length, valueBytes.length);
+		count++;
+		return new Probes(value, probeCount);
+	}
+
+	/**
+	 * Changes when the table grows and shrinks. {@link LoadFactorPolicy#DEFAULT} by default.
+	 *
+	 * @param policy The new {@link LoadFactorPolicy}.
+	 * @throws IllegalArgumentException if policy is {@code null}, or its {@link LoadFactorPolicy#growAt()} is not less than 1.
+	 */
+	public void setLoadFactorPolicy(LoadFactorPolicy policy) {
+		if (policy == null || policy.growAt() >= 1)
+			throw new IllegalArgumentException("Openly addressed tables cannot use " + policy + ".");
+		loadFactorPolicy = policy;
+	}
+
+	/**
+	 * Returns when the table grows and shrinks.
+	 *
+	 * @return The {@link LoadFactorPolicy} of this table.
+	 */
+	public LoadFactorPolicy getLoadFactorPolicy() {
+		return loadFactorPolicy;
+	}
+
+	@Override
+	public Probes get(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		checkOpen();
+		int[] probes = new int[1];
+		int index = find(encode(key), key.hashCode(), probes);
+		return new Probes(index == -1 ? null : valueOf(index), probes[0]);
+	}
+
+	@Override
+	public Probes remove(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		checkOpen();
+		int[] probes = new int[1];
+		int index = find(encode(key), key.hashCode(), probes);
+		if (index == -1)
+			return new Probes(null, probes[0]);
+		String oldVal = valueOf(index);
+		garbage += recordBytes(index);
+		if (softFlag) {
+			slots.putInt(index * SLOT_BYTES + RECORD, TOMBSTONE);
+			tombstones++;
+		} else {
+			probes[0] += shiftBack(index);
+		}
+		count--;
+		// Shrinking also compacts the arena, which otherwise only happens when the table grows.
+		if (loadFactorPolicy.shouldShrink(count, cells) && cells > capacityPolicy.minimumCapacity())
+			probes[0] += resize(capacityPolicy.previousCapacity(primeGenerator, cells));
+		return new Probes(oldVal, probes[0]);
+	}
+
+	@Override
+	public boolean containsKey(String key) {
+		return get(key).getValue() != null;
+	}
+
+	@Override
+	public boolean containsValue(String value) {
+		checkOpen();
+		byte[] valueBytes = encode(value);
+		for (int i = 0; i < cells; i++) {
+			int base = i * SLOT_BYTES;
+			if (isOccupied(i) && slots.getInt(base + VALUE_LENGTH) == valueBytes.length
+					&& arenaEquals(record(i) - 1 + slots.getInt(base + KEY_LENGTH), valueBytes))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	@Override
+	public int capacity() {
+		return cells;
+	}
+
+	/**
+	 * Returns the number of bytes that the table has allocated outside of the Java heap, for its cells and its arena.
+	 * @return The total capacity of the table's direct buffers, or 0 if the table has been closed.
+	 */
+	public long offHeapBytes() {
+		return slots == null ? 0 : (long) slots.capacity() + arena.capacity();
+	}
+
+	/**
+	 * Releases the buffers of the table. Any later operation, apart from {@link #size()}, {@link #capacity()} and
+	 * {@link #offHeapBytes()}, throws an {@link IllegalStateException}. Closing a closed table has no effect.
+	 */
+	@Override
+	public void close() {
+		slots = null;
+		arena = null;
+	}
+
+	/**
+	 * Returns an {@link Iterator} over the pairs of the table, decoding every one of them as it is reached.
+	 * @return An {@link Iterator} over the pairs of this table.
+	 * @throws IllegalStateException if the table has been closed.
+	 */
+	@Override
+	public Iterator<KVPair> iterator() {
+		checkOpen();
+		return new CellIterator(cells) {
+			@Override
+			KVPair cell(int cell) {
+				if (!isOccupied(cell))
+					return null;
+				return new KVPair(decode(record(cell) - 1, slots.getInt(cell * SLOT_BYTES + KEY_LENGTH)), valueOf(cell));
+			}
+		};
+	}
+}
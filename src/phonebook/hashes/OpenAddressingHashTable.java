@@ -3,6 +3,8 @@ package phonebook.hashes;
 import phonebook.utils.KVPair;
 import phonebook.utils.PrimeGenerator;
 
+import java.util.Iterator;
+
 /**
  * <p>{@code OpenAddressingHashTable} is an {@code abstract} class that models <b>openly addressed hash tables</b>, i.e
  * hash tables which store the key-value pairs within the table itself instead of using
@@ -26,6 +28,7 @@ import phonebook.utils.PrimeGenerator;
  * @author <a href="github.com/JasonFil">Jason Filippou</a>
  *
  * @see HashTable
+ * @see CapacityPolicy
  * @see KVPair
  * @see SeparateChainingHashTable
  * @see LinearProbingHashTable
@@ -71,14 +74,14 @@ public abstract class OpenAddressingHashTable implements HashTable{
 
     /**
      * A hash function that uses the default hash code for {@link String} types, but masks the top
-     * bit to avoid negative hashes.
+     * bit to avoid negative hashes. Tables using {@link CapacityPolicy#POWER_OF_TWO} use Fibonacci hashing instead.
      * @param key The {@link String} key to find the hash code of.
      * @return The hash code of the parameter {@link String} as produced by {@link String#hashCode()},
      * but with the top bit masked.
      * @see String#hashCode()
      */
     protected int hash(String key) {
-        return (key.hashCode() & 0x7fffffff) % table.length;
+        return capacityPolicy.index(key.hashCode(), table.length);
     }
 
     /**
@@ -105,4 +108,183 @@ public abstract class OpenAddressingHashTable implements HashTable{
     /* *** ADD ANY ADDITIONAL PROTECTED FIELDS OR METHODS HERE: ****** */
     /* *************************************************************** */
 
+    /**
+     * How this table sizes {@link #table} and maps hash codes to its cells. {@link CapacityPolicy#PRIME} unless the
+     * subclass' constructor says otherwise. Subclasses should grow through {@link #nextCapacity()} instead of calling
+     * {@link PrimeGenerator#getNextPrime()} directly, so that both policies work.
+     *
+     * @see CapacityPolicy
+     */
+    protected CapacityPolicy capacityPolicy = CapacityPolicy.PRIME;
+
+    /**
+     * Returns the capacity a freshly constructed table should start with under {@link #capacityPolicy}.
+     * @return The initial capacity of the table.
+     */
+    protected int initialCapacity() {
+        return capacityPolicy.initialCapacity(primeGenerator);
+    }
+
+    /**
+     * Returns the capacity a freshly constructed table should start with under {@link #capacityPolicy} when it is expected
+     * to hold expectedSize records, so that inserting them never resizes a table which grows at a load of 50&#37;.
+     * @param expectedSize The number of records the table is expected to hold.
+     * @return The initial capacity of the table.
+     * @throws IllegalArgumentException if expectedSize is negative.
+     */
+    protected int initialCapacity(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Expected size cannot be negative, but was " + expectedSize + ".");
+        return capacityPolicy.capacityFor(primeGenerator, 2 * expectedSize + 1);
+    }
+
+    /**
+     * Returns the capacity {@link #table} should grow to under {@link #capacityPolicy}.
+     * @return The next capacity of the table.
+     */
+    protected int nextCapacity() {
+        return capacityPolicy.nextCapacity(primeGenerator, table.length);
+    }
+
+    /**
+     * Returns the capacity {@link #table} should shrink to under {@link #capacityPolicy}.
+     * @return The previous capacity of the table.
+     */
+    protected int previousCapacity() {
+        return capacityPolicy.previousCapacity(primeGenerator, table.length);
+    }
+
+    /**
+     * When this table grows and shrinks. {@link LoadFactorPolicy#DEFAULT} unless the subclass' constructor says otherwise.
+     *
+     * @see #setLoadFactorPolicy(LoadFactorPolicy)
+     */
+    protected LoadFactorPolicy loadFactorPolicy = LoadFactorPolicy.DEFAULT;
+
+    /**
+     * Changes when this table grows and shrinks. The new policy is applied by the next insertion or deletion.
+     * @param policy The new {@link LoadFactorPolicy}.
+     * @throws IllegalArgumentException if policy is {@code null}, or would let the table fill up, i.e its
+     * {@link LoadFactorPolicy#growAt()} is not less than 1.
+     */
+    public void setLoadFactorPolicy(LoadFactorPolicy policy) {
+        if (policy == null || policy.growAt() >= 1)
+            throw new IllegalArgumentException("Openly addressed tables cannot use " + policy + ".");
+        loadFactorPolicy = policy;
+    }
+
+    /**
+     * Returns when this table grows and shrinks.
+     * @return The {@link LoadFactorPolicy} of this table.
+     */
+    public LoadFactorPolicy getLoadFactorPolicy() {
+        return loadFactorPolicy;
+    }
+
+    /**
+     * Returns the capacity that {@link #table} needs under {@link #loadFactorPolicy} and {@link #capacityPolicy} for
+     * records records to be inserted into it without growing it, which is its current capacity if they already fit.
+     * Tables whose {@link #putAll(Iterable)} grows them at most once use it.
+     * @param records The number of records the table is about to hold.
+     * @return The capacity {@link #table} should have before the records are inserted.
+     */
+    protected int capacityToFit(int records) {
+        if (!loadFactorPolicy.shouldGrow(records, table.length))
+            return table.length;
+        return capacityPolicy.capacityFor(primeGenerator, Math.max((int) (records / loadFactorPolicy.growAt()) + 1, table.length));
+    }
+
+    /**
+     * Tells a table whether it should shrink to {@link #previousCapacity()}, now that {@link #count} went down.
+     * @return {@code true} if {@link #loadFactorPolicy} says so, and {@link #table} is larger than the
+     * {@link CapacityPolicy#minimumCapacity()} of {@link #capacityPolicy}.
+     */
+    protected boolean shouldShrink() {
+        return loadFactorPolicy.shouldShrink(count, table.length) && table.length > capacityPolicy.minimumCapacity();
+    }
+
+    /**
+     * Moves every pair of {@link #table} into a table of {@link #previousCapacity()} cells, by putting it again, the
+     * same way the tables of the writeup grow. Subclasses which keep anything besides {@link #table} have to shrink on
+     * their own.
+     * @return The number of probes that the insertions made.
+     */
+    protected int shrink() {
+        KVPair[] prev = table;
+        count = 0;
+        tombstones = 0;
+        table = new KVPair[previousCapacity()];
+        int probeCount = 0;
+        for (KVPair pair : prev) {
+            probeCount++;
+            if (pair != null && pair != TOMBSTONE)
+                probeCount += put(pair.getKey(), pair.getValue()).getProbes();
+        }
+        return probeCount;
+    }
+
+    /**
+     * The default fraction of the cells of {@link #table} which tombstones may take up before a table that purges its
+     * tombstones does so.
+     */
+    public static final double DEFAULT_PURGE_THRESHOLD = 0.25;
+
+    /**
+     * The number of cells of {@link #table} which hold {@link #TOMBSTONE}, in tables which keep track of it.
+     */
+    protected int tombstones;
+
+    /**
+     * The fraction of the cells of {@link #table} which tombstones may take up before they are purged. A threshold of 1
+     * means that they are never purged, and only go away when the table grows.
+     *
+     * @see #setPurgeThreshold(double)
+     */
+    protected double purgeThreshold = DEFAULT_PURGE_THRESHOLD;
+
+    /**
+     * Sets the fraction of the cells of {@link #table} which tombstones may take up before a soft deletion purges all
+     * of them, by rehashing the table in place. Only tables which purge their tombstones, like {@link LinearProbingHashTable},
+     * {@link QuadraticProbingHashTable} and {@link RobinHoodHashTable}, read it.
+     * @param fraction The new threshold, in (0, 1]. 1 means that tombstones are never purged.
+     * @throws IllegalArgumentException if fraction is not in (0, 1].
+     */
+    public void setPurgeThreshold(double fraction) {
+        if (!(fraction > 0 && fraction <= 1))
+            throw new IllegalArgumentException("Purge threshold must be in (0, 1], but was " + fraction + ".");
+        purgeThreshold = fraction;
+    }
+
+    /**
+     * Returns the fraction of the cells of {@link #table} which tombstones may take up before they are purged.
+     * @return The purge threshold.
+     * @see #setPurgeThreshold(double)
+     */
+    public double getPurgeThreshold() {
+        return purgeThreshold;
+    }
+
+    /**
+     * Tells a table which purges its tombstones whether it is time to do so.
+     * @return {@code true} if the tombstones take up more cells of {@link #table} than {@link #purgeThreshold} allows.
+     */
+    protected boolean shouldPurge() {
+        return tombstones > purgeThreshold * table.length;
+    }
+
+    /**
+     * Returns an {@link Iterator} over the pairs stored in {@link #table}, in the order of their cells, skipping tombstones.
+     * Subclasses which keep pairs anywhere else should override this method.
+     * @return An {@link Iterator} over the pairs of this table.
+     */
+    @Override
+    public Iterator<KVPair> iterator() {
+        final KVPair[] cells = table;
+        return new CellIterator(cells.length) {
+            @Override
+            KVPair cell(int cell) {
+                return cells[cell] == TOMBSTONE ? null : cells[cell];
+            }
+        };
+    }
 }
@@ -5,6 +5,8 @@ import phonebook.utils.KVPair;
 import phonebook.utils.PrimeGenerator;
 import phonebook.utils.Probes;
 
+import java.util.Collection;
+
 /**
  * <p>{@link OrderedLinearProbingHashTable} is an Openly Addressed {@link HashTable} implemented with
  * <b>Ordered Linear Probing</b> as its collision resolution strategy: every key collision is resolved by moving
@@ -27,6 +29,55 @@ public class OrderedLinearProbingHashTable extends OpenAddressingHashTable {
     /* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
     /* ********************************************************************/
 
+    // Moves every pair into a table of the given capacity, the way the writeup's tables grow. Returns the number of probes.
+    private int rehash(int capacity) {
+    	KVPair[] prev = table;
+    	count = 0;
+    	table = new KVPair[capacity];
+    	int probeCount = 0;
+    	for (int x = 0; x < prev.length; x++) {
+    		probeCount++;
+    		if (prev[x] != null && prev[x].equals(TOMBSTONE) == false) 
+    			probeCount += insert(prev[x].getKey(), prev[x].getValue());
+    	}
+    	return probeCount;
+    }
+
+    // Inserts the pair into its chain, keeping the chain in order, without checking for resizing. Returns the number of probes.
+    private int insert(String key, String value) {
+    	int probeCount = 1;
+    	int bucketDex = hash(key);
+    	// Case 1: Array is empty
+    	if (table[bucketDex] == null || table[bucketDex].equals(TOMBSTONE)) {
+    		table[bucketDex] = new KVPair(key, value);
+    		// Case 2: bucketDex is occupied
+    	} else {
+    		int i = bucketDex + 1;
+    		String temp = key;
+    		while (i < table.length) {
+    			probeCount++;
+    			// Check order of elements
+    			if (table[i-1].getKey().compareTo(temp) > 0) {
+    				temp = table[i-1].getKey();
+    				table[i-1].setKey(key);
+    				table[i-1].setValue(value);
+    				if (table[i] == null || table[bucketDex].equals(TOMBSTONE)) {
+        				table[i] = new KVPair(key, value);
+        				break;
+        			}
+    			} else {  			
+    				if (table[i] == null || table[bucketDex].equals(TOMBSTONE)) {
+        				table[i] = new KVPair(key, value);
+        				break;
+        			}
+    			}
+    			i++;
+    		}
+    	}
+    	count++;
+    	return probeCount;
+    }
+
     /* ******************************************/
     /*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
     /* **************************************** */
@@ -37,10 +88,38 @@ public class OrderedLinearProbingHashTable extends OpenAddressingHashTable {
      *               we want soft deletion, {@code false} otherwise.
      */
     public OrderedLinearProbingHashTable(boolean soft){
+    	this(soft, CapacityPolicy.PRIME);
+    }
+
+    /**
+     * Constructor with soft deletion option and a choice of {@link CapacityPolicy}. Initializes the internal storage with a size equal
+     * to the initial capacity of the policy.
+     * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+     *               we want soft deletion, {@code false} otherwise.
+     * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+     */
+    public OrderedLinearProbingHashTable(boolean soft, CapacityPolicy policy){
+        this(soft, policy, 0);
+    }
+
+    /**
+     * Constructor with soft deletion option, a choice of {@link CapacityPolicy} and the number of records the table is expected
+     * to hold. Initializes the internal storage once, with a capacity large enough for expectedSize records, so that
+     * inserting them never resizes the table.
+     *
+     * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+     *             we want soft deletion, {@code false} otherwise.
+     * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+     * @param expectedSize The number of records the table is expected to hold.
+     * @throws IllegalArgumentException if expectedSize is negative.
+     */
+    public OrderedLinearProbingHashTable(boolean soft, CapacityPolicy policy, int expectedSize){
     	primeGenerator = new PrimeGenerator();
-		table = new KVPair[this.primeGenerator.getCurrPrime()];
+    	capacityPolicy = policy;
+		table = new KVPair[initialCapacity(expectedSize)];
 		count = 0;
 		softFlag = soft;
+		loadFactorPolicy = LoadFactorPolicy.growOnly(0.5); // The writeup's tables never shrink, unless asked to.
     }
 
 
@@ -68,48 +147,37 @@ public class OrderedLinearProbingHashTable extends OpenAddressingHashTable {
     public Probes put(String key, String value) {
     	if (key == null || value == null)
     		throw new IllegalArgumentException("key or value input cannot be null!");  	
-    	int probeCount = 1;
+    	int probeCount = 0;
     	/* * * CHECK FOR RESIZING * * */
-    	if (count > table.length/2) {
-    		KVPair[] prev = table;
-    		count = 0;
-    		table = new KVPair[primeGenerator.getNextPrime()];
-    		for (int x = 0; x < prev.length; x++) {
-    			probeCount++;
-    			if (prev[x] != null && prev[x].equals(TOMBSTONE) == false) 
-    				probeCount += put(prev[x].getKey(), prev[x].getValue()).getProbes();
-    		}
+    	if (loadFactorPolicy.shouldGrow(count, table.length))
+    		probeCount += rehash(nextCapacity());
+    	probeCount += insert(key, value);
+    	return new Probes(value, probeCount);
+    }
+
+    /**
+     * Inserts every pair of pairs into this, as if by calling {@link #put(String, String)} on each of them in order. When
+     * pairs is a {@link Collection}, the table grows at most once, to a capacity that fits all of them, and they are then
+     * inserted without allocating any {@link Probes} or checking for resizing on every insertion. Any other {@link Iterable}
+     * goes through {@link #put(String, String)}.
+     *
+     * @param pairs The pairs to insert.
+     * @throws IllegalArgumentException if any key or value is {@code null}.
+     */
+    @Override
+    public void putAll(Iterable<KVPair> pairs) {
+    	if (!(pairs instanceof Collection)) {
+    		super.putAll(pairs);
+    		return;
     	}
-    	int bucketDex = hash(key);
-    	// Case 1: Array is empty
-    	if (table[bucketDex] == null || table[bucketDex].equals(TOMBSTONE)) {
-    		table[bucketDex] = new KVPair(key, value);
-    		// Case 2: bucketDex is occupied
-    	} else {
-    		int i = bucketDex + 1;
-    		String temp = key;
-    		while (i < table.length) {
-    			probeCount++;
-    			// Check order of elements
-    			if (table[i-1].getKey().compareTo(temp) > 0) {
-    				temp = table[i-1].getKey();
-    				table[i-1].setKey(key);
-    				table[i-1].setValue(value);
-    				if (table[i] == null || table[bucketDex].equals(TOMBSTONE)) {
-        				table[i] = new KVPair(key, value);
-        				break;
-        			}
-    			} else {  			
-    				if (table[i] == null || table[bucketDex].equals(TOMBSTONE)) {
-        				table[i] = new KVPair(key, value);
-        				break;
-        			}
-    			}
-    			i++;
-    		}
+    	int capacity = capacityToFit(count + ((Collection<?>) pairs).size());
+    	if (capacity > table.length)
+    		rehash(capacity);
+    	for (KVPair pair : pairs) {
+    		if (pair.getKey() == null || pair.getValue() == null)
+    			throw new IllegalArgumentException("key or value input cannot be null!");
+    		insert(pair.getKey(), pair.getValue());
     	}
-    	count++;
-    	return new Probes(value, probeCount);
     }
 
     @Override
@@ -206,6 +274,9 @@ public class OrderedLinearProbingHashTable extends OpenAddressingHashTable {
 				probeCount++;
 				x++;			
 			}
+			// Soft deletion leaves count alone, so only hard deletions can bring the load down.
+			if (oldVal != null && shouldShrink())
+				probeCount += shrink();
 			return new Probes(oldVal, probeCount);
 		}
 		return null;
@@ -0,0 +1,293 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>{@link ParallelTableBuilder} builds a {@link LinearProbingHashTable}, a {@link QuadraticProbingHashTable} or a
+ * {@link SeparateChainingHashTable} out of a large list of pairs on all the workers of a {@link ForkJoinPool}, instead
+ * of inserting the pairs one at a time.</p>
+ *
+ * <p>The table is allocated once, at a capacity which fits every pair, and its cells are split into contiguous
+ * <em>regions</em>, one per worker. The pairs are then <b>radix-partitioned</b> by the region that their keys hash into:
+ * each task counts how many pairs of its slice of the input go to every region, the counts are added up into offsets,
+ * and each task scatters the pairs of its slice to their offsets. Finally, each task fills one region with the pairs
+ * that hash into it, so no two tasks ever write to the same cell or chain. A pair whose probe sequence would leave its
+ * region is put aside, and these few pairs are inserted one by one once all the regions are filled. The resulting table
+ * answers every search exactly like one built by calling {@link HashTable#put(String, String)} on every pair in order,
+ * even though a few pairs may sit in different cells.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see LinearProbingHashTable
+ * @see QuadraticProbingHashTable
+ * @see SeparateChainingHashTable
+ */
+public class ParallelTableBuilder {
+
+	/**
+	 * The default number of pairs under which a table is built by a single thread, since splitting the work up would
+	 * cost more than it saves.
+	 */
+	public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 1 << 13;
+
+	/* ********************************************************************/
+	/* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+	/* ********************************************************************/
+
+	private final ForkJoinPool pool;
+	private final int sequentialThreshold;
+
+	// How one kind of table hashes its keys and fills its cells.
+	private interface Filler {
+		int home(String key);
+		int capacity();
+		// Places the pair within the cells [lo, hi), or returns false if its probe sequence leaves them first.
+		boolean place(int home, String key, String value, int lo, int hi);
+		// Accounts for the pairs that place() stored.
+		void addToCount(int placed);
+		// Inserts a pair that place() could not, with no other thread touching the table.
+		void insert(String key, String value);
+	}
+
+	// Runs task.accept(from) through task.accept(to - 1), splitting the range in halves across the pool.
+	private static final class ForEach extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int from, to;
+		private final IntConsumer task;
+
+		private ForEach(int from, int to, IntConsumer task) {
+			this.from = from;
+			this.to = to;
+			this.task = task;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				task.accept(from);
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new ForEach(from, mid, task), new ForEach(mid, to, task));
+		}
+	}
+
+	private void forEach(int tasks, IntConsumer task) {
+		if (tasks > 0)
+			pool.invoke(new ForEach(0, tasks, task));
+	}
+
+	private static void checkNotNull(KVPair pair) {
+		if (pair == null || pair.getKey() == null || pair.getValue() == null)
+			throw new IllegalArgumentException("key or value input cannot be null!");
+	}
+
+	private void build(List<KVPair> pairs, Filler filler) {
+		int n = pairs.size();
+		int capacity = filler.capacity();
+		int parallelism = pool.getParallelism();
+		int slices = Math.max(1, Math.min(parallelism * 4, n / (sequentialThreshold / 4 + 1)));
+		int regions = Math.max(1, Math.min(parallelism * 4, capacity / 64));
+		// Region r holds the cells [bounds[r], bounds[r + 1]), which are exactly the cells h with h * regions / capacity == r.
+		int[] bounds = new int[regions + 1];
+		for (int r = 0; r <= regions; r++)
+			bounds[r] = (int) (((long) r * capacity + regions - 1) / regions);
+
+		// 1. Hash every key, and count how many pairs of every slice fall into every region.
+		int[] homes = new int[n];
+		int[][] counts = new int[slices][regions];
+		forEach(slices, s -> {
+			for (int i = (int) ((long) s * n / slices), end = (int) ((long) (s + 1) * n / slices); i < end; i++) {
+				KVPair pair = pairs.get(i);
+				checkNotNull(pair);
+				homes[i] = filler.home(pair.getKey());
+				counts[s][(int) ((long) homes[i] * regions / capacity)]++;
+			}
+		});
+
+		// 2. Turn the counts into offsets: the pairs of region r come before those of region r + 1, and within a region,
+		// the pairs of slice s come before those of slice s + 1, so the order of the input is kept.
+		int[] starts = new int[regions + 1];
+		int offset = 0;
+		for (int r = 0; r < regions; r++) {
+			starts[r] = offset;
+			for (int s = 0; s < slices; s++) {
+				int c = counts[s][r];
+				counts[s][r] = offset;
+				offset += c;
+			}
+		}
+		starts[regions] = offset;
+
+		// 3. Scatter the indices of the pairs to their offsets.
+		int[] order = new int[n];
+		forEach(slices, s -> {
+			int[] next = counts[s];
+			for (int i = (int) ((long) s * n / slices), end = (int) ((long) (s + 1) * n / slices); i < end; i++)
+				order[next[(int) ((long) homes[i] * regions / capacity)]++] = i;
+		});
+
+		// 4. Fill every region with the pairs that hash into it.
+		int[] placed = new int[regions];
+		List<List<Integer>> deferred = new ArrayList<>(regions);
+		for (int r = 0; r < regions; r++)
+			deferred.add(new ArrayList<>());
+		forEach(regions, r -> {
+			for (int k = starts[r]; k < starts[r + 1]; k++) {
+				int i = order[k];
+				KVPair pair = pairs.get(i);
+				if (filler.place(homes[i], pair.getKey(), pair.getValue(), bounds[r], bounds[r + 1]))
+					placed[r]++;
+				else
+					deferred.get(r).add(i);
+			}
+		});
+
+		// 5. Stitch the regions together with the pairs that spill over their boundaries.
+		int total = 0;
+		for (int p : placed)
+			total += p;
+		filler.addToCount(total);
+		for (List<Integer> spilled : deferred) {
+			for (int i : spilled)
+				filler.insert(pairs.get(i).getKey(), pairs.get(i).getValue());
+		}
+	}
+
+	private static void checkPairs(List<KVPair> pairs) {
+		if (pairs == null)
+			throw new IllegalArgumentException("pairs cannot be null!");
+	}
+
+	/* ******************************************/
+	/*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+	/* **************************************** */
+
+	/**
+	 * Creates a {@link ParallelTableBuilder} which runs on the common {@link ForkJoinPool}.
+	 */
+	public ParallelTableBuilder() {
+		this(ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_THRESHOLD);
+	}
+
+	/**
+	 * Creates a {@link ParallelTableBuilder} which runs on the given {@link ForkJoinPool}.
+	 *
+	 * @param pool The {@link ForkJoinPool} whose workers build the tables.
+	 * @param sequentialThreshold The number of pairs under which a table is built by the calling thread alone.
+	 * @throws IllegalArgumentException if pool is {@code null} or sequentialThreshold is negative.
+	 */
+	public ParallelTableBuilder(ForkJoinPool pool, int sequentialThreshold) {
+		if (pool == null || sequentialThreshold < 0)
+			throw new IllegalArgumentException("Provided: pool=" + pool + " and sequentialThreshold=" + sequentialThreshold);
+		this.pool = pool;
+		this.sequentialThreshold = sequentialThreshold;
+	}
+
+	/**
+	 * Builds a {@link LinearProbingHashTable} which holds every pair of pairs, sized to hold them all without resizing.
+	 *
+	 * @param pairs The pairs to insert. The list should not be modified while the table is being built.
+	 * @param soft Whether the table uses soft deletion.
+	 * @param policy The {@link CapacityPolicy} of the table.
+	 * @return The new {@link LinearProbingHashTable}.
+	 * @throws IllegalArgumentException if pairs is {@code null}, or any pair, key or value in it is {@code null}.
+	 */
+	public LinearProbingHashTable buildLinearProbing(List<KVPair> pairs, boolean soft, CapacityPolicy policy) {
+		checkPairs(pairs);
+		LinearProbingHashTable table = new LinearProbingHashTable(soft, policy, pairs.size());
+		if (pairs.size() < sequentialThreshold) {
+			table.putAll(pairs);
+			return table;
+		}
+		build(pairs, new Filler() {
+			public int home(String key) { return table.hash(key); }
+			public int capacity() { return table.table.length; }
+			public boolean place(int home, String key, String value, int lo, int hi) {
+				// Linear Probing never wraps around, so the last region keeps every pair that hashes into it.
+				for (int i = home; i < hi; i++) {
+					if (table.table[i] == null) {
+						table.table[i] = new KVPair(key, value);
+						return true;
+					}
+				}
+				return false;
+			}
+			public void addToCount(int placed) { table.count += placed; }
+			public void insert(String key, String value) { table.put(key, value); }
+		});
+		return table;
+	}
+
+	/**
+	 * Builds a {@link QuadraticProbingHashTable} which holds every pair of pairs, sized to hold them all without resizing.
+	 *
+	 * @param pairs The pairs to insert. The list should not be modified while the table is being built.
+	 * @param soft Whether the table uses soft deletion.
+	 * @return The new {@link QuadraticProbingHashTable}.
+	 * @throws IllegalArgumentException if pairs is {@code null}, or any pair, key or value in it is {@code null}.
+	 */
+	public QuadraticProbingHashTable buildQuadraticProbing(List<KVPair> pairs, boolean soft) {
+		checkPairs(pairs);
+		QuadraticProbingHashTable table = new QuadraticProbingHashTable(soft, pairs.size());
+		if (pairs.size() < sequentialThreshold) {
+			table.putAll(pairs);
+			return table;
+		}
+		build(pairs, new Filler() {
+			public int home(String key) { return table.hash(key); }
+			public int capacity() { return table.table.length; }
+			public boolean place(int home, String key, String value, int lo, int hi) {
+				// The same probe sequence as QuadraticProbingHashTable.put(), up to the first cell outside of the region.
+				for (int index = 1; ; index++) {
+					int bucketDex = (home + (index - 1) + (int) Math.pow((index - 1), 2)) % table.table.length;
+					if (bucketDex < lo || bucketDex >= hi)
+						return false;
+					if (table.table[bucketDex] == null) {
+						table.table[bucketDex] = new KVPair(key, value);
+						return true;
+					}
+				}
+			}
+			public void addToCount(int placed) { table.count += placed; }
+			public void insert(String key, String value) { table.put(key, value); }
+		});
+		return table;
+	}
+
+	/**
+	 * Builds a {@link SeparateChainingHashTable} which holds every pair of pairs, with as many chains as pairs. Since every
+	 * chain belongs to exactly one region, no pair is ever put aside.
+	 *
+	 * @param pairs The pairs to insert. The list should not be modified while the table is being built.
+	 * @param policy The {@link CapacityPolicy} of the table.
+	 * @return The new {@link SeparateChainingHashTable}.
+	 * @throws IllegalArgumentException if pairs is {@code null}, or any pair, key or value in it is {@code null}.
+	 */
+	public SeparateChainingHashTable buildSeparateChaining(List<KVPair> pairs, CapacityPolicy policy) {
+		checkPairs(pairs);
+		SeparateChainingHashTable table = new SeparateChainingHashTable(policy, pairs.size());
+		if (pairs.size() < sequentialThreshold) {
+			table.putAll(pairs);
+			return table;
+		}
+		build(pairs, new Filler() {
+			public int home(String key) { return table.chainOf(key); }
+			public int capacity() { return table.capacity(); }
+			public boolean place(int home, String key, String value, int lo, int hi) {
+				table.addToChain(home, key, value);
+				return true;
+			}
+			public void addToCount(int placed) { table.addToCount(placed); }
+			public void insert(String key, String value) { table.put(key, value); }
+		});
+		return table;
+	}
+}
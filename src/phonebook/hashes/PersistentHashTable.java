@@ -0,0 +1,394 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+import phonebook.utils.Probes;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>{@link PersistentHashTable} is a {@link HashTable} implemented as a <b>Hash Array Mapped Trie</b> (HAMT). The hash
+ * code of a key is consumed {@link #BITS} bits at a time, and every level of the trie uses those bits to pick one of up
+ * to 32 children. A node only stores the children that actually exist, packed together, along with a 32-bit
+ * <em>bitmap</em> of which ones those are; the position of a child in the packed array is the number of bits set below
+ * its own. Keys whose hash codes are equal all the way down share a <em>collision node</em>.</p>
+ *
+ * <p>The trie is <b>persistent</b>: a node is never changed once it has been built. An insertion or a deletion copies only
+ * the nodes on the path from the root to the key, at most 7 of them, and shares everything else with the previous version
+ * of the trie. Because of that, {@link #snapshot()} runs in <em>constant time</em>: it hands out the current root, which
+ * later writes to this table will never touch. A snapshot can be read, and iterated over, from any thread while the
+ * writer carries on. It only costs memory for the nodes that later writes copy.</p>
+ *
+ * <p>There are no empty cells in a trie, so {@link #capacity()} is the same as {@link #size()}.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see HashTable
+ * @see CollisionResolver
+ * @see phonebook.Phonebook#snapshot()
+ */
+public class PersistentHashTable implements HashTable {
+
+	/* ********************************************************************/
+	/* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+	/* ********************************************************************/
+
+	/**
+	 * The number of bits of the hash code consumed by every level of the trie.
+	 */
+	public static final int BITS = 5;
+
+	private static final int MASK = (1 << BITS) - 1;
+	private static final int MAX_DEPTH = 8; // 7 levels consume all 32 bits, plus one level of collision nodes.
+
+	// Children are KVPairs, BitmapNodes or CollisionNodes, in the order of their bits.
+	private static final class BitmapNode {
+		final int bitmap;
+		final Object[] children;
+
+		BitmapNode(int bitmap, Object[] children) {
+			this.bitmap = bitmap;
+			this.children = children;
+		}
+	}
+
+	// Pairs whose keys all have the same hash code.
+	private static final class CollisionNode {
+		final int hash;
+		final KVPair[] pairs;
+
+		CollisionNode(int hash, KVPair[] pairs) {
+			this.hash = hash;
+			this.pairs = pairs;
+		}
+	}
+
+	// The root and the size are published together, so that a snapshot always sees a matching pair of them.
+	private static final class Version {
+		final BitmapNode root;
+		final int count;
+
+		Version(BitmapNode root, int count) {
+			this.root = root;
+			this.count = count;
+		}
+	}
+
+	private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+	private volatile Version version;
+
+	private static int hashOf(Object child) {
+		return child instanceof CollisionNode ? ((CollisionNode) child).hash : ((KVPair) child).getKey().hashCode();
+	}
+
+	private static Object[] insertAt(Object[] array, int index, Object element) {
+		Object[] copy = new Object[array.length + 1];
+		System.arraycopy(array, 0, copy, 0, index);
+		copy[index] = element;
+		System.arraycopy(array, index, copy, index + 1, array.length - index);
+		return copy;
+	}
+
+	private static Object[] replaceAt(Object[] array, int index, Object element) {
+		Object[] copy = array.clone();
+		copy[index] = element;
+		return copy;
+	}
+
+	private static Object[] removeAt(Object[] array, int index) {
+		Object[] copy = new Object[array.length - 1];
+		System.arraycopy(array, 0, copy, 0, index);
+		System.arraycopy(array, index + 1, copy, index, array.length - index - 1);
+		return copy;
+	}
+
+	// Builds the smallest subtrie at the given shift which holds both a (a pair or a collision node) and pair b.
+	private static Object merge(Object a, KVPair b, int hashB, int shift) {
+		int hashA = hashOf(a);
+		if (hashA == hashB) {
+			if (a instanceof CollisionNode) {
+				KVPair[] pairs = ((CollisionNode) a).pairs;
+				KVPair[] grown = new KVPair[pairs.length + 1];
+				System.arraycopy(pairs, 0, grown, 0, pairs.length);
+				grown[pairs.length] = b;
+				return new CollisionNode(hashA, grown);
+			}
+			return new CollisionNode(hashA, new KVPair[]{(KVPair) a, b});
+		}
+		int bitA = 1 << ((hashA >>> shift) & MASK), bitB = 1 << ((hashB >>> shift) & MASK);
+		if (bitA == bitB)
+			return new BitmapNode(bitA, new Object[]{merge(a, b, hashB, shift + BITS)});
+		// Two hash codes that differ must differ within their 32 bits, so we always end up here before running out of them.
+		return new BitmapNode(bitA | bitB, Integer.compareUnsigned(bitA, bitB) < 0 ? new Object[]{a, b} : new Object[]{b, a});
+	}
+
+	/*
+	 * Returns the subtrie node with pair inserted, copying only the nodes on its path. previous[0] receives the pair
+	 * that pair replaced, if any, and probes[0] is incremented by the number of nodes visited.
+	 */
+	private static Object insert(Object node, KVPair pair, int hash, int shift, KVPair[] previous, int[] probes) {
+		probes[0]++;
+		if (node instanceof CollisionNode) {
+			CollisionNode collisions = (CollisionNode) node;
+			if (collisions.hash != hash)
+				return merge(collisions, pair, hash, shift);
+			for (int i = 0; i < collisions.pairs.length; i++) {
+				if (collisions.pairs[i].getKey().equals(pair.getKey())) {
+					previous[0] = collisions.pairs[i];
+					KVPair[] copy = collisions.pairs.clone();
+					copy[i] = pair;
+					return new CollisionNode(hash, copy);
+				}
+			}
+			return merge(collisions, pair, hash, shift);
+		}
+		BitmapNode bitmapNode = (BitmapNode) node;
+		int bit = 1 << ((hash >>> shift) & MASK);
+		int index = Integer.bitCount(bitmapNode.bitmap & (bit - 1));
+		if ((bitmapNode.bitmap & bit) == 0)
+			return new BitmapNode(bitmapNode.bitmap | bit, insertAt(bitmapNode.children, index, pair));
+		Object child = bitmapNode.children[index];
+		Object replacement;
+		if (child instanceof KVPair) {
+			KVPair resident = (KVPair) child;
+			if (resident.getKey().equals(pair.getKey())) {
+				previous[0] = resident;
+				replacement = pair;
+			} else {
+				probes[0]++;
+				replacement = merge(resident, pair, hash, shift + BITS);
+			}
+		} else {
+			replacement = insert(child, pair, hash, shift + BITS, previous, probes);
+		}
+		return new BitmapNode(bitmapNode.bitmap, replaceAt(bitmapNode.children, index, replacement));
+	}
+
+	/*
+	 * Returns the subtrie node without key: node itself if key is not in it, null if nothing is left of it, or a lone pair
+	 * that the parent should hold directly. removed[0] receives the pair that was removed, and probes[0] is incremented
+	 * by the number of nodes visited.
+	 */
+	private static Object delete(Object node, String key, int hash, int shift, KVPair[] removed, int[] probes) {
+		probes[0]++;
+		if (node instanceof CollisionNode) {
+			CollisionNode collisions = (CollisionNode) node;
+			for (int i = 0; collisions.hash == hash && i < collisions.pairs.length; i++) {
+				if (collisions.pairs[i].getKey().equals(key)) {
+					removed[0] = collisions.pairs[i];
+					if (collisions.pairs.length == 2)
+						return collisions.pairs[1 - i];
+					KVPair[] shrunk = new KVPair[collisions.pairs.length - 1];
+					System.arraycopy(collisions.pairs, 0, shrunk, 0, i);
+					System.arraycopy(collisions.pairs, i + 1, shrunk, i, shrunk.length - i);
+					return new CollisionNode(hash, shrunk);
+				}
+			}
+			return node;
+		}
+		BitmapNode bitmapNode = (BitmapNode) node;
+		int bit = 1 << ((hash >>> shift) & MASK);
+		if ((bitmapNode.bitmap & bit) == 0)
+			return node;
+		int index = Integer.bitCount(bitmapNode.bitmap & (bit - 1));
+		Object child = bitmapNode.children[index];
+		Object replacement;
+		if (child instanceof KVPair) {
+			if (!((KVPair) child).getKey().equals(key))
+				return node;
+			removed[0] = (KVPair) child;
+			replacement = null;
+		} else {
+			replacement = delete(child, key, hash, shift + BITS, removed, probes);
+			if (replacement == child)
+				return node;
+		}
+		if (replacement instanceof KVPair && shift > 0 && bitmapNode.children.length == 1)
+			return replacement; // Keep collapsing the path to a lone pair.
+		if (replacement != null)
+			return new BitmapNode(bitmapNode.bitmap, replaceAt(bitmapNode.children, index, replacement));
+		if (bitmapNode.children.length == 1)
+			return null;
+		Object[] children = removeAt(bitmapNode.children, index);
+		// A node left with a single pair is replaced by the pair, except at the root.
+		if (shift > 0 && children.length == 1 && children[0] instanceof KVPair)
+			return children[0];
+		return new BitmapNode(bitmapNode.bitmap & ~bit, children);
+	}
+
+	private PersistentHashTable(Version version) {
+		this.version = version;
+	}
+
+	/* ******************************************/
+	/*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+	/* **************************************** */
+
+	/**
+	 * Default constructor. Initializes an empty trie.
+	 */
+	public PersistentHashTable() {
+		this(new Version(EMPTY, 0));
+	}
+
+	/**
+	 * Inserts the pair &lt;key, value&gt; into this. The container should <b>not</b> allow for {@code null}
+	 * keys and values. If key is already in the table, its value is updated. Only the nodes on the path to key are
+	 * copied, so snapshots taken earlier are not affected. This method runs in <em>O(log<sub>32</sub>n)</em> time.
+	 * <p>
+	 * Writers are expected to be a single thread, like in the other non-concurrent tables; readers of snapshots can be
+	 * any number of threads.
+	 *
+	 * @param key   The record's key.
+	 * @param value The record's value.
+	 * @return The {@link phonebook.utils.Probes} with the value added and the number of trie nodes visited.
+	 * @throws IllegalArgumentException if either argument is {@code null}.
+	 */
+	@Override
+	public Probes put(String key, String value) {
+		if (key == null || value == null)
+			throw new IllegalArgumentException("key or value input cannot be null!");
+		Version current = version;
+		KVPair[] previous = new KVPair[1];
+		int[] probes = new int[1];
+		Object root = insert(current.root, new KVPair(key, value), key.hashCode(), 0, previous, probes);
+		version = new Version((BitmapNode) root, previous[0] == null ? current.count + 1 : current.count);
+		return new Probes(value, probes[0]);
+	}
+
+	@Override
+	public Probes get(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		int hash = key.hashCode();
+		Object node = version.root;
+		int probes = 0;
+		for (int shift = 0; ; shift += BITS) {
+			probes++;
+			if (node instanceof CollisionNode) {
+				CollisionNode collisions = (CollisionNode) node;
+				for (int i = 0; collisions.hash == hash && i < collisions.pairs.length; i++) {
+					if (collisions.pairs[i].getKey().equals(key))
+						return new Probes(collisions.pairs[i].getValue(), probes);
+				}
+				return new Probes(null, probes);
+			}
+			BitmapNode bitmapNode = (BitmapNode) node;
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if ((bitmapNode.bitmap & bit) == 0)
+				return new Probes(null, probes);
+			node = bitmapNode.children[Integer.bitCount(bitmapNode.bitmap & (bit - 1))];
+			if (node instanceof KVPair) {
+				KVPair pair = (KVPair) node;
+				return new Probes(pair.getKey().equals(key) ? pair.getValue() : null, probes);
+			}
+		}
+	}
+
+	@Override
+	public Probes remove(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		Version current = version;
+		KVPair[] removed = new KVPair[1];
+		int[] probes = new int[1];
+		Object root = delete(current.root, key, key.hashCode(), 0, removed, probes);
+		if (removed[0] == null)
+			return new Probes(null, probes[0]);
+		version = new Version(root == null ? EMPTY : (BitmapNode) root, current.count - 1);
+		return new Probes(removed[0].getValue(), probes[0]);
+	}
+
+	@Override
+	public boolean containsKey(String key) {
+		return get(key).getValue() != null;
+	}
+
+	@Override
+	public boolean containsValue(String value) {
+		for (KVPair pair : this) {
+			if (pair.getValue().equals(value))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return version.count;
+	}
+
+	/**
+	 * Returns the number of pairs in the trie, since a trie has no empty cells.
+	 * @return the same as {@link #size()}.
+	 */
+	@Override
+	public int capacity() {
+		return version.count;
+	}
+
+	/**
+	 * Returns a <b>snapshot</b> of this table in <em>constant time</em>. The snapshot shares every node with this table,
+	 * and neither of the two ever sees the writes made to the other afterwards.
+	 * @return A new {@link PersistentHashTable} with the same contents as this one.
+	 */
+	public PersistentHashTable snapshot() {
+		return new PersistentHashTable(version);
+	}
+
+	/**
+	 * Returns an {@link Iterator} over the pairs of the table, in no particular order. The iterator walks the version of
+	 * the trie that was current when it was created, so writes made while iterating are never seen, and never
+	 * cause a {@link java.util.ConcurrentModificationException}.
+	 * @return An {@link Iterator} over the pairs of this table.
+	 */
+	@Override
+	public Iterator<KVPair> iterator() {
+		final BitmapNode root = version.root;
+		return new Iterator<KVPair>() {
+
+			private final Object[][] path = new Object[MAX_DEPTH][];
+			private final int[] positions = new int[MAX_DEPTH];
+			private int depth = 0;
+			private KVPair next;
+
+			{
+				path[0] = root.children;
+				advance();
+			}
+
+			private void advance() {
+				next = null;
+				while (next == null && depth >= 0) {
+					if (positions[depth] == path[depth].length) {
+						depth--;
+						continue;
+					}
+					Object child = path[depth][positions[depth]++];
+					if (child instanceof KVPair) {
+						next = (KVPair) child;
+					} else {
+						depth++;
+						path[depth] = child instanceof BitmapNode ? ((BitmapNode) child).children : ((CollisionNode) child).pairs;
+						positions[depth] = 0;
+					}
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public KVPair next() {
+				if (next == null)
+					throw new NoSuchElementException();
+				KVPair pair = next;
+				advance();
+				return new KVPair(pair.getKey(), pair.getValue()); // A KVPair can be mutated, and ours are shared with snapshots.
+			}
+		};
+	}
+}
@@ -5,6 +5,8 @@ import phonebook.utils.KVPair;
 import phonebook.utils.PrimeGenerator;
 import phonebook.utils.Probes;
 
+import java.util.Collection;
+
 /**
  * <p>{@link QuadraticProbingHashTable} is an Openly Addressed {@link HashTable} which uses <b>Quadratic
  * Probing</b> as its collision resolution strategy. Quadratic Probing differs from <b>Linear</b> Probing
@@ -34,42 +36,71 @@ public class QuadraticProbingHashTable extends OpenAddressingHashTable {
 	/* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
 	/* ********************************************************************/
 
-	/* ******************************************/
-	/*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
-	/* **************************************** */
-
-	/**
-	 * Constructor with soft deletion option. Initializes the internal storage with a size equal to the starting value of  {@link PrimeGenerator}.
-	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
-	 *               we want soft deletion, {@code false} otherwise.
+	/*
+	 * Empties every tombstone, then moves each pair to the first empty cell of its probe sequence, without allocating a
+	 * new table. Moving a pair can open a hole in the probe sequence of a pair that was already visited, so we keep going
+	 * over the table until no pair moves. Every move takes a pair to an earlier step of its own sequence, so this ends,
+	 * and usually after a couple of passes. Returns the number of cells visited.
 	 */
-	public QuadraticProbingHashTable(boolean soft) {
-		primeGenerator = new PrimeGenerator();
-		table = new KVPair[this.primeGenerator.getCurrPrime()];
+	private int purgeTombstones() {
+		for (int i = 0; i < table.length; i++) {
+			if (table[i] == TOMBSTONE)
+				table[i] = null;
+		}
+		int probeCount = 0;
+		int live;
+		boolean moved;
+		do {
+			moved = false;
+			live = 0;
+			for (int i = 0; i < table.length; i++) {
+				probeCount++;
+				if (table[i] == null)
+					continue;
+				KVPair pair = table[i];
+				table[i] = null;
+				int index = 1;
+				int bucketDex = (hash(pair.getKey()) + (index - 1) + (int)Math.pow((index-1), 2)) % table.length;
+				while (table[bucketDex] != null) {
+					probeCount++;
+					index++;
+					bucketDex = (hash(pair.getKey()) + (index - 1) + (int)Math.pow((index-1), 2)) % table.length;
+				}
+				table[bucketDex] = pair;
+				moved |= bucketDex != i;
+				live++;
+			}
+		} while (moved);
+		// Soft deletion leaves count alone, so the tombstones we just emptied were still part of it.
+		count = live;
+		tombstones = 0;
+		return probeCount;
+	}
+
+	// Moves every pair into a table of the given capacity, the way the writeup's tables grow. Returns the number of probes.
+	private int rehash(int capacity) {
+		KVPair[] prev = table;
 		count = 0;
-		softFlag = soft;
+		tombstones = 0;
+		table = new KVPair[capacity];
+		int probeCount = 0;
+		for (int x = 0; x < prev.length; x++) {
+			probeCount++;
+			if (prev[x] != null && prev[x].equals(TOMBSTONE) == false) 
+				probeCount += insert(prev[x].getKey(), prev[x].getValue());
+		}
+		return probeCount;
 	}
 
-	@Override
-	public Probes put(String key, String value) {
-		if (key == null || value == null)
-			throw new IllegalArgumentException("key or value input cannot be null!");  	
+	// Inserts the pair into the first free cell of its probe sequence, without checking for resizing. Returns the number of probes.
+	private int insert(String key, String value) {
 		int probeCount = 1;
-		/* * * CHECK FOR RESIZING * * */
-		if (count > table.length/2) {
-			KVPair[] prev = table;
-			count = 0;
-			table = new KVPair[primeGenerator.getNextPrime()];
-			for (int x = 0; x < prev.length; x++) {
-				probeCount++;
-				if (prev[x] != null && prev[x].equals(TOMBSTONE) == false) 
-					probeCount += put(prev[x].getKey(), prev[x].getValue()).getProbes();
-			}
-		}
 		int index = 1;
 		int bucketDex = (hash(key) + (index - 1) + (int)Math.pow((index-1), 2)) % table.length;
 		// Case 1: Array is empty
 		if (table[bucketDex] == null || table[bucketDex].equals(TOMBSTONE)) {
+			if (table[bucketDex] == TOMBSTONE)
+				tombstones--;
 			table[bucketDex] = new KVPair(key, value);
 			// Case 2: bucketDex is occupied
 		} else {
@@ -78,6 +109,8 @@ public class QuadraticProbingHashTable extends OpenAddressingHashTable {
 			while (bucketDex < table.length) {
 				probeCount++;
 				if (table[bucketDex] == null || table[bucketDex].equals(TOMBSTONE)) {
+					if (table[bucketDex] == TOMBSTONE)
+						tombstones--;
 					table[bucketDex] = new KVPair(key, value);
 					break;
 				}
@@ -87,9 +120,77 @@ public class QuadraticProbingHashTable extends OpenAddressingHashTable {
 
 		}
 		count++;
+		return probeCount;
+	}
+
+	/* ******************************************/
+	/*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+	/* **************************************** */
+
+	/**
+	 * Constructor with soft deletion option. Initializes the internal storage with a size equal to the starting value of  {@link PrimeGenerator}.
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *               we want soft deletion, {@code false} otherwise.
+	 */
+	public QuadraticProbingHashTable(boolean soft) {
+		this(soft, 0);
+	}
+
+	/**
+	 * Constructor with soft deletion option and the number of records the table is expected to hold. Initializes the
+	 * internal storage once, with a prime capacity large enough for expectedSize records, so that inserting them never
+	 * resizes the table.
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *               we want soft deletion, {@code false} otherwise.
+	 * @param expectedSize The number of records the table is expected to hold.
+	 * @throws IllegalArgumentException if expectedSize is negative.
+	 */
+	public QuadraticProbingHashTable(boolean soft, int expectedSize) {
+		primeGenerator = new PrimeGenerator();
+		table = new KVPair[initialCapacity(expectedSize)];
+		count = 0;
+		softFlag = soft;
+		purgeThreshold = 1; // Off unless asked for, since the writeup's resizing rules count tombstones as records.
+		loadFactorPolicy = LoadFactorPolicy.growOnly(0.5); // Likewise, the writeup's tables never shrink.
+	}
+
+	@Override
+	public Probes put(String key, String value) {
+		if (key == null || value == null)
+			throw new IllegalArgumentException("key or value input cannot be null!");  	
+		int probeCount = 0;
+		/* * * CHECK FOR RESIZING * * */
+		if (loadFactorPolicy.shouldGrow(count, table.length))
+			probeCount += rehash(primeGenerator.getNextPrime());
+		probeCount += insert(key, value);
 		return new Probes(value, probeCount);
 	}
 
+	/**
+	 * Inserts every pair of pairs into this, as if by calling {@link #put(String, String)} on each of them in order. When
+	 * pairs is a {@link Collection}, the table grows at most once, to a capacity that fits all of them, and they are then
+	 * inserted without allocating any {@link Probes} or checking for resizing on every insertion. Any other {@link Iterable}
+	 * goes through {@link #put(String, String)}.
+	 *
+	 * @param pairs The pairs to insert.
+	 * @throws IllegalArgumentException if any key or value is {@code null}.
+	 */
+	@Override
+	public void putAll(Iterable<KVPair> pairs) {
+		if (!(pairs instanceof Collection)) {
+			super.putAll(pairs);
+			return;
+		}
+		int capacity = capacityToFit(count + ((Collection<?>) pairs).size());
+		if (capacity > table.length)
+			rehash(capacity);
+		for (KVPair pair : pairs) {
+			if (pair.getKey() == null || pair.getValue() == null)
+				throw new IllegalArgumentException("key or value input cannot be null!");
+			insert(pair.getKey(), pair.getValue());
+		}
+	}
+
 
 	@Override
 	public Probes get(String key) {
@@ -127,6 +228,57 @@ public class QuadraticProbingHashTable extends OpenAddressingHashTable {
 		return new Probes(null,0);
 	}
 
+	/**
+	 * Searches for every key of keys at once. All of the keys are hashed first, and their probe sequences are then advanced
+	 * together, one cell per round, so that the cache misses of the different searches overlap instead of being paid for one
+	 * after the other. Every search stops where {@link #get(String)} would, and compares keys the same way.
+	 *
+	 * @param keys The keys to search for.
+	 * @return The values of keys, in the same order, with {@code null} for the keys that are {@code null} or missing.
+	 * @throws IllegalArgumentException if keys is {@code null}.
+	 */
+	@Override
+	public String[] getAll(String[] keys) {
+		if (keys == null)
+			throw new IllegalArgumentException("keys cannot be null!");
+		String[] found = new String[keys.length];
+		int[] hashes = new int[keys.length], pending = new int[keys.length];
+		int live = 0;
+		for (int k = 0; k < keys.length; k++) {
+			if (keys[k] != null) {
+				hashes[k] = hash(keys[k]);
+				pending[live++] = k;
+			}
+		}
+		// In round d, every key that is still being searched for is at the d-th cell of its probe sequence.
+		for (int d = 0; live > 0 && d < table.length; d++) {
+			int stillLive = 0;
+			for (int p = 0; p < live; p++) {
+				int k = pending[p], i = (int) ((hashes[k] + d + (long) d * d) % table.length);
+				if (table[i] == null)
+					continue;
+				if (table[i].getKey() == keys[k]) {
+					found[k] = table[i].getValue();
+					continue;
+				}
+				pending[stillLive++] = k;
+			}
+			live = stillLive;
+		}
+		return found;
+	}
+
+	/**
+	 * <b>Return</b> and <b>remove</b> the value associated with key in the {@link HashTable}. With soft deletion, the table
+	 * is rehashed in place once its tombstones take up more than {@link #getPurgeThreshold()} of its cells. This never
+	 * happens unless {@link #setPurgeThreshold(double)} is called first. Likewise, the table only shrinks once a
+	 * {@link LoadFactorPolicy} with a positive {@link LoadFactorPolicy#shrinkAt()} is set through
+	 * {@link #setLoadFactorPolicy(LoadFactorPolicy)}.
+	 *
+	 * @param key The key to search for.
+	 * @return The {@link phonebook.utils.Probes} with associated value and the number of probe used. If the key is {@code null}, return value {@code null}
+	 * and 0 as number of probes; if the key dones't exists in the database, return {@code null} and the number of probes used.
+	 */
 	@Override
 	public Probes remove(String key) {
 		if (key != null) {
@@ -147,6 +299,9 @@ public class QuadraticProbingHashTable extends OpenAddressingHashTable {
 					// Soft deletion
 					if (softFlag) {
 						table[i] = TOMBSTONE;
+						tombstones++;
+						if (shouldPurge())
+							probeCount += purgeTombstones();
 						break;
 					} else {
 						// Hard deletion
@@ -154,6 +309,7 @@ public class QuadraticProbingHashTable extends OpenAddressingHashTable {
 						KVPair[] prev = table;
 						table = new KVPair[primeGenerator.getCurrPrime()];
 						count = 0;
+						tombstones = 0;
 						// Re-insert ALL elements just like resizing except same capacity
 						int j = 0;
 						while (j < table.length) {					
@@ -170,6 +326,9 @@ public class QuadraticProbingHashTable extends OpenAddressingHashTable {
 				index++;				
 				x = (hash(key) + (index - 1) + (int)Math.pow((index-1), 2)) % table.length;
 			}
+			// Soft deletion leaves count alone, so only hard deletions and purges can bring the load down.
+			if (oldVal != null && shouldShrink())
+				probeCount += shrink();
 			return new Probes(oldVal, probeCount);
 		}
 		return null;
@@ -0,0 +1,365 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+import phonebook.utils.PrimeGenerator;
+import phonebook.utils.Probes;
+
+import java.util.Collection;
+
+/**
+ * <p>{@link RobinHoodHashTable} is an Openly Addressed {@link HashTable} implemented with <b>Robin Hood Hashing</b>
+ * as its collision resolution strategy: collisions are resolved by moving one address over, just like in
+ * {@link LinearProbingHashTable}, but every key keeps track of its <em>displacement</em>, i.e how many cells away from
+ * its hashed address it lives. During an insertion, a key which is further away from home than the resident of a cell
+ * &quot; steals &quot; that cell, and the resident continues the probe in its place.</p>
+ *
+ * <p>This keeps every collision chain ordered by displacement, which has two nice consequences: the variance of the
+ * probe lengths drops, and a search destined to fail can stop as soon as it meets a key that is closer to its
+ * home than the searched key would be, instead of scanning until it hits a {@code null} cell.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see HashTable
+ * @see LinearProbingHashTable
+ * @see OrderedLinearProbingHashTable
+ * @see QuadraticProbingHashTable
+ * @see CollisionResolver
+ */
+public class RobinHoodHashTable extends OpenAddressingHashTable {
+
+	/* ********************************************************************/
+	/* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+	/* ********************************************************************/
+
+	// How many cells away from its hashed address the key stored at index lives.
+	private int displacement(int index) {
+		return (index - hash(table[index].getKey()) + table.length) % table.length;
+	}
+
+	// Tombstones are skipped over by both searches and insertions, so they never take part in the displacement ordering.
+	// Re-using them for new keys would let a close-to-home key sit in front of a key which skipped that cell while
+	// it was still occupied by a far-from-home one, breaking early termination for the latter.
+	private boolean isLive(int index) {
+		return table[index] != null && table[index] != TOMBSTONE;
+	}
+
+	// Places a pair whose key is known not to be in the table, robbing the rich on the way. Returns the cells visited.
+	private int place(KVPair toPlace) {
+		int i = hash(toPlace.getKey());
+		int dist = 0;
+		int probeCount = 1;
+		while (table[i] != null) {
+			int residentDist = isLive(i) ? displacement(i) : Integer.MAX_VALUE;
+			// Rob the rich: the resident is closer to home than we are, so it has to move on instead.
+			if (residentDist < dist) {
+				KVPair resident = table[i];
+				table[i] = toPlace;
+				toPlace = resident;
+				dist = residentDist;
+			}
+			probeCount++;
+			i = (i + 1) % table.length;
+			dist++;
+		}
+		table[i] = toPlace;
+		count++;
+		return probeCount;
+	}
+
+	// Moves every live pair into a table of the given capacity, leaving tombstones behind. Returns the cells visited.
+	private int rehash(int capacity) {
+		KVPair[] prev = table;
+		count = 0;
+		tombstones = 0;
+		table = new KVPair[capacity];
+		int probeCount = 0;
+		for (int x = 0; x < prev.length; x++) {
+			probeCount++;
+			if (prev[x] != null && prev[x] != TOMBSTONE)
+				probeCount += place(prev[x]);
+		}
+		return probeCount;
+	}
+
+	/*
+	 * Empties every tombstone and slides the pairs of every cluster back towards their hashed addresses, in place. The live
+	 * pairs of a cluster are sorted by hashed address, so giving each one the first cell that is past the previous pair and
+	 * not before its own address keeps them sorted, and the table stays a valid Robin Hood table. We start right after an
+	 * empty cell, which no cluster can wrap around. Returns the number of cells visited.
+	 */
+	private int purgeTombstones() {
+		int start = 0;
+		while (table[start] != null) // Soft-deleting tables grow before their tombstones fill half of the cells.
+			start++;
+		int probeCount = 0;
+		int next = 0; // Where the next pair may go, in cells after start.
+		for (int offset = 1; offset < table.length; offset++) {
+			probeCount++;
+			int i = (start + offset) % table.length;
+			if (table[i] == TOMBSTONE)
+				table[i] = null;
+			if (table[i] == null)
+				continue;
+			int target = Math.max(next, (hash(table[i].getKey()) - start + table.length) % table.length);
+			if (target != offset) {
+				table[(start + target) % table.length] = table[i];
+				table[i] = null;
+			}
+			next = target + 1;
+		}
+		tombstones = 0;
+		return probeCount;
+	}
+
+	// Returns the index of key, or -1 if key is not in the table. probes[0] receives the number of cells visited.
+	private int find(String key, int[] probes) {
+		int i = hash(key);
+		int dist = 0;
+		probes[0] = 0;
+		while (dist < table.length) {
+			probes[0]++;
+			if (table[i] == null)
+				return -1;
+			if (table[i] != TOMBSTONE) {
+				// Early termination: key would have displaced this resident if it were in the table.
+				if (displacement(i) < dist)
+					return -1;
+				if (table[i].getKey().equals(key))
+					return i;
+			}
+			i = (i + 1) % table.length;
+			dist++;
+		}
+		return -1;
+	}
+
+	/* ******************************************/
+	/*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+	/* **************************************** */
+
+	/**
+	 * Constructor with soft deletion option. Initializes the internal storage with a size equal to the starting value of  {@link PrimeGenerator}.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 */
+	public RobinHoodHashTable(boolean soft) {
+		this(soft, CapacityPolicy.PRIME);
+	}
+
+	/**
+	 * Constructor with soft deletion option and a choice of {@link CapacityPolicy}. Initializes the internal storage with a size equal
+	 * to the initial capacity of the policy.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+	 */
+	public RobinHoodHashTable(boolean soft, CapacityPolicy policy) {
+		this(soft, policy, 0);
+	}
+
+	/**
+	 * Constructor with soft deletion option, a choice of {@link CapacityPolicy} and the number of records the table is expected
+	 * to hold. Initializes the internal storage once, with a capacity large enough for expectedSize records, so that
+	 * inserting them never resizes the table.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+	 * @param expectedSize The number of records the table is expected to hold.
+	 * @throws IllegalArgumentException if expectedSize is negative.
+	 */
+	public RobinHoodHashTable(boolean soft, CapacityPolicy policy, int expectedSize) {
+		primeGenerator = new PrimeGenerator();
+		capacityPolicy = policy;
+		table = new KVPair[initialCapacity(expectedSize)];
+		count = 0;
+		tombstones = 0;
+		softFlag = soft;
+	}
+
+	/**
+	 * Inserts the pair &lt;key, value&gt; into this. The container should <b>not</b> allow for {@code null}
+	 * keys and values. If key is already in the table, its value is updated in place. This method is expected
+	 * to run in <em>amortized constant time</em>.
+	 * <p>
+	 * Instances of {@link RobinHoodHashTable} resize when the number of occupied cells, tombstones included,
+	 * exceeds the {@link LoadFactorPolicy#growAt()} of their {@link LoadFactorPolicy}, 50&#37; of the capacity by default.
+	 *
+	 * @param key   The record's key.
+	 * @param value The record's value.
+	 * @return The {@link phonebook.utils.Probes} with the value added and the number of probes it makes.
+	 * @throws IllegalArgumentException if either argument is {@code null}.
+	 */
+	@Override
+	public Probes put(String key, String value) {
+		if (key == null || value == null)
+			throw new IllegalArgumentException("key or value input cannot be null!");
+		int[] searchProbes = new int[1];
+		int existing = find(key, searchProbes);
+		if (existing != -1) {
+			table[existing].setValue(value);
+			return new Probes(value, searchProbes[0]);
+		}
+		int probeCount = 0;
+		/* * * CHECK FOR RESIZING * * */
+		if (loadFactorPolicy.shouldGrow(count + tombstones, table.length))
+			probeCount += rehash(nextCapacity());
+		probeCount += place(new KVPair(key, value));
+		return new Probes(value, probeCount);
+	}
+
+	/**
+	 * Inserts every pair of pairs into this. When pairs is a {@link Collection}, the table is resized at most once, to a
+	 * capacity that fits all of them, and they are then placed without allocating any {@link Probes} or checking for
+	 * resizing on every insertion. Any other {@link Iterable} goes through {@link #put(String, String)}.
+	 *
+	 * @param pairs The pairs to insert.
+	 * @throws IllegalArgumentException if any key or value is {@code null}.
+	 */
+	@Override
+	public void putAll(Iterable<KVPair> pairs) {
+		if (!(pairs instanceof Collection)) {
+			super.putAll(pairs);
+			return;
+		}
+		int incoming = ((Collection<?>) pairs).size();
+		if (loadFactorPolicy.shouldGrow(count + tombstones + incoming, table.length))
+			rehash(capacityPolicy.capacityFor(primeGenerator,
+					Math.max((int) ((count + incoming) / loadFactorPolicy.growAt()) + 1, table.length)));
+		int[] probes = new int[1];
+		for (KVPair pair : pairs) {
+			if (pair.getKey() == null || pair.getValue() == null)
+				throw new IllegalArgumentException("key or value input cannot be null!");
+			int existing = find(pair.getKey(), probes);
+			if (existing != -1)
+				table[existing].setValue(pair.getValue());
+			else
+				place(new KVPair(pair.getKey(), pair.getValue()));
+		}
+	}
+
+	@Override
+	public Probes get(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		int[] probes = new int[1];
+		int index = find(key, probes);
+		return new Probes(index == -1 ? null : table[index].getValue(), probes[0]);
+	}
+
+	/**
+	 * Searches for every key of keys at once. All of the keys are hashed first, and their probe sequences are then advanced
+	 * together, one cell per round, so that the cache misses of the different searches overlap instead of being paid for one
+	 * after the other. Every search still stops as early as {@link #get(String)} would.
+	 *
+	 * @param keys The keys to search for.
+	 * @return The values of keys, in the same order, with {@code null} for the keys that are {@code null} or missing.
+	 * @throws IllegalArgumentException if keys is {@code null}.
+	 */
+	@Override
+	public String[] getAll(String[] keys) {
+		if (keys == null)
+			throw new IllegalArgumentException("keys cannot be null!");
+		String[] found = new String[keys.length];
+		int[] cells = new int[keys.length], pending = new int[keys.length];
+		int live = 0;
+		for (int k = 0; k < keys.length; k++) {
+			if (keys[k] != null) {
+				cells[k] = hash(keys[k]);
+				pending[live++] = k;
+			}
+		}
+		// In round dist, every key that is still being searched for is dist cells away from its hashed address.
+		for (int dist = 0; live > 0 && dist < table.length; dist++) {
+			int stillLive = 0;
+			for (int p = 0; p < live; p++) {
+				int k = pending[p], i = cells[k];
+				if (table[i] == null)
+					continue;
+				if (table[i] != TOMBSTONE) {
+					if (displacement(i) < dist)
+						continue; // Early termination, as in find().
+					if (table[i].getKey().equals(keys[k])) {
+						found[k] = table[i].getValue();
+						continue;
+					}
+				}
+				cells[k] = (i + 1) % table.length;
+				pending[stillLive++] = k;
+			}
+			live = stillLive;
+		}
+		return found;
+	}
+
+	/**
+	 * <b>Return</b> and <b>remove</b> the value associated with key in the {@link HashTable}. If key does not exist in the database
+	 * or if key = {@code null}, this method returns {@code null}. This method is expected to run in <em>amortized constant time</em>.
+	 * <p>
+	 * Hard deletion uses <em>backward shifting</em>: every key following the deleted one in its chain is moved one cell
+	 * back until we meet an empty cell or a key that already sits at its hashed address. No re-insertions are needed.
+	 * Soft deletion leaves tombstones behind, and they are purged in place, the same way, once they take up more than
+	 * {@link #getPurgeThreshold()} of the cells. Either way, the table shrinks to its previous capacity once its load falls
+	 * under the {@link LoadFactorPolicy#shrinkAt()} of its {@link LoadFactorPolicy}.
+	 *
+	 * @param key The key to search for.
+	 * @return The {@link phonebook.utils.Probes} with associated value and the number of probe used. If the key is {@code null}, return value {@code null}
+	 * and 0 as number of probes; if the key dones't exists in the database, return {@code null} and the number of probes used.
+	 */
+	@Override
+	public Probes remove(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		int[] probes = new int[1];
+		int index = find(key, probes);
+		if (index == -1)
+			return new Probes(null, probes[0]);
+		String oldVal = table[index].getValue();
+		int probeCount = probes[0];
+		if (softFlag) {
+			table[index] = TOMBSTONE;
+			tombstones++;
+			if (shouldPurge())
+				probeCount += purgeTombstones();
+		} else {
+			int next = (index + 1) % table.length;
+			while (isLive(next) && displacement(next) > 0) {
+				probeCount++;
+				table[index] = table[next];
+				index = next;
+				next = (next + 1) % table.length;
+			}
+			table[index] = null;
+		}
+		count--;
+		if (shouldShrink())
+			probeCount += rehash(previousCapacity());
+		return new Probes(oldVal, probeCount);
+	}
+
+	@Override
+	public boolean containsKey(String key) {
+		return get(key).getValue() != null;
+	}
+
+	@Override
+	public boolean containsValue(String value) {
+		for (int i = 0; i < table.length; i++) {
+			if (isLive(i) && table[i].getValue().equals(value))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	@Override
+	public int capacity() {
+		return table.length;
+	}
+}
@@ -0,0 +1,45 @@
+package phonebook.hashes;
+
+/**
+ * <p>{@link SeededHash} holds the 64-bit string hash that the {@link HashTable}s which cannot rely on
+ * {@link String#hashCode()} share. Keys with equal hash codes still hash apart under it, and a table that keeps running
+ * into collisions can start over under another seed.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see CuckooHashTable
+ * @see FrozenHashTable
+ */
+final class SeededHash {
+
+	private static final long FNV_PRIME = 0x100000001B3L;
+
+	private SeededHash() {
+	}
+
+	/**
+	 * Scrambles the bits of h with Murmur3's 64-bit finalizer, so that every bit of the result depends on every bit of h.
+	 * @param h The value to scramble.
+	 * @return The scrambled value.
+	 */
+	static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		return h ^ (h >>> 33);
+	}
+
+	/**
+	 * Hashes the characters of key with a seeded FNV-1a, finished by {@link #mix(long)}.
+	 * @param key The key to hash.
+	 * @param seed The seed to start from. Different seeds give unrelated hashes.
+	 * @return The 64-bit hash of key under seed.
+	 */
+	static long hash(String key, long seed) {
+		long h = seed;
+		for (int i = 0; i < key.length(); i++)
+			h = (h ^ key.charAt(i)) * FNV_PRIME;
+		return mix(h ^ key.length());
+	}
+}
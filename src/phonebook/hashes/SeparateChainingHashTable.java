@@ -6,6 +6,11 @@ import phonebook.utils.KVPairList;
 import phonebook.utils.PrimeGenerator;
 import phonebook.utils.Probes;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 /**<p>{@link SeparateChainingHashTable} is a {@link HashTable} that implements <b>Separate Chaining</b>
  * as its collision resolution strategy, i.e the collision chains are implemented as actual
  * Linked Lists. These Linked Lists are <b>not assumed ordered</b>. It is the easiest and most &quot; natural &quot; way to
@@ -28,14 +33,61 @@ public class SeparateChainingHashTable implements HashTable{
     /* ****************************************************************** */
 
     private KVPairList[] table;
-    private KVPair[][] table2d;
     private int count;
     private PrimeGenerator primeGenerator;
+    private CapacityPolicy capacityPolicy;
 
     // We mask the top bit of the default hashCode() to filter away negative values.
     // Have to copy over the implementation from OpenAddressingHashTable; no biggie.
+    // Power of two capacities use Fibonacci hashing instead, see CapacityPolicy.
     private int hash(String key){
-        return (key.hashCode() & 0x7fffffff) % table.length;
+        return capacityPolicy.index(key.hashCode(), table.length);
+    }
+
+    /* ********************************************************************/
+    /* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+    /* ********************************************************************/
+
+    // The chain of key. Used by ParallelTableBuilder.
+    int chainOf(String key) {
+    	return hash(key);
+    }
+
+    // Appends the pair to the given chain, exactly like put() but without counting it, so that threads which fill
+    // different chains never write to the same memory. Used by ParallelTableBuilder.
+    void addToChain(int bucketDex, String key, String value) {
+    	// Array is empty or bucketDex is unoccupied
+    	if (table[bucketDex] == null) {
+    		table[bucketDex] = new KVPairList(key, value);
+    	// bucketDex is occupied
+    	} else {
+    		// Basic chaining
+    		table[bucketDex].addBack(key, value);
+    	}
+    }
+
+    // Accounts for pairs added through addToChain(). Used by ParallelTableBuilder.
+    void addToCount(int records) {
+    	count += records;
+    }
+
+    /**
+     * The {@link LoadFactorPolicy} of freshly constructed tables: they grow once their chains hold more than one record
+     * on average, and shrink once they hold fewer than a quarter of a record.
+     */
+    public static final LoadFactorPolicy DEFAULT_LOAD_FACTOR_POLICY = LoadFactorPolicy.growingAt(1);
+
+    // When this table grows and shrinks. Chains can hold more records than the table has cells.
+    private LoadFactorPolicy loadFactorPolicy = DEFAULT_LOAD_FACTOR_POLICY;
+
+    // Moves the chains into a table of the given capacity, relinking their nodes instead of putting every pair again.
+    private void rehash(int capacity) {
+    	KVPairList[] prev = table;
+    	table = new KVPairList[capacity];
+    	for (KVPairList chain : prev) {
+    		if (chain != null)
+    			chain.moveTo(table, this::hash);
+    	}
     }
 
     /* **************************************** */
@@ -45,35 +97,83 @@ public class SeparateChainingHashTable implements HashTable{
      *  Default constructor. Initializes the internal storage with a size equal to the default of {@link PrimeGenerator}.
      */
     public SeparateChainingHashTable(){
+    	this(CapacityPolicy.PRIME);
+    }
+
+    /**
+     * Constructor with a choice of {@link CapacityPolicy}. Initializes the internal storage with a size equal to the initial
+     * capacity of the policy.
+     * @param policy The {@link CapacityPolicy} that governs the number of chains and how keys are hashed into them.
+     */
+    public SeparateChainingHashTable(CapacityPolicy policy){
+    	this(policy, 0);
+    }
+
+    /**
+     * Constructor with a choice of {@link CapacityPolicy} and the number of records the table is expected to hold.
+     * Initializes the internal storage once, with at least as many chains as expected records.
+     * @param policy The {@link CapacityPolicy} that governs the number of chains and how keys are hashed into them.
+     * @param expectedSize The number of records the table is expected to hold.
+     * @throws IllegalArgumentException if expectedSize is negative.
+     */
+    public SeparateChainingHashTable(CapacityPolicy policy, int expectedSize){
+    	if (expectedSize < 0)
+    		throw new IllegalArgumentException("Expected size cannot be negative, but was " + expectedSize + ".");
     	count = 0;
+    	capacityPolicy = policy;
     	primeGenerator = new PrimeGenerator();
-    	table = new KVPairList[primeGenerator.getCurrPrime()];
-    	table2d = new KVPair[primeGenerator.getCurrPrime()][new PrimeGenerator().getNextPrime()];
+    	table = new KVPairList[capacityPolicy.capacityFor(primeGenerator, expectedSize)];
     }
 
+    /**
+     * Inserts the pair &lt;key, value&gt; into this. The container should <b>not</b> allow for {@code null}
+     * keys and values. The table {@link #enlarge() enlarges} itself once the average length of its chains exceeds the
+     * {@link LoadFactorPolicy#growAt()} of its {@link LoadFactorPolicy}, so that searches keep scanning short chains.
+     *
+     * @param key   The record's key.
+     * @param value The record's value.
+     * @return The {@link phonebook.utils.Probes} with the value added and the number of probes it makes.
+     * @throws IllegalArgumentException if either argument is {@code null}.
+     * @see #setLoadFactorPolicy(LoadFactorPolicy)
+     */
     @Override
     public Probes put(String key, String value) {
     	if (key == null || value == null)
     		throw new IllegalArgumentException("key or value input cannot be null!"); 
-    	/* Create a hash table of hash tables where second level of hash is greater
-		 * in length and still prime because prime numbers enable a higher chance of an even 
-		 * distribution of elements and a larger array size would avoid an entry 
-		 * having multiple elements
-		 * */  
-    	int bucketDex = hash(key);
-    	// Array is empty or bucketDex is unoccupied 	
-    	if (table[bucketDex] == null) {   		
-    		table[bucketDex] = new KVPairList(key, value);
-    	// bucketDex is occupied
-    	} else {
-    		// Basic chaining
-    		table[bucketDex].addBack(key, value);
-    	}
-    	table2d[bucketDex][(key.hashCode() & 0x7fffffff) % table2d[bucketDex].length] = new KVPair(key, value);
+    	addToChain(hash(key), key, value);
     	count++;
+    	/* * * CHECK FOR RESIZING * * */
+    	if (loadFactorPolicy.shouldGrow(count, table.length))
+    		enlarge();
     	return new Probes(value,1);
     }
 
+    /**
+     * Inserts every pair of pairs into this, as if by calling {@link #put(String, String)} on each of them in order. When
+     * pairs is a {@link Collection}, the table grows at most once, to as many chains as all of them need, and they are
+     * then appended to their chains without allocating any {@link Probes} or checking for resizing on every insertion.
+     * Any other {@link Iterable} goes through {@link #put(String, String)}.
+     *
+     * @param pairs The pairs to insert.
+     * @throws IllegalArgumentException if any key or value is {@code null}.
+     */
+    @Override
+    public void putAll(Iterable<KVPair> pairs) {
+    	if (!(pairs instanceof Collection)) {
+    		HashTable.super.putAll(pairs);
+    		return;
+    	}
+    	int records = count + ((Collection<?>) pairs).size();
+    	if (loadFactorPolicy.shouldGrow(records, table.length))
+    		rehash(capacityPolicy.capacityFor(primeGenerator, Math.max((int) (records / loadFactorPolicy.growAt()) + 1, table.length)));
+    	for (KVPair pair : pairs) {
+    		if (pair.getKey() == null || pair.getValue() == null)
+    			throw new IllegalArgumentException("key or value input cannot be null!");
+    		addToChain(hash(pair.getKey()), pair.getKey(), pair.getValue());
+    		count++;
+    	}
+    }
+
     @Override
     public Probes get(String key) {  
     	if (key != null) {
@@ -84,27 +184,71 @@ public class SeparateChainingHashTable implements HashTable{
     	return new Probes(null,0);
     }
 
+    /**
+     * Searches for every key of keys at once. All of the keys are hashed first, and their chains are then walked together,
+     * one node per round, so that the cache misses of the different searches overlap instead of being paid for one after
+     * the other.
+     *
+     * @param keys The keys to search for.
+     * @return The values of keys, in the same order, with {@code null} for the keys that are {@code null} or missing.
+     * @throws IllegalArgumentException if keys is {@code null}.
+     */
+    @Override
+    public String[] getAll(String[] keys) {
+    	if (keys == null)
+    		throw new IllegalArgumentException("keys cannot be null!");
+    	KVPairList[] chains = new KVPairList[keys.length];
+    	for (int k = 0; k < keys.length; k++) {
+    		if (keys[k] != null)
+    			chains[k] = table[hash(keys[k])];
+    	}
+    	String[] values = new String[keys.length];
+    	KVPairList.getValues(chains, keys, values);
+    	return values;
+    }
+
     @Override
     public Probes remove(String key) {
     	// This version passed remove release test
     	if (key != null) {
     		int x = hash(key);
-        	int y = (key.hashCode() & 0x7fffffff) % table2d[x].length;
-	    	// Case 1: If element exists
-	    	if (table2d[x][y] != null && table2d[x][y].getKey() == key) {
-	    		table2d[x][y] = null;
-	    	} 
-	    	count--;
-    		return table[x].removeByKey(key);
+	    	if (table[x] != null) {
+	    		Probes removed = table[x].removeByKey(key);
+	    		if (removed.getValue() != null) {
+	    			count--;
+	    			if (loadFactorPolicy.shouldShrink(count, table.length) && table.length > capacityPolicy.minimumCapacity())
+	    				shrink();
+	    		}
+	    		return removed;
+	    	}
     	}
     	return new Probes(null,0);
     }
 
+    /**
+     * Changes when this table grows and shrinks. Its {@link LoadFactorPolicy#growAt()} is the average length of the chains
+     * past which the table grows, so it may exceed 1. The new policy is applied by the next insertion or deletion.
+     * @param policy The new {@link LoadFactorPolicy}.
+     * @throws IllegalArgumentException if policy is {@code null}.
+     */
+    public void setLoadFactorPolicy(LoadFactorPolicy policy) {
+    	if (policy == null)
+    		throw new IllegalArgumentException("Separate Chaining tables cannot use a null LoadFactorPolicy.");
+    	loadFactorPolicy = policy;
+    }
+
+    /**
+     * Returns when this table grows and shrinks.
+     * @return The {@link LoadFactorPolicy} of this table.
+     */
+    public LoadFactorPolicy getLoadFactorPolicy() {
+    	return loadFactorPolicy;
+    }
+
     @Override
     public boolean containsKey(String key) {
     	int x = hash(key);
-    	int y = (key.hashCode() & 0x7fffffff) % table2d[x].length;
-    	return !(table2d[x][y] == null);
+    	return table[x] != null && table[x].containsKey(key);
     }
 
     @Override
@@ -129,45 +273,51 @@ public class SeparateChainingHashTable implements HashTable{
     /**
      * Enlarges this hash table. At the very minimum, this method should increase the <b>capacity</b> of the hash table and ensure
      * that the new size is prime. The class {@link PrimeGenerator} implements the enlargement heuristic that
-     * we have talked about in class and can be used as a black box if you wish.
+     * we have talked about in class and can be used as a black box if you wish. {@link #put(String, String)} calls it
+     * once the average length of the chains exceeds the {@link LoadFactorPolicy#growAt()} of the table's policy. The nodes
+     * of the chains are relinked into the new table, so no pair is allocated or put again.
      * @see PrimeGenerator#getNextPrime()
      */
     public void enlarge() {
-    	count = 0; 
-    	KVPairList[] prev = table;
-    	table = new KVPairList[primeGenerator.getNextPrime()];        
-    	table2d  = new KVPair[table.length][primeGenerator.getNextPrime()];
-    	primeGenerator.getPreviousPrime();
-    	// Re-insertion requires adding new probes
-    	for (int i = 0; i < prev.length; i++) {
-    		if (prev[i] != null) {
-    			for (KVPair kv : prev[i]) {
-    				put(kv.getKey(), kv.getValue());
-    			}  	
-    		}
-
-    	}    
-     }
+    	rehash(capacityPolicy.nextCapacity(primeGenerator, table.length));
+    }
 
     /**
      * Shrinks this hash table. At the very minimum, this method should decrease the size of the hash table and ensure
      * that the new size is prime. The class {@link PrimeGenerator} implements the shrinking heuristic that
-     * we have talked about in class and can be used as a black box if you wish.
+     * we have talked about in class and can be used as a black box if you wish. {@link #remove(String)} calls it once the
+     * average length of the chains falls under the {@link LoadFactorPolicy#shrinkAt()} of the table's policy.
      *
      * @see PrimeGenerator#getPreviousPrime()
      */
     public void shrink(){
-    	count = 0;
-        KVPairList[] prev = table;;        
-        table = new KVPairList[primeGenerator.getPreviousPrime()];        
-        table2d  = new KVPair[table.length][prev.length];
-        for (int i = 0; i < prev.length; i++) {
-        	if (prev[i] != null) {
-        		for (KVPair kv : prev[i]) {
-            		put(kv.getKey(), kv.getValue());
-            	}  	
-        	}
-        	
-        }
+    	rehash(capacityPolicy.previousCapacity(primeGenerator, table.length));
+    }
+
+    @Override
+    public Iterator<KVPair> iterator() {
+        final KVPairList[] chains = table;
+        return new Iterator<KVPair>() {
+
+            private int next = 0;
+            private Iterator<KVPair> chain = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!chain.hasNext() && next < chains.length) {
+                    if (chains[next] != null)
+                        chain = chains[next].iterator();
+                    next++;
+                }
+                return chain.hasNext();
+            }
+
+            @Override
+            public KVPair next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return chain.next();
+            }
+        };
     }
 }
@@ -0,0 +1,422 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+import phonebook.utils.PrimeGenerator;
+import phonebook.utils.Probes;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * <p>{@link StructOfArraysHashTable} is an Openly Addressed {@link HashTable} implemented with <b>Linear Probing</b>,
+ * which stores its pairs as a <em>struct of arrays</em>: three parallel arrays of keys, values and the keys' hash codes,
+ * instead of one array of {@link phonebook.utils.KVPair} references. A probe first compares the cached 32-bit hash code
+ * of the cell, which sits right next to the hash codes of the neighboring cells in memory, and only follows the pointer
+ * to the key itself when the hash codes are equal. Most of the cells that a probe walks over are therefore rejected
+ * without touching anything but the {@code int} array.</p>
+ *
+ * <p>The cached hash codes also make resizing cheaper: the cells of the new arrays are computed from them, without
+ * calling {@link String#hashCode()} again, and no pair objects need to be allocated, as the keys and values themselves
+ * are simply copied over. Hard deletion uses <em>backward shifting</em>, which needs the hashed address of every key
+ * in the rest of the cluster, and so it benefits from the cached hash codes as well.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see HashTable
+ * @see LinearProbingHashTable
+ * @see CapacityPolicy
+ * @see CollisionResolver
+ */
+public class StructOfArraysHashTable implements HashTable {
+
+	/* ********************************************************************/
+	/* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+	/* ********************************************************************/
+
+	// Marks a softly deleted cell. Compared by reference, so no actual key can ever be mistaken for it.
+	private static final String TOMBSTONE = new String("TOMBSTONE");
+
+	private String[] keys;   // null for an empty cell, TOMBSTONE for a deleted one.
+	private String[] values;
+	private int[] hashes;    // key.hashCode() of every occupied cell.
+	private int count;
+	private int tombstones;
+	private double purgeThreshold = OpenAddressingHashTable.DEFAULT_PURGE_THRESHOLD;
+	private LoadFactorPolicy loadFactorPolicy = LoadFactorPolicy.DEFAULT;
+	private final boolean softFlag;
+	private final CapacityPolicy capacityPolicy;
+	private final PrimeGenerator primeGenerator;
+
+	private boolean isOccupied(int i) {
+		return keys[i] != null && keys[i] != TOMBSTONE;
+	}
+
+	// Returns the cell of key, or -1. probes[0] receives the number of cells visited.
+	private int find(String key, int hash, int[] probes) {
+		int i = capacityPolicy.index(hash, keys.length);
+		probes[0] = 1;
+		for (int visited = 1; keys[i] != null && visited <= keys.length; visited++) {
+			// The hash codes are compared first, so that most of the keys we walk over are never dereferenced.
+			if (hashes[i] == hash && keys[i] != TOMBSTONE && keys[i].equals(key))
+				return i;
+			i = (i + 1) % keys.length;
+			probes[0]++;
+		}
+		return -1;
+	}
+
+	// Places a key that is known not to be in the table into the first empty cell of its cluster. Returns the cells visited.
+	private int insert(String key, String value, int hash) {
+		int i = capacityPolicy.index(hash, keys.length);
+		int probeCount = 1;
+		while (keys[i] != null) {
+			i = (i + 1) % keys.length;
+			probeCount++;
+		}
+		keys[i] = key;
+		values[i] = value;
+		hashes[i] = hash;
+		return probeCount;
+	}
+
+	// Moves every live pair into arrays of the given capacity, reusing the cached hash codes. Tombstones are left behind.
+	private int resize(int capacity) {
+		String[] oldKeys = keys, oldValues = values;
+		int[] oldHashes = hashes;
+		keys = new String[capacity];
+		values = new String[capacity];
+		hashes = new int[capacity];
+		tombstones = 0;
+		int probeCount = 0;
+		for (int x = 0; x < oldKeys.length; x++) {
+			probeCount++;
+			if (oldKeys[x] != null && oldKeys[x] != TOMBSTONE)
+				probeCount += insert(oldKeys[x], oldValues[x], oldHashes[x]);
+		}
+		return probeCount;
+	}
+
+	/*
+	 * Empties every tombstone, then takes each pair out and inserts it again, without allocating new arrays. We start right
+	 * after an empty cell, which no cluster can wrap around, and pairs only ever move backwards within their clusters, so no
+	 * hole can open up between the hashed address and the cell of a pair that was already visited. Returns the cells visited.
+	 */
+	private int purgeTombstones() {
+		int start = 0;
+		while (keys[start] != null) // We grow before tombstones and pairs fill every cell.
+			start++;
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] == TOMBSTONE)
+				keys[i] = null;
+		}
+		int probeCount = 0;
+		for (int offset = 1; offset < keys.length; offset++) {
+			probeCount++;
+			int i = (start + offset) % keys.length;
+			if (keys[i] != null) {
+				String key = keys[i], value = values[i];
+				keys[i] = null;
+				values[i] = null;
+				probeCount += insert(key, value, hashes[i]);
+			}
+		}
+		tombstones = 0;
+		return probeCount;
+	}
+
+	// Knuth's Algorithm R: after emptying cell i, pull back every key of the cluster whose hashed address is not in (i, j].
+	private int shiftBack(int i) {
+		int probeCount = 0;
+		keys[i] = null;
+		values[i] = null;
+		int j = i;
+		while (true) {
+			j = (j + 1) % keys.length;
+			probeCount++;
+			if (keys[j] == null)
+				return probeCount;
+			int k = capacityPolicy.index(hashes[j], keys.length);
+			boolean staysPut = (i <= j) ? (i < k && k <= j) : (i < k || k <= j);
+			if (!staysPut) {
+				keys[i] = keys[j];
+				values[i] = values[j];
+				hashes[i] = hashes[j];
+				keys[j] = null;
+				values[j] = null;
+				i = j;
+			}
+		}
+	}
+
+	/* ******************************************/
+	/*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+	/* **************************************** */
+
+	/**
+	 * Constructor with soft deletion option. Initializes the internal storage with a size equal to the starting value of  {@link PrimeGenerator}.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 */
+	public StructOfArraysHashTable(boolean soft) {
+		this(soft, CapacityPolicy.PRIME);
+	}
+
+	/**
+	 * Constructor with soft deletion option and a choice of {@link CapacityPolicy}. Initializes the internal storage with a size equal
+	 * to the initial capacity of the policy.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+	 */
+	public StructOfArraysHashTable(boolean soft, CapacityPolicy policy) {
+		this(soft, policy, 0);
+	}
+
+	/**
+	 * Constructor with soft deletion option, a choice of {@link CapacityPolicy} and the number of records the table is expected
+	 * to hold. Initializes the internal storage once, with a capacity large enough for expectedSize records, so that
+	 * inserting them never resizes the table.
+	 *
+	 * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+	 *             we want soft deletion, {@code false} otherwise.
+	 * @param policy The {@link CapacityPolicy} that governs the capacity of the table and how keys are hashed into it.
+	 * @param expectedSize The number of records the table is expected to hold.
+	 * @throws IllegalArgumentException if expectedSize is negative.
+	 */
+	public StructOfArraysHashTable(boolean soft, CapacityPolicy policy, int expectedSize) {
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("Expected size cannot be negative, but was " + expectedSize + ".");
+		primeGenerator = new PrimeGenerator();
+		capacityPolicy = policy;
+		int capacity = policy.capacityFor(primeGenerator, 2 * expectedSize + 1);
+		keys = new String[capacity];
+		values = new String[capacity];
+		hashes = new int[capacity];
+		count = 0;
+		softFlag = soft;
+	}
+
+	/**
+	 * Inserts the pair &lt;key, value&gt; into this. The container should <b>not</b> allow for {@code null}
+	 * keys and values. If key is already in the table, its value is updated. This method is expected to run in
+	 * <em>amortized constant time</em>.
+	 * <p>
+	 * Instances of {@link StructOfArraysHashTable} grow once the share of their cells which are occupied or
+	 * tombstoned passes the {@link LoadFactorPolicy#growAt()} of their {@link LoadFactorPolicy}, and the resize never calls
+	 * {@link String#hashCode()}.
+	 *
+	 * @param key   The record's key.
+	 * @param value The record's value.
+	 * @return The {@link phonebook.utils.Probes} with the value added and the number of probes it makes.
+	 * @throws IllegalArgumentException if either argument is {@code null}.
+	 */
+	@Override
+	public Probes put(String key, String value) {
+		if (key == null || value == null)
+			throw new IllegalArgumentException("key or value input cannot be null!");
+		int hash = key.hashCode();
+		int[] probes = new int[1];
+		int index = find(key, hash, probes);
+		if (index != -1) {
+			values[index] = value;
+			return new Probes(value, probes[0]);
+		}
+		int probeCount = 0;
+		/* * * CHECK FOR RESIZING * * */
+		if (loadFactorPolicy.shouldGrow(count + tombstones, keys.length))
+			probeCount += resize(capacityPolicy.nextCapacity(primeGenerator, keys.length));
+		probeCount += insert(key, value, hash);
+		count++;
+		return new Probes(value, probeCount);
+	}
+
+	/**
+	 * Inserts every pair of pairs into this. When pairs is a {@link Collection}, the arrays are resized at most once, to a
+	 * capacity that fits all of them, and the pairs are then placed without allocating any {@link Probes} or checking for
+	 * resizing on every insertion. Any other {@link Iterable} goes through {@link #put(String, String)}.
+	 *
+	 * @param pairs The pairs to insert.
+	 * @throws IllegalArgumentException if any key or value is {@code null}.
+	 */
+	@Override
+	public void putAll(Iterable<KVPair> pairs) {
+		if (!(pairs instanceof Collection)) {
+			HashTable.super.putAll(pairs);
+			return;
+		}
+		int incoming = ((Collection<?>) pairs).size();
+		if (loadFactorPolicy.shouldGrow(count + tombstones + incoming, keys.length))
+			resize(capacityPolicy.capacityFor(primeGenerator,
+					Math.max((int) ((count + incoming) / loadFactorPolicy.growAt()) + 1, keys.length)));
+		int[] probes = new int[1];
+		for (KVPair pair : pairs) {
+			String key = pair.getKey(), value = pair.getValue();
+			if (key == null || value == null)
+				throw new IllegalArgumentException("key or value input cannot be null!");
+			int hash = key.hashCode();
+			int index = find(key, hash, probes);
+			if (index != -1) {
+				values[index] = value;
+			} else {
+				insert(key, value, hash);
+				count++;
+			}
+		}
+	}
+
+	/**
+	 * Sets the fraction of the cells which tombstones may take up before a soft deletion purges all of them, by rehashing
+	 * the arrays in place. {@link OpenAddressingHashTable#DEFAULT_PURGE_THRESHOLD} by default.
+	 *
+	 * @param fraction The new threshold, in (0, 1]. 1 means that tombstones are never purged.
+	 * @throws IllegalArgumentException if fraction is not in (0, 1].
+	 */
+	public void setPurgeThreshold(double fraction) {
+		if (!(fraction > 0 && fraction <= 1))
+			throw new IllegalArgumentException("Purge threshold must be in (0, 1], but was " + fraction + ".");
+		purgeThreshold = fraction;
+	}
+
+	/**
+	 * Returns the fraction of the cells which tombstones may take up before they are purged.
+	 *
+	 * @return The purge threshold.
+	 * @see #setPurgeThreshold(double)
+	 */
+	public double getPurgeThreshold() {
+		return purgeThreshold;
+	}
+
+	/**
+	 * Changes when the arrays grow and shrink. {@link LoadFactorPolicy#DEFAULT} by default.
+	 *
+	 * @param policy The new {@link LoadFactorPolicy}.
+	 * @throws IllegalArgumentException if policy is {@code null}, or its {@link LoadFactorPolicy#growAt()} is not less than 1.
+	 */
+	public void setLoadFactorPolicy(LoadFactorPolicy policy) {
+		if (policy == null || policy.growAt() >= 1)
+			throw new IllegalArgumentException("Openly addressed tables cannot use " + policy + ".");
+		loadFactorPolicy = policy;
+	}
+
+	/**
+	 * Returns when the arrays grow and shrink.
+	 *
+	 * @return The {@link LoadFactorPolicy} of this table.
+	 */
+	public LoadFactorPolicy getLoadFactorPolicy() {
+		return loadFactorPolicy;
+	}
+
+	@Override
+	public Probes get(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		int[] probes = new int[1];
+		int index = find(key, key.hashCode(), probes);
+		return new Probes(index == -1 ? null : values[index], probes[0]);
+	}
+
+	/**
+	 * Searches for every key of batch at once. All of the hash codes are computed first, and the probe sequences of the
+	 * keys are then advanced together, one cell per round, so that the cache misses of the different searches overlap
+	 * instead of being paid for one after the other.
+	 *
+	 * @param batch The keys to search for.
+	 * @return The values of the keys, in the same order, with {@code null} for the keys that are {@code null} or missing.
+	 * @throws IllegalArgumentException if batch is {@code null}.
+	 */
+	@Override
+	public String[] getAll(String[] batch) {
+		if (batch == null)
+			throw new IllegalArgumentException("keys cannot be null!");
+		String[] found = new String[batch.length];
+		int[] batchHashes = new int[batch.length], cells = new int[batch.length], pending = new int[batch.length];
+		int live = 0;
+		for (int k = 0; k < batch.length; k++) {
+			if (batch[k] != null) {
+				batchHashes[k] = batch[k].hashCode();
+				cells[k] = capacityPolicy.index(batchHashes[k], keys.length);
+				pending[live++] = k;
+			}
+		}
+		for (int round = 0; live > 0 && round < keys.length; round++) {
+			int stillLive = 0;
+			for (int p = 0; p < live; p++) {
+				int k = pending[p], i = cells[k];
+				String resident = keys[i];
+				if (resident == null)
+					continue; // The end of the cluster: batch[k] is not in the table.
+				if (hashes[i] == batchHashes[k] && resident != TOMBSTONE && resident.equals(batch[k])) {
+					found[k] = values[i];
+					continue;
+				}
+				cells[k] = (i + 1) % keys.length;
+				pending[stillLive++] = k;
+			}
+			live = stillLive;
+		}
+		return found;
+	}
+
+	@Override
+	public Probes remove(String key) {
+		if (key == null)
+			return new Probes(null, 0);
+		int[] probes = new int[1];
+		int index = find(key, key.hashCode(), probes);
+		if (index == -1)
+			return new Probes(null, probes[0]);
+		String oldVal = values[index];
+		if (softFlag) {
+			keys[index] = TOMBSTONE;
+			values[index] = null;
+			tombstones++;
+			if (tombstones > purgeThreshold * keys.length)
+				probes[0] += purgeTombstones();
+		} else {
+			probes[0] += shiftBack(index);
+		}
+		count--;
+		if (loadFactorPolicy.shouldShrink(count, keys.length) && keys.length > capacityPolicy.minimumCapacity())
+			probes[0] += resize(capacityPolicy.previousCapacity(primeGenerator, keys.length));
+		return new Probes(oldVal, probes[0]);
+	}
+
+	@Override
+	public boolean containsKey(String key) {
+		return get(key).getValue() != null;
+	}
+
+	@Override
+	public boolean containsValue(String value) {
+		for (int i = 0; i < keys.length; i++) {
+			if (isOccupied(i) && values[i].equals(value))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	@Override
+	public int capacity() {
+		return keys.length;
+	}
+
+	@Override
+	public Iterator<KVPair> iterator() {
+		final String[] k = keys, v = values;
+		return new CellIterator(k.length) {
+			@Override
+			KVPair cell(int cell) {
+				return k[cell] == null || k[cell] == TOMBSTONE ? null : new KVPair(k[cell], v[cell]);
+			}
+		};
+	}
+}
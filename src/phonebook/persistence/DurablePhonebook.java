@@ -0,0 +1,299 @@
+package phonebook.persistence;
+
+import phonebook.Phonebook;
+import phonebook.hashes.CollisionResolver;
+import phonebook.utils.KVPair;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>{@link DurablePhonebook} is a {@link Phonebook} which survives crashes. Its entries live in memory, in the hash tables
+ * of its {@link CollisionResolver}s, and every addition or deletion is also recorded in a {@link WriteAheadLog} before the
+ * method that made it returns. Concurrent updates share their {@code fsync}s through the group commit of the log, so the
+ * cost of durability falls as the number of writing threads grows.</p>
+ *
+ * <p>To keep the log, and the time it takes to replay it, short, the {@link DurablePhonebook} writes a <b>snapshot</b>
+ * of both hash tables every few updates and starts a new log. Snapshots and logs are numbered by <em>generation</em>:
+ * {@code snapshot-N} holds the entries as they were when {@code wal-N} was started. Opening a {@link DurablePhonebook}
+ * loads the newest snapshot, replays its log, and deletes everything older.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see WriteAheadLog
+ * @see Phonebook
+ */
+public class DurablePhonebook extends Phonebook {
+
+    /**
+     * The number of updates between snapshots used by {@link #open(Path, CollisionResolver, CollisionResolver)}.
+     */
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 10000;
+
+    private static final Pattern GENERATION_FILE = Pattern.compile("(snapshot|wal)-(\\d+)");
+
+    private final Path directory;
+    private final int snapshotInterval;
+    private WriteAheadLog log;
+    private long retiredSyncs; // Syncs of the logs of earlier generations.
+    private long generation;
+    private int updatesSinceSnapshot;
+
+    private DurablePhonebook(Path directory, CollisionResolver namesToNumbersHash, CollisionResolver numbersToNamesHash,
+                             int snapshotInterval) {
+        super(namesToNumbersHash, numbersToNamesHash);
+        this.directory = directory;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    private static Path snapshotFile(Path directory, long generation) {
+        return directory.resolve("snapshot-" + generation);
+    }
+
+    private static Path logFile(Path directory, long generation) {
+        return directory.resolve("wal-" + generation);
+    }
+
+    /**
+     * Opens the {@link DurablePhonebook} stored in directory, or creates an empty one if there is none, taking a snapshot
+     * every {@link #DEFAULT_SNAPSHOT_INTERVAL} updates.
+     *
+     * @param directory The directory that holds the snapshots and logs. It is created if it does not exist.
+     * @param namesToNumbersHash The {@link CollisionResolver} of the hash table with names as keys.
+     * @param numbersToNamesHash The {@link CollisionResolver} of the hash table with numbers as keys.
+     * @return The recovered {@link DurablePhonebook}.
+     * @throws IOException if the files cannot be read or created, or the newest snapshot is corrupted.
+     * @see #open(Path, CollisionResolver, CollisionResolver, int)
+     */
+    public static DurablePhonebook open(Path directory, CollisionResolver namesToNumbersHash,
+                                        CollisionResolver numbersToNamesHash) throws IOException {
+        return open(directory, namesToNumbersHash, numbersToNamesHash, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Opens the {@link DurablePhonebook} stored in directory, or creates an empty one if there is none. Every update which
+     * returned before a crash, or before the last {@link #close()}, is recovered.
+     *
+     * @param directory The directory that holds the snapshots and logs. It is created if it does not exist.
+     * @param namesToNumbersHash The {@link CollisionResolver} of the hash table with names as keys.
+     * @param numbersToNamesHash The {@link CollisionResolver} of the hash table with numbers as keys.
+     * @param snapshotInterval The number of updates after which a new snapshot is written.
+     * @return The recovered {@link DurablePhonebook}.
+     * @throws IllegalArgumentException if snapshotInterval is not positive.
+     * @throws IOException if the files cannot be read or created, or the newest snapshot is corrupted.
+     */
+    public static DurablePhonebook open(Path directory, CollisionResolver namesToNumbersHash,
+                                        CollisionResolver numbersToNamesHash, int snapshotInterval) throws IOException {
+        if (snapshotInterval <= 0)
+            throw new IllegalArgumentException("Snapshot interval must be positive, but was " + snapshotInterval + ".");
+        Files.createDirectories(directory);
+        DurablePhonebook phonebook = new DurablePhonebook(directory, namesToNumbersHash, numbersToNamesHash, snapshotInterval);
+        try {
+            phonebook.recover();
+        } catch (IOException | RuntimeException e) {
+            phonebook.closeTables();
+            throw e;
+        }
+        return phonebook;
+    }
+
+    private void recover() throws IOException {
+        generation = 0; // Generation 0 has no snapshot: it starts out empty.
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "snapshot-*")) {
+            for (Path file : files) {
+                Matcher matcher = GENERATION_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches())
+                    generation = Math.max(generation, Long.parseLong(matcher.group(2)));
+            }
+        }
+        if (generation > 0)
+            SnapshotFile.read(snapshotFile(directory, generation), namesToNumbers, numbersToNames);
+        log = new WriteAheadLog(logFile(directory, generation), this::replay);
+        deleteOlderGenerations();
+    }
+
+    private void replay(WriteAheadLog.Operation operation, String name, String number) {
+        if (operation == WriteAheadLog.Operation.ADD)
+            super.addEntry(name, number);
+        else
+            super.deleteEntry(name, number);
+        updatesSinceSnapshot++;
+    }
+
+    // Deletes the snapshots and logs of earlier generations, and snapshots which a crash left half-written.
+    private void deleteOlderGenerations() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Matcher matcher = GENERATION_FILE.matcher(name);
+                if ((matcher.matches() && Long.parseLong(matcher.group(2)) < generation) ||
+                        (name.startsWith("snapshot-") && name.endsWith(".tmp")))
+                    Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // Must hold the monitor. Starts generation + 1 from a snapshot of the current entries.
+    private void checkpointLocked() throws IOException {
+        log.close(); // Every record of the current generation is now durable, so a crash cannot lose any of them.
+        retiredSyncs += log.syncCount();
+        SnapshotFile.write(snapshotFile(directory, generation + 1), namesToNumbers, numbersToNames);
+        generation++;
+        log = new WriteAheadLog(logFile(directory, generation), (operation, name, number) -> {
+            throw new IllegalStateException("A new log should be empty.");
+        });
+        updatesSinceSnapshot = 0;
+        deleteOlderGenerations();
+    }
+
+    // Records an update made under the monitor, and returns the LSN which must be synced outside of it.
+    private long record(WriteAheadLog.Operation operation, String name, String number) {
+        long lsn = log.append(operation, name, number);
+        if (++updatesSinceSnapshot >= snapshotInterval) {
+            try {
+                checkpointLocked();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return lsn;
+    }
+
+    private static void sync(WriteAheadLog log, long lsn) {
+        try {
+            log.sync(lsn);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the current entries and starts a new, empty log, as is done every few updates.
+     * @throws IOException if the snapshot or the new log cannot be written.
+     */
+    public synchronized void checkpoint() throws IOException {
+        checkpointLocked();
+    }
+
+    /**
+     * Returns the number of times the logs of this {@link DurablePhonebook} have been forced to disk since it was opened.
+     * Threads which update it at the same time share their syncs, so with many writers this is expected to be much
+     * smaller than the number of updates.
+     * @return The number of batches written to the logs so far.
+     * @see WriteAheadLog#syncCount()
+     */
+    public synchronized long syncCount() {
+        return retiredSyncs + log.syncCount();
+    }
+
+    /** {@inheritDoc} The entry is durable by the time this method returns.
+     * @throws UncheckedIOException if the entry cannot be written to the log.
+     */
+    @Override
+    public void addEntry(String name, String number) {
+        WriteAheadLog current;
+        long lsn;
+        synchronized (this) {
+            super.addEntry(name, number);
+            current = log;
+            lsn = record(WriteAheadLog.Operation.ADD, name, number);
+        }
+        sync(current, lsn); // Outside of the monitor, so that other threads can join our batch.
+    }
+
+    /** {@inheritDoc} The entries are durable by the time this method returns.
+     * @throws UncheckedIOException if the entries cannot be written to the log.
+     */
+    @Override
+    public void addAll(Iterable<KVPair> entries) {
+        WriteAheadLog current = null;
+        long lsn = 0;
+        synchronized (this) {
+            List<KVPair> added = new ArrayList<>();
+            if (entries != null)
+                entries.forEach(added::add); // So that entries is only iterated once.
+            super.addAll(entries == null ? null : added);
+            for (KVPair entry : added) {
+                current = log; // A checkpoint may start a new log halfway through; the old one is durable by then.
+                lsn = record(WriteAheadLog.Operation.ADD, entry.getKey(), entry.getValue());
+            }
+        }
+        if (current != null)
+            sync(current, lsn);
+    }
+
+    /** {@inheritDoc} The deletion is durable by the time this method returns.
+     * @throws UncheckedIOException if the deletion cannot be written to the log.
+     */
+    @Override
+    public void deleteEntry(String name, String number) {
+        WriteAheadLog current;
+        long lsn;
+        synchronized (this) {
+            super.deleteEntry(name, number);
+            current = log;
+            lsn = record(WriteAheadLog.Operation.DELETE, name, number);
+        }
+        sync(current, lsn);
+    }
+
+    @Override
+    public synchronized String getNumberOf(String name) {
+        return super.getNumberOf(name);
+    }
+
+    @Override
+    public synchronized String getOwnerOf(String number) {
+        return super.getOwnerOf(number);
+    }
+
+    @Override
+    public synchronized String[] getNumbersOf(String[] names) {
+        return super.getNumbersOf(names);
+    }
+
+    @Override
+    public synchronized String[] getOwnersOf(String[] numbers) {
+        return super.getOwnersOf(numbers);
+    }
+
+    @Override
+    public synchronized Phonebook snapshot() {
+        return super.snapshot();
+    }
+
+    @Override
+    public synchronized Phonebook freeze() {
+        return super.freeze();
+    }
+
+    @Override
+    public synchronized int size() {
+        return super.size();
+    }
+
+    private void closeTables() throws IOException {
+        super.close();
+    }
+
+    /**
+     * Makes every update durable, and closes the log along with the hash tables. The {@link DurablePhonebook} cannot be
+     * used afterwards.
+     * @throws IOException if the log cannot be written or closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            log.close();
+        } finally {
+            closeTables();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package phonebook.persistence;
+
+import phonebook.hashes.HashTable;
+import phonebook.utils.KVPair;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * <p>{@link SnapshotFile} reads and writes compact snapshots of the two hash tables of a phonebook: the pairs of the
+ * first table, then those of the second one, each one as the lengths and UTF-8 encodings of its key and value, and finally
+ * the CRC-32 checksum of everything before it. A snapshot is first written to a temporary file, which is forced to disk
+ * and then renamed over the target, so a snapshot is either entirely there or not there at all.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see DurablePhonebook
+ */
+final class SnapshotFile {
+
+    private static final int MAGIC = 0x50485331; // "PHS1"
+    private static final int END_OF_TABLE = -1;
+
+    private SnapshotFile() {
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeTable(DataOutputStream out, HashTable table) throws IOException {
+        for (KVPair pair : table) {
+            writeString(out, pair.getKey());
+            writeString(out, pair.getValue());
+        }
+        out.writeInt(END_OF_TABLE);
+    }
+
+    // Returns the next key or value of the current table, or null once the table is over.
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == END_OF_TABLE)
+            return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void readTable(DataInputStream in, HashTable table) throws IOException {
+        for (String key = readString(in); key != null; key = readString(in))
+            table.put(key, readString(in));
+    }
+
+    /**
+     * Atomically replaces target with a snapshot of the two tables.
+     * @param target The file of the snapshot.
+     * @param namesToNumbers The table from names to numbers.
+     * @param numbersToNames The table from numbers to names.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    static void write(Path target, HashTable namesToNumbers, HashTable numbersToNames) throws IOException {
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(file), crc));
+            out.writeInt(MAGIC);
+            writeTable(out, namesToNumbers);
+            writeTable(out, numbersToNames);
+            out.writeLong(crc.getValue());
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        try (FileChannel directory = FileChannel.open(target.getParent(), StandardOpenOption.READ)) {
+            directory.force(true); // Makes the rename itself durable.
+        } catch (IOException ignored) {
+            // Not every platform lets us open a directory; the rename still happened.
+        }
+    }
+
+    /**
+     * Loads the snapshot in source into the two tables.
+     * @param source The file of the snapshot.
+     * @param namesToNumbers The table from names to numbers.
+     * @param numbersToNames The table from numbers to names.
+     * @throws IOException if the snapshot cannot be read, or it is corrupted.
+     */
+    static void read(Path source, HashTable namesToNumbers, HashTable numbersToNames) throws IOException {
+        try (BufferedInputStream file = new BufferedInputStream(Files.newInputStream(source))) {
+            CRC32 crc = new CRC32();
+            DataInputStream in = new DataInputStream(new CheckedInputStream(file, crc));
+            if (in.readInt() != MAGIC)
+                throw new IOException(source + " is not a phonebook snapshot.");
+            readTable(in, namesToNumbers);
+            readTable(in, numbersToNames);
+            long expected = crc.getValue();
+            if (in.readLong() != expected)
+                throw new IOException(source + " is corrupted.");
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package phonebook.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * <p>{@link WriteAheadLog} is an append-only binary log of the additions and deletions made to a phonebook. Every record
+ * is written as its length, the CRC-32 checksum of its contents, and then its contents: the {@link Operation}, the name
+ * and the number, the latter two UTF-8 encoded. A record is identified by its <em>log sequence number</em> (LSN), the
+ * offset of the end of the record in the file.</p>
+ *
+ * <p>Appending a record only copies it to memory. A record is <b>durable</b> once {@link #sync(long)} has returned for its
+ * LSN, or a later one. {@link #sync(long)} uses <b>group commit</b>: the first thread that needs its records on disk
+ * becomes the <em>leader</em>, writes <b>every</b> pending record, whichever thread appended it, and calls
+ * {@link FileChannel#force(boolean)} once for all of them. Threads that call {@link #sync(long)} in the meantime wait
+ * for the leader, and the first of them whose records are still pending leads the next batch. The more threads are
+ * writing, the more records share each {@code fsync}.</p>
+ *
+ * <p>Opening a log replays its records, and drops a torn record at its end, left behind by a crash in the middle of a
+ * write, by checking the lengths and checksums.</p>
+ *
+ * @author Jemimah E.P. Salvacion
+ *
+ * @see DurablePhonebook
+ */
+public class WriteAheadLog implements Closeable {
+
+    /**
+     * The kinds of records in the log.
+     */
+    public enum Operation {
+        ADD,
+        DELETE
+    }
+
+    /**
+     * Receives the records of the log, in order, when it is opened.
+     */
+    public interface Replayer {
+
+        /**
+         * Applies a record of the log.
+         * @param operation Whether the entry was added or deleted.
+         * @param name The name of the entry.
+         * @param number The number of the entry.
+         */
+        void replay(Operation operation, String name, String number);
+    }
+
+    private static final int RECORD_HEADER_BYTES = 8;  // The length and the checksum of the contents.
+    private static final int MIN_CONTENT_BYTES = 9;    // The operation, and the lengths of the name and the number.
+
+    private final FileChannel channel;
+    private final ReentrantLock lock;
+    private final Condition flushed;
+    private ByteArrayOutputStream pending;  // Appended records which the next leader will write.
+    private long appended;                  // The LSN of the last appended record.
+    private long durable;                   // Every record up to this LSN is on disk.
+    private boolean flushing;               // Whether a leader is writing a batch.
+    private boolean closed;
+    private IOException failure;            // Once a write has failed, the log cannot be trusted with any more records.
+    private long syncs;
+
+    private static byte[] encode(Operation operation, String name, String number) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8), numberBytes = number.getBytes(StandardCharsets.UTF_8);
+        int contentLength = MIN_CONTENT_BYTES + nameBytes.length + numberBytes.length;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + contentLength);
+        record.putInt(contentLength).putInt(0);
+        record.put((byte) operation.ordinal());
+        record.putInt(nameBytes.length).put(nameBytes);
+        record.putInt(numberBytes.length).put(numberBytes);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), RECORD_HEADER_BYTES, contentLength);
+        record.putInt(4, (int) crc.getValue());
+        return record.array();
+    }
+
+    // Replays every intact record of the log, and returns the offset where the intact records end.
+    private static long replay(FileChannel channel, Replayer replayer) throws IOException {
+        long size = channel.size();
+        // Not closed on purpose: closing the stream would close the channel as well.
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+        long offset = 0;
+        while (true) {
+            byte[] content;
+            int checksum;
+            try {
+                int contentLength = in.readInt();
+                checksum = in.readInt();
+                if (contentLength < MIN_CONTENT_BYTES || contentLength > size - offset - RECORD_HEADER_BYTES)
+                    return offset;
+                content = new byte[contentLength];
+                in.readFully(content);
+            } catch (EOFException tornRecord) {
+                return offset;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            if ((int) crc.getValue() != checksum)
+                return offset;
+            ByteBuffer record = ByteBuffer.wrap(content);
+            Operation operation = Operation.values()[record.get()];
+            byte[] name = new byte[record.getInt()];
+            record.get(name);
+            byte[] number = new byte[record.getInt()];
+            record.get(number);
+            replayer.replay(operation, new String(name, StandardCharsets.UTF_8), new String(number, StandardCharsets.UTF_8));
+            offset += RECORD_HEADER_BYTES + content.length;
+        }
+    }
+
+    /**
+     * Opens the log stored in file, or creates an empty one. The records already in the log are handed to replayer, in
+     * order, and an incomplete or corrupted record at the end of the log is discarded, along with anything after it.
+     *
+     * @param file The file that holds the log.
+     * @param replayer The {@link Replayer} which receives the records already in the log.
+     * @throws IOException if the file cannot be opened, read or truncated.
+     */
+    public WriteAheadLog(Path file, Replayer replayer) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long end = replay(channel, replayer);
+            channel.truncate(end);
+            channel.position(end);
+            appended = durable = end;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        lock = new ReentrantLock();
+        flushed = lock.newCondition();
+        pending = new ByteArrayOutputStream();
+    }
+
+    /**
+     * Appends a record to the log, in memory. The record is not durable until {@link #sync(long)} has returned for the
+     * LSN this method returns.
+     *
+     * @param operation Whether the entry was added or deleted.
+     * @param name The name of the entry.
+     * @param number The number of the entry.
+     * @return The LSN of the record.
+     * @throws IllegalStateException if the log has been closed.
+     */
+    public long append(Operation operation, String name, String number) {
+        byte[] record = encode(operation, name, number);
+        lock.lock();
+        try {
+            if (closed)
+                throw new IllegalStateException("This WriteAheadLog has been closed.");
+            pending.write(record, 0, record.length);
+            appended += record.length;
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until every record up to lsn is on disk, writing them, along with every other pending record, if no other
+     * thread is already doing so.
+     *
+     * @param lsn The LSN returned by {@link #append(Operation, String, String)} for the last record that must be durable.
+     * @throws IOException if writing the log fails, now or in an earlier call. The log is unusable afterwards.
+     */
+    public void sync(long lsn) throws IOException {
+        lock.lock();
+        try {
+            while (durable < lsn) {
+                if (failure != null)
+                    throw new IOException("An earlier write to the log failed.", failure);
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                // We lead the next batch: everything appended so far.
+                flushing = true;
+                byte[] batch = pending.toByteArray();
+                long batchEnd = appended;
+                pending = new ByteArrayOutputStream();
+                IOException error = null;
+                lock.unlock();
+                try {
+                    ByteBuffer buffer = ByteBuffer.wrap(batch);
+                    while (buffer.hasRemaining())
+                        channel.write(buffer);
+                    channel.force(false);
+                } catch (IOException e) {
+                    error = e;
+                } finally {
+                    lock.lock();
+                }
+                flushing = false;
+                if (error != null)
+                    failure = error;
+                else
+                    durable = batchEnd;
+                syncs++;
+                flushed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of times the log has been forced to disk. With many threads writing, this is expected to be
+     * much smaller than the number of records.
+     * @return The number of batches written so far.
+     */
+    public long syncCount() {
+        lock.lock();
+        try {
+            return syncs;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes every record appended so far durable, and closes the log. Threads waiting in {@link #sync(long)} return
+     * normally. Closing a closed log has no effect.
+     * @throws IOException if the pending records cannot be written, or the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        while (true) {
+            long last;
+            lock.lock();
+            try {
+                if (closed)
+                    return;
+                last = appended;
+                if (durable >= last && !flushing) {
+                    closed = true;
+                    channel.close();
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            sync(last);
+        }
+    }
+}
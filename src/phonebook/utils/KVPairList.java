@@ -1,6 +1,7 @@
 package phonebook.utils;
 
 import java.util.Iterator;
+import java.util.function.ToIntFunction;
 
 /**
  * <p>{@link KVPairList} is a simple linked list storing pairs of {@link String}s. It offers <b>constant-time</b>
@@ -18,7 +19,7 @@ import java.util.Iterator;
  */
 public class KVPairList implements Iterable<KVPair>{
 
-    private class Node {
+    private static class Node {
         KVPair pair;
         Node next;
 
@@ -72,6 +73,33 @@ public class KVPairList implements Iterable<KVPair>{
     }
 
 
+    /**
+     * Moves every pair of this list to the back of the list chains[chainOf(key)], creating that list if it is
+     * {@code null}, and leaves this list empty. The nodes of this list are relinked into their new lists, so no pair or
+     * node is allocated, and the pairs keep their relative order. Linear-time operation.
+     * @param chains The lists to move the pairs to.
+     * @param chainOf Maps the key of every pair to the index of its new list in chains.
+     */
+    public void moveTo(KVPairList[] chains, ToIntFunction<String> chainOf){
+        Node current = head;
+        head = tail = null;
+        count = 0;
+        while(current != null){
+            Node next = current.next;
+            current.next = null;
+            int index = chainOf.applyAsInt(current.pair.getKey());
+            if(chains[index] == null)
+                chains[index] = new KVPairList();
+            KVPairList chain = chains[index];
+            if(chain.tail == null)
+                chain.head = chain.tail = current;
+            else
+                chain.tail = chain.tail.next = current;
+            chain.count++;
+            current = next;
+        }
+    }
+
     /**
      * Updates the value of the pair &lt; key, value &gt; based on the provided key. If key does not exist
      * in this, this method has <b>no effect</b>.
@@ -280,6 +308,41 @@ public class KVPairList implements Iterable<KVPair>{
         return new Probes(null, probeCount);
     }
 
+    /**
+     * Searches the list chains[k] for keys[k], for every k at once, and stores the value it finds in values[k]. The lists
+     * are walked together, one node per round, so that the cache misses of the different searches overlap instead of being
+     * paid for one after the other.
+     * @param chains The list to search for every key, or {@code null} if there is none.
+     * @param keys The keys to search for, {@code null} for the ones to skip.
+     * @param values Where the values are stored, or {@code null} for the keys which were not found or skipped.
+     */
+    public static void getValues(KVPairList[] chains, String[] keys, String[] values){
+        Node[] current = new Node[keys.length];
+        int[] pending = new int[keys.length];
+        int live = 0;
+        for(int k = 0; k < keys.length; k++){
+            values[k] = null;
+            if(keys[k] != null && chains[k] != null && chains[k].head != null){
+                current[k] = chains[k].head;
+                pending[live++] = k;
+            }
+        }
+        while(live > 0){
+            int stillLive = 0;
+            for(int p = 0; p < live; p++){
+                int k = pending[p];
+                Node node = current[k];
+                if(node.pair.getKey().equals(keys[k]))
+                    values[k] = node.pair.getValue();
+                else if(node.next != null){
+                    current[k] = node.next;
+                    pending[stillLive++] = k;
+                }
+            }
+            live = stillLive;
+        }
+    }
+
     /**
      * Simple getter for keys based on values.
      * @param value the value {@link String} to search for.
@@ -180,4 +180,28 @@ public class KVPairListTests {
         assertFalse("A KVPairList with two duplicate nodes and one successful deletion should NOT report that it's empty.", list.isEmpty());
         assertEquals("A KVPairList with two duplicate nodes and one successful deletion should report a size of 1.", 1 , list.size());
     }
+
+    @Test
+    public void testMoveTo(){
+        list.addBack("Joseph", "890-567-9002");
+        list.addBack("Adam", "707-890-3568");
+        list.addBack("Rayeesha", "403-111-2000");
+        KVPairList[] chains = new KVPairList[2];
+        chains[1] = new KVPairList("Karthik", "303-678-900");
+        try {
+            // Keys shorter than 6 characters go to the back of the second list, and the others to the first one.
+            list.moveTo(chains, key -> key.length() < 6 ? 1 : 0);
+        } catch(Throwable t){
+            fail(format(t));
+        }
+        assertTrue("A KVPairList whose pairs were moved away SHOULD report that it's empty.", list.isEmpty());
+        assertEquals("The first list should have received Joseph and Rayeesha.", 2, chains[0].size());
+        assertEquals("The second list should have received Adam behind Karthik.", 2, chains[1].size());
+        assertTrue("After moving it, we should be able to find a key in its new KVPairList.", chains[0].containsKVPair("Rayeesha", "403-111-2000"));
+        assertEquals("Moving pairs should keep their order.", "Joseph Rayeesha \n", chains[0].toString());
+        assertEquals("Moving pairs should keep their order.", "Karthik Adam \n", chains[1].toString());
+        chains[0].addBack("Marie", "789-429-1095");
+        assertEquals("A KVPairList should keep growing at its back after receiving pairs.", 3, chains[0].size());
+        assertTrue(chains[0].containsKey("Marie"));
+    }
 }
@@ -2,6 +2,10 @@ package phonebook.utils;
 
 import phonebook.hashes.HashTable;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * <p>{@link PrimeGenerator} is a simple <b>immutable</b> class which stores and retrieves <b>prime numbers</b>. Since
  * we use this class from within the context of {@link HashTable} instances, we implement
@@ -10,6 +14,11 @@ import phonebook.hashes.HashTable;
  * smaller than two times the current prime. This does <b>not</b> simply mean that the current index into our collection of primes
  * should be doubled, since primes are not uniformly distributed on the line of positive integers! </p>
  *
+ * <p>Primes up to 7907 come from a stored list, which is binary searched. Larger primes, up to
+ * {@link Integer#MAX_VALUE}, are found on demand by testing the odd numbers next to the target with a deterministic
+ * Miller-Rabin test, and the results of {@link #getNextPrime()} and {@link #getPreviousPrime()} are cached and shared by
+ * every instance, so tables that grow and shrink through the same primes only search for them once.</p>
+ *
  * <p><b>**** DO NOT EDIT THIS CLASS! ****** </b></p>
  *
  * @see HashTable
@@ -126,8 +135,82 @@ public class PrimeGenerator {
             7841, 7853, 7867, 7873, 7877, 7879, 7883, 7901, 7907
     };
 
+    private static final int LARGEST_STORED = PRIME_LIST[PRIME_LIST.length - 1];
+
+    // Witnesses which make Miller-Rabin deterministic for every n < 4,759,123,141, so for every int.
+    private static final int[] WITNESSES = {2, 7, 61};
+
+    // getNextPrime() and getPreviousPrime() beyond PRIME_LIST, keyed by the prime they were called at.
+    private static final Map<Integer, Integer> NEXT_PRIMES = new ConcurrentHashMap<>();
+    private static final Map<Integer, Integer> PREVIOUS_PRIMES = new ConcurrentHashMap<>();
+
     private static final int FIRST_INDEX = 3; // Selecting 7 as the first prime to return
-    private  int currIdx = FIRST_INDEX;
+    private int currPrime = PRIME_LIST[FIRST_INDEX];
+
+    // base^exponent mod modulus. Every operand is under 2^31, so no product overflows a long.
+    private static long powMod(long base, long exponent, long modulus) {
+        long result = 1;
+        base %= modulus;
+        while (exponent > 0) {
+            if ((exponent & 1) == 1)
+                result = result * base % modulus;
+            base = base * base % modulus;
+            exponent >>= 1;
+        }
+        return result;
+    }
+
+    private static boolean isPrime(int n) {
+        if (n <= LARGEST_STORED)
+            return Arrays.binarySearch(PRIME_LIST, n) >= 0;
+        if ((n & 1) == 0)
+            return false;
+        // n - 1 = d * 2^r, with d odd.
+        int r = Integer.numberOfTrailingZeros(n - 1);
+        long d = (n - 1) >>> r;
+        for (int a : WITNESSES) {
+            long x = powMod(a, d, n);
+            if (x == 1 || x == n - 1)
+                continue;
+            boolean composite = true;
+            for (int i = 1; i < r && composite; i++) {
+                x = x * x % n;
+                if (x == n - 1)
+                    composite = false;
+            }
+            if (composite)
+                return false;
+        }
+        return true;
+    }
+
+    // The largest prime smaller than bound, or 0 if there is none.
+    private static int largestPrimeBelow(long bound) {
+        if (bound <= LARGEST_STORED + 1) {
+            int i = Arrays.binarySearch(PRIME_LIST, (int) bound);
+            if (i < 0)
+                i = -(i + 1); // The insertion point, i.e the index of the first prime greater than bound.
+            return i == 0 ? 0 : PRIME_LIST[i - 1];
+        }
+        long candidate = Math.min(bound - 1, Integer.MAX_VALUE);
+        if ((candidate & 1) == 0)
+            candidate--;
+        while (!isPrime((int) candidate)) // Stops at the latest at LARGEST_STORED, which is prime.
+            candidate -= 2;
+        return (int) candidate;
+    }
+
+    // The smallest prime greater than or equal to bound. Integer.MAX_VALUE is prime, so there always is one.
+    private static int smallestPrimeAtLeast(int bound) {
+        if (bound <= LARGEST_STORED) {
+            int i = Arrays.binarySearch(PRIME_LIST, bound);
+            return PRIME_LIST[i < 0 ? -(i + 1) : i];
+        }
+        int candidate = bound | 1;
+        while (!isPrime(candidate))
+            candidate += 2;
+        return candidate;
+    }
 
     /**
      * Retrieves the prime number pointed to by internal storage. Without any calls to {@link #getNextPrime()} or {@link
@@ -136,32 +219,30 @@ public class PrimeGenerator {
      */
     public int getCurrPrime(){
 
-        assert (0 <= currIdx) && (currIdx < PRIME_LIST.length) :  "getCurrPrime(): Inconsistent internal index.";
+        assert isPrime(currPrime) :  "getCurrPrime(): Inconsistent internal prime " + currPrime + ".";
 
-        return PRIME_LIST[currIdx];
+        return currPrime;
     }
 
     /**
      * Returns the greatest prime <b>smaller than twice the current prime</b>. This is an approach that allows instances of
      * {@link HashTable} to find new hash table sizes which provide a good trade-off between memory footprint and making
-     * future insertions happen without resizing the table.
+     * future insertions happen without resizing the table. Once twice the current prime exceeds {@link Integer#MAX_VALUE},
+     * the greatest prime that fits in an {@code int} is returned instead.
      * @return The first prime number greater than twice the current prime number.
-     * @throws NoMorePrimesException If there is no such prime number to return from our list.
+     * @throws NoMorePrimesException If the current prime is already the greatest prime that fits in an {@code int}.
      */
     public int getNextPrime() throws NoMorePrimesException {
 
-        assert (0 <= currIdx) && (currIdx < PRIME_LIST.length) :  "getNextPrime(): Inconsistent internal index.";
-
-        int currPrime = PRIME_LIST[currIdx];
-        for (int i = currIdx; i < PRIME_LIST.length; i++) {
-            if (PRIME_LIST[i] > 2 * currPrime) { // >= Doesn't make sense for primes, does it?
-                currIdx = i-1;
-                return PRIME_LIST[currIdx];
-            }
-        }
+        assert isPrime(currPrime) :  "getNextPrime(): Inconsistent internal prime " + currPrime + ".";
 
-        throw new NoMorePrimesException("getNextPrime(): Search for a prime greater than twice " +
-                currPrime + " exceeded storage of primes.");
+        if (currPrime == Integer.MAX_VALUE) // Which is prime.
+            throw new NoMorePrimesException("getNextPrime(): Search for a prime greater than twice " +
+                    currPrime + " exceeded the range of int.");
+        long bound = 2L * currPrime;
+        currPrime = bound <= LARGEST_STORED + 1 ? largestPrimeBelow(bound)
+                : NEXT_PRIMES.computeIfAbsent(currPrime, p -> largestPrimeBelow(bound));
+        return currPrime;
     }
 
 
@@ -174,9 +255,9 @@ public class PrimeGenerator {
      */
     public int getPreviousPrime() throws NoMorePrimesException {
 
-        assert (0 <= currIdx) && (currIdx < PRIME_LIST.length) :  "getPreviousPrime(): Inconsistent internal index.";
+        assert isPrime(currPrime) :  "getPreviousPrime(): Inconsistent internal prime " + currPrime + ".";
 
-        if(currIdx == 0){
+        if(currPrime == 2){
 
             // You might be perplexed as to why we assert an invariant in a scope where we only throw an exception.
             // We do this because if the invariant is violated, an AssertionError will be thrown, and this gives us information
@@ -193,23 +274,33 @@ public class PrimeGenerator {
 
             throw new NoMorePrimesException("getPreviousPrime(): 2 is the least prime number.");
         }
-        int currPrime = PRIME_LIST[currIdx];
-        for (int i = currIdx; i >= 0; i--) {
-            if (PRIME_LIST[i] < ((float)currPrime / 2)) { // "Less than or equal" (<=) doesn't make sense for primes, does it?
-                currIdx = i+1;
-                return PRIME_LIST[currIdx];
-            }
-        }
-        currIdx = 0; // Minimum prime selected will always be 2.
-        return 2;
+        // currPrime is odd, so the primes larger than half of it are those at least currPrime / 2 + 1.
+        int bound = currPrime / 2 + 1;
+        currPrime = bound <= LARGEST_STORED ? smallestPrimeAtLeast(bound)
+                : PREVIOUS_PRIMES.computeIfAbsent(currPrime, p -> smallestPrimeAtLeast(bound));
+        return currPrime;
     }
 
 
+    /**
+     * Moves straight to the <b>smallest</b> prime which is greater than or equal to target, without going through the
+     * doublings of {@link #getNextPrime()}. This allows instances of {@link HashTable} which know how many records they
+     * are about to hold to allocate their storage once. Later calls to {@link #getNextPrime()} and {@link #getPreviousPrime()}
+     * continue from the returned prime.
+     * @param target The least value the returned prime may have.
+     * @return The smallest prime which is greater than or equal to target. Since {@link Integer#MAX_VALUE} is prime,
+     * there always is one.
+     */
+    public int jumpToPrimeAtLeast(int target) {
+        currPrime = smallestPrimeAtLeast(target);
+        return currPrime;
+    }
+
     /**
      * Resets the {@link PrimeGenerator} instance, making the next call to {@link #getCurrPrime()} return 13.
      */
     public  void reset() {
-        currIdx = FIRST_INDEX;
+        currPrime = PRIME_LIST[FIRST_INDEX];
     }
 
 }
@@ -127,27 +127,69 @@ public class PrimeGeneratorTests {
         }
         assertNotNull("A call to getPreviousPrime() when getCurrentPrime() returns 2 should have thrown a NoMorePrimesException", rexc);
 
-        // The biggest prime number we store is 7907. We start making calls to getNextPrime() which will *more than double*
-        // the current prime number every time. 2^12 = 4096 and 2^13 = 8192. Without even looking at my list of primes
-        // I know that in at most 12 calls to getNextPrime() (the first one gives me 13) I am reaching a number that is definitely
-        // beyond my list of current primes.
+        // Primes beyond the ones we store are generated on demand, up to the largest prime that fits in an int, which is
+        // 2^31 - 1 itself. Since getNextPrime() nearly doubles the current prime every time, 7 * 2^29 > 2^31 tells us that
+        // we reach it in at most 29 calls, and that the next call has to throw.
         rexc = null;
         int iterThrown = 0;
-        for(int i = 0; i < 15; i++){
-            // Embedding the try block inside the for loop makes the loop very slow, but allows for the index 'i' to be
-            // visible to the scope of the catch-blocks. This in turn allows us to throw an AssertionError with information
-            // about exactly *which* iteration failed.
-
+        for(int i = 0; i < 35; i++){
             try {
                 pg.getNextPrime();
             } catch(NoMorePrimesException nmpe){
                 rexc = nmpe;
                 iterThrown = i;
+                break;
             } catch(Throwable t){
                 fail("Call to getNextPrime() #" + (i + 1) + ": " + format(t) );
             }
         }
         assertNotNull("Was expecting a NoMorePrimesException after " + (iterThrown + 1) + " calls to getNextPrime()", rexc);
+        assertEquals("Expected getNextPrime() to have stopped at the largest prime that fits in an int.",
+                Integer.MAX_VALUE, pg.getCurrPrime());
+    }
+
+    /**
+     * Tests the primes that {@link PrimeGenerator} generates beyond the ones it stores, against a sieve.
+     */
+    @Test
+    public void testGeneratedPrimes(){
+        int limit = 200_000;
+        boolean[] composite = new boolean[limit + 1];
+        for(int i = 2; (long) i * i <= limit; i++)
+            if(!composite[i])
+                for(int j = i * i; j <= limit; j += i)
+                    composite[j] = true;
+        int expected = limit;
+        for(int target = limit; target >= 7908; target--){
+            if(!composite[target])
+                expected = target;
+            if(target < 199_000) // Beyond that, the sieve does not know the next prime.
+                assertEquals("Expected the least prime at least " + target + ".", expected, pg.jumpToPrimeAtLeast(target));
+        }
+
+        pg.reset();
+        int[] doublings = {13, 23, 43, 83, 163, 317, 631, 1259, 2503, 4999, 9973, 19937, 39869, 79699, 159389};
+        for(int prime : doublings)
+            assertEquals("Expected the largest prime smaller than twice the previous one.", prime, pg.getNextPrime());
+        assertEquals("Expected the smallest prime larger than half of 159389.", 79697, pg.getPreviousPrime());
+        assertEquals("Expected 2147483629 as the least prime at least 2147483590.", 2147483629, pg.jumpToPrimeAtLeast(2147483590));
+        assertEquals("Expected the largest prime that fits in an int when twice the current prime does not.",
+                Integer.MAX_VALUE, pg.getNextPrime());
+        assertEquals("Expected the smallest prime larger than half of 2^31 - 1.", 1073741827, pg.getPreviousPrime());
+    }
+
+    /**
+     * Tests the behavior of {@link PrimeGenerator#jumpToPrimeAtLeast(int)}.
+     */
+    @Test
+    public void testJumpToPrimeAtLeast(){
+        assertEquals("Expected 1009 as the least prime at least 1000.", 1009, pg.jumpToPrimeAtLeast(1000));
+        assertEquals("Expected 1009 to be returned by getCurrPrime() after a jump to it.", 1009, pg.getCurrPrime());
+        assertEquals("Expected a jump to a prime to stay at that prime.", 1009, pg.jumpToPrimeAtLeast(1009));
+        assertEquals("Expected getNextPrime() to continue from the prime we jumped to.", 2017, pg.getNextPrime());
+        assertEquals("Expected 2 as the least prime at least 0.", 2, pg.jumpToPrimeAtLeast(0));
+        assertEquals("Expected a jump beyond the largest prime we store to generate 7919.", 7919, pg.jumpToPrimeAtLeast(7908));
+        assertEquals("Expected getNextPrime() to continue from a generated prime.", 15823, pg.getNextPrime());
     }
 
     /**